@@ -0,0 +1,196 @@
+import java.net.URLEncoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One IT agent with the ticket table and the dashboard open, as the pages do it:
+ * - sign-in, then table-manager.js startup: /api/users/current, /api/users, /api/tickets
+ * - table-manager.js auto refresh: GET /api/tickets every table-poll-ms (5 s)
+ * - dashboard.js refresh: summary (twice: stats and recent tickets) and hotspots
+ *   every dashboard-poll-ms (30 s)
+ * - now and then (on average every agent-action-ms) one of the table's actions:
+ *   edit a ticket, search, a bulk status/priority/assign change (one PUT per
+ *   selected ticket, all at once, like bulkChangeStatus) or the CSV export
+ */
+final class Agent {
+
+    private static final String[] SEARCHES = {"OPEN", "IN_PROGRESS", "employee", "loadtest", "1", "RESOLVED"};
+    private static final String[] PRIORITIES = {"LOW", "MEDIUM", "HIGH", "URGENT"};
+
+    private final LoadTest.Options options;
+    private final Client client;
+    private final Schedules schedules;
+    private final String email;
+    private final String name;
+    private final Random random;
+    private final Client.Session session = new Client.Session();
+
+    // From the last table refresh, as allTickets in table-manager.js
+    private volatile List<Map<String, Object>> tickets = List.of();
+
+    Agent(LoadTest.Options options, Client client, Schedules schedules, String email, String name, long seed) {
+        this.options = options;
+        this.client = client;
+        this.schedules = schedules;
+        this.email = email;
+        this.name = name;
+        this.random = new Random(seed);
+    }
+
+    CompletableFuture<Boolean> signIn() {
+        long due = System.nanoTime();
+        return client.signIn("agent.sign-in", due, session, email, LoadTest.PASSWORD).thenCompose(signedIn -> {
+            if (!signedIn) {
+                return CompletableFuture.completedFuture(false);
+            }
+            long now = System.nanoTime();
+            return CompletableFuture.allOf(
+                    client.get("agent.current-user", now, session, "/api/users/current"),
+                    client.get("agent.users", now, session, "/api/users"),
+                    pollTickets(now)).thenApply(ignored -> true);
+        });
+    }
+
+    void start() {
+        // Pages were opened at different times
+        schedules.fixedRate(randomDelay(options.tablePollMs), options.tablePollMs, this::pollTickets);
+        schedules.fixedRate(randomDelay(options.dashboardPollMs), options.dashboardPollMs, this::pollDashboard);
+        schedules.poisson(1000.0 / options.agentActionMs, random, this::act);
+    }
+
+    private CompletableFuture<?> pollTickets(long due) {
+        return client.get("agent.poll-tickets", due, session, "/api/tickets").thenAccept(this::keepTickets);
+    }
+
+    private void pollDashboard(long due) {
+        client.get("agent.dashboard-summary", due, session, "/api/tickets/summary");
+        client.get("agent.dashboard-summary", due, session, "/api/tickets/summary");
+        client.get("agent.dashboard-hotspots", due, session, "/api/hotspots?window=1h&limit=5");
+    }
+
+    private void act(long due) {
+        double roll = nextDouble();
+        if (roll < 0.5) {
+            update(due);
+        } else if (roll < 0.7) {
+            String query = SEARCHES[nextInt(SEARCHES.length)];
+            client.get("agent.search", due, session,
+                    "/api/tickets/search?query=" + URLEncoder.encode(query, StandardCharsets.UTF_8));
+        } else if (roll < 0.95) {
+            bulkUpdate(due);
+        } else {
+            client.get("agent.export", due, session, "/api/tickets/export");
+        }
+    }
+
+    // Edit modal: move one ticket along (OPEN -> IN_PROGRESS -> RESOLVED -> CLOSED)
+    private void update(long due) {
+        List<Map<String, Object>> workable = workable();
+        if (workable.isEmpty()) {
+            return;
+        }
+        Map<String, Object> ticket = workable.get(nextInt(workable.size()));
+        Map<String, Object> body = new LinkedHashMap<>(ticket);
+        body.put("ticketStatus", nextStatus(ticket));
+        body.put("assignedPerson", name);
+        client.sendJson("agent.update", due, session, "PUT", "/api/tickets/" + id(ticket), body);
+    }
+
+    private void bulkUpdate(long due) {
+        List<Map<String, Object>> workable = new ArrayList<>(workable());
+        if (workable.isEmpty()) {
+            return;
+        }
+        synchronized (random) {
+            Collections.shuffle(workable, random);
+        }
+        int size = Math.min(workable.size(), options.bulkMin + nextInt(options.bulkMax - options.bulkMin + 1));
+        double kind = nextDouble();
+        String priority = PRIORITIES[nextInt(PRIORITIES.length)];
+
+        List<CompletableFuture<HttpResponse<String>>> updates = new ArrayList<>();
+        for (Map<String, Object> ticket : workable.subList(0, size)) {
+            Map<String, Object> body = new LinkedHashMap<>(ticket);
+            if (kind < 0.4) {
+                body.put("ticketStatus", nextStatus(ticket));
+            } else if (kind < 0.7) {
+                body.put("priority", priority);
+            } else {
+                body.put("assignedPerson", name);
+            }
+            updates.add(client.sendJson("agent.bulk-update", due, session, "PUT", "/api/tickets/" + id(ticket), body));
+        }
+        // The whole action, until the last PUT answered (Promise.all)
+        client.recorder().sent();
+        CompletableFuture.allOf(updates.toArray(new CompletableFuture[0])).thenRun(() -> {
+            boolean failed = updates.stream().anyMatch(update -> update.join() == null
+                    || update.join().statusCode() >= 400);
+            client.recorder().recordFlow("agent.bulk-action", due, failed ? "partial" : "ok", failed);
+        });
+    }
+
+    private void keepTickets(HttpResponse<String> response) {
+        if (response == null || response.statusCode() != 200) {
+            return;
+        }
+        try {
+            List<Map<String, Object>> parsed = new ArrayList<>();
+            for (Object ticket : (List<?>) Json.parse(response.body())) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> map = (Map<String, Object>) ticket;
+                parsed.add(map);
+            }
+            tickets = parsed;
+        } catch (RuntimeException e) {
+            System.out.println("Unexpected ticket list for " + email + ": " + e.getMessage());
+        }
+    }
+
+    private List<Map<String, Object>> workable() {
+        List<Map<String, Object>> workable = new ArrayList<>();
+        for (Map<String, Object> ticket : tickets) {
+            if (!"CLOSED".equals(ticket.get("ticketStatus")) && ticket.get("ticketId") != null) {
+                workable.add(ticket);
+            }
+        }
+        return workable;
+    }
+
+    private static String nextStatus(Map<String, Object> ticket) {
+        Object status = ticket.get("ticketStatus");
+        if ("IN_PROGRESS".equals(status)) {
+            return "RESOLVED";
+        }
+        if ("RESOLVED".equals(status)) {
+            return "CLOSED";
+        }
+        return "IN_PROGRESS";
+    }
+
+    private static long id(Map<String, Object> ticket) {
+        return ((Number) ticket.get("ticketId")).longValue();
+    }
+
+    private long randomDelay(long periodMs) {
+        return (long) (nextDouble() * periodMs);
+    }
+
+    private double nextDouble() {
+        synchronized (random) {
+            return random.nextDouble();
+        }
+    }
+
+    private int nextInt(int bound) {
+        synchronized (random) {
+            return random.nextInt(bound);
+        }
+    }
+}
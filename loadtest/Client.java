@@ -0,0 +1,121 @@
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+/**
+ * Sends the simulated browsers' requests, asynchronously: a slow response
+ * holds up nothing but the flow waiting for it, as with fetch() in a page.
+ * Every request is recorded under its operation name.
+ *
+ * Redirects are not followed, so a sign-in (302 to /dashboard or back to
+ * /login?error) and a missing session (302 to /login) can be told apart.
+ * Sessions are the JSESSIONID cookie, kept per simulated user.
+ */
+final class Client {
+
+    static final class Session {
+        volatile String cookie;
+    }
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final Recorder recorder;
+
+    Client(String baseUrl, Duration timeout, int threads, Recorder recorder) {
+        this.http = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(timeout)
+                .executor(Executors.newFixedThreadPool(threads, runnable -> {
+                    Thread thread = new Thread(runnable, "loadtest-http");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+        this.baseUrl = baseUrl.replaceAll("/+$", "");
+        this.timeout = timeout;
+        this.recorder = recorder;
+    }
+
+    Recorder recorder() {
+        return recorder;
+    }
+
+    CompletableFuture<HttpResponse<String>> get(String operation, long dueNanos, Session session, String path) {
+        return send(operation, dueNanos, session, request(session, path).GET());
+    }
+
+    CompletableFuture<HttpResponse<String>> sendJson(String operation, long dueNanos, Session session, String method,
+                                                     String path, Object body) {
+        return send(operation, dueNanos, session, request(session, path)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(Json.write(body))));
+    }
+
+    /**
+     * POST /login like the sign-in form; completes with true once the session
+     * cookie is set and the app redirected to the dashboard
+     */
+    CompletableFuture<Boolean> signIn(String operation, long dueNanos, Session session, String email, String password) {
+        String form = "email=" + URLEncoder.encode(email, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8);
+        HttpRequest.Builder request = request(session, "/login")
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form));
+        return send(operation, dueNanos, session, request).thenApply(response -> {
+            if (response == null) {
+                return false;
+            }
+            String location = response.headers().firstValue("Location").orElse("");
+            return response.statusCode() == 302 && location.endsWith("/dashboard");
+        });
+    }
+
+    // Completes with the response, or null if it failed (already recorded)
+    private CompletableFuture<HttpResponse<String>> send(String operation, long dueNanos, Session session,
+                                                        HttpRequest.Builder request) {
+        recorder.sent();
+        return http.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+                        recorder.record(operation, dueNanos, cause.getClass().getSimpleName(), true);
+                        return null;
+                    }
+                    keepCookie(session, response);
+                    int status = response.statusCode();
+                    boolean redirectedToLogin = status == 302
+                            && response.headers().firstValue("Location").orElse("").contains("/login")
+                            && !operation.endsWith("sign-in");
+                    recorder.record(operation, dueNanos, String.valueOf(status), status >= 400 || redirectedToLogin);
+                    return response;
+                });
+    }
+
+    private HttpRequest.Builder request(Session session, String path) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+        if (session != null && session.cookie != null) {
+            request.header("Cookie", session.cookie);
+        }
+        return request;
+    }
+
+    private static void keepCookie(Session session, HttpResponse<?> response) {
+        if (session == null) {
+            return;
+        }
+        List<String> cookies = response.headers().allValues("Set-Cookie");
+        for (String cookie : cookies) {
+            if (cookie.startsWith("JSESSIONID=")) {
+                session.cookie = cookie.substring(0, cookie.contains(";") ? cookie.indexOf(';') : cookie.length());
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Employees raising tickets from the public page, arriving at random at
+ * intake-rate visits per second (open model: more arrive whether or not the
+ * app keeps up). Each visit is the app.js flow in a fresh browser:
+ * - page load: GET /api/tickets
+ * - POST /login, since /api/users/validate is not one of AuthInterceptor's
+ *   public paths and answers a session-less call with a redirect
+ * - POST /api/users/validate with the email and password of the form
+ * - POST /api/tickets, then the list again a second later
+ *
+ * "employee.intake" is the whole visit up to the created ticket.
+ */
+final class EmployeeIntake {
+
+    private static final String[] SUBJECTS = {"Technical Support", "Billing Inquiry", "General Question",
+            "Feature Request", "Account Issue", "Bug Report"};
+    private static final String[] PROBLEMS = {"printer offline", "vpn keeps disconnecting", "cannot open outlook",
+            "laptop very slow", "password expired", "monitor flickering", "shared drive missing", "teams no audio"};
+    private static final String[] PRIORITIES = {"LOW", "MEDIUM", "MEDIUM", "HIGH", "URGENT"};
+
+    private final LoadTest.Options options;
+    private final Client client;
+    private final Schedules schedules;
+    private final Random random;
+
+    EmployeeIntake(LoadTest.Options options, Client client, Schedules schedules, long seed) {
+        this.options = options;
+        this.client = client;
+        this.schedules = schedules;
+        this.random = new Random(seed);
+    }
+
+    void start() {
+        schedules.poisson(options.intakeRate, random, this::visit);
+    }
+
+    private void visit(long due) {
+        Client.Session session = new Client.Session();
+        String email;
+        Map<String, Object> ticket;
+        synchronized (random) {
+            email = LoadTest.employeeEmail(random.nextInt(options.employees));
+            ticket = ticket(email, random);
+        }
+        Map<String, Object> credentials = new LinkedHashMap<>();
+        credentials.put("email", email);
+        credentials.put("password", LoadTest.PASSWORD);
+
+        client.recorder().sent();
+        client.get("employee.load-tickets", due, session, "/api/tickets")
+                .thenCompose(page -> client.signIn("employee.sign-in", System.nanoTime(), session, email, LoadTest.PASSWORD))
+                .thenCompose(signedIn -> client.sendJson("employee.validate", System.nanoTime(), session, "POST",
+                        "/api/users/validate", credentials))
+                .thenCompose(validation -> {
+                    if (validation == null || !validation.body().contains("\"valid\":true")) {
+                        throw new IllegalStateException("not validated");
+                    }
+                    return client.sendJson("employee.create-ticket", System.nanoTime(), session, "POST",
+                            "/api/tickets", ticket);
+                })
+                .handle((created, failure) -> {
+                    boolean ok = failure == null && created != null && created.statusCode() == 201;
+                    client.recorder().recordFlow("employee.intake", due, ok ? "created" : "failed", !ok);
+                    if (ok) {
+                        schedules.later(1000, () ->
+                                client.get("employee.load-tickets", System.nanoTime(), session, "/api/tickets"));
+                    }
+                    return null;
+                });
+    }
+
+    // The form as app.js submits it; addresses from a few office subnets, so hotspots have something to find
+    static Map<String, Object> ticket(String email, Random random) {
+        String problem = PROBLEMS[random.nextInt(PROBLEMS.length)];
+        String address = "10.20." + random.nextInt(8) + "." + (2 + random.nextInt(250));
+        Map<String, Object> ticket = new LinkedHashMap<>();
+        ticket.put("fullName", email);
+        ticket.put("subject", SUBJECTS[random.nextInt(SUBJECTS.length)]);
+        ticket.put("intent", "Load test: " + problem + " since this morning, please help");
+        ticket.put("priority", PRIORITIES[random.nextInt(PRIORITIES.length)]);
+        ticket.put("assignedPerson", "");
+        ticket.put("clientIpAddress", address);
+        ticket.put("privateIpAddress", address);
+        ticket.put("userAgent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) loadtest");
+        ticket.put("deviceId", "device-" + Integer.toHexString(address.hashCode()));
+        return ticket;
+    }
+}
@@ -0,0 +1,270 @@
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Production-like load against a running instance: agents polling and working
+ * the ticket table and dashboard (Agent), employees raising tickets at an
+ * open arrival rate (EmployeeIntake). Reports throughput, latency percentiles,
+ * error rates and JVM / PostgreSQL usage (report.json, report.html).
+ *
+ * Usually started by scripts/load-test.sh, which boots a throwaway PostgreSQL
+ * and the app first. Options are --name=value, see Options.
+ */
+public class LoadTest {
+
+    static final String PASSWORD = "loadtest-password";
+    static final String ADMIN_EMAIL = "loadtest-admin@loadtest.local";
+
+    static final class Options {
+        String baseUrl = "http://localhost:8089";
+        String label = "run";
+        int agents = 10;
+        int employees = 50;
+        double intakeRate = 0.2;        // employee visits (new tickets) per second
+        long warmupSeconds = 30;
+        long durationSeconds = 300;
+        int seedTickets = 200;          // tickets in the table before the run starts
+        long tablePollMs = 5000;        // table-manager.js refreshInterval
+        long dashboardPollMs = 30000;   // dashboard.js setInterval
+        long agentActionMs = 20000;     // mean time between an agent's edits, searches, bulk actions
+        int bulkMin = 2;
+        int bulkMax = 10;
+        long timeoutMs = 30000;
+        int threads = 16;
+        long seed = 42;
+        String jdbcUrl;
+        String jdbcUser;
+        String jdbcPassword;
+        String jmx;                     // host:port of the app's JMX agent
+        String out = "target/loadtest";
+        String baseline;                // report.json of an earlier run to compare with
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value: " + arg);
+                }
+                String name = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                switch (name) {
+                    case "base-url": options.baseUrl = value; break;
+                    case "label": options.label = value; break;
+                    case "agents": options.agents = Integer.parseInt(value); break;
+                    case "employees": options.employees = Integer.parseInt(value); break;
+                    case "intake-rate": options.intakeRate = Double.parseDouble(value); break;
+                    case "warmup": options.warmupSeconds = Long.parseLong(value); break;
+                    case "duration": options.durationSeconds = Long.parseLong(value); break;
+                    case "seed-tickets": options.seedTickets = Integer.parseInt(value); break;
+                    case "table-poll-ms": options.tablePollMs = Long.parseLong(value); break;
+                    case "dashboard-poll-ms": options.dashboardPollMs = Long.parseLong(value); break;
+                    case "agent-action-ms": options.agentActionMs = Long.parseLong(value); break;
+                    case "bulk-min": options.bulkMin = Integer.parseInt(value); break;
+                    case "bulk-max": options.bulkMax = Integer.parseInt(value); break;
+                    case "timeout-ms": options.timeoutMs = Long.parseLong(value); break;
+                    case "threads": options.threads = Integer.parseInt(value); break;
+                    case "seed": options.seed = Long.parseLong(value); break;
+                    case "jdbc-url": options.jdbcUrl = value; break;
+                    case "jdbc-user": options.jdbcUser = value; break;
+                    case "jdbc-password": options.jdbcPassword = value; break;
+                    case "jmx": options.jmx = value; break;
+                    case "out": options.out = value; break;
+                    case "baseline": options.baseline = value; break;
+                    default: throw new IllegalArgumentException("Unknown option --" + name);
+                }
+            }
+            if (options.agents < 0 || options.employees < 1 || options.bulkMin < 1 || options.bulkMax < options.bulkMin
+                    || options.tablePollMs <= 0 || options.dashboardPollMs <= 0 || options.agentActionMs <= 0) {
+                throw new IllegalArgumentException("Invalid options");
+            }
+            return options;
+        }
+
+        // Report section, without the password
+        Map<String, Object> describe() {
+            Map<String, Object> config = new LinkedHashMap<>();
+            config.put("baseUrl", baseUrl);
+            config.put("agents", agents);
+            config.put("employees", employees);
+            config.put("intakeRate", intakeRate);
+            config.put("warmupSeconds", warmupSeconds);
+            config.put("durationSeconds", durationSeconds);
+            config.put("seedTickets", seedTickets);
+            config.put("tablePollMs", tablePollMs);
+            config.put("dashboardPollMs", dashboardPollMs);
+            config.put("agentActionMs", agentActionMs);
+            config.put("bulkSize", bulkMin + "-" + bulkMax);
+            config.put("seed", seed);
+            config.put("jdbcUrl", jdbcUrl);
+            config.put("jmx", jmx);
+            return config;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        LocalDateTime startedAt = LocalDateTime.now();
+        Recorder recorder = new Recorder();
+        Client client = new Client(options.baseUrl, Duration.ofMillis(options.timeoutMs), options.threads, recorder);
+        ScheduledExecutorService timers = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Schedules schedules = new Schedules(timers);
+        ResourceSampler sampler = new ResourceSampler(options);
+        sampler.connect();
+
+        if (sampler.database() != null) {
+            seedUsers(options, client, sampler.database());
+        } else {
+            System.out.println("No --jdbc-url: expecting the agent and employee accounts to exist already");
+        }
+        seedTickets(options, client);
+
+        List<Agent> agents = new ArrayList<>();
+        List<CompletableFuture<Boolean>> signIns = new ArrayList<>();
+        for (int i = 0; i < options.agents; i++) {
+            Agent agent = new Agent(options, client, schedules, agentEmail(i), "Load Agent " + i, options.seed + i);
+            agents.add(agent);
+            signIns.add(agent.signIn());
+        }
+        long signedIn = signIns.stream().filter(CompletableFuture::join).count();
+        System.out.println(signedIn + " of " + options.agents + " agents signed in");
+        if (signedIn < options.agents) {
+            throw new IllegalStateException("Agents could not sign in; see the app log");
+        }
+
+        agents.forEach(Agent::start);
+        new EmployeeIntake(options, client, schedules, options.seed - 1).start();
+
+        System.out.println("Warming up for " + options.warmupSeconds + " s");
+        TimeUnit.SECONDS.sleep(options.warmupSeconds);
+        recorder.startMeasuring();
+        sampler.start();
+        timers.scheduleAtFixedRate(sampler::sample, 1, 1, TimeUnit.SECONDS);
+        System.out.println("Measuring for " + options.durationSeconds + " s");
+        for (long elapsed = 0; elapsed < options.durationSeconds; elapsed += 10) {
+            TimeUnit.SECONDS.sleep(Math.min(10, options.durationSeconds - elapsed));
+            System.out.printf("  %d s, %d requests in flight%n", Math.min(elapsed + 10, options.durationSeconds),
+                    recorder.inFlight());
+        }
+        recorder.stopMeasuring();
+        sampler.finish();
+        schedules.stop();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", options.label);
+        report.put("startedAt", startedAt.toString());
+        report.put("config", options.describe());
+        report.put("results", recorder.summary());
+        report.put("resources", sampler.summary(recorder.measuredSeconds()));
+
+        Map<String, Object> baseline = options.baseline != null ? Report.read(Paths.get(options.baseline)) : null;
+        Path out = Paths.get(options.out);
+        Report.write(report, baseline, out);
+        sampler.close();
+        timers.shutdownNow();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> total = (Map<String, Object>) ((Map<String, Object>) report.get("results")).get("total");
+        System.out.printf("%s requests, %.1f per second, error rate %.2f%%%n", total.get("count"),
+                ((Number) total.get("throughput")).doubleValue(), ((Number) total.get("errorRate")).doubleValue() * 100);
+        System.out.println("Report: " + out.resolve("report.html").toAbsolutePath());
+    }
+
+    static String agentEmail(int index) {
+        return "agent" + index + "@loadtest.local";
+    }
+
+    static String employeeEmail(int index) {
+        return "employee" + index + "@loadtest.local";
+    }
+
+    /**
+     * One admin straight into the users table (its plain text password is
+     * hashed on first sign-in), then the agents and employees through
+     * POST /api/users as that admin, so the app's user caches know them
+     */
+    private static void seedUsers(Options options, Client client, Connection db) throws SQLException {
+        try (PreparedStatement insert = db.prepareStatement("INSERT INTO users (email, password, full_name, position, user_role) "
+                + "SELECT ?, ?, 'Load Test Admin', 'IT Administrator', 'ADMIN' "
+                + "WHERE NOT EXISTS (SELECT 1 FROM users WHERE email = ?)")) {
+            insert.setString(1, ADMIN_EMAIL);
+            insert.setString(2, PASSWORD);
+            insert.setString(3, ADMIN_EMAIL);
+            insert.executeUpdate();
+        }
+
+        Client.Session admin = new Client.Session();
+        if (!client.signIn("setup.sign-in", System.nanoTime(), admin, ADMIN_EMAIL, PASSWORD).join()) {
+            throw new IllegalStateException("The load test admin could not sign in");
+        }
+        HttpResponse<String> existing = client.get("setup.users", System.nanoTime(), admin, "/api/users").join();
+        Set<String> emails = new HashSet<>();
+        if (existing != null && existing.statusCode() == 200) {
+            for (Object user : (List<?>) Json.parse(existing.body())) {
+                emails.add(String.valueOf(((Map<?, ?>) user).get("email")));
+            }
+        }
+
+        int created = 0;
+        for (int i = 0; i < options.agents + options.employees; i++) {
+            boolean agent = i < options.agents;
+            String email = agent ? agentEmail(i) : employeeEmail(i - options.agents);
+            if (emails.contains(email)) {
+                continue;
+            }
+            Map<String, Object> user = new LinkedHashMap<>();
+            user.put("email", email);
+            user.put("password", PASSWORD);
+            user.put("fullName", agent ? "Load Agent " + i : "Load Employee " + (i - options.agents));
+            user.put("position", agent ? "IT Support Specialist" : "Accountant");
+            user.put("role", agent ? "ADMIN" : "USER");
+            HttpResponse<String> response = client.sendJson("setup.create-user", System.nanoTime(), admin, "POST",
+                    "/api/users", user).join();
+            if (response == null || response.statusCode() != 200) {
+                throw new IllegalStateException("Could not create " + email
+                        + (response != null ? ": HTTP " + response.statusCode() : ""));
+            }
+            created++;
+        }
+        System.out.println("Users ready (" + created + " created)");
+    }
+
+    // Tops the table up to seed-tickets, a few at a time
+    private static void seedTickets(Options options, Client client) throws InterruptedException {
+        HttpResponse<String> existing = client.get("setup.tickets", System.nanoTime(), null, "/api/tickets").join();
+        int present = existing != null && existing.statusCode() == 200 ? ((List<?>) Json.parse(existing.body())).size() : 0;
+        int missing = Math.max(0, options.seedTickets - present);
+        Random random = new Random(options.seed);
+        Semaphore concurrency = new Semaphore(8);
+        List<CompletableFuture<?>> posts = new ArrayList<>();
+        for (int i = 0; i < missing; i++) {
+            concurrency.acquire();
+            Map<String, Object> ticket = EmployeeIntake.ticket(employeeEmail(random.nextInt(options.employees)), random);
+            posts.add(client.sendJson("setup.create-ticket", System.nanoTime(), null, "POST", "/api/tickets", ticket)
+                    .whenComplete((response, failure) -> concurrency.release()));
+        }
+        CompletableFuture.allOf(posts.toArray(new CompletableFuture[0])).join();
+        System.out.println("Tickets ready (" + present + " present, " + missing + " created)");
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and outcome of every request, by operation (ex. "agent.poll-tickets").
+ * Only counts while measuring, so warmup and the final drain are left out.
+ *
+ * Latency is taken from when the request was due, not when it was sent: if
+ * the harness itself falls behind, that shows as latency instead of silently
+ * sending less (coordinated omission).
+ */
+final class Recorder {
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+
+    private static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong errors = new AtomicLong();
+        final Map<String, AtomicLong> outcomes = new ConcurrentHashMap<>();
+        volatile boolean flow;
+    }
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final AtomicLong inFlight = new AtomicLong();
+    private volatile boolean measuring;
+    private volatile long measureStartNanos;
+    private volatile long measureEndNanos;
+
+    void startMeasuring() {
+        measureStartNanos = System.nanoTime();
+        measuring = true;
+    }
+
+    void stopMeasuring() {
+        measuring = false;
+        measureEndNanos = System.nanoTime();
+    }
+
+    double measuredSeconds() {
+        long end = measuring ? System.nanoTime() : measureEndNanos;
+        return (end - measureStartNanos) / 1e9;
+    }
+
+    void sent() {
+        inFlight.incrementAndGet();
+    }
+
+    long inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * One finished request. outcome is the HTTP status or the exception name;
+     * error says whether it counts against the error rate.
+     */
+    void record(String operation, long dueNanos, String outcome, boolean error) {
+        record(operation, dueNanos, outcome, error, false);
+    }
+
+    /**
+     * A user action made of several requests (ex. a bulk update), measured as a
+     * whole; its requests are recorded on their own and it is left out of the total
+     */
+    void recordFlow(String operation, long dueNanos, String outcome, boolean error) {
+        record(operation, dueNanos, outcome, error, true);
+    }
+
+    private void record(String operation, long dueNanos, String outcome, boolean error, boolean flow) {
+        inFlight.decrementAndGet();
+        if (!measuring || dueNanos < measureStartNanos) {
+            return;
+        }
+        Stats entry = stats.computeIfAbsent(operation, key -> new Stats());
+        entry.flow = flow;
+        entry.latency.record((System.nanoTime() - dueNanos) / 1000);
+        entry.outcomes.computeIfAbsent(outcome, key -> new AtomicLong()).incrementAndGet();
+        if (error) {
+            entry.errors.incrementAndGet();
+        }
+    }
+
+    // Report section: operation -> counts, rates and latency percentiles; the total is of requests only
+    Map<String, Object> summary() {
+        double seconds = measuredSeconds();
+        Map<String, Object> operations = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>(stats.keySet());
+        names.sort(null);
+        long totalCount = 0;
+        long totalErrors = 0;
+        for (String name : names) {
+            Stats entry = stats.get(name);
+            long count = entry.latency.count();
+            long errors = entry.errors.get();
+            if (!entry.flow) {
+                totalCount += count;
+                totalErrors += errors;
+            }
+
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("mean", entry.latency.meanMillis());
+            for (double percentile : PERCENTILES) {
+                latency.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile)
+                        : String.valueOf(percentile).replace(".", "")), entry.latency.percentileMillis(percentile));
+            }
+            latency.put("max", entry.latency.maxMillis());
+
+            Map<String, Object> outcomes = new TreeMap<>();
+            entry.outcomes.forEach((outcome, n) -> outcomes.put(outcome, n.get()));
+
+            Map<String, Object> operation = new LinkedHashMap<>();
+            operation.put("flow", entry.flow);
+            operation.put("count", count);
+            operation.put("throughput", seconds > 0 ? count / seconds : 0.0);
+            operation.put("errors", errors);
+            operation.put("errorRate", count > 0 ? (double) errors / count : 0.0);
+            operation.put("latencyMs", latency);
+            operation.put("outcomes", outcomes);
+            operations.put(name, operation);
+        }
+
+        Map<String, Object> total = new LinkedHashMap<>();
+        total.put("count", totalCount);
+        total.put("throughput", seconds > 0 ? totalCount / seconds : 0.0);
+        total.put("errors", totalErrors);
+        total.put("errorRate", totalCount > 0 ? (double) totalErrors / totalCount : 0.0);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("measuredSeconds", seconds);
+        summary.put("total", total);
+        summary.put("operations", operations);
+        return summary;
+    }
+}
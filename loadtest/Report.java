@@ -0,0 +1,172 @@
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes a run as report.json (fixed layout, so runs can be diffed or fed to
+ * other tools) and report.html. With a baseline report.json the HTML shows
+ * the change of each figure next to it.
+ */
+final class Report {
+
+    private static final String[] LATENCIES = {"mean", "p50", "p90", "p95", "p99", "p999", "max"};
+
+    private Report() {
+    }
+
+    static void write(Map<String, Object> report, Map<String, Object> baseline, Path directory) throws Exception {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("report.json"), Json.write(report) + "\n", StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve("report.html"), html(report, baseline), StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> read(Path file) throws Exception {
+        return (Map<String, Object>) Json.parse(Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    private static String html(Map<String, Object> report, Map<String, Object> baseline) {
+        StringBuilder out = new StringBuilder();
+        out.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Load test ")
+                .append(escape(String.valueOf(report.get("label")))).append("</title>\n<style>\n")
+                .append("body{font-family:sans-serif;margin:2em;color:#222}table{border-collapse:collapse;margin-bottom:2em}")
+                .append("th,td{border:1px solid #ccc;padding:4px 8px;text-align:right}th:first-child,td:first-child{text-align:left}")
+                .append("th{background:#f2f2f2}.worse{color:#b00020}.better{color:#137333}.delta{font-size:.85em;margin-left:4px}")
+                .append("</style></head><body>\n");
+        out.append("<h1>Load test: ").append(escape(String.valueOf(report.get("label")))).append("</h1>\n");
+        out.append("<p>Started ").append(escape(String.valueOf(report.get("startedAt"))));
+        if (baseline != null) {
+            out.append(", compared with <b>").append(escape(String.valueOf(baseline.get("label"))))
+                    .append("</b> (").append(escape(String.valueOf(baseline.get("startedAt")))).append(")");
+        }
+        out.append("</p>\n");
+
+        out.append("<h2>Configuration</h2>\n");
+        table(out, List.of("setting", "value"), rows(section(report, "config")));
+
+        Map<String, Object> results = section(report, "results");
+        Map<String, Object> baseResults = baseline != null ? section(baseline, "results") : null;
+
+        out.append("<h2>Throughput and errors</h2>\n<table><tr><th>operation</th><th>count</th><th>per second</th>")
+                .append("<th>errors</th><th>error rate</th><th>outcomes</th></tr>\n");
+        Map<String, Object> operations = section(results, "operations");
+        Map<String, Object> baseOperations = baseResults != null ? section(baseResults, "operations") : Map.of();
+        List<String> names = new ArrayList<>(operations.keySet());
+        names.add("total");
+        for (String name : names) {
+            Map<String, Object> operation = name.equals("total") ? section(results, "total") : section(operations, name);
+            Map<String, Object> base = baseResults == null ? null
+                    : name.equals("total") ? section(baseResults, "total") : section(baseOperations, name);
+            out.append("<tr><td>").append(name.equals("total") ? "<b>total (requests)</b>" : escape(name));
+            if (Boolean.TRUE.equals(operation.get("flow"))) {
+                out.append(" <i>(whole action)</i>");
+            }
+            out.append("</td>");
+            cell(out, operation, null, "count", false);
+            cell(out, operation, base, "throughput", false);
+            cell(out, operation, base, "errors", true);
+            cell(out, operation, base, "errorRate", true);
+            out.append("<td>").append(escape(String.valueOf(operation.getOrDefault("outcomes", "")))).append("</td></tr>\n");
+        }
+        out.append("</table>\n");
+
+        out.append("<h2>Latency (ms, from when the request was due)</h2>\n<table><tr><th>operation</th>");
+        for (String latency : LATENCIES) {
+            out.append("<th>").append(latency).append("</th>");
+        }
+        out.append("</tr>\n");
+        for (String name : operations.keySet()) {
+            Map<String, Object> latency = section(section(operations, name), "latencyMs");
+            Map<String, Object> base = baseOperations.containsKey(name)
+                    ? section(section(baseOperations, name), "latencyMs") : null;
+            out.append("<tr><td>").append(escape(name)).append("</td>");
+            for (String key : LATENCIES) {
+                cell(out, latency, base, key, true);
+            }
+            out.append("</tr>\n");
+        }
+        out.append("</table>\n");
+
+        for (String resource : List.of("jvm", "database")) {
+            Map<String, Object> figures = section(section(report, "resources"), resource);
+            if (figures.isEmpty()) {
+                continue;
+            }
+            Map<String, Object> base = baseline != null ? section(section(baseline, "resources"), resource) : null;
+            out.append("<h2>").append(resource.equals("jvm") ? "Application JVM" : "PostgreSQL").append("</h2>\n");
+            out.append("<table><tr><th>figure</th><th>value</th></tr>\n");
+            for (String key : figures.keySet()) {
+                out.append("<tr><td>").append(escape(key)).append("</td>");
+                cell(out, figures, base, key, !key.equals("cacheHitRatio") && !key.equals("commitsPerSecond"));
+                out.append("</tr>\n");
+            }
+            out.append("</table>\n");
+        }
+        out.append("</body></html>\n");
+        return out.toString();
+    }
+
+    // A figure with its change against the baseline (red when it went the wrong way)
+    private static void cell(StringBuilder out, Map<String, Object> figures, Map<String, Object> base, String key,
+                             boolean lowerIsBetter) {
+        Object value = figures.get(key);
+        out.append("<td>").append(format(value));
+        Object before = base != null ? base.get(key) : null;
+        if (value instanceof Number && before instanceof Number) {
+            double now = ((Number) value).doubleValue();
+            double then = ((Number) before).doubleValue();
+            if (then != 0 && now != then) {
+                double change = (now - then) / Math.abs(then);
+                boolean worse = lowerIsBetter ? change > 0 : change < 0;
+                out.append("<span class=\"delta ").append(worse ? "worse" : "better").append("\">")
+                        .append(String.format(Locale.ROOT, "%+.1f%%", change * 100)).append("</span>");
+            }
+        }
+        out.append("</td>");
+    }
+
+    private static void table(StringBuilder out, List<String> headers, List<List<Object>> rows) {
+        out.append("<table><tr>");
+        for (String header : headers) {
+            out.append("<th>").append(escape(header)).append("</th>");
+        }
+        out.append("</tr>\n");
+        for (List<Object> row : rows) {
+            out.append("<tr>");
+            for (Object value : row) {
+                out.append("<td>").append(escape(format(value))).append("</td>");
+            }
+            out.append("</tr>\n");
+        }
+        out.append("</table>\n");
+    }
+
+    private static List<List<Object>> rows(Map<String, Object> map) {
+        List<List<Object>> rows = new ArrayList<>();
+        map.forEach((key, value) -> rows.add(List.of(key, value == null ? "" : value)));
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> section(Map<String, Object> parent, String key) {
+        Object value = parent == null ? null : parent.get(key);
+        return value instanceof Map ? (Map<String, Object>) value : Map.of();
+    }
+
+    private static String format(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            return number == Math.rint(number) && Math.abs(number) < 1e15
+                    ? String.valueOf((long) number) : String.format(Locale.ROOT, "%.3f", number);
+        }
+        return String.valueOf(value);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
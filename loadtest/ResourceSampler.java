@@ -0,0 +1,204 @@
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resource usage while measuring, sampled once a second:
+ * - the app's JVM over JMX (heap, GC, threads, process CPU), when --jmx is given
+ * - PostgreSQL (connections of this database; commits, cache hits and rows
+ *   from pg_stat_database as the difference between start and end), when --jdbc-url is given
+ */
+final class ResourceSampler {
+
+    private static final String[] DB_COUNTERS = {"xact_commit", "xact_rollback", "blks_read", "blks_hit",
+            "tup_returned", "tup_fetched", "tup_inserted", "tup_updated", "tup_deleted", "temp_bytes", "deadlocks"};
+
+    private final LoadTest.Options options;
+    private JMXConnector jmx;
+    private MBeanServerConnection mbeans;
+    private Connection db;
+
+    private long samples;
+    private double cpuSum;
+    private double cpuMax;
+    private long heapUsedMax;
+    private long heapUsedSum;
+    private long heapCommittedMax;
+    private int threadsMax;
+    private long gcCountStart = -1;
+    private long gcTimeStart = -1;
+    private long gcCount;
+    private long gcTimeMs;
+    private long dbSamples;
+    private long connectionsMax;
+    private long connectionsSum;
+    private long activeMax;
+    private long activeSum;
+    private Map<String, Long> dbStart;
+    private Map<String, Long> dbEnd;
+
+    ResourceSampler(LoadTest.Options options) {
+        this.options = options;
+    }
+
+    void connect() throws Exception {
+        if (options.jmx != null) {
+            JMXServiceURL url = new JMXServiceURL("service:jmx:rmi:///jndi/rmi://" + options.jmx + "/jmxrmi");
+            jmx = JMXConnectorFactory.connect(url);
+            mbeans = jmx.getMBeanServerConnection();
+        }
+        if (options.jdbcUrl != null) {
+            db = DriverManager.getConnection(options.jdbcUrl, options.jdbcUser, options.jdbcPassword);
+        }
+    }
+
+    Connection database() {
+        return db;
+    }
+
+    // Counters from here on; the first sample is the GC baseline
+    synchronized void start() throws SQLException {
+        if (db != null) {
+            dbStart = dbCounters();
+        }
+        sample();
+    }
+
+    synchronized void finish() throws SQLException {
+        if (db != null) {
+            dbEnd = dbCounters();
+        }
+    }
+
+    synchronized void sample() {
+        try {
+            if (mbeans != null) {
+                sampleJvm();
+            }
+            if (db != null) {
+                sampleDb();
+            }
+        } catch (Exception e) {
+            System.out.println("Resource sample failed: " + e.getMessage());
+        }
+    }
+
+    private void sampleJvm() throws Exception {
+        CompositeData heap = (CompositeData) mbeans.getAttribute(new ObjectName("java.lang:type=Memory"), "HeapMemoryUsage");
+        long used = (Long) heap.get("used");
+        heapUsedMax = Math.max(heapUsedMax, used);
+        heapUsedSum += used;
+        heapCommittedMax = Math.max(heapCommittedMax, (Long) heap.get("committed"));
+
+        double cpu = ((Number) mbeans.getAttribute(new ObjectName("java.lang:type=OperatingSystem"), "ProcessCpuLoad")).doubleValue();
+        if (cpu >= 0) {
+            cpuSum += cpu;
+            cpuMax = Math.max(cpuMax, cpu);
+        }
+        threadsMax = Math.max(threadsMax, (Integer) mbeans.getAttribute(new ObjectName("java.lang:type=Threading"), "ThreadCount"));
+
+        long count = 0;
+        long time = 0;
+        Set<ObjectName> collectors = mbeans.queryNames(new ObjectName("java.lang:type=GarbageCollector,*"), null);
+        for (ObjectName collector : collectors) {
+            count += (Long) mbeans.getAttribute(collector, "CollectionCount");
+            time += (Long) mbeans.getAttribute(collector, "CollectionTime");
+        }
+        if (gcCountStart < 0) {
+            gcCountStart = count;
+            gcTimeStart = time;
+        }
+        gcCount = count - gcCountStart;
+        gcTimeMs = time - gcTimeStart;
+        samples++;
+    }
+
+    private void sampleDb() throws SQLException {
+        try (Statement statement = db.createStatement();
+             ResultSet result = statement.executeQuery("SELECT count(*), count(*) FILTER (WHERE state = 'active') "
+                     + "FROM pg_stat_activity WHERE datname = current_database()")) {
+            result.next();
+            long connections = result.getLong(1) - 1; // not ours
+            long active = Math.max(0, result.getLong(2) - 1);
+            connectionsMax = Math.max(connectionsMax, connections);
+            connectionsSum += connections;
+            activeMax = Math.max(activeMax, active);
+            activeSum += active;
+            dbSamples++;
+        }
+    }
+
+    private Map<String, Long> dbCounters() throws SQLException {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        try (Statement statement = db.createStatement()) {
+            statement.execute("SELECT pg_stat_clear_snapshot()");
+            try (ResultSet result = statement.executeQuery("SELECT " + String.join(", ", DB_COUNTERS)
+                    + ", pg_database_size(datname) AS size_bytes FROM pg_stat_database WHERE datname = current_database()")) {
+                result.next();
+                for (String counter : DB_COUNTERS) {
+                    counters.put(counter, result.getLong(counter));
+                }
+                counters.put("size_bytes", result.getLong("size_bytes"));
+            }
+        }
+        return counters;
+    }
+
+    synchronized Map<String, Object> summary(double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        if (samples > 0) {
+            Map<String, Object> jvm = new LinkedHashMap<>();
+            jvm.put("cpuMean", cpuSum / samples);
+            jvm.put("cpuMax", cpuMax);
+            jvm.put("heapUsedMeanMb", heapUsedSum / samples / 1048576.0);
+            jvm.put("heapUsedMaxMb", heapUsedMax / 1048576.0);
+            jvm.put("heapCommittedMaxMb", heapCommittedMax / 1048576.0);
+            jvm.put("gcCount", gcCount);
+            jvm.put("gcTimeMs", gcTimeMs);
+            jvm.put("gcTimeShare", seconds > 0 ? gcTimeMs / 1000.0 / seconds : 0.0);
+            jvm.put("threadsMax", threadsMax);
+            summary.put("jvm", jvm);
+        }
+        if (dbStart != null && dbEnd != null) {
+            Map<String, Object> database = new LinkedHashMap<>();
+            database.put("connectionsMean", dbSamples > 0 ? (double) connectionsSum / dbSamples : 0.0);
+            database.put("connectionsMax", connectionsMax);
+            database.put("activeMean", dbSamples > 0 ? (double) activeSum / dbSamples : 0.0);
+            database.put("activeMax", activeMax);
+            long commits = dbEnd.get("xact_commit") - dbStart.get("xact_commit");
+            database.put("commitsPerSecond", seconds > 0 ? commits / seconds : 0.0);
+            long hits = dbEnd.get("blks_hit") - dbStart.get("blks_hit");
+            long reads = dbEnd.get("blks_read") - dbStart.get("blks_read");
+            database.put("cacheHitRatio", hits + reads > 0 ? (double) hits / (hits + reads) : 1.0);
+            for (String counter : DB_COUNTERS) {
+                database.put(counter, dbEnd.get(counter) - dbStart.get(counter));
+            }
+            database.put("sizeMb", dbEnd.get("size_bytes") / 1048576.0);
+            summary.put("database", database);
+        }
+        return summary;
+    }
+
+    void close() {
+        try {
+            if (jmx != null) {
+                jmx.close();
+            }
+            if (db != null) {
+                db.close();
+            }
+        } catch (Exception ignored) {
+        }
+    }
+}
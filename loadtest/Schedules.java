@@ -0,0 +1,72 @@
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Timers of the simulated users. Each run gets the time it was due (System.nanoTime),
+ * which the requests it sends are measured from.
+ */
+final class Schedules {
+
+    private final ScheduledExecutorService timers;
+    private volatile boolean running = true;
+
+    Schedules(ScheduledExecutorService timers) {
+        this.timers = timers;
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    void later(long delayMs, Runnable task) {
+        if (running) {
+            timers.schedule(guard(task), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // setInterval: every period after the initial delay, late or not
+    void fixedRate(long initialDelayMs, long periodMs, LongConsumer task) {
+        schedule(System.nanoTime() + initialDelayMs * 1_000_000L, () -> periodMs * 1_000_000L, task);
+    }
+
+    // Open model: arrivals at random (exponential) intervals averaging perSecond, whatever the responses do
+    void poisson(double perSecond, Random random, LongConsumer task) {
+        if (perSecond <= 0) {
+            return;
+        }
+        schedule(System.nanoTime(), () -> {
+            synchronized (random) {
+                return (long) (-Math.log(1 - random.nextDouble()) / perSecond * 1e9);
+            }
+        }, task);
+    }
+
+    private interface Interval {
+        long nextNanos();
+    }
+
+    private void schedule(long dueNanos, Interval interval, LongConsumer task) {
+        if (!running) {
+            return;
+        }
+        timers.schedule(() -> {
+            if (!running) {
+                return;
+            }
+            schedule(dueNanos + interval.nextNanos(), interval, task);
+            guard(() -> task.accept(dueNanos)).run();
+        }, Math.max(0, dueNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    private static Runnable guard(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.out.println("Load test task failed: " + e);
+            }
+        };
+    }
+}
@@ -0,0 +1,79 @@
+#!/bin/bash
+
+# Production-like load test (see loadtest/LoadTest.java) against a throwaway
+# PostgreSQL container and a local app started from the jar.
+# Needs docker and the jar (mvn clean package -DskipTests).
+# Usage: scripts/load-test.sh [--name=value ...], ex.
+#   scripts/load-test.sh --label=before --agents=20 --intake-rate=0.5 --duration=600
+#   scripts/load-test.sh --label=after --agents=20 --intake-rate=0.5 --duration=600 \
+#       --baseline=target/loadtest/before/report.json
+# The report goes to target/loadtest/<label>/ (report.json, report.html, app.log).
+set -e
+
+PORT=${SERVER_PORT:-8089}
+PG_PORT=${LOADTEST_PG_PORT:-5440}
+JMX_PORT=${LOADTEST_JMX_PORT:-9011}
+VERSION=1.0-SNAPSHOT
+JAR=target/ticket-management-$VERSION.jar
+DB_CONTAINER=ticketing-loadtest-db
+
+LABEL=run
+for arg in "$@"; do
+    case "$arg" in --label=*) LABEL=${arg#--label=} ;; esac
+done
+OUT=target/loadtest/$LABEL
+WORK=$(mktemp -d)
+mkdir -p "$OUT"
+
+if [ ! -f "$JAR" ]; then
+    echo "Missing $JAR, build it first: mvn clean package -DskipTests"
+    exit 1
+fi
+
+cleanup() {
+    if [ -n "$APP_PID" ]; then
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+    fi
+    docker rm -f "$DB_CONTAINER" > /dev/null 2>&1 || true
+    rm -r "$WORK"
+}
+trap cleanup EXIT
+
+# Same image and settings as docker-compose, empty on every run
+docker rm -f "$DB_CONTAINER" > /dev/null 2>&1 || true
+docker run -d --name "$DB_CONTAINER" -p "$PG_PORT:5432" \
+    -e POSTGRESQL_USERNAME=ticketuser -e POSTGRESQL_PASSWORD=securepassword -e POSTGRESQL_DATABASE=ticketdb \
+    bitnami/postgresql:15 > /dev/null
+until docker exec "$DB_CONTAINER" pg_isready -U ticketuser -d ticketdb > /dev/null 2>&1; do
+    sleep 0.5
+done
+
+# Mail goes nowhere (nothing listens on the port), so sends fail fast instead of mailing anyone
+SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:$PG_PORT/ticketdb \
+SPRING_DATASOURCE_USERNAME=ticketuser \
+SPRING_DATASOURCE_PASSWORD=securepassword \
+SPRING_JPA_HIBERNATE_DDL_AUTO=update \
+SPRING_MAIL_HOST=${SPRING_MAIL_HOST:-localhost} \
+SPRING_MAIL_PORT=${SPRING_MAIL_PORT:-2525} \
+java ${LOADTEST_JAVA_OPTS} \
+    -Dcom.sun.management.jmxremote.port="$JMX_PORT" -Dcom.sun.management.jmxremote.rmi.port="$JMX_PORT" \
+    -Dcom.sun.management.jmxremote.host=127.0.0.1 -Djava.rmi.server.hostname=127.0.0.1 \
+    -Dcom.sun.management.jmxremote.authenticate=false -Dcom.sun.management.jmxremote.ssl=false \
+    -jar "$JAR" --server.port="$PORT" > "$OUT/app.log" 2>&1 &
+APP_PID=$!
+until curl -s -o /dev/null "http://localhost:$PORT/"; do
+    if ! kill -0 "$APP_PID" 2>/dev/null; then
+        echo "The app exited during startup, see $OUT/app.log"
+        exit 1
+    fi
+    sleep 0.5
+done
+
+# The harness has no build of its own: the JDK compiles it, the jar brings the JDBC driver
+unzip -q -j -o "$JAR" 'BOOT-INF/lib/postgresql-*.jar' -d "$WORK/lib"
+javac -d "$WORK/classes" loadtest/*.java
+java -cp "$WORK/classes:$(ls "$WORK"/lib/postgresql-*.jar)" LoadTest \
+    --base-url="http://localhost:$PORT" \
+    --jdbc-url="jdbc:postgresql://localhost:$PG_PORT/ticketdb" --jdbc-user=ticketuser --jdbc-password=securepassword \
+    --jmx="127.0.0.1:$JMX_PORT" --out="$OUT" "$@"
@@ -0,0 +1,48 @@
+#!/bin/bash
+
+# Startup time and memory of each deployment mode.
+# Needs a reachable database (SPRING_DATASOURCE_URL/USERNAME/PASSWORD) and the builds:
+#   jar      mvn clean package -DskipTests
+#   cds      mvn package -DskipTests -Pfast-start      (AOT + class data sharing)
+#   native   mvn -Pnative native:compile -DskipTests  (GraalVM)
+# Usage: scripts/startup-benchmark.sh [runs]
+set -e
+
+RUNS=${1:-5}
+PORT=${SERVER_PORT:-8089}
+VERSION=1.0-SNAPSHOT
+
+measure() {
+    local mode=$1; shift
+    local log=$(mktemp)
+    for run in $(seq 1 "$RUNS"); do
+        local start=$(date +%s%N)
+        "$@" --server.port="$PORT" > "$log" 2>&1 &
+        local pid=$!
+        until curl -s -o /dev/null "http://localhost:$PORT/"; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "$mode: exited during startup, see $log"
+                return
+            fi
+            sleep 0.05
+        done
+        local ready_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+        local rss_kb=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+        local started=$(grep -o 'Started TicketingSystemApplication in [0-9.]* seconds' "$log" | grep -o '[0-9.]*' | head -1)
+        echo "$mode run $run: first response ${ready_ms} ms, Spring reports ${started}s, RSS $((rss_kb / 1024)) MB"
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+    done
+    rm -f "$log"
+}
+
+if [ -f "target/ticket-management-$VERSION.jar" ]; then
+    measure jar java -jar "target/ticket-management-$VERSION.jar"
+fi
+if [ -f "target/cds/app.jsa" ]; then
+    (cd target/cds && measure cds java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+        -jar "ticket-management-$VERSION-cds.jar")
+fi
+if [ -x "target/ticket-management" ]; then
+    measure native target/ticket-management
+fi
@@ -0,0 +1,123 @@
+package com.schnitzel.ticketingsystem;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores long text as bytea: one codec byte followed by the payload.
+ *   0 = plain UTF-8
+ *   1 = raw DEFLATE of the UTF-8 bytes
+ * Short values, and values that do not get smaller, are stored plain.
+ * Both codecs are always readable, so compression can be switched off at any time.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    static final byte CODEC_PLAIN = 0;
+    static final byte CODEC_DEFLATE = 1;
+
+    // Below this many UTF-8 bytes the deflate header costs more than it saves
+    private static final int MIN_COMPRESS_BYTES = 128;
+
+    @Value("${ticket.text-compression.enabled:true}")
+    private boolean enabled = true;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        if (text == null) {
+            return null;
+        }
+        return encode(text, enabled);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] data) {
+        return decode(data);
+    }
+
+    static byte[] encode(String text, boolean compress) {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+
+        if (compress && utf8.length >= MIN_COMPRESS_BYTES) {
+            byte[] deflated = deflate(utf8);
+            if (deflated.length + 1 < utf8.length) {
+                return withCodec(CODEC_DEFLATE, deflated, deflated.length);
+            }
+        }
+        return withCodec(CODEC_PLAIN, utf8, utf8.length);
+    }
+
+    static String decode(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length == 0) {
+            return "";
+        }
+
+        switch (data[0]) {
+            case CODEC_PLAIN:
+                return new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+            case CODEC_DEFLATE:
+                return new String(inflate(data), StandardCharsets.UTF_8);
+            default:
+                throw new IllegalStateException("Unknown text codec: " + data[0]);
+        }
+    }
+
+    private static byte[] withCodec(byte codec, byte[] payload, int length) {
+        byte[] out = new byte[length + 1];
+        out[0] = codec;
+        System.arraycopy(payload, 0, out, 1, length);
+        return out;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            byte[] buffer = new byte[input.length];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    // Incompressible - caller will fall back to plain
+                    return input;
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return Arrays.copyOf(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data, 1, data.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed text");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed text", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -7,45 +7,88 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ticket")
+@Table(name = "ticket", indexes = {
+    @Index(name = "idx_ticket_client_device", columnList = "client_device_id"),
+    @Index(name = "idx_ticket_status_priority", columnList = "ticket_status, priority"),
+    @Index(name = "idx_ticket_parent", columnList = "parent_ticket_id"),
+    @Index(name = "idx_ticket_routing_key", columnList = "routing_key")
+})
 public class Ticket{
+    public static final int PREVIEW_LENGTH = 160;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long ticketId;
 
     private String fullName; //employee name
-    private String ticketStatus; //status if already done ex. pending, done, in prog
+    @Convert(converter = TicketStatusConverter.class)
+    @Column(name = "ticket_status", columnDefinition = "smallint")
+    private TicketStatus ticketStatus; //OPEN, IN_PROGRESS, RESOLVED, CLOSED
     private String subject; // title of the concern
     private LocalDateTime requestedTime; // Date stamp
     private LocalDateTime closedTime; // When ticket was closed
+    private LocalDateTime claimExpiresAt; // Work queue lease, null once the claim is confirmed
+
+    // SLA deadline for the current priority, null while the ticket needs no work (resolved/closed)
+    @Column(name = "sla_due_at")
+    private LocalDateTime slaDueAt;
+
+    // Set when this ticket looks like a duplicate of an earlier one (same incident)
+    @Column(name = "parent_ticket_id")
+    private Long parentTicketId;
     
-    @Column(name = "intent", length = 2000)
+    // Large text, stored compressed as bytea (see CompressedTextConverter)
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "intent", columnDefinition = "bytea")
     private String intent; //Purpose of the ticket
     private String assignedPerson; //Optional if employee neee specific people
-    private String priority;
-    private String clientIpAddress;
-    private String computerName;
-    private String userAgent;
+    @Convert(converter = TicketPriorityConverter.class)
+    @Column(name = "priority", columnDefinition = "smallint")
+    private TicketPriority priority;
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "it_comment", columnDefinition = "bytea")
     private String itComment;
 
+    // First PREVIEW_LENGTH chars of intent/itComment, kept plain so the ticket list can show
+    // them without reading the compressed columns. Written by the setters, never serialized
+    @Column(name = "intent_preview", length = PREVIEW_LENGTH)
+    private String intentPreview;
+    @Column(name = "it_comment_preview", length = PREVIEW_LENGTH)
+    private String itCommentPreview;
+
+    // Requester ip/computer/browser, interned in client_device
+    @Column(name = "client_device_id")
+    private Long clientDeviceId;
+
+    // Requester site, decides the shard (see RoutingKeys); null on tickets from before sharding
+    @Column(name = "routing_key", length = 100)
+    private String routingKey;
+
     //Default constructor wag tanngalin
     public Ticket(){
     }
 
-    public Ticket(String fullName, String ticketStatus, String subject, 
-                 LocalDateTime requestedTime, String intent, String assignedPerson, String priority,
-                 String clientIpAddress, String computerName, String userAgent, String itComment) {
+    public Ticket(String fullName, TicketStatus ticketStatus, String subject, 
+                 LocalDateTime requestedTime, String intent, String assignedPerson, TicketPriority priority,
+                 Long clientDeviceId, String itComment) {
         this.fullName = fullName;
         this.ticketStatus = ticketStatus;
         this.subject = subject;
         this.requestedTime = requestedTime;
-        this.intent = intent;
+        setIntent(intent);
         this.assignedPerson = assignedPerson;
         this.priority = priority;
-        this.clientIpAddress = clientIpAddress;
-        this.computerName = computerName;
-        this.userAgent = userAgent;
-        this.itComment = itComment;
+        this.clientDeviceId = clientDeviceId;
+        setItComment(itComment);
+    }
+
+    // Start of text for the list view, not cut inside a surrogate pair
+    public static String preview(String text){
+        if(text == null || text.length() <= PREVIEW_LENGTH){
+            return text;
+        }
+        int end = Character.isHighSurrogate(text.charAt(PREVIEW_LENGTH - 1)) ? PREVIEW_LENGTH - 1 : PREVIEW_LENGTH;
+        return text.substring(0, end);
     }
 
     //Getters
@@ -57,23 +100,15 @@ public class Ticket{
         return itComment;
     }
 
-    public String getClientIpAddress(){
-        return clientIpAddress;
-    }
-
-    public String getComputerName(){
-        return computerName;
-    }
-
-    public String getUserAgent(){
-        return userAgent;
+    public Long getClientDeviceId(){
+        return clientDeviceId;
     }
 
     public String getFullName(){
         return fullName;
     }
 
-    public String getTicketStatus(){
+    public TicketStatus getTicketStatus(){
         return ticketStatus;
     }
 
@@ -85,7 +120,7 @@ public class Ticket{
         return intent;
     }
 
-    public String getPriority(){
+    public TicketPriority getPriority(){
         return priority;
     }
 
@@ -97,32 +132,41 @@ public class Ticket{
         return closedTime;
     }
 
+    public LocalDateTime getSlaDueAt(){
+        return slaDueAt;
+    }
+
+    public Long getParentTicketId(){
+        return parentTicketId;
+    }
+
+    public LocalDateTime getClaimExpiresAt(){
+        return claimExpiresAt;
+    }
+
     public String getAssignedPerson(){
         return assignedPerson;
     }
 
+    public String getRoutingKey(){
+        return routingKey;
+    }
+
     //Setters
-    public void setClientIpAddress(String clientIpAddress){
-        this.clientIpAddress = clientIpAddress;
+    public void setClientDeviceId(Long clientDeviceId){
+        this.clientDeviceId = clientDeviceId;
     }
 
     public void setItComment(String itComment){
         this.itComment = itComment;
-    }
-    
-    public void setComputerName(String computerName){
-        this.computerName = computerName;
-    }
-
-    public void setUserAgent(String userAgent){
-        this.userAgent = userAgent;
+        this.itCommentPreview = preview(itComment);
     }
 
     public void setTicketId(Long ticketId){
         this.ticketId = ticketId;
     }
 
-    public void setPriority(String priority){
+    public void setPriority(TicketPriority priority){
         this.priority = priority;
     }
 
@@ -130,11 +174,11 @@ public class Ticket{
         this.fullName = fullName;
     }
 
-    public void setTicketStatus(String ticketStatus){
+    public void setTicketStatus(TicketStatus ticketStatus){
         this.ticketStatus = ticketStatus;
         
         // Automatically set closed time when status is set to CLOSED
-        if ("CLOSED".equalsIgnoreCase(ticketStatus) && this.closedTime == null) {
+        if (ticketStatus == TicketStatus.CLOSED && this.closedTime == null) {
             this.closedTime = LocalDateTime.now();
         }
     }
@@ -149,6 +193,7 @@ public class Ticket{
 
     public void setIntent(String intent){
         this.intent = intent;
+        this.intentPreview = preview(intent);
     }
 
     public void setAssignedPerson(String assignedPerson){
@@ -159,22 +204,40 @@ public class Ticket{
         this.closedTime = closedTime;
     }
 
+    public void setClaimExpiresAt(LocalDateTime claimExpiresAt){
+        this.claimExpiresAt = claimExpiresAt;
+    }
+
+    public void setSlaDueAt(LocalDateTime slaDueAt){
+        this.slaDueAt = slaDueAt;
+    }
+
+    public void setParentTicketId(Long parentTicketId){
+        this.parentTicketId = parentTicketId;
+    }
+
+    public void setRoutingKey(String routingKey){
+        this.routingKey = routingKey;
+    }
+
     //Parsing to String
     @Override
     public String toString() {
         return "Ticket{" +
                 "ticketId=" + ticketId +
                 ", fullName='" + fullName + '\'' +
-                ", ticketStatus='" + ticketStatus + '\'' +
+                ", ticketStatus=" + ticketStatus +
                 ", subject='" + subject + '\'' +
                 ", requestedTime=" + requestedTime +
                 ", closedTime=" + closedTime +
+                ", claimExpiresAt=" + claimExpiresAt +
+                ", slaDueAt=" + slaDueAt +
+                ", parentTicketId=" + parentTicketId +
                 ", intent='" + intent + '\'' +
                 ", assignedPerson='" + assignedPerson + '\'' +
-                ", priority='" + priority + '\'' +
-                ", clientIpAddress='" + clientIpAddress + '\'' +
-                ", computerName='" + computerName + '\'' +
-                ", userAgent='" + userAgent + '\'' +
+                ", priority=" + priority +
+                ", clientDeviceId=" + clientDeviceId +
+                ", routingKey='" + routingKey + '\'' +
                 ", itComment='" + itComment + '\'' +
                 '}';
 
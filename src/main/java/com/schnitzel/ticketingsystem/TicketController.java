@@ -1,13 +1,36 @@
 package com.schnitzel.ticketingsystem;
 
+import com.schnitzel.ticketingsystem.cache.CacheRegion;
+import com.schnitzel.ticketingsystem.cache.ResponseCache;
+import com.schnitzel.ticketingsystem.clientdevice.ClientDeviceService;
+import com.schnitzel.ticketingsystem.dto.TicketCluster;
+import com.schnitzel.ticketingsystem.dto.TicketDto;
 import com.schnitzel.ticketingsystem.dto.TicketRegistrationRequest;
+import com.schnitzel.ticketingsystem.dto.TicketSummary;
+import com.schnitzel.ticketingsystem.journal.TicketChangeBatch;
+import com.schnitzel.ticketingsystem.openindex.OpenTicketIndex;
+import com.schnitzel.ticketingsystem.querystats.QueryBudget;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/tickets")
@@ -16,6 +39,18 @@ public class TicketController {
     @Autowired
     private TicketService ticketService;
 
+    @Autowired
+    private ClientDeviceService clientDeviceService;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private OpenTicketIndex openTicketIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping
     public ResponseEntity<String> createTicket(@RequestBody TicketRegistrationRequest request) {
         try {
@@ -37,36 +72,128 @@ public class TicketController {
         }
     }
 
+    // Polled by every open table; served from the shared serialize-once cache.
+    // intent/itComment are null here, with intentPreview/itCommentPreview instead (GET /{id} has the full text).
+    // Client device info resolved, one query for the devices not cached yet
     @GetMapping
-    public ResponseEntity<List<Ticket>> getAllTickets() {
-        List<Ticket> tickets = ticketService.getAllTickets();
-        return ResponseEntity.ok(tickets);
+    @QueryBudget(2)
+    public void getAllTickets(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        responseCache.serve("tickets:all", CacheRegion.TICKETS,
+            () -> TicketDto.withDevices(ticketService.getTicketList(), clientDeviceService), request, response);
+    }
+
+    // Delta sync: everything that changed after the cursor, ex. /api/tickets/changes?since=120.
+    // With sharding, one cursor per shard (&shard=1, ...; see GET /api/shards)
+    @GetMapping("/changes")
+    public ResponseEntity<TicketChangeBatch> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                        @RequestParam(defaultValue = "500") int limit,
+                                                        @RequestParam(defaultValue = "0") int shard) {
+        try {
+            return ResponseEntity.ok(ticketService.getChangesSince(shard, since, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Light list for stats/dashboards - no intent or IT comment
+    @GetMapping("/summary")
+    @QueryBudget(1)
+    public void getTicketSummaries(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        responseCache.serve("tickets:summary", CacheRegion.TICKETS, ticketService::getAllTicketSummaries, request, response);
+    }
+
+    // Full rows with client device info resolved, used by the CSV export.
+    // Decompresses every intent/itComment, so it is not cached or polled
+    @GetMapping("/export")
+    public ResponseEntity<List<TicketDto>> exportTickets() {
+        return ResponseEntity.ok(TicketDto.fromTickets(ticketService.getAllTickets(), clientDeviceService));
+    }
+
+    // Incidents with the tickets auto-linked to them as duplicates
+    @GetMapping("/clusters")
+    @QueryBudget(2)
+    public ResponseEntity<List<TicketCluster>> getDuplicateClusters() {
+        return ResponseEntity.ok(ticketService.getDuplicateClusters());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Ticket> getTicketById(@PathVariable Long id) {
+    @QueryBudget(2)
+    public ResponseEntity<TicketDto> getTicketById(@PathVariable Long id) {
         Optional<Ticket> ticket = ticketService.findTicketById(id);
-        return ticket.map(ResponseEntity::ok)
+        return ticket.map(t -> ResponseEntity.ok(TicketDto.fromTicket(t, clientDeviceService)))
                     .orElse(ResponseEntity.notFound().build());
     }
 
+    // Server side filter + sort + page, ex. /api/tickets/filter?status=OPEN,IN_PROGRESS&sort=priority,desc
+    @GetMapping("/filter")
+    @QueryBudget(2)
+    public ResponseEntity<Page<Ticket>> filterTickets(
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) List<String> priority,
+            @PageableDefault(size = 50, sort = "requestedTime", direction = Sort.Direction.DESC) Pageable pageable) {
+        try {
+            return ResponseEntity.ok(ticketService.filterTickets(parseStatuses(status), parsePriorities(priority), pageable));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Same as /filter for tickets that are not closed, answered from memory.
+    // assignee= (empty) lists unassigned tickets. Sort on requestedTime, priority or subject.
+    @GetMapping("/open")
+    @QueryBudget(0)
+    public ResponseEntity<Page<TicketSummary>> filterOpenTickets(
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) List<String> priority,
+            @RequestParam(required = false) String assignee,
+            @PageableDefault(size = 25, sort = "requestedTime", direction = Sort.Direction.DESC) Pageable pageable) {
+        if (!openTicketIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        try {
+            return ResponseEntity.ok(openTicketIndex.query(parseStatuses(status), parsePriorities(priority), assignee, pageable));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Also parses the reactive profile's status/priority parameters
+    public static List<TicketStatus> parseStatuses(List<String> status) {
+        return status == null ? null : status.stream()
+            .map(TicketStatus::fromString)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    public static List<TicketPriority> parsePriorities(List<String> priority) {
+        return priority == null ? null : priority.stream()
+            .map(TicketPriority::fromString)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<String> updateTicket(@PathVariable Long id, @RequestBody TicketRegistrationRequest request) {
-        boolean updated = ticketService.updateTicket(
-            id,
-            request.getFullName(),
-            request.getTicketStatus(),
-            request.getSubject(),
-            request.getRequestedTime(),
-            request.getIntent(),
-            request.getAssignedPerson(),
-            request.getPriority(),  
-            request.getClientIpAddress(),
-            request.getComputerName(),
-            request.getUserAgent(),
-            request.getItComment(),
-            request.getClosedTime()  // Add closedTime here
-        );
+        boolean updated;
+        try {
+            updated = ticketService.updateTicket(
+                id,
+                request.getFullName(),
+                request.getTicketStatus(),
+                request.getSubject(),
+                request.getRequestedTime(),
+                request.getIntent(),
+                request.getAssignedPerson(),
+                request.getPriority(),  
+                request.getClientIpAddress(),
+                request.getComputerName(),
+                request.getUserAgent(),
+                request.getItComment(),
+                request.getClosedTime()  // Add closedTime here
+            );
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body("Failed to update ticket: " + e.getMessage());
+        }
         
         return updated ? 
             ResponseEntity.ok("Ticket updated successfully") :
@@ -82,8 +209,26 @@ public class TicketController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Ticket>> searchTickets(@RequestParam String query) {
+    public ResponseEntity<List<TicketDto>> searchTickets(@RequestParam String query) {
         List<Ticket> tickets = ticketService.searchTickets(query);
-        return ResponseEntity.ok(tickets);
+        return ResponseEntity.ok(TicketDto.fromTickets(tickets, clientDeviceService));
+    }
+
+    // GET /api/tickets/export (or /search?query=) as one JSON ticket per line, in id order across shards.
+    // Read in keyset batches while the client consumes them: a slow client holds the next batch back
+    // instead of the whole table being buffered, and the request thread is freed (the rows are written
+    // from the stream pool). The reactive profile serves the same contract on WebFlux (see reactive/)
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamTickets(@RequestParam(required = false) String query) {
+        ObjectWriter writer = objectMapper.writerFor(TicketDto.class);
+        StreamingResponseBody body = out -> ticketService.streamTickets(query, ticket -> {
+            try {
+                out.write(writer.writeValueAsBytes(ticket));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.schnitzel.ticketingsystem;
+
+/**
+ * Ticket priority. Stored as a smallint code (see TicketPriorityConverter)
+ * that increases with urgency, so ORDER BY priority sorts correctly.
+ */
+public enum TicketPriority {
+    LOW((short) 1),
+    MEDIUM((short) 2),
+    HIGH((short) 3),
+    URGENT((short) 4);
+
+    private final short code;
+
+    TicketPriority(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    // One level up, used by SLA escalation. URGENT stays URGENT.
+    public TicketPriority escalate() {
+        return this == URGENT ? URGENT : values()[ordinal() + 1];
+    }
+
+    public static TicketPriority fromCode(short code) {
+        for (TicketPriority priority : values()) {
+            if (priority.code == code) {
+                return priority;
+            }
+        }
+        throw new IllegalArgumentException("Unknown ticket priority code: " + code);
+    }
+
+    /**
+     * Lenient parse, same rules as TicketStatus.fromString. Returns null for blank input.
+     */
+    public static TicketPriority fromString(String value) {
+        String key = TicketStatus.normalize(value);
+        if (key.isEmpty()) {
+            return null;
+        }
+
+        switch (key) {
+            case "LOW":
+                return LOW;
+            case "MEDIUM":
+            case "NORMAL":
+                return MEDIUM;
+            case "HIGH":
+                return HIGH;
+            case "URGENT":
+            case "CRITICAL":
+                return URGENT;
+            default:
+                throw new IllegalArgumentException("Invalid ticket priority: " + value);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.schnitzel.ticketingsystem;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class TicketPriorityConverter implements AttributeConverter<TicketPriority, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(TicketPriority priority) {
+        return priority == null ? null : priority.getCode();
+    }
+
+    @Override
+    public TicketPriority convertToEntityAttribute(Short code) {
+        return code == null ? null : TicketPriority.fromCode(code);
+    }
+}
@@ -1,12 +1,108 @@
 package com.schnitzel.ticketingsystem;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import com.schnitzel.ticketingsystem.dto.TicketDto;
+import com.schnitzel.ticketingsystem.dto.TicketSummary;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, Long>{
-   List<Ticket> findByTicketStatusContainingOrFullNameContaining(String ticketStatus, String fullName);
+   List<Ticket> findByTicketStatusOrFullNameContaining(TicketStatus ticketStatus, String fullName);
+
+   List<Ticket> findByFullNameContaining(String fullName);
+
+   // Keyset batches for /api/tickets/stream: the next tickets after a ticket id, in id order
+   @QueryHints(@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"))
+   List<Ticket> findByTicketIdGreaterThanOrderByTicketId(Long after, Pageable batch);
+
+   @QueryHints(@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"))
+   List<Ticket> findByTicketIdGreaterThanAndFullNameContainingOrderByTicketId(Long after, String fullName, Pageable batch);
+
+   @QueryHints(@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"))
+   List<Ticket> findByTicketIdGreaterThanAndTicketStatusOrTicketIdGreaterThanAndFullNameContainingOrderByTicketId(
+         Long after, TicketStatus ticketStatus, Long alsoAfter, String fullName, Pageable batch);
+
+   // Duplicate detection: recent tickets for the index, and linked duplicates for the cluster view
+   List<Ticket> findByRequestedTimeAfter(LocalDateTime since);
+
+   List<Ticket> findByParentTicketId(Long parentTicketId);
+
+   List<Ticket> findByParentTicketIdIsNotNullOrderByRequestedTimeAsc();
+
+   // List view without intent/itComment, so those columns are never read or decompressed
+   @Query("SELECT new com.schnitzel.ticketingsystem.dto.TicketSummary(t.ticketId, t.fullName, t.subject, " +
+          "t.ticketStatus, t.priority, t.assignedPerson, t.requestedTime, t.closedTime, t.clientDeviceId) " +
+          "FROM Ticket t")
+   List<TicketSummary> findAllSummaries();
+
+   // GET /api/tickets rows: the plain text previews instead of intent/itComment, which are not read
+   @Query("SELECT new com.schnitzel.ticketingsystem.dto.TicketDto(t.ticketId, t.fullName, t.subject, t.intentPreview, " +
+          "t.priority, t.assignedPerson, t.ticketStatus, t.requestedTime, t.closedTime, t.itCommentPreview, " +
+          "t.slaDueAt, t.parentTicketId, t.claimExpiresAt, t.routingKey, t.clientDeviceId) " +
+          "FROM Ticket t")
+   List<TicketDto> findAllListRows();
+
+   // Working set for the in-memory open ticket index
+   @Query("SELECT new com.schnitzel.ticketingsystem.dto.TicketSummary(t.ticketId, t.fullName, t.subject, " +
+          "t.ticketStatus, t.priority, t.assignedPerson, t.requestedTime, t.closedTime, t.clientDeviceId) " +
+          "FROM Ticket t WHERE t.ticketStatus IS NULL OR t.ticketStatus <> :excluded")
+   List<TicketSummary> findSummariesByTicketStatusNot(TicketStatus excluded);
+
+   @Query("SELECT new com.schnitzel.ticketingsystem.dto.TicketSummary(t.ticketId, t.fullName, t.subject, " +
+          "t.ticketStatus, t.priority, t.assignedPerson, t.requestedTime, t.closedTime, t.clientDeviceId) " +
+          "FROM Ticket t WHERE t.ticketId = :ticketId")
+   Optional<TicketSummary> findSummaryById(Long ticketId);
+
+   // Work queue: best unassigned OPEN ticket (or one whose claim lease ran out).
+   // SKIP LOCKED lets concurrent agents each get a different row without waiting.
+   @Query(value = "SELECT * FROM ticket " +
+                  "WHERE ticket_status = 0 " +
+                  "AND (assigned_person IS NULL OR assigned_person = '' OR claim_expires_at < :now) " +
+                  "ORDER BY priority DESC, requested_time ASC " +
+                  "LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+   Optional<Ticket> lockNextClaimable(LocalDateTime now);
+
+   // Same candidate without the lock, to pick the shard to claim from first
+   @Query("SELECT new com.schnitzel.ticketingsystem.dto.TicketSummary(t.ticketId, t.fullName, t.subject, " +
+          "t.ticketStatus, t.priority, t.assignedPerson, t.requestedTime, t.closedTime, t.clientDeviceId) " +
+          "FROM Ticket t WHERE t.ticketStatus = :status " +
+          "AND (t.assignedPerson IS NULL OR t.assignedPerson = '' OR t.claimExpiresAt < :now) " +
+          "ORDER BY t.priority DESC, t.requestedTime ASC")
+   List<TicketSummary> findClaimable(TicketStatus status, LocalDateTime now, Pageable pageable);
+
+   // SLA timers to re-arm after a restart: [ticketId, slaDueAt, requestedTime, priority]
+   @Query("SELECT t.ticketId, t.slaDueAt, t.requestedTime, t.priority FROM Ticket t WHERE t.ticketStatus IN :statuses")
+   List<Object[]> findSlaTimers(Collection<TicketStatus> statuses);
+
+   // First deadline of a ticket from before SLA tracking; keeps one another node already stored
+   @Modifying
+   @Query("UPDATE Ticket t SET t.slaDueAt = :dueAt WHERE t.ticketId = :ticketId AND t.slaDueAt IS NULL")
+   int initSlaDueAt(Long ticketId, LocalDateTime dueAt);
+
+   // SELECT ... FOR UPDATE: every node runs its own SLA timers, only one may escalate a ticket
+   @Lock(LockModeType.PESSIMISTIC_WRITE)
+   @Query("SELECT t FROM Ticket t WHERE t.ticketId = :ticketId")
+   Optional<Ticket> findByIdForUpdate(Long ticketId);
+
+   // Status/priority filters, served by idx_ticket_status_priority and the open-ticket partial index
+   Page<Ticket> findByTicketStatusIn(Collection<TicketStatus> statuses, Pageable pageable);
+
+   Page<Ticket> findByPriorityIn(Collection<TicketPriority> priorities, Pageable pageable);
+
+   Page<Ticket> findByTicketStatusInAndPriorityIn(Collection<TicketStatus> statuses, Collection<TicketPriority> priorities, Pageable pageable);
    
-   }
\ No newline at end of file
+   }
@@ -1,19 +1,61 @@
 package com.schnitzel.ticketingsystem;
 
 import com.schnitzel.ticketingsystem.TicketValidatorService;
+import com.schnitzel.ticketingsystem.assignment.WorkloadIndex;
+import com.schnitzel.ticketingsystem.attachment.AttachmentService;
+import com.schnitzel.ticketingsystem.cache.CacheRegion;
+import com.schnitzel.ticketingsystem.cache.ResponseCache;
+import com.schnitzel.ticketingsystem.clientdevice.ClientDevice;
+import com.schnitzel.ticketingsystem.clientdevice.ClientDeviceService;
+import com.schnitzel.ticketingsystem.datasource.ShardContext;
+import com.schnitzel.ticketingsystem.dto.TicketCluster;
+import com.schnitzel.ticketingsystem.dto.TicketDto;
+import com.schnitzel.ticketingsystem.dto.TicketSummary;
+import com.schnitzel.ticketingsystem.duplicates.DuplicateDetector;
+import com.schnitzel.ticketingsystem.hotspots.TicketHotspots;
+import com.schnitzel.ticketingsystem.journal.TicketChangeBatch;
+import com.schnitzel.ticketingsystem.journal.TicketChangeJournal;
+import com.schnitzel.ticketingsystem.journal.TicketChangeType;
+import com.schnitzel.ticketingsystem.profiling.TicketOperationEvent;
 import com.schnitzel.ticketingsystem.service.EmailService;
+import com.schnitzel.ticketingsystem.sharding.RoutingKeys;
+import com.schnitzel.ticketingsystem.sharding.TicketShards;
+import com.schnitzel.ticketingsystem.sla.SlaPolicy;
+import com.schnitzel.ticketingsystem.sla.SlaScheduler;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+/**
+ * Ticket operations. Each one runs in a transaction on the shard that holds
+ * the ticket (see TicketShards); lists read every shard and merge. Client
+ * devices and attachments live on the home shard, whatever shard the ticket is on.
+ */
 @Service
 public class TicketService {
 
+    // Tickets per shard read at a time by streamTickets
+    private static final int STREAM_BATCH = 500;
+
     @Autowired
     private TicketRepository ticketRepository; 
 
@@ -23,22 +65,82 @@ public class TicketService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private ClientDeviceService clientDeviceService;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private TicketChangeJournal changeJournal;
+
+    @Autowired
+    private DuplicateDetector duplicateDetector;
+
+    @Autowired
+    private SlaPolicy slaPolicy;
+
+    @Autowired
+    private SlaScheduler slaScheduler;
+
+    @Autowired
+    private WorkloadIndex workloadIndex;
+
+    @Autowired
+    private AttachmentService attachmentService;
+
+    @Autowired
+    private TicketShards ticketShards;
+
+    @Autowired
+    private RoutingKeys routingKeys;
+
+    @Autowired
+    private TicketHotspots ticketHotspots;
+
     // Updated updateTicket method with closedTime
     public boolean updateTicket(Long ticketId, String fullName, String ticketStatus, String subject, 
                  LocalDateTime requestedTime, String intent, String assignedPerson, String priority,
                  String clientIpAddress, String computerName, String userAgent, String itComment,
                  LocalDateTime closedTime) {
+        TicketOperationEvent event = TicketOperationEvent.start("update");
+        event.setTicketId(ticketId);
+        try {
+            boolean updated = ticketShards.inTransaction(ticketShards.shardOf(ticketId), false, () -> 
+                applyUpdate(ticketId, fullName, ticketStatus, subject, requestedTime, intent, assignedPerson, priority,
+                            clientIpAddress, computerName, userAgent, itComment, closedTime));
+            event.setSucceeded(updated);
+            return updated;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private boolean applyUpdate(Long ticketId, String fullName, String ticketStatus, String subject, 
+                 LocalDateTime requestedTime, String intent, String assignedPerson, String priority,
+                 String clientIpAddress, String computerName, String userAgent, String itComment,
+                 LocalDateTime closedTime) {
         
         Optional<Ticket> existingTicket = ticketRepository.findById(ticketId); 
         if(existingTicket.isPresent()){
             Ticket ticket = existingTicket.get();
+            TicketStatus statusBefore = ticket.getTicketStatus();
+            TicketPriority priorityBefore = ticket.getPriority();
             
             // Update fields if provided
             if(fullName != null && !fullName.trim().isEmpty()){
                 ticket.setFullName(fullName.trim());
             }
             if(ticketStatus != null && !ticketStatus.trim().isEmpty()){
-                ticket.setTicketStatus(ticketStatus.trim());
+                TicketStatus next = TicketStatus.fromString(ticketStatus);
+                TicketStatus current = ticket.getTicketStatus();
+                if(current != null && !current.canTransitionTo(next)){
+                    throw new IllegalStateException("Cannot change ticket status from " + current + " to " + next);
+                }
+                if(current == TicketStatus.CLOSED && next != TicketStatus.CLOSED){
+                    ticket.setClosedTime(null); // reopened
+                }
+                ticket.setTicketStatus(next);
             }
             if(subject != null && !subject.trim().isEmpty()){
                 ticket.setSubject(subject.trim());
@@ -52,17 +154,16 @@ public class TicketService {
             if(assignedPerson != null){
                 ticket.setAssignedPerson(assignedPerson.trim());
             }
-            if(priority != null){
-                ticket.setPriority(priority.trim());
+            if(priority != null && !priority.trim().isEmpty()){
+                ticket.setPriority(TicketPriority.fromString(priority));
             }
-            if(clientIpAddress != null){
-                ticket.setClientIpAddress(clientIpAddress.trim());
-            }
-            if(computerName != null){
-                ticket.setComputerName(computerName.trim());
-            }
-            if(userAgent != null){
-                ticket.setUserAgent(userAgent.trim());
+            if(clientIpAddress != null || computerName != null || userAgent != null){
+                // Only the provided parts change, the rest comes from the current device
+                Optional<ClientDevice> current = onHome(() -> clientDeviceService.findById(ticket.getClientDeviceId()));
+                ticket.setClientDeviceId(onHome(() -> clientDeviceService.intern(
+                    clientIpAddress != null ? clientIpAddress : current.map(ClientDevice::getIpAddress).orElse(null),
+                    computerName != null ? computerName : current.map(ClientDevice::getComputerName).orElse(null),
+                    userAgent != null ? userAgent : current.map(ClientDevice::getUserAgent).orElse(null))));
             }
             if(itComment != null){
                 ticket.setItComment(itComment.trim());
@@ -73,7 +174,23 @@ public class TicketService {
                 ticket.setClosedTime(closedTime);
             }
             
+            slaPolicy.updateDeadline(ticket, statusBefore != null ? statusBefore : TicketStatus.OPEN, priorityBefore);
+
             ticketRepository.save(ticket);
+            slaScheduler.track(ticket);
+            responseCache.invalidate(CacheRegion.TICKETS);
+            changeJournal.record(ticketId, TicketChangeType.UPDATE);
+
+            boolean textChanged = (subject != null && !subject.trim().isEmpty()) ||
+                                  (intent != null && !intent.trim().isEmpty()) || requestedTime != null;
+            if(textChanged){
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        duplicateDetector.reindex(ticket);
+                    }
+                });
+            }
             return true;
         }
         return false;
@@ -90,27 +207,205 @@ public class TicketService {
     }
 
     public Optional<Ticket> findTicketById(Long ticketId){
-        return ticketRepository.findById(ticketId);
+        return ticketShards.inTransaction(ticketShards.shardOf(ticketId), true, () -> ticketRepository.findById(ticketId));
     }
     
+    // Full rows for the CSV export: reads and decompresses every intent/itComment
     public List<Ticket> getAllTickets(){
-        return ticketRepository.findAll();
+        return ticketShards.gatherAll(false, shard -> ticketRepository.findAll());
+    }
+
+    // Rows of GET /api/tickets, with text previews: intent and itComment are not read or decompressed.
+    // Feeds the response cache, which must never be rebuilt from a lagging replica, so read-write (primary)
+    public List<TicketDto> getTicketList(){
+        return ticketShards.gatherAll(false, shard -> ticketRepository.findAllListRows());
+    }
+
+    // Response cache too
+    public List<TicketSummary> getAllTicketSummaries(){
+        return ticketShards.gatherAll(false, shard -> ticketRepository.findAllSummaries());
     }
 
     public Page<Ticket> getAllTicketsPaginated(Pageable pageable){ 
-        return ticketRepository.findAll(pageable);
+        return pageAcrossShards(pageable, page -> ticketRepository.findAll(page));
     }
 
     public boolean deleteTicket(Long ticketId){
-        if(ticketRepository.existsById(ticketId)){ 
-            ticketRepository.deleteById(ticketId);
+        int shard = ticketShards.shardOf(ticketId);
+        boolean deleted = ticketShards.inTransaction(shard, false, () -> deleteOnShard(ticketId));
+        if(deleted){
+            // Duplicates filed on other shards, one transaction each
+            for(int other = 0; other < ticketShards.count(); other++){
+                if(other != shard){
+                    ticketShards.inTransaction(other, false, () -> {
+                        List<Ticket> children = detachDuplicates(ticketId);
+                        if(!children.isEmpty()){
+                            responseCache.invalidate(CacheRegion.TICKETS);
+                            for(Ticket child : children){
+                                changeJournal.record(child.getTicketId(), TicketChangeType.UPDATE);
+                            }
+                        }
+                    });
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private boolean deleteOnShard(Long ticketId){
+        // One lookup: deleteById would load the row again after an existsById
+        Optional<Ticket> ticket = ticketRepository.findById(ticketId);
+        if(ticket.isPresent()){ 
+            List<Ticket> children = detachDuplicates(ticketId);
+            ticketShards.inTransaction(ShardContext.HOME, false, () -> {
+                attachmentService.deleteForTicket(ticketId);
+            });
+            ticketRepository.delete(ticket.get());
+            slaScheduler.cancel(ticketId);
+            responseCache.invalidate(CacheRegion.TICKETS);
+            for(Ticket child : children){
+                changeJournal.record(child.getTicketId(), TicketChangeType.UPDATE);
+            }
+            changeJournal.record(ticketId, TicketChangeType.DELETE);
+
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    duplicateDetector.remove(ticketId);
+                }
+            });
             return true;
         }
         return false;
     }
 
+    // Duplicates of a deleted incident stand on their own again (the caller journals them)
+    private List<Ticket> detachDuplicates(Long ticketId){
+        List<Ticket> children = ticketRepository.findByParentTicketId(ticketId);
+        for(Ticket child : children){
+            child.setParentTicketId(null);
+        }
+        ticketRepository.saveAll(children);
+        return children;
+    }
+
     public List<Ticket> searchTickets(String query){ 
-        return ticketRepository.findByTicketStatusContainingOrFullNameContaining(query, query);
+        // A query that names a status searches by that status too (index lookup)
+        TicketStatus status = statusNamedBy(query);
+        TicketOperationEvent event = TicketOperationEvent.start("search");
+        try {
+            List<List<Ticket>> found = ticketShards.gather(true, shard -> status == null
+                    ? ticketRepository.findByFullNameContaining(query)
+                    : ticketRepository.findByTicketStatusOrFullNameContaining(status, query));
+            List<Ticket> tickets = found.size() == 1 ? found.get(0) : found.stream().flatMap(List::stream)
+                    .sorted(Comparator.comparing(Ticket::getTicketId))
+                    .collect(Collectors.toList());
+            event.setResults(tickets.size());
+            event.setSucceeded(true);
+            return tickets;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Every ticket (query null) or the searchTickets results, handed to sink one
+     * at a time in ticket id order across shards. Each shard is read in keyset
+     * batches of STREAM_BATCH, one short read-only transaction each, so a slow
+     * client holds no connection between batches; the client devices of a batch
+     * are looked up in one go. Memory stays at a batch per shard.
+     */
+    public void streamTickets(String query, Consumer<TicketDto> sink){
+        int shards = ticketShards.count();
+        List<ArrayDeque<TicketDto>> batches = new ArrayList<>(shards);
+        long[] after = new long[shards];
+        PriorityQueue<Integer> heads = new PriorityQueue<>(Math.max(1, shards),
+                Comparator.comparing(shard -> batches.get(shard).peek().getTicketId()));
+        for(int shard = 0; shard < shards; shard++){
+            batches.add(new ArrayDeque<>());
+            if(nextBatch(shard, query, after, batches.get(shard))){
+                heads.add(shard);
+            }
+        }
+        while(!heads.isEmpty()){
+            int shard = heads.poll();
+            ArrayDeque<TicketDto> batch = batches.get(shard);
+            sink.accept(batch.poll());
+            if(!batch.isEmpty() || (after[shard] != Long.MAX_VALUE && nextBatch(shard, query, after, batch))){
+                heads.add(shard);
+            }
+        }
+    }
+
+    // Fills batch with the shard's next tickets; after[shard] becomes Long.MAX_VALUE on the last one
+    private boolean nextBatch(int shard, String query, long[] after, ArrayDeque<TicketDto> batch){
+        Pageable page = PageRequest.of(0, STREAM_BATCH);
+        TicketStatus status = query == null ? null : statusNamedBy(query);
+        List<Ticket> tickets = ticketShards.inTransaction(shard, true, () -> query == null
+                ? ticketRepository.findByTicketIdGreaterThanOrderByTicketId(after[shard], page)
+                : status == null
+                    ? ticketRepository.findByTicketIdGreaterThanAndFullNameContainingOrderByTicketId(after[shard], query, page)
+                    : ticketRepository.findByTicketIdGreaterThanAndTicketStatusOrTicketIdGreaterThanAndFullNameContainingOrderByTicketId(
+                          after[shard], status, after[shard], query, page));
+        after[shard] = tickets.size() < STREAM_BATCH ? Long.MAX_VALUE : tickets.get(tickets.size() - 1).getTicketId();
+        batch.addAll(TicketDto.fromTickets(tickets, clientDeviceService));
+        return !tickets.isEmpty();
+    }
+
+    private static TicketStatus statusNamedBy(String query){
+        try {
+            return TicketStatus.fromString(query);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public Page<Ticket> filterTickets(List<TicketStatus> statuses, List<TicketPriority> priorities, Pageable pageable){
+        boolean byStatus = statuses != null && !statuses.isEmpty();
+        boolean byPriority = priorities != null && !priorities.isEmpty();
+
+        return pageAcrossShards(pageable, page -> {
+            if(byStatus && byPriority){
+                return ticketRepository.findByTicketStatusInAndPriorityIn(statuses, priorities, page);
+            }
+            if(byStatus){
+                return ticketRepository.findByTicketStatusIn(statuses, page);
+            }
+            if(byPriority){
+                return ticketRepository.findByPriorityIn(priorities, page);
+            }
+            return ticketRepository.findAll(page);
+        });
+    }
+
+    /*
+     * One page over all shards: every shard returns its first offset + size rows
+     * in the page order, the merge skips offset and keeps size. Deep pages cost
+     * more the more shards there are.
+     */
+    private Page<Ticket> pageAcrossShards(Pageable pageable, Function<Pageable, Page<Ticket>> query){
+        if(!ticketShards.isSharded() || pageable.isUnpaged()){
+            List<Page<Ticket>> pages = ticketShards.gatherAll(true, shard -> List.of(query.apply(pageable)));
+            if(pages.size() == 1){
+                return pages.get(0);
+            }
+            List<Ticket> all = new ArrayList<>();
+            pages.forEach(page -> all.addAll(page.getContent()));
+            return new PageImpl<>(all, pageable, all.size());
+        }
+
+        int top = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        Pageable firstRows = PageRequest.of(0, top, pageable.getSort());
+        List<List<Ticket>> rows = new ArrayList<>();
+        long total = 0;
+        for(Page<Ticket> page : ticketShards.gatherAll(true, shard -> List.of(query.apply(firstRows)))){
+            rows.add(page.getContent());
+            total += page.getTotalElements();
+        }
+        Comparator<Ticket> order = TicketShards.<Ticket>comparator(pageable.getSort())
+                .thenComparing(Ticket::getTicketId);
+        return new PageImpl<>(TicketShards.merge(rows, order, pageable.getOffset(), pageable.getPageSize()),
+                              pageable, total);
     }
 
     public Ticket createTicket(String fullName, String subject, String description, String assignedPerson, String priority, String clientIpAddress,
@@ -120,29 +415,122 @@ public class TicketService {
             throw new IllegalArgumentException("Invalid full name");
         }
 
+        String routingKey = routingKeys.forClient(clientIpAddress);
+        TicketOperationEvent event = TicketOperationEvent.start("create");
+        try {
+            Ticket created = ticketShards.inTransaction(ticketShards.shardFor(routingKey), false, () ->
+                insertTicket(routingKey, fullName, subject, description, assignedPerson, priority,
+                             clientIpAddress, computerName, userAgent, itComment));
+            event.setTicketId(created.getTicketId());
+            event.setSucceeded(true);
+            return created;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private Ticket insertTicket(String routingKey, String fullName, String subject, String description, String assignedPerson,
+    String priority, String clientIpAddress, String computerName, String userAgent, String itComment) {
         Ticket newTicket = new Ticket();
+        newTicket.setRoutingKey(routingKey);
         newTicket.setFullName(fullName);
         newTicket.setSubject(subject);
         newTicket.setIntent(description);
         newTicket.setAssignedPerson(assignedPerson);
-        newTicket.setTicketStatus("OPEN");
+        newTicket.setTicketStatus(TicketStatus.OPEN);
         newTicket.setRequestedTime(LocalDateTime.now());
-        newTicket.setPriority(priority);
-        newTicket.setClientIpAddress(clientIpAddress);
-        newTicket.setComputerName(computerName);
-        newTicket.setUserAgent(userAgent);
+        TicketPriority parsedPriority = TicketPriority.fromString(priority);
+        newTicket.setPriority(parsedPriority != null ? parsedPriority : TicketPriority.MEDIUM);
+        newTicket.setClientDeviceId(onHome(() -> clientDeviceService.intern(clientIpAddress, computerName, userAgent)));
         newTicket.setItComment(itComment);
+        slaPolicy.updateDeadline(newTicket, null, null);
+
+        // Link to an open incident if this looks like one more report of it
+        int[] signature = duplicateDetector.signature(subject, description);
+        Long parentTicketId = duplicateDetector.findParent(signature);
+        newTicket.setParentTicketId(parentTicketId);
 
         Ticket savedTicket = ticketRepository.save(newTicket);
+        if(assignedPerson == null || assignedPerson.isBlank()){
+            workloadIndex.autoAssign(savedTicket); // flushed with the commit
+        }
+        slaScheduler.track(savedTicket);
+        responseCache.invalidate(CacheRegion.TICKETS);
+        changeJournal.record(savedTicket.getTicketId(), TicketChangeType.CREATE);
         
-        // Send email notification
-        emailService.sendNewTicketNotification(fullName, subject, description);
+        // Once committed: index and count the ticket and send the email notification,
+        // except for duplicates of a known incident
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                duplicateDetector.index(savedTicket, signature);
+                ticketHotspots.record(computerName, clientIpAddress, subject);
+                if(parentTicketId == null){
+                    emailService.sendNewTicketNotification(fullName, subject, description);
+                }
+            }
+        });
         
         return savedTicket;
     }
 
+    // Parent tickets with their linked duplicates, largest incident first.
+    // A duplicate can be on another shard than its parent, so both are gathered.
+    public List<TicketCluster> getDuplicateClusters() {
+        List<Ticket> duplicates = TicketShards.merge(
+                ticketShards.gather(true, shard -> ticketRepository.findByParentTicketIdIsNotNullOrderByRequestedTimeAsc()),
+                Comparator.comparing(Ticket::getRequestedTime, Comparator.nullsLast(Comparator.naturalOrder())),
+                0, Integer.MAX_VALUE);
+        Map<Long, List<Long>> duplicatesByParent = new LinkedHashMap<>();
+        for(Ticket ticket : duplicates){
+            duplicatesByParent.computeIfAbsent(ticket.getParentTicketId(), k -> new ArrayList<>()).add(ticket.getTicketId());
+        }
+
+        Map<Integer, List<Long>> parentsByShard = new HashMap<>();
+        for(Long parentId : duplicatesByParent.keySet()){
+            parentsByShard.computeIfAbsent(ticketShards.shardOf(parentId), k -> new ArrayList<>()).add(parentId);
+        }
+        List<Ticket> parents = ticketShards.gatherAll(true,
+                shard -> ticketRepository.findAllById(parentsByShard.getOrDefault(shard, List.of())));
+
+        List<TicketCluster> clusters = new ArrayList<>();
+        for(Ticket parent : parents){
+            clusters.add(new TicketCluster(parent.getTicketId(), parent.getSubject(), parent.getTicketStatus(),
+                                           duplicatesByParent.get(parent.getTicketId())));
+        }
+        clusters.sort((a, b) -> Integer.compare(b.getCount(), a.getCount()));
+        return clusters;
+    }
+
     // Method to save ticket
     public Ticket saveTicket(Ticket ticket) {
-        return ticketRepository.save(ticket);
+        boolean isNew = ticket.getTicketId() == null;
+        if(isNew && ticket.getRoutingKey() == null){
+            ticket.setRoutingKey(RoutingKeys.DEFAULT_KEY);
+        }
+        int shard = isNew ? ticketShards.shardFor(ticket.getRoutingKey()) : ticketShards.shardOf(ticket.getTicketId());
+        return ticketShards.inTransaction(shard, false, () -> storeTicket(ticket, isNew));
+    }
+
+    private Ticket storeTicket(Ticket ticket, boolean isNew) {
+        Ticket saved = ticketRepository.save(ticket);
+        slaScheduler.track(saved);
+        responseCache.invalidate(CacheRegion.TICKETS);
+        changeJournal.record(saved.getTicketId(), isNew ? TicketChangeType.CREATE : TicketChangeType.UPDATE);
+        return saved;
+    }
+
+    // Delta sync for clients that already hold a copy of the ticket list. Each shard has
+    // its own journal (written in the same transactions as its tickets), so its own cursor.
+    public TicketChangeBatch getChangesSince(int shard, long since, int limit) {
+        if(shard < 0 || shard >= ticketShards.count()){
+            throw new IllegalArgumentException("No shard " + shard);
+        }
+        return ticketShards.inTransaction(shard, true, () -> changeJournal.changesSince(since, limit));
+    }
+
+    // Client devices live on the home shard, whichever shard the ticket is on
+    private <T> T onHome(Supplier<T> work) {
+        return ticketShards.inTransaction(ShardContext.HOME, false, work);
     }
 }
\ No newline at end of file
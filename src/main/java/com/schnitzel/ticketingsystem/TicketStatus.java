@@ -0,0 +1,103 @@
+package com.schnitzel.ticketingsystem;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Ticket lifecycle. Stored as a smallint code (see TicketStatusConverter),
+ * so the codes must never be renumbered.
+ */
+public enum TicketStatus {
+    OPEN((short) 0),
+    IN_PROGRESS((short) 1),
+    RESOLVED((short) 2),
+    CLOSED((short) 3);
+
+    private final short code;
+
+    TicketStatus(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    // Statuses that still need work (covered by the partial indexes)
+    public boolean isOpen() {
+        return this == OPEN || this == IN_PROGRESS;
+    }
+
+    /**
+     * Allowed moves. Setting the same status again is always allowed.
+     */
+    public boolean canTransitionTo(TicketStatus next) {
+        if (next == null) return false;
+        if (next == this) return true;
+        return allowedNext().contains(next);
+    }
+
+    private Set<TicketStatus> allowedNext() {
+        switch (this) {
+            case OPEN:
+                return EnumSet.of(IN_PROGRESS, RESOLVED, CLOSED);
+            case IN_PROGRESS:
+                return EnumSet.of(OPEN, RESOLVED, CLOSED);
+            case RESOLVED:
+                return EnumSet.of(IN_PROGRESS, CLOSED);
+            case CLOSED:
+                return EnumSet.of(OPEN); // reopen
+            default:
+                return EnumSet.noneOf(TicketStatus.class);
+        }
+    }
+
+    public static TicketStatus fromCode(short code) {
+        for (TicketStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown ticket status code: " + code);
+    }
+
+    /**
+     * Lenient parse: ignores case, spaces, '_' and '-', and accepts the old
+     * free-text values (pending, in prog, done). Returns null for blank input.
+     */
+    public static TicketStatus fromString(String value) {
+        String key = normalize(value);
+        if (key.isEmpty()) {
+            return null;
+        }
+
+        switch (key) {
+            case "OPEN":
+            case "NEW":
+            case "PENDING":
+                return OPEN;
+            case "INPROGRESS":
+            case "INPROG":
+                return IN_PROGRESS;
+            case "RESOLVED":
+                return RESOLVED;
+            case "CLOSED":
+            case "DONE":
+                return CLOSED;
+            default:
+                throw new IllegalArgumentException("Invalid ticket status: " + value);
+        }
+    }
+
+    static String normalize(String value) {
+        if (value == null) return "";
+        StringBuilder key = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != ' ' && c != '_' && c != '-') {
+                key.append(Character.toUpperCase(c));
+            }
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package com.schnitzel.ticketingsystem;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class TicketStatusConverter implements AttributeConverter<TicketStatus, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(TicketStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public TicketStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : TicketStatus.fromCode(code);
+    }
+}
@@ -0,0 +1,69 @@
+package com.schnitzel.ticketingsystem;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Converts the old free-text ticket_status / priority columns to the smallint
+ * codes of TicketStatus / TicketPriority, and creates the partial index for
+ * open tickets. Safe to run on every startup.
+ */
+@Component
+public class TicketStatusMigration implements ApplicationRunner {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Same aliases as TicketStatus.fromString, unknown values become OPEN
+    private static final String STATUS_CODES =
+        "CASE UPPER(REGEXP_REPLACE(COALESCE(ticket_status, ''), '[ _-]', '', 'g')) " +
+        "WHEN 'INPROGRESS' THEN 1 WHEN 'INPROG' THEN 1 " +
+        "WHEN 'RESOLVED' THEN 2 " +
+        "WHEN 'CLOSED' THEN 3 WHEN 'DONE' THEN 3 " +
+        "ELSE 0 END";
+
+    // Same aliases as TicketPriority.fromString, unknown values become MEDIUM
+    private static final String PRIORITY_CODES =
+        "CASE UPPER(REGEXP_REPLACE(COALESCE(priority, ''), '[ _-]', '', 'g')) " +
+        "WHEN 'LOW' THEN 1 " +
+        "WHEN 'HIGH' THEN 3 " +
+        "WHEN 'URGENT' THEN 4 WHEN 'CRITICAL' THEN 4 " +
+        "ELSE 2 END";
+
+    @Override
+    public void run(ApplicationArguments args) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (isTextColumn("ticket_status")) {
+                System.out.println("Converting ticket.ticket_status to smallint codes");
+                jdbcTemplate.execute("ALTER TABLE ticket ALTER COLUMN ticket_status TYPE SMALLINT USING (" + STATUS_CODES + ")");
+            }
+            if (isTextColumn("priority")) {
+                System.out.println("Converting ticket.priority to smallint codes");
+                jdbcTemplate.execute("ALTER TABLE ticket ALTER COLUMN priority TYPE SMALLINT USING (" + PRIORITY_CODES + ")");
+            }
+
+            // Work queues only look at OPEN / IN_PROGRESS, keep that index small
+            jdbcTemplate.execute(
+                "CREATE INDEX IF NOT EXISTS idx_ticket_open_priority ON ticket (priority DESC, requested_time) " +
+                "WHERE ticket_status IN (" + TicketStatus.OPEN.getCode() + ", " + TicketStatus.IN_PROGRESS.getCode() + ")");
+        });
+    }
+
+    private boolean isTextColumn(String column) {
+        List<String> types = jdbcTemplate.queryForList(
+            "SELECT data_type FROM information_schema.columns " +
+            "WHERE table_name = 'ticket' AND column_name = ? AND table_schema = current_schema()",
+            String.class,
+            column);
+        return !types.isEmpty() && (types.get(0).startsWith("character") || types.get(0).equals("text"));
+    }
+}
@@ -0,0 +1,156 @@
+package com.schnitzel.ticketingsystem;
+
+import com.schnitzel.ticketingsystem.sharding.TicketShards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves ticket.intent / ticket.it_comment from text to the bytea format of
+ * CompressedTextConverter, then compresses existing rows in batches.
+ *
+ * The type change runs once (while the columns are still text). The
+ * compression pass runs right after it, or on demand with
+ * ticket.text-compression.recompress=true.
+ *
+ * Then, on every shard, adds the plain preview columns the ticket list reads
+ * instead (see Ticket.preview) and fills them for rows written before them.
+ */
+@Component
+public class TicketTextCompressionMigration implements ApplicationRunner {
+
+    private static final String[] COLUMNS = {"intent", "it_comment"};
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TicketShards ticketShards;
+
+    @Value("${ticket.text-compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${ticket.text-compression.recompress:false}")
+    private boolean recompress;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        boolean converted = false;
+        for (String column : COLUMNS) {
+            if (isTextColumn(column)) {
+                long before = tableSize();
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute(
+                    "ALTER TABLE ticket ALTER COLUMN " + column + " TYPE BYTEA USING (" +
+                    "CASE WHEN " + column + " IS NULL THEN NULL " +
+                    "ELSE '\\x00'::bytea || convert_to(" + column + ", 'UTF8') END)"));
+                System.out.println("Converted ticket." + column + " to bytea (table " + before + " -> " + tableSize() + " bytes)");
+                converted = true;
+            }
+        }
+
+        if (compressionEnabled && (converted || recompress)) {
+            compressExistingRows();
+        }
+
+        for (int shard = 0; shard < ticketShards.count(); shard++) {
+            int filled = ticketShards.on(shard, this::fillPreviews);
+            if (filled > 0) {
+                System.out.println("Filled text previews of " + filled + " tickets on shard " + shard);
+            }
+        }
+    }
+
+    private int fillPreviews() {
+        jdbcTemplate.execute("ALTER TABLE ticket ADD COLUMN IF NOT EXISTS intent_preview VARCHAR(" + Ticket.PREVIEW_LENGTH + "), " +
+                             "ADD COLUMN IF NOT EXISTS it_comment_preview VARCHAR(" + Ticket.PREVIEW_LENGTH + ")");
+        long lastId = Long.MIN_VALUE;
+        int filled = 0;
+
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT ticket_id, intent, it_comment FROM ticket WHERE ticket_id > ? " +
+                "AND ((intent IS NOT NULL AND intent_preview IS NULL) OR (it_comment IS NOT NULL AND it_comment_preview IS NULL)) " +
+                "ORDER BY ticket_id LIMIT ?",
+                lastId, BATCH_SIZE);
+            if (rows.isEmpty()) {
+                return filled;
+            }
+
+            for (Map<String, Object> row : rows) {
+                lastId = ((Number) row.get("ticket_id")).longValue();
+                jdbcTemplate.update("UPDATE ticket SET intent_preview = ?, it_comment_preview = ? WHERE ticket_id = ?",
+                                    Ticket.preview(CompressedTextConverter.decode((byte[]) row.get("intent"))),
+                                    Ticket.preview(CompressedTextConverter.decode((byte[]) row.get("it_comment"))),
+                                    lastId);
+                filled++;
+            }
+        }
+    }
+
+    private void compressExistingRows() {
+        System.out.println("=== COMPRESSING TICKET TEXT ===");
+        long before = tableSize();
+        long lastId = 0;
+        int updated = 0;
+
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT ticket_id, intent, it_comment FROM ticket WHERE ticket_id > ? ORDER BY ticket_id LIMIT ?",
+                lastId, BATCH_SIZE);
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            for (Map<String, Object> row : rows) {
+                lastId = ((Number) row.get("ticket_id")).longValue();
+                byte[] intent = (byte[]) row.get("intent");
+                byte[] itComment = (byte[]) row.get("it_comment");
+
+                byte[] newIntent = recompressed(intent);
+                byte[] newItComment = recompressed(itComment);
+                if (newIntent != intent || newItComment != itComment) {
+                    jdbcTemplate.update("UPDATE ticket SET intent = ?, it_comment = ? WHERE ticket_id = ?",
+                                        newIntent, newItComment, lastId);
+                    updated++;
+                }
+            }
+        }
+
+        System.out.println("Compressed " + updated + " tickets (table " + before + " -> " + tableSize() + " bytes)");
+        System.out.println("=== END TICKET TEXT COMPRESSION ===");
+    }
+
+    // Same array back when compressing would not change anything
+    private static byte[] recompressed(byte[] stored) {
+        if (stored == null || stored.length == 0 || stored[0] != CompressedTextConverter.CODEC_PLAIN) {
+            return stored;
+        }
+        byte[] encoded = CompressedTextConverter.encode(CompressedTextConverter.decode(stored), true);
+        return encoded[0] == CompressedTextConverter.CODEC_PLAIN ? stored : encoded;
+    }
+
+    private long tableSize() {
+        Long size = jdbcTemplate.queryForObject("SELECT pg_total_relation_size('ticket')", Long.class);
+        return size != null ? size : 0;
+    }
+
+    private boolean isTextColumn(String column) {
+        List<String> types = jdbcTemplate.queryForList(
+            "SELECT data_type FROM information_schema.columns " +
+            "WHERE table_name = 'ticket' AND column_name = ? AND table_schema = current_schema()",
+            String.class,
+            column);
+        return !types.isEmpty() && (types.get(0).startsWith("character") || types.get(0).equals("text"));
+    }
+}
@@ -0,0 +1,41 @@
+package com.schnitzel.ticketingsystem.assignment;
+
+/**
+ * Current workload of one agent, as returned by GET /api/assignment/loads
+ */
+public class AgentLoad {
+
+    private final Long userId;
+    private final String fullName;
+    private final String position;
+    private final int openTickets;
+    private final int weightedLoad;
+
+    public AgentLoad(Long userId, String fullName, String position, int openTickets, int weightedLoad) {
+        this.userId = userId;
+        this.fullName = fullName;
+        this.position = position;
+        this.openTickets = openTickets;
+        this.weightedLoad = weightedLoad;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+    public int getOpenTickets() {
+        return openTickets;
+    }
+
+    public int getWeightedLoad() {
+        return weightedLoad;
+    }
+}
@@ -0,0 +1,25 @@
+package com.schnitzel.ticketingsystem.assignment;
+
+import com.schnitzel.ticketingsystem.querystats.QueryBudget;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/assignment")
+public class AssignmentController {
+
+    @Autowired
+    private WorkloadIndex workloadIndex;
+
+    // Current load per agent, least loaded first
+    @GetMapping("/loads")
+    @QueryBudget(0)
+    public ResponseEntity<List<AgentLoad>> getLoads() {
+        return ResponseEntity.ok(workloadIndex.loads());
+    }
+}
@@ -0,0 +1,18 @@
+package com.schnitzel.ticketingsystem.assignment;
+
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.userauth.User;
+
+/**
+ * Decides whether an agent may get a ticket automatically. Every AssignmentRule bean
+ * is applied; the least loaded agent that passes all of them gets the ticket.
+ */
+public interface AssignmentRule {
+
+    // Whether the user takes tickets at all (tracked in the workload index)
+    default boolean isAgent(User user) {
+        return true;
+    }
+
+    boolean isEligible(User agent, Ticket ticket);
+}
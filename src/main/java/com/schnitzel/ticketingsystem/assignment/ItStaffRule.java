@@ -0,0 +1,92 @@
+package com.schnitzel.ticketingsystem.assignment;
+
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.userauth.User;
+import com.schnitzel.ticketingsystem.userauth.UserRole;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Only IT staff get tickets: the position must match one of the IT positions
+ * (same list and matching as the assignment dropdowns in table-manager.js),
+ * and the role must be allowed if assignment.roles is set.
+ *
+ * A position matches when it contains all the words of an IT position, in
+ * order and as whole words: "Senior IT Support Specialist" is IT staff, plain
+ * "Support", "Manager" or "IT" is not.
+ */
+@Component
+public class ItStaffRule implements AssignmentRule {
+
+    private final List<String[]> itPositions;
+    private final Set<UserRole> roles;
+
+    public ItStaffRule(
+            @Value("${assignment.it-positions:IT Director,IT Manager,IT Network and System Engineer," +
+                   "IT Support Specialist,IT Administrator,System Analyst,Database Administrator," +
+                   "Security Specialist,Software Developer,Web Developer,DevOps Engineer,Cloud Architect," +
+                   "Network Administrator,Help Desk Technician,Chief Technology Officer (CTO)}") List<String> itPositions,
+            @Value("${assignment.roles:}") List<String> roles) {
+        this.itPositions = itPositions.stream()
+                .map(ItStaffRule::words)
+                .filter(words -> words.length > 0)
+                .collect(Collectors.toList());
+        this.roles = roles.stream()
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .map(role -> UserRole.valueOf(role.toUpperCase(Locale.ROOT)))
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public boolean isAgent(User user) {
+        if (!roles.isEmpty() && !roles.contains(user.getRole())) {
+            return false;
+        }
+        return isItPosition(user.getPosition());
+    }
+
+    @Override
+    public boolean isEligible(User agent, Ticket ticket) {
+        return isAgent(agent);
+    }
+
+    private boolean isItPosition(String position) {
+        if (position == null || position.isBlank()) {
+            return false;
+        }
+        String[] words = words(position);
+        for (String[] itPosition : itPositions) {
+            if (containsRun(words, itPosition)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String[] words(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{Alnum}]+"))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    // True if run appears in words as consecutive whole words
+    private static boolean containsRun(String[] words, String[] run) {
+        for (int start = 0; start + run.length <= words.length; start++) {
+            int i = 0;
+            while (i < run.length && words[start + i].equals(run[i])) {
+                i++;
+            }
+            if (i == run.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
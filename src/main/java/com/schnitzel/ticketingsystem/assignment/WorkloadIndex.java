@@ -0,0 +1,315 @@
+package com.schnitzel.ticketingsystem.assignment;
+
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.TicketPriority;
+import com.schnitzel.ticketingsystem.TicketRepository;
+import com.schnitzel.ticketingsystem.TicketStatus;
+import com.schnitzel.ticketingsystem.dto.TicketSummary;
+import com.schnitzel.ticketingsystem.invalidation.RemoteInvalidationEvent;
+import com.schnitzel.ticketingsystem.journal.TicketChangeType;
+import com.schnitzel.ticketingsystem.journal.TicketChangedEvent;
+import com.schnitzel.ticketingsystem.sharding.TicketShards;
+import com.schnitzel.ticketingsystem.userauth.User;
+import com.schnitzel.ticketingsystem.userauth.UserChangedEvent;
+import com.schnitzel.ticketingsystem.userauth.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Live workload per agent: open tickets, weighted by priority, kept in a skip
+ * list ordered by load so the least loaded agent is always first. Each ticket
+ * change moves one or two agents in the list (O(log n)).
+ *
+ * Tickets count for the agent their assignedPerson names, by user id (what the
+ * ticket table dropdowns store), full name or email.
+ */
+@Service
+public class WorkloadIndex {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private List<AssignmentRule> rules;
+
+    @Autowired
+    private TicketShards ticketShards;
+
+    @Value("${assignment.auto-assign:true}")
+    private boolean autoAssign;
+
+    private static final class Agent {
+        final User user;
+        int openTickets;
+        int weightedLoad;
+
+        Agent(User user) {
+            this.user = user;
+        }
+
+        LoadKey key() {
+            return new LoadKey(weightedLoad, openTickets, user.getId());
+        }
+    }
+
+    private static final class LoadKey implements Comparable<LoadKey> {
+        final int weightedLoad;
+        final int openTickets;
+        final long userId;
+
+        LoadKey(int weightedLoad, int openTickets, long userId) {
+            this.weightedLoad = weightedLoad;
+            this.openTickets = openTickets;
+            this.userId = userId;
+        }
+
+        @Override
+        public int compareTo(LoadKey other) {
+            if (weightedLoad != other.weightedLoad) return Integer.compare(weightedLoad, other.weightedLoad);
+            if (openTickets != other.openTickets) return Integer.compare(openTickets, other.openTickets);
+            return Long.compare(userId, other.userId);
+        }
+    }
+
+    // What a ticket currently adds to an agent's load
+    private static final class Counted {
+        final long userId;
+        final int weight;
+
+        Counted(long userId, int weight) {
+            this.userId = userId;
+            this.weight = weight;
+        }
+    }
+
+    // Guards everything below; the skip list can also be read without it
+    private final Object lock = new Object();
+    private final ConcurrentSkipListSet<LoadKey> byLoad = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<Long, Agent> agents = new ConcurrentHashMap<>();
+    private final Map<Long, Counted> countedTickets = new HashMap<>();
+    private final Map<String, Long> agentIdsByHandle = new HashMap<>();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (lock) {
+            byLoad.clear();
+            agents.clear();
+            countedTickets.clear();
+            agentIdsByHandle.clear();
+
+            for (User user : userRepository.findAll()) {
+                if (isAgent(user)) {
+                    Agent agent = new Agent(user);
+                    agents.put(user.getId(), agent);
+                    byLoad.add(agent.key());
+                    addHandle(String.valueOf(user.getId()), user.getId());
+                    addHandle(user.getFullName(), user.getId());
+                    addHandle(user.getEmail(), user.getId());
+                }
+            }
+            for (TicketSummary ticket : ticketShards.gatherAll(true,
+                    shard -> ticketRepository.findSummariesByTicketStatusNot(TicketStatus.CLOSED))) {
+                apply(ticket.getTicketId(), ticket.getTicketStatus(), ticket.getPriority(), ticket.getAssignedPerson());
+            }
+            ready = true;
+        }
+    }
+
+    // Agents come and go with user changes; those are rare, so just recount
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (ready) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onTicketChanged(TicketChangedEvent event) {
+        synchronized (lock) {
+            if (!ready) {
+                return;
+            }
+            apply(event.getTicketId(), event.getChangeType() == TicketChangeType.DELETE
+                    ? Optional.empty()
+                    : ticketRepository.findSummaryById(event.getTicketId()));
+        }
+    }
+
+    // Changed on another node; tickets are read from their shard's primary, which has the change
+    @EventListener
+    public void onRemoteInvalidation(RemoteInvalidationEvent event) {
+        if (!ready) {
+            return;
+        }
+        if (event.isAllTickets() || event.isAllUsers() || !event.getUserIds().isEmpty()) {
+            rebuild();
+            return;
+        }
+        synchronized (lock) {
+            for (Long ticketId : event.getTicketIds()) {
+                apply(ticketId, ticketShards.inTransaction(ticketShards.shardOf(ticketId), false,
+                        () -> ticketRepository.findSummaryById(ticketId)));
+            }
+        }
+    }
+
+    // Holds lock
+    private void apply(Long ticketId, Optional<TicketSummary> current) {
+        if (current.isPresent()) {
+            TicketSummary ticket = current.get();
+            apply(ticket.getTicketId(), ticket.getTicketStatus(), ticket.getPriority(), ticket.getAssignedPerson());
+        } else {
+            apply(ticketId, null, null, null);
+        }
+    }
+
+    /**
+     * Give a new, unassigned ticket to the least loaded eligible agent. Counts it
+     * right away so a burst of new tickets spreads out; a rollback takes it back.
+     */
+    public Optional<User> autoAssign(Ticket ticket) {
+        if (!autoAssign || !ready) {
+            return Optional.empty();
+        }
+
+        User chosen = null;
+        synchronized (lock) {
+            for (LoadKey key : byLoad) {
+                Agent agent = agents.get(key.userId);
+                if (agent != null && isEligible(agent.user, ticket)) {
+                    chosen = agent.user;
+                    break;
+                }
+            }
+            if (chosen == null) {
+                return Optional.empty();
+            }
+            ticket.setAssignedPerson(String.valueOf(chosen.getId()));
+            apply(ticket.getTicketId(), ticket.getTicketStatus(), ticket.getPriority(), ticket.getAssignedPerson());
+        }
+
+        Long ticketId = ticket.getTicketId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        synchronized (lock) {
+                            apply(ticketId, null, null, null);
+                        }
+                    }
+                }
+            });
+        }
+        return Optional.of(chosen);
+    }
+
+    /**
+     * All agents, least loaded first
+     */
+    public List<AgentLoad> loads() {
+        List<AgentLoad> loads = new ArrayList<>();
+        for (LoadKey key : byLoad) {
+            Agent agent = agents.get(key.userId);
+            if (agent != null) {
+                loads.add(new AgentLoad(agent.user.getId(), agent.user.getFullName(), agent.user.getPosition(),
+                                        key.openTickets, key.weightedLoad));
+            }
+        }
+        return loads;
+    }
+
+    // Replace what the ticket counted before with what it counts now (holds lock)
+    private void apply(Long ticketId, TicketStatus status, TicketPriority priority, String assignedPerson) {
+        Counted before = countedTickets.remove(ticketId);
+        if (before != null) {
+            adjust(before.userId, -1, -before.weight);
+        }
+
+        boolean open = status == null || status.isOpen();
+        Long userId = open ? resolve(assignedPerson) : null;
+        if (userId != null) {
+            int weight = weight(priority);
+            countedTickets.put(ticketId, new Counted(userId, weight));
+            adjust(userId, 1, weight);
+        }
+    }
+
+    private void adjust(long userId, int tickets, int weight) {
+        Agent agent = agents.get(userId);
+        if (agent == null) {
+            return;
+        }
+        byLoad.remove(agent.key());
+        agent.openTickets += tickets;
+        agent.weightedLoad += weight;
+        byLoad.add(agent.key());
+    }
+
+    private Long resolve(String assignedPerson) {
+        if (assignedPerson == null || assignedPerson.isBlank()) {
+            return null;
+        }
+        return agentIdsByHandle.get(assignedPerson.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private void addHandle(String handle, Long userId) {
+        if (handle != null && !handle.isBlank()) {
+            agentIdsByHandle.putIfAbsent(handle.trim().toLowerCase(Locale.ROOT), userId);
+        }
+    }
+
+    private boolean isAgent(User user) {
+        for (AssignmentRule rule : rules) {
+            if (!rule.isAgent(user)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isEligible(User agent, Ticket ticket) {
+        for (AssignmentRule rule : rules) {
+            if (!rule.isEligible(agent, ticket)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // An urgent ticket keeps an agent as busy as several low ones
+    private static int weight(TicketPriority priority) {
+        switch (priority != null ? priority : TicketPriority.MEDIUM) {
+            case LOW:
+                return 1;
+            case HIGH:
+                return 4;
+            case URGENT:
+                return 8;
+            default:
+                return 2;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.schnitzel.ticketingsystem.attachment;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A file attached to a ticket. The bytes live in the blob store under their
+ * SHA-256, shared by every attachment with the same content.
+ */
+@Entity
+@Table(name = "ticket_attachment", indexes = @Index(name = "idx_ticket_attachment_ticket", columnList = "ticket_id"))
+public class Attachment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "ticket_id", nullable = false)
+    private Long ticketId;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(name = "size", nullable = false)
+    private long size;
+
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public Attachment() {}
+
+    public Attachment(Long ticketId, String fileName, String contentType, long size, String sha256, LocalDateTime createdAt) {
+        this.ticketId = ticketId;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.size = size;
+        this.sha256 = sha256;
+        this.createdAt = createdAt;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getTicketId() {
+        return ticketId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,46 @@
+package com.schnitzel.ticketingsystem.attachment;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One stored file, by content. refCount is the number of attachments using it;
+ * at zero the blob is garbage once releasedAt is older than the grace period.
+ * Written with native upserts (AttachmentBlobRepository), mapped for the schema.
+ */
+@Entity
+@Table(name = "attachment_blob")
+public class AttachmentBlob {
+    @Id
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
+    @Column(name = "size", nullable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "released_at")
+    private LocalDateTime releasedAt;
+
+    // Constructors
+    public AttachmentBlob() {}
+
+    // Getters
+    public String getSha256() {
+        return sha256;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public LocalDateTime getReleasedAt() {
+        return releasedAt;
+    }
+}
@@ -0,0 +1,30 @@
+package com.schnitzel.ticketingsystem.attachment;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+@Repository
+public interface AttachmentBlobRepository extends JpaRepository<AttachmentBlob, String> {
+
+    // One more attachment uses the blob; creates the row for new content
+    @Modifying
+    @Query(value = "INSERT INTO attachment_blob (sha256, size, ref_count, released_at) " +
+                   "VALUES (:sha256, :size, 1, NULL) " +
+                   "ON CONFLICT (sha256) DO UPDATE SET ref_count = attachment_blob.ref_count + 1, released_at = NULL",
+           nativeQuery = true)
+    int acquire(String sha256, long size);
+
+    // One attachment less; the last one starts the grace period before collection
+    @Modifying
+    @Query(value = "UPDATE attachment_blob SET ref_count = ref_count - 1, " +
+                   "released_at = CASE WHEN ref_count <= 1 THEN :now ELSE released_at END " +
+                   "WHERE sha256 = :sha256", nativeQuery = true)
+    int release(String sha256, LocalDateTime now);
+
+    // Bytes on disk, including released blobs not collected yet
+    @Query("SELECT COALESCE(SUM(b.size), 0) FROM AttachmentBlob b")
+    long totalSize();
+}
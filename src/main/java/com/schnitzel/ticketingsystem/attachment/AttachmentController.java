@@ -0,0 +1,215 @@
+package com.schnitzel.ticketingsystem.attachment;
+
+import com.schnitzel.ticketingsystem.querystats.QueryBudget;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Signed-in users only: not under /api/tickets, which AuthInterceptor leaves public.
+ *
+ * Upload: POST the raw file as the request body (not multipart), with its
+ * Content-Type and ?name=, ex. fetch(url + '?name=' + file.name, {method: 'POST', body: file}).
+ * Download supports ETag revalidation and single byte ranges.
+ */
+@RestController
+@RequestMapping("/api/attachments/{ticketId}")
+public class AttachmentController {
+
+    // Shown in the browser; everything else is downloaded, so uploaded HTML never runs on this origin
+    private static final Set<String> INLINE_TYPES = Set.of("image/png", "image/jpeg", "image/gif", "image/webp");
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    @Autowired
+    private AttachmentService attachmentService;
+
+    @PostMapping
+    public ResponseEntity<Attachment> upload(@PathVariable Long ticketId, @RequestParam String name,
+                                             HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > attachmentService.getMaxBytes()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        Optional<Attachment> attachment = attachmentService.upload(ticketId, fileName(name),
+                contentType(request.getContentType()), request.getContentLengthLong(), request.getInputStream());
+        return attachment.map(a -> ResponseEntity.status(HttpStatus.CREATED).body(a))
+                         .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping
+    @QueryBudget(1)
+    public ResponseEntity<List<Attachment>> list(@PathVariable Long ticketId) {
+        return ResponseEntity.ok(attachmentService.list(ticketId));
+    }
+
+    @GetMapping("/{attachmentId}")
+    @QueryBudget(1)
+    public void download(@PathVariable Long ticketId, @PathVariable Long attachmentId,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<Attachment> found = attachmentService.find(ticketId, attachmentId);
+        if (found.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        Attachment attachment = found.get();
+        Path file = attachmentService.blobPath(attachment);
+        if (!Files.isReadable(file)) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        // Content-addressed, so the hash is a strong ETag and the response never changes
+        String etag = "\"" + attachment.getSha256() + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        long size = attachment.getSize();
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        String type = attachment.getContentType();
+        boolean inline = INLINE_TYPES.contains(type);
+        response.setContentType(type);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                (inline ? ContentDisposition.inline() : ContentDisposition.attachment())
+                        .filename(attachment.getFileName(), StandardCharsets.UTF_8).build().toString());
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if (length == 0 || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        // Tomcat sends the file itself (FileChannel.transferTo to the socket) once we return
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long sent = channel.transferTo(position, end + 1 - position, out);
+                if (sent <= 0) {
+                    break; // file shorter than recorded, nothing more to send
+                }
+                position += sent;
+            }
+        }
+    }
+
+    @DeleteMapping("/{attachmentId}")
+    public ResponseEntity<String> delete(@PathVariable Long ticketId, @PathVariable Long attachmentId) {
+        return attachmentService.delete(ticketId, attachmentId)
+                ? ResponseEntity.ok("Attachment deleted successfully")
+                : ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler(AttachmentTooLargeException.class)
+    public ResponseEntity<String> tooLarge(AttachmentTooLargeException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+    }
+
+    @ExceptionHandler(AttachmentQuotaExceededException.class)
+    public ResponseEntity<String> overQuota(AttachmentQuotaExceededException e) {
+        return ResponseEntity.status(HttpStatus.INSUFFICIENT_STORAGE).body(e.getMessage());
+    }
+
+    /**
+     * {start, end} of a single "bytes=" range, an empty array to ignore the header
+     * (several ranges, or a unit other than bytes), or null if unsatisfiable.
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffix range: the last n bytes
+                long n = Long.parseLong(last);
+                if (n <= 0) {
+                    return null;
+                }
+                start = Math.max(0, size - n);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            return start >= size || start > end ? null : new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static String fileName(String name) {
+        String base = name.replace('\\', '/');
+        base = base.substring(base.lastIndexOf('/') + 1).replaceAll("\\p{Cntrl}", "").trim();
+        if (base.isEmpty()) {
+            base = "attachment";
+        }
+        return base.length() > 255 ? base.substring(base.length() - 255) : base;
+    }
+
+    private static String contentType(String header) {
+        if (header == null || header.isBlank() || header.startsWith("multipart/")) {
+            return "application/octet-stream";
+        }
+        String type = header.split(";", 2)[0].trim().toLowerCase();
+        return type.length() > 100 ? "application/octet-stream" : type;
+    }
+}
@@ -0,0 +1,10 @@
+package com.schnitzel.ticketingsystem.attachment;
+
+public class AttachmentQuotaExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public AttachmentQuotaExceededException(String what, long quotaBytes) {
+        super(what + " would exceed the attachment quota of " + quotaBytes + " bytes");
+    }
+}
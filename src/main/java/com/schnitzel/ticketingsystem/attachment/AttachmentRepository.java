@@ -0,0 +1,15 @@
+package com.schnitzel.ticketingsystem.attachment;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+
+    List<Attachment> findByTicketIdOrderByCreatedAtAsc(Long ticketId);
+
+    @Query("SELECT COALESCE(SUM(a.size), 0) FROM Attachment a WHERE a.ticketId = :ticketId")
+    long totalSizeForTicket(Long ticketId);
+}
@@ -0,0 +1,212 @@
+package com.schnitzel.ticketingsystem.attachment;
+
+import com.schnitzel.ticketingsystem.TicketRepository;
+import com.schnitzel.ticketingsystem.sharding.TicketShards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Ticket attachments over the content-addressed BlobStore.
+ *
+ * Uploads are limited per request (attachments.max-bytes), per ticket
+ * (attachments.max-bytes-per-ticket) and for the whole store
+ * (attachments.max-total-bytes).
+ *
+ * Each blob row counts the attachments that use it. A blob nobody has used
+ * for attachments.gc-grace-ms is deleted by collectGarbage, together with
+ * files left without a row by a crash. It runs once per cluster (see
+ * JobsConfig), so every node must see the same attachments.dir. Uploads hold
+ * a shared PostgreSQL advisory lock from storing the file until their row is
+ * committed and the collector holds it exclusively, so it never deletes a
+ * file an upload on any node is just starting to use.
+ *
+ * Attachment and blob rows stay on the home shard when tickets are sharded.
+ */
+@Service
+public class AttachmentService {
+
+    private static final int LOOKUP_BATCH = 500;
+    private static final int STORE_LOCK = 0x41545443;
+
+    @Autowired
+    private AttachmentRepository attachmentRepository;
+
+    @Autowired
+    private AttachmentBlobRepository blobRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TicketShards ticketShards;
+
+    @Value("${attachments.max-bytes:10485760}")
+    private long maxBytes;
+
+    @Value("${attachments.max-bytes-per-ticket:52428800}")
+    private long maxBytesPerTicket;
+
+    @Value("${attachments.max-total-bytes:10737418240}")
+    private long maxTotalBytes;
+
+    @Value("${attachments.gc-grace-ms:600000}")
+    private long gcGraceMs;
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Stream the body to disk and attach it. Empty if the ticket does not exist.
+     * declaredSize (the Content-Length, -1 if unknown) rejects an upload over
+     * quota before it is read; the received size is checked again before storing.
+     */
+    public Optional<Attachment> upload(Long ticketId, String fileName, String contentType, long declaredSize,
+                                       InputStream body) throws IOException {
+        boolean ticketExists = ticketShards.inTransaction(ticketShards.shardOf(ticketId), true,
+                () -> ticketRepository.existsById(ticketId));
+        if (!ticketExists) {
+            return Optional.empty();
+        }
+        checkQuota(ticketId, Math.max(0, declaredSize));
+
+        BlobStore.Upload upload = blobStore.receive(body, maxBytes);
+        try {
+            checkQuota(ticketId, upload.size);
+            return Optional.ofNullable(transactionTemplate.execute(status -> {
+                lockStore(true);
+                try {
+                    blobStore.store(upload);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                blobRepository.acquire(upload.sha256, upload.size);
+                return attachmentRepository.save(new Attachment(ticketId, fileName, contentType, upload.size,
+                                                                upload.sha256, LocalDateTime.now()));
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            blobStore.discard(upload);
+        }
+    }
+
+    // Held until commit: shared by uploads, exclusive for the collector, across all nodes
+    private void lockStore(boolean shared) {
+        jdbcTemplate.query("SELECT " + (shared ? "pg_advisory_xact_lock_shared" : "pg_advisory_xact_lock") + "(?, 0)",
+                result -> null, STORE_LOCK);
+    }
+
+    // Uploads running at the same time can each pass the check, so the quotas may be overshot by those
+    private void checkQuota(Long ticketId, long incoming) {
+        if (attachmentRepository.totalSizeForTicket(ticketId) + incoming > maxBytesPerTicket) {
+            throw new AttachmentQuotaExceededException("Ticket " + ticketId, maxBytesPerTicket);
+        }
+        if (blobRepository.totalSize() + incoming > maxTotalBytes) {
+            throw new AttachmentQuotaExceededException("The attachment store", maxTotalBytes);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<Attachment> list(Long ticketId) {
+        return attachmentRepository.findByTicketIdOrderByCreatedAtAsc(ticketId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Attachment> find(Long ticketId, Long attachmentId) {
+        return attachmentRepository.findById(attachmentId)
+                .filter(attachment -> attachment.getTicketId().equals(ticketId));
+    }
+
+    public Path blobPath(Attachment attachment) {
+        return blobStore.path(attachment.getSha256());
+    }
+
+    @Transactional
+    public boolean delete(Long ticketId, Long attachmentId) {
+        Optional<Attachment> attachment = find(ticketId, attachmentId);
+        attachment.ifPresent(this::remove);
+        return attachment.isPresent();
+    }
+
+    // Part of deleting the ticket
+    @Transactional
+    public void deleteForTicket(Long ticketId) {
+        attachmentRepository.findByTicketIdOrderByCreatedAtAsc(ticketId).forEach(this::remove);
+    }
+
+    /**
+     * Delete blobs no attachment has used for the grace period, stray blob files
+     * without a row and abandoned uploads.
+     */
+    public void collectGarbage() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(gcGraceMs * 1_000_000L);
+        long cutoffMillis = System.currentTimeMillis() - gcGraceMs;
+
+        transactionTemplate.executeWithoutResult(status -> {
+            lockStore(false);
+            List<String> released = jdbcTemplate.queryForList(
+                "DELETE FROM attachment_blob WHERE ref_count <= 0 AND released_at < ? RETURNING sha256",
+                String.class, Timestamp.valueOf(cutoff));
+            released.forEach(blobStore::delete);
+
+            int strays = 0;
+            List<String> old = blobStore.blobsOlderThan(cutoffMillis);
+            for (int from = 0; from < old.size(); from += LOOKUP_BATCH) {
+                List<String> batch = old.subList(from, Math.min(old.size(), from + LOOKUP_BATCH));
+                Set<String> known = knownBlobs(batch);
+                for (String sha256 : batch) {
+                    if (!known.contains(sha256) && blobStore.delete(sha256)) {
+                        strays++;
+                    }
+                }
+            }
+
+            int abandoned = blobStore.deleteTempOlderThan(cutoffMillis);
+            if (!released.isEmpty() || strays > 0 || abandoned > 0) {
+                System.out.println("Attachments: deleted " + released.size() + " unused blobs, " + strays
+                        + " stray files, " + abandoned + " abandoned uploads");
+            }
+        });
+    }
+
+    private void remove(Attachment attachment) {
+        attachmentRepository.delete(attachment);
+        blobRepository.release(attachment.getSha256(), LocalDateTime.now());
+    }
+
+    private Set<String> knownBlobs(List<String> sha256s) {
+        if (sha256s.isEmpty()) {
+            return Collections.emptySet();
+        }
+        String placeholders = String.join(",", Collections.nCopies(sha256s.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT sha256 FROM attachment_blob WHERE sha256 IN (" + placeholders + ")",
+            String.class, sha256s.toArray()));
+    }
+}
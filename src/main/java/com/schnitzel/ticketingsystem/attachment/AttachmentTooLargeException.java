@@ -0,0 +1,10 @@
+package com.schnitzel.ticketingsystem.attachment;
+
+public class AttachmentTooLargeException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public AttachmentTooLargeException(long maxBytes) {
+        super("Attachment is larger than " + maxBytes + " bytes");
+    }
+}
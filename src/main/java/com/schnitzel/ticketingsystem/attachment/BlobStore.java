@@ -0,0 +1,186 @@
+package com.schnitzel.ticketingsystem.attachment;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed files under attachments.dir: blobs/ab/cd/abcd... by SHA-256.
+ * With several nodes the directory must be shared storage (NFS, a shared volume)
+ * mounted at the same path on each, or downloads miss files uploaded elsewhere.
+ * Uploads stream through a small buffer into tmp/, are hashed on the way and
+ * then moved into place, or dropped if that content is already stored.
+ */
+@Component
+public class BlobStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${attachments.dir:data/attachments}")
+    private String dir;
+
+    private Path blobs;
+    private Path tmp;
+
+    // A streamed upload in tmp/, not yet in the store
+    public static final class Upload {
+        final Path temp;
+        final String sha256;
+        final long size;
+
+        Upload(Path temp, String sha256, long size) {
+            this.temp = temp;
+            this.sha256 = sha256;
+            this.size = size;
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path root = Paths.get(dir).toAbsolutePath();
+        blobs = Files.createDirectories(root.resolve("blobs"));
+        tmp = Files.createDirectories(root.resolve("tmp"));
+    }
+
+    /**
+     * Copy the stream to a temp file, hashing as it goes. Throws
+     * AttachmentTooLargeException as soon as more than maxBytes arrive.
+     */
+    public Upload receive(InputStream in, long maxBytes) throws IOException {
+        Path temp = Files.createTempFile(tmp, "upload-", ".part");
+        MessageDigest digest = sha256();
+        long size = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                size += buffer.remaining();
+                if (size > maxBytes) {
+                    throw new AttachmentTooLargeException(maxBytes);
+                }
+                buffer.mark();
+                digest.update(buffer);
+                buffer.reset();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return new Upload(temp, HexFormat.of().formatHex(digest.digest()), size);
+    }
+
+    /**
+     * Move the upload into the store; identical content already there is kept and the upload dropped
+     */
+    public void store(Upload upload) throws IOException {
+        Path target = path(upload.sha256);
+        if (Files.exists(target)) {
+            Files.deleteIfExists(upload.temp);
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(upload.temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(upload.temp);
+        }
+    }
+
+    // Safe to call after store
+    public void discard(Upload upload) {
+        try {
+            Files.deleteIfExists(upload.temp);
+        } catch (IOException e) {
+            System.out.println("Could not delete upload " + upload.temp + ": " + e.getMessage());
+        }
+    }
+
+    public Path path(String sha256) {
+        if (sha256.length() != 64) {
+            throw new IllegalArgumentException("Not a SHA-256: " + sha256);
+        }
+        return blobs.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    public boolean delete(String sha256) {
+        try {
+            return Files.deleteIfExists(path(sha256));
+        } catch (IOException e) {
+            System.out.println("Could not delete blob " + sha256 + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Hashes of stored blobs last modified before the cutoff
+     */
+    public List<String> blobsOlderThan(long cutoffMillis) {
+        try (Stream<Path> files = Files.walk(blobs, 3)) {
+            return files.filter(file -> file.getNameCount() - blobs.getNameCount() == 3)
+                    .filter(file -> lastModified(file) < cutoffMillis)
+                    .map(file -> file.getFileName().toString())
+                    .filter(name -> name.length() == 64)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Remove uploads that never finished (the process died mid-request)
+     */
+    public int deleteTempOlderThan(long cutoffMillis) {
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tmp)) {
+            for (Path file : files) {
+                if (lastModified(file) < cutoffMillis && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Could not clean " + tmp + ": " + e.getMessage());
+        }
+        return deleted;
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return Long.MAX_VALUE; // gone already, or unreadable: leave it alone
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
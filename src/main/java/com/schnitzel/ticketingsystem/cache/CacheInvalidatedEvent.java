@@ -0,0 +1,17 @@
+package com.schnitzel.ticketingsystem.cache;
+
+/**
+ * Published by ResponseCache once a region was invalidated by a local write (after commit)
+ */
+public class CacheInvalidatedEvent {
+
+    private final CacheRegion region;
+
+    public CacheInvalidatedEvent(CacheRegion region) {
+        this.region = region;
+    }
+
+    public CacheRegion getRegion() {
+        return region;
+    }
+}
@@ -0,0 +1,10 @@
+package com.schnitzel.ticketingsystem.cache;
+
+/**
+ * Groups of cached responses that are invalidated together.
+ * A write to tickets bumps TICKETS, a write to users bumps USERS.
+ */
+public enum CacheRegion {
+    TICKETS,
+    USERS
+}
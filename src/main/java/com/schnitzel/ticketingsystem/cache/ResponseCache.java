@@ -0,0 +1,221 @@
+package com.schnitzel.ticketingsystem.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.schnitzel.ticketingsystem.invalidation.RemoteInvalidationEvent;
+import com.schnitzel.ticketingsystem.wireformat.WireFormat;
+import com.schnitzel.ticketingsystem.wireformat.WireFormatMappers;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialize-once cache for hot GET endpoints that many clients poll.
+ *
+ * Each entry keeps the encoded bytes (plain and gzipped) in one WireFormat,
+ * negotiated from Accept, together with the region version it was built from. Writes bump the region version, so the
+ * next request rebuilds; concurrent misses on the same key share one rebuild.
+ * Other nodes learn about local invalidations through the InvalidationBus.
+ */
+@Component
+public class ResponseCache {
+
+    @Autowired
+    private WireFormatMappers mappers;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<CacheRegion, AtomicLong> versions = new EnumMap<>(CacheRegion.class);
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    public ResponseCache() {
+        for (CacheRegion region : CacheRegion.values()) {
+            versions.put(region, new AtomicLong());
+        }
+    }
+
+    /**
+     * Mark everything in the region as stale. Inside a transaction this happens
+     * after commit, so a rebuild can never cache the pre-commit state as current.
+     */
+    public void invalidate(CacheRegion region) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(region);
+                }
+            });
+            return;
+        }
+        bump(region);
+    }
+
+    // Written on another node; not announced again
+    @EventListener
+    public void onRemoteInvalidation(RemoteInvalidationEvent event) {
+        event.getRegions().forEach(region -> versions.get(region).incrementAndGet());
+    }
+
+    private void bump(CacheRegion region) {
+        versions.get(region).incrementAndGet();
+        eventPublisher.publishEvent(new CacheInvalidatedEvent(region));
+    }
+
+    public long currentVersion(CacheRegion region) {
+        return versions.get(region).get();
+    }
+
+    /**
+     * Serve the cached response for key, in the format the client accepts,
+     * rebuilding it with loader if the region changed
+     */
+    public void serve(String key, CacheRegion region, Supplier<?> loader,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        WireFormat format = WireFormat.negotiate(request.getHeader("Accept"));
+        write(get(key, region, format, loader), request, response);
+    }
+
+    public Entry get(String key, CacheRegion region, Supplier<?> loader) {
+        return get(key, region, WireFormat.JSON, loader);
+    }
+
+    // Each format is its own entry (and load); JSON keeps the plain key
+    public Entry get(String baseKey, CacheRegion region, WireFormat format, Supplier<?> loader) {
+        String key = format == WireFormat.JSON ? baseKey : baseKey + "@" + format;
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version == currentVersion(region)) {
+            return entry;
+        }
+
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            // Read the version before loading: a write during the load leaves this entry stale
+            long version = currentVersion(region);
+            Entry built = build(version, format, loader.get());
+            entries.put(key, built);
+            mine.complete(built);
+            return built;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Entry build(long version, WireFormat format, Object body) {
+        try {
+            byte[] encoded = mappers.get(format).writeValueAsBytes(body);
+            return new Entry(version, format, encoded, gzip(encoded));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize cached response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Write the bytes straight to the servlet output stream (with ETag / 304 support)
+     */
+    public void write(Entry entry, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = "\"" + entry.etag + (gzip ? "-gz" : "") + "\"";
+
+        response.setHeader("ETag", etag);
+        response.setHeader("Vary", "Accept, Accept-Encoding");
+
+        if (etag.equals(request.getHeader("If-None-Match"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entry.format.getMediaType().toString());
+
+        byte[] body = entry.body;
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+            body = entry.gzip;
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    public static final class Entry {
+        private final long version;
+        private final WireFormat format;
+        private final byte[] body;
+        private final byte[] gzip;
+        private final String etag;
+
+        Entry(long version, WireFormat format, byte[] body, byte[] gzip) {
+            this.version = version;
+            this.format = format;
+            this.body = body;
+            this.gzip = gzip;
+            this.etag = contentHash(body) + (format == WireFormat.JSON ? "" : "-" + format.name().toLowerCase());
+        }
+
+        // First 128 bits of SHA-256: the same on every node, and no realistic collision can fake a 304
+        private static String contentHash(byte[] body) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+                return HexFormat.of().formatHex(digest, 0, 16);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public WireFormat getFormat() {
+            return format;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.schnitzel.ticketingsystem.clientdevice;
+
+import jakarta.persistence.*;
+
+/**
+ * One distinct (ip, computer name, user agent) combination.
+ * Tickets point at a row here instead of repeating the strings.
+ */
+@Entity
+@Table(name = "client_device",
+       uniqueConstraints = @UniqueConstraint(name = "uk_client_device",
+                                             columnNames = {"ip_address", "computer_name", "user_agent"}))
+public class ClientDevice {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Empty string instead of null so the unique constraint also covers missing values
+    @Column(name = "ip_address", nullable = false, length = 64)
+    private String ipAddress;
+
+    @Column(name = "computer_name", nullable = false, length = 255)
+    private String computerName;
+
+    @Column(name = "user_agent", nullable = false, length = 1000)
+    private String userAgent;
+
+    // Constructors
+    public ClientDevice() {}
+
+    public ClientDevice(String ipAddress, String computerName, String userAgent) {
+        this.ipAddress = ipAddress;
+        this.computerName = computerName;
+        this.userAgent = userAgent;
+    }
+
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public void setIpAddress(String ipAddress) {
+        this.ipAddress = ipAddress;
+    }
+
+    public String getComputerName() {
+        return computerName;
+    }
+
+    public void setComputerName(String computerName) {
+        this.computerName = computerName;
+    }
+
+    public String getUserAgent() {
+        return userAgent;
+    }
+
+    public void setUserAgent(String userAgent) {
+        this.userAgent = userAgent;
+    }
+
+    @Override
+    public String toString() {
+        return "ClientDevice{" +
+                "id=" + id +
+                ", ipAddress='" + ipAddress + '\'' +
+                ", computerName='" + computerName + '\'' +
+                ", userAgent='" + userAgent + '\'' +
+                '}';
+    }
+}
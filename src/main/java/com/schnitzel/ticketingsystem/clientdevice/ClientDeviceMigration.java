@@ -0,0 +1,87 @@
+package com.schnitzel.ticketingsystem.clientdevice;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-time move of the old free-text ticket columns (client_ip_address,
+ * computer_name, user_agent) into client_device. Runs on startup; copying
+ * is idempotent, so it is safe to repeat while the old columns are kept.
+ * They are only dropped with client-device.drop-legacy-columns=true, once
+ * the copy has been checked (and nothing older than this version runs).
+ */
+@Component
+public class ClientDeviceMigration implements ApplicationRunner {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${client-device.drop-legacy-columns:false}")
+    private boolean dropLegacyColumns;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!legacyColumnsExist()) {
+            return;
+        }
+
+        System.out.println("=== MIGRATING TICKET CLIENT INFO TO client_device ===");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS client_device (" +
+                "  id BIGSERIAL PRIMARY KEY," +
+                "  ip_address VARCHAR(64) NOT NULL," +
+                "  computer_name VARCHAR(255) NOT NULL," +
+                "  user_agent VARCHAR(1000) NOT NULL," +
+                "  CONSTRAINT uk_client_device UNIQUE (ip_address, computer_name, user_agent))");
+            jdbcTemplate.execute("ALTER TABLE ticket ADD COLUMN IF NOT EXISTS client_device_id BIGINT");
+
+            int devices = jdbcTemplate.update(
+                "INSERT INTO client_device (ip_address, computer_name, user_agent) " +
+                "SELECT DISTINCT COALESCE(TRIM(client_ip_address), ''), COALESCE(TRIM(computer_name), ''), " +
+                "       COALESCE(TRIM(user_agent), '') " +
+                "FROM ticket " +
+                "WHERE client_ip_address IS NOT NULL OR computer_name IS NOT NULL OR user_agent IS NOT NULL " +
+                "ON CONFLICT ON CONSTRAINT uk_client_device DO NOTHING");
+
+            int tickets = jdbcTemplate.update(
+                "UPDATE ticket t SET client_device_id = d.id " +
+                "FROM client_device d " +
+                "WHERE t.client_device_id IS NULL " +
+                "  AND d.ip_address = COALESCE(TRIM(t.client_ip_address), '') " +
+                "  AND d.computer_name = COALESCE(TRIM(t.computer_name), '') " +
+                "  AND d.user_agent = COALESCE(TRIM(t.user_agent), '') " +
+                "  AND (t.client_ip_address IS NOT NULL OR t.computer_name IS NOT NULL OR t.user_agent IS NOT NULL)");
+
+            System.out.println("Created " + devices + " client devices, linked " + tickets + " tickets");
+
+            if (dropLegacyColumns) {
+                jdbcTemplate.execute("ALTER TABLE ticket DROP COLUMN client_ip_address, " +
+                                     "DROP COLUMN computer_name, DROP COLUMN user_agent");
+                System.out.println("Dropped the old ticket client columns");
+            } else {
+                System.out.println("Old ticket client columns kept (client-device.drop-legacy-columns=false)");
+            }
+        });
+
+        System.out.println("=== END client_device MIGRATION ===");
+    }
+
+    private boolean legacyColumnsExist() {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.columns " +
+            "WHERE table_name = 'ticket' AND column_name = 'client_ip_address' " +
+            "AND table_schema = current_schema()",
+            Integer.class);
+        return count != null && count > 0;
+    }
+}
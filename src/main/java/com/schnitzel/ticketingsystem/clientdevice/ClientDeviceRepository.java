@@ -0,0 +1,19 @@
+package com.schnitzel.ticketingsystem.clientdevice;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface ClientDeviceRepository extends JpaRepository<ClientDevice, Long> {
+
+    Optional<ClientDevice> findByIpAddressAndComputerNameAndUserAgent(String ipAddress, String computerName, String userAgent);
+
+    @Modifying
+    @Query(value = "INSERT INTO client_device (ip_address, computer_name, user_agent) " +
+                   "VALUES (:ipAddress, :computerName, :userAgent) " +
+                   "ON CONFLICT ON CONSTRAINT uk_client_device DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(String ipAddress, String computerName, String userAgent);
+}
@@ -0,0 +1,194 @@
+package com.schnitzel.ticketingsystem.clientdevice;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns (ip, computer name, user agent) triples into client_device ids.
+ * Both directions are cached in bounded concurrent maps so the common case
+ * (a device that already filed a ticket) never touches the database.
+ */
+@Service
+public class ClientDeviceService {
+
+    @Autowired
+    private ClientDeviceRepository clientDeviceRepository;
+
+    @Value("${client-device.cache-size:10000}")
+    private int maxCacheSize;
+
+    private final ConcurrentHashMap<DeviceKey, Long> idsByKey = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, ClientDevice> devicesById = new ConcurrentHashMap<>();
+
+    /**
+     * Get (or create) the id of the device. Returns null if nothing is known about the client.
+     * Runs in its own transaction so the device row stays even if the caller rolls back
+     * (the cache may already hand out its id to other requests).
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Long intern(String ipAddress, String computerName, String userAgent) {
+        DeviceKey key = new DeviceKey(normalize(ipAddress), normalize(computerName), normalize(userAgent));
+        if (key.isEmpty()) {
+            return null;
+        }
+
+        Long cachedId = idsByKey.get(key);
+        if (cachedId != null) {
+            return cachedId;
+        }
+
+        ClientDevice device = clientDeviceRepository
+                .findByIpAddressAndComputerNameAndUserAgent(key.ipAddress, key.computerName, key.userAgent)
+                .orElseGet(() -> insert(key));
+
+        remember(key, device);
+        return device.getId();
+    }
+
+    /**
+     * Look up a device by id, served from the cache when possible
+     */
+    public Optional<ClientDevice> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        ClientDevice cached = devicesById.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<ClientDevice> device = clientDeviceRepository.findById(id);
+        device.ifPresent(d -> remember(keyOf(d), d));
+        return device;
+    }
+
+    /**
+     * Look up many devices at once: cache hits first, then one query for the rest
+     */
+    public Map<Long, ClientDevice> findAllById(Collection<Long> ids) {
+        Map<Long, ClientDevice> devices = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long id : ids) {
+            if (id == null) {
+                continue;
+            }
+            ClientDevice cached = devicesById.get(id);
+            if (cached != null) {
+                devices.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (ClientDevice device : clientDeviceRepository.findAllById(missing)) {
+                remember(keyOf(device), device);
+                devices.put(device.getId(), device);
+            }
+        }
+        return devices;
+    }
+
+    /**
+     * Cache hits of findAllById only, for callers that query the rest themselves (the reactive ticket API)
+     */
+    public Map<Long, ClientDevice> findCached(Collection<Long> ids) {
+        Map<Long, ClientDevice> devices = new HashMap<>();
+        for (Long id : ids) {
+            ClientDevice cached = id != null ? devicesById.get(id) : null;
+            if (cached != null) {
+                devices.put(id, cached);
+            }
+        }
+        return devices;
+    }
+
+    /**
+     * Caches devices that were read without this service
+     */
+    public void remember(Collection<ClientDevice> devices) {
+        devices.forEach(device -> remember(keyOf(device), device));
+    }
+
+    private ClientDevice insert(DeviceKey key) {
+        // ON CONFLICT DO NOTHING: losing a race with another request is not an error
+        clientDeviceRepository.insertIfAbsent(key.ipAddress, key.computerName, key.userAgent);
+        return clientDeviceRepository
+                .findByIpAddressAndComputerNameAndUserAgent(key.ipAddress, key.computerName, key.userAgent)
+                .orElseThrow(() -> new IllegalStateException("Client device was not stored"));
+    }
+
+    private void remember(DeviceKey key, ClientDevice device) {
+        evictIfFull(idsByKey);
+        evictIfFull(devicesById);
+        idsByKey.put(key, device.getId());
+        devicesById.put(device.getId(), device);
+    }
+
+    // Cheap bound: drop an arbitrary entry once full. Misses just cost one lookup.
+    private void evictIfFull(ConcurrentHashMap<?, ?> map) {
+        while (map.size() >= maxCacheSize) {
+            Iterator<?> it = map.keySet().iterator();
+            if (!it.hasNext()) {
+                return;
+            }
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static DeviceKey keyOf(ClientDevice device) {
+        return new DeviceKey(device.getIpAddress(), device.getComputerName(), device.getUserAgent());
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    private static final class DeviceKey {
+        final String ipAddress;
+        final String computerName;
+        final String userAgent;
+        final int hash;
+
+        DeviceKey(String ipAddress, String computerName, String userAgent) {
+            this.ipAddress = ipAddress;
+            this.computerName = computerName;
+            this.userAgent = userAgent;
+            this.hash = Objects.hash(ipAddress, computerName, userAgent);
+        }
+
+        boolean isEmpty() {
+            return ipAddress.isEmpty() && computerName.isEmpty() && userAgent.isEmpty();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DeviceKey)) return false;
+            DeviceKey other = (DeviceKey) o;
+            return hash == other.hash &&
+                   ipAddress.equals(other.ipAddress) &&
+                   computerName.equals(other.computerName) &&
+                   userAgent.equals(other.userAgent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.schnitzel.ticketingsystem.config;
+
+import com.schnitzel.ticketingsystem.attachment.AttachmentService;
+import com.schnitzel.ticketingsystem.jobs.ClusterJob;
+import com.schnitzel.ticketingsystem.jobs.JobRunRepository;
+import com.schnitzel.ticketingsystem.journal.TicketChangeJournal;
+import com.schnitzel.ticketingsystem.workqueue.TicketWorkQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Periodic work on shared data, run once per cluster by JobScheduler. Work on
+ * a node's own memory (caches, indexes) stays @Scheduled.
+ */
+@Configuration
+public class JobsConfig {
+
+    @Bean
+    public ClusterJob journalCompactionJob(TicketChangeJournal changeJournal,
+                                           @Value("${ticket.changes.compaction-interval-ms:600000}") long intervalMs) {
+        return ClusterJob.every("journal-compaction", Duration.ofMillis(intervalMs), changeJournal::compact)
+                .withJitter(Duration.ofMillis(intervalMs / 10));
+    }
+
+    @Bean
+    public ClusterJob expiredClaimsJob(TicketWorkQueue workQueue,
+                                       @Value("${ticket.queue.sweep-interval-ms:60000}") long intervalMs) {
+        return ClusterJob.every("expired-claims", Duration.ofMillis(intervalMs), workQueue::releaseExpired);
+    }
+
+    // The attachment store is shared by all nodes (attachments.dir on shared storage, or a single node)
+    @Bean
+    public ClusterJob attachmentGarbageJob(AttachmentService attachmentService,
+                                           @Value("${attachments.gc-interval-ms:3600000}") long intervalMs) {
+        return ClusterJob.every("attachment-gc", Duration.ofMillis(intervalMs), attachmentService::collectGarbage)
+                .withJitter(Duration.ofMillis(intervalMs / 10));
+    }
+
+    // Nightly; a night the cluster was down is simply skipped
+    @Bean
+    public ClusterJob jobHistoryCleanupJob(JobRunRepository jobRunRepository, TransactionTemplate transactionTemplate,
+                                           @Value("${jobs.history-cleanup-cron:0 30 3 * * *}") String cron,
+                                           @Value("${jobs.history-days:30}") int historyDays) {
+        return ClusterJob.cron("job-history-cleanup", cron, () -> {
+            int deleted = transactionTemplate.execute(status ->
+                    jobRunRepository.deleteStartedBefore(LocalDateTime.now().minusDays(historyDays)));
+            if (deleted > 0) {
+                System.out.println("Job history: removed " + deleted + " runs older than " + historyDays + " days");
+            }
+        }).withJitter(Duration.ofMinutes(10)).onMisfire(ClusterJob.Misfire.SKIP);
+    }
+}
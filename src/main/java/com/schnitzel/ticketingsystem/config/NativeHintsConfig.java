@@ -0,0 +1,70 @@
+package com.schnitzel.ticketingsystem.config;
+
+import com.schnitzel.ticketingsystem.CompressedTextConverter;
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.TicketPriorityConverter;
+import com.schnitzel.ticketingsystem.TicketStatusConverter;
+import com.schnitzel.ticketingsystem.assignment.AgentLoad;
+import com.schnitzel.ticketingsystem.attachment.Attachment;
+import com.schnitzel.ticketingsystem.dto.TicketCluster;
+import com.schnitzel.ticketingsystem.dto.TicketDto;
+import com.schnitzel.ticketingsystem.dto.TicketRegistrationRequest;
+import com.schnitzel.ticketingsystem.dto.TicketResponse;
+import com.schnitzel.ticketingsystem.dto.TicketSummary;
+import com.schnitzel.ticketingsystem.hotspots.HotspotReport;
+import com.schnitzel.ticketingsystem.jobs.JobStatus;
+import com.schnitzel.ticketingsystem.journal.TicketChange;
+import com.schnitzel.ticketingsystem.journal.TicketChangeBatch;
+import com.schnitzel.ticketingsystem.profiling.ProfileReport;
+import com.schnitzel.ticketingsystem.querystats.QueryStatsReport;
+import com.schnitzel.ticketingsystem.sharding.ShardStatus;
+import com.schnitzel.ticketingsystem.userauth.User;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Reflection the AOT engine cannot see, for the native image (mvn -Pnative native:compile).
+ * Only used at build time; does nothing on the JVM.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.Hints.class)
+// Serialized by ResponseCache or bound by Jackson outside of controller signatures
+@RegisterReflectionForBinding({Ticket.class, User.class, TicketSummary.class, TicketDto.class, TicketCluster.class,
+        TicketRegistrationRequest.class, TicketResponse.class, TicketChange.class, TicketChangeBatch.class,
+        AgentLoad.class, Attachment.class, QueryStatsReport.class, ShardStatus.class,
+        JobStatus.class, HotspotReport.class, ProfileReport.class})
+public class NativeHintsConfig {
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // JPQL "select new ...TicketSummary(...)"
+            hints.reflection().registerType(TicketSummary.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+            // Attribute converters are instantiated by Hibernate
+            hints.reflection().registerType(TicketStatusConverter.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            hints.reflection().registerType(TicketPriorityConverter.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            hints.reflection().registerType(CompressedTextConverter.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+            // JDBC proxies of the query instrumentation
+            hints.proxies().registerJdkProxy(Connection.class);
+            hints.proxies().registerJdkProxy(Statement.class);
+            hints.proxies().registerJdkProxy(PreparedStatement.class);
+            hints.proxies().registerJdkProxy(CallableStatement.class);
+            hints.proxies().registerJdkProxy(ResultSet.class);
+
+            hints.resources().registerPattern("sounds/*");
+        }
+    }
+}
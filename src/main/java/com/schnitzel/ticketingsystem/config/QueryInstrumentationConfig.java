@@ -0,0 +1,34 @@
+package com.schnitzel.ticketingsystem.config;
+
+import com.schnitzel.ticketingsystem.querystats.InstrumentedDataSource;
+import com.schnitzel.ticketingsystem.querystats.QueryStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class QueryInstrumentationConfig {
+
+    /**
+     * Wraps the application DataSource (the "dataSource" bean; with read replicas
+     * that is the routing proxy, so each statement is counted once) unless
+     * query.stats.enabled is false. Static, as post-processors come before other beans.
+     */
+    @Bean
+    public static BeanPostProcessor queryInstrumentation(ObjectProvider<QueryStats> queryStats,
+                                                        @Value("${query.stats.enabled:true}") boolean enabled) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && "dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                    return new InstrumentedDataSource(dataSource, queryStats::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package com.schnitzel.ticketingsystem.config;
+
+import com.schnitzel.ticketingsystem.datasource.ReplicaRoutingDataSource;
+import com.schnitzel.ticketingsystem.datasource.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas, when datasource.replicas lists their JDBC URLs (comma
+ * separated). Without any (and without shards), the DataSource is just the
+ * primary pool, as Spring Boot would build it. Decided at startup rather than with a condition, which
+ * AOT builds (fast-start profile) would fix at build time.
+ *
+ * spring.datasource.* is the primary; replicas use the same credentials unless
+ * datasource.replica-username/-password are set. spring.datasource.hikari.*
+ * applies to every pool.
+ */
+@Configuration
+public class ReplicaRoutingConfig {
+
+    @Value("${datasource.replicas:}")
+    private List<String> replicaUrls;
+
+    @Value("${datasource.replica-username:}")
+    private String replicaUsername;
+
+    @Value("${datasource.replica-password:}")
+    private String replicaPassword;
+
+    @Value("${datasource.replica-max-lag-ms:5000}")
+    private long maxLagMillis;
+
+    @Value("${datasource.sticky-ms:5000}")
+    private long stickyMillis;
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource primary = pool(properties.initializeDataSourceBuilder(), "primary", environment);
+
+        String username = replicaUsername.isEmpty() ? properties.determineUsername() : replicaUsername;
+        String password = replicaPassword.isEmpty() ? properties.determinePassword() : replicaPassword;
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            DataSourceBuilder<?> builder = DataSourceBuilder.create()
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(username)
+                    .password(password);
+            HikariDataSource replica = pool(builder, "replica-" + (replicas.size() + 1), environment);
+            replica.setReadOnly(true);
+            replicas.put(url.trim(), replica);
+        }
+        if (!replicas.isEmpty()) {
+            System.out.println("Routing read-only transactions to " + replicas.size() + " replica(s)");
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLagMillis, stickyMillis);
+    }
+
+    // Lazy, so the routing runs at the first statement, once the transaction is read-only or not
+    // and its shard is set (see ShardingConfig)
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource, ShardRoutingDataSource shardRoutingDataSource) {
+        if (shardRoutingDataSource.size() > 1) {
+            return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+        }
+        if (!replicaRoutingDataSource.hasReplicas()) {
+            return replicaRoutingDataSource.getPrimary();
+        }
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    static HikariDataSource pool(DataSourceBuilder<?> builder, String name, Environment environment) {
+        HikariDataSource pool = builder.type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        return pool;
+    }
+}
@@ -1,5 +1,6 @@
 package com.schnitzel.ticketingsystem.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -8,8 +9,39 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class SecurityConfig {
 
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+
+    /**
+     * BCrypt with a fixed cost (auth.bcrypt.strength), or the highest cost that
+     * still hashes within auth.bcrypt.target-ms on this machine.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.bcrypt.strength:0}") int strength,
+                                           @Value("${auth.bcrypt.target-ms:250}") long targetMs) {
+        if (strength <= 0) {
+            strength = calibrate(targetMs);
+        }
+        System.out.println("BCrypt strength: " + strength);
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    // Each step up doubles the cost, so stop once the next one would pass the target
+    private static int calibrate(long targetMs) {
+        int strength = MIN_STRENGTH;
+        long millis = timeHash(strength);
+        while (strength < MAX_STRENGTH && millis * 2 <= targetMs) {
+            strength++;
+            millis = timeHash(strength);
+        }
+        return strength;
+    }
+
+    private static long timeHash(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("calibration"); // warm up
+        long start = System.nanoTime();
+        encoder.encode("calibration");
+        return (System.nanoTime() - start) / 1_000_000;
     }
 }
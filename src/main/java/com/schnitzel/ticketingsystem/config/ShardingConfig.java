@@ -0,0 +1,58 @@
+package com.schnitzel.ticketingsystem.config;
+
+import com.schnitzel.ticketingsystem.datasource.ReplicaRoutingDataSource;
+import com.schnitzel.ticketingsystem.datasource.ShardRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ticket shards, when sharding.shards lists the JDBC URLs of shards 1..N-1
+ * (comma separated). Shard 0 is the home shard: spring.datasource.* and its
+ * read replicas. Shards use the home credentials unless sharding.username /
+ * sharding.password are set, and at most 32 shards fit in a ticket id.
+ *
+ * Every shard has the full schema (scripts/shard-schema.sh copies it from the
+ * home shard), but only ticket rows are spread over them.
+ */
+@Configuration
+public class ShardingConfig {
+
+    @Value("${sharding.shards:}")
+    private List<String> shardUrls;
+
+    @Value("${sharding.username:}")
+    private String username;
+
+    @Value("${sharding.password:}")
+    private String password;
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(ReplicaRoutingDataSource home, DataSourceProperties properties,
+                                                         Environment environment) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(home.hasReplicas() ? home : home.getPrimary());
+        for (String url : shardUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            DataSourceBuilder<?> builder = DataSourceBuilder.create()
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(username.isEmpty() ? properties.determineUsername() : username)
+                    .password(password.isEmpty() ? properties.determinePassword() : password);
+            shards.add(ReplicaRoutingConfig.pool(builder, "shard-" + shards.size(), environment));
+        }
+        if (shards.size() > 1) {
+            System.out.println("Tickets sharded over " + shards.size() + " databases");
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+}
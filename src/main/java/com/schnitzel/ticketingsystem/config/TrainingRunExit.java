@@ -0,0 +1,30 @@
+package com.schnitzel.ticketingsystem.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * spring.context.exit=onRefresh stops the application once the context has
+ * started, before the runners and ready listeners that need the database.
+ * This is the class data sharing training run of the fast-start profile
+ * (pom.xml). Spring Framework 6.1 reads the same property itself.
+ *
+ * Checked at runtime rather than with a condition, as AOT fixes conditions at build time.
+ */
+@Component
+public class TrainingRunExit {
+
+    @Value("${spring.context.exit:}")
+    private String exit;
+
+    @EventListener
+    public void onStarted(ApplicationStartedEvent event) {
+        if ("onRefresh".equals(exit)) {
+            System.out.println("Training run: context started, exiting");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
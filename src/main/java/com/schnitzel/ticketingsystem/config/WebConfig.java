@@ -1,19 +1,84 @@
 package com.schnitzel.ticketingsystem.config;
 
 import com.schnitzel.ticketingsystem.controller.AuthInterceptor;
+import com.schnitzel.ticketingsystem.querystats.QueryBudgetInterceptor;
+import com.schnitzel.ticketingsystem.wireformat.WireFormat;
+import com.schnitzel.ticketingsystem.wireformat.WireFormatMappers;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
     @Autowired
     private AuthInterceptor authInterceptor;
 
+    @Autowired
+    private QueryBudgetInterceptor queryBudgetInterceptor;
+
+    @Autowired
+    private WireFormatMappers wireFormatMappers;
+
+    // Async responses (the NDJSON ticket stream) each hold a thread for as long as the
+    // client reads, and a DB connection while it reads a batch, so they get their own small pool
+    @Value("${ticket.stream.threads:4}")
+    private int streamThreads;
+
+    @Value("${ticket.stream.queue-capacity:32}")
+    private int streamQueueCapacity;
+
+    @Value("${ticket.stream.timeout-ms:300000}")
+    private long streamTimeoutMs;
+
+    private ThreadPoolTaskExecutor streamExecutor;
+
+    @PostConstruct
+    public void startStreamExecutor() {
+        streamExecutor = new ThreadPoolTaskExecutor();
+        streamExecutor.setCorePoolSize(streamThreads);
+        streamExecutor.setMaxPoolSize(streamThreads);
+        streamExecutor.setQueueCapacity(streamQueueCapacity);
+        streamExecutor.setThreadNamePrefix("ticket-stream-");
+        streamExecutor.initialize();
+    }
+
+    @PreDestroy
+    public void stopStreamExecutor() {
+        streamExecutor.shutdown();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamExecutor);
+        configurer.setDefaultTimeout(streamTimeoutMs);
+    }
+
+    // Smile/CBOR converters with our mappers instead of Spring's defaults, after JSON so */* stays JSON
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                                      || converter instanceof MappingJackson2CborHttpMessageConverter);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(wireFormatMappers.get(WireFormat.SMILE)));
+        converters.add(new MappingJackson2CborHttpMessageConverter(wireFormatMappers.get(WireFormat.CBOR)));
+    }
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // First, so it counts everything the request runs
+        registry.addInterceptor(queryBudgetInterceptor)
+                .addPathPatterns("/**");
         registry.addInterceptor(authInterceptor)
                 .addPathPatterns("/**")
                 .excludePathPatterns("/", "/login", "/tickets", "/css/**", "/js/**", "/images/**", 
@@ -1,10 +1,12 @@
 package com.schnitzel.ticketingsystem.controller;
 
+import com.schnitzel.ticketingsystem.userauth.User;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.UrlPathHelper;
 
 @Component
 public class AuthInterceptor implements HandlerInterceptor {
@@ -15,10 +17,12 @@ public class AuthInterceptor implements HandlerInterceptor {
                            Object handler) throws Exception {
         
         HttpSession session = request.getSession(false);
-        String requestURI = request.getRequestURI();
+        // The path handlers are matched on: decoded, without ;parameters. The raw
+        // URI would let /api/profiling/dump;x.js pass as a static resource
+        String path = UrlPathHelper.defaultInstance.getLookupPathForRequest(request);
         
         // Allow public endpoints and static resources
-        if (isPublicEndpoint(requestURI) || isStaticResource(requestURI)) {
+        if (isPublicEndpoint(path) || isStaticResource(path)) {
             return true;
         }
         
@@ -28,6 +32,12 @@ public class AuthInterceptor implements HandlerInterceptor {
             return false;
         }
         
+        // Admin pages need the ADMIN or SUPER_ADMIN role
+        if (isAdminEndpoint(path) && !((User) session.getAttribute("user")).isAdmin()) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return false;
+        }
+        
         return true;
     }
     
@@ -40,7 +50,15 @@ public class AuthInterceptor implements HandlerInterceptor {
                uri.equals("/error");
     }
     
+    private boolean isAdminEndpoint(String uri) {
+        return uri.startsWith("/api/profiling") ||
+               uri.startsWith("/api/shards");
+    }
+    
     private boolean isStaticResource(String uri) {
+        if (uri.startsWith("/api/")) {
+            return false;
+        }
         return uri.startsWith("/css/") || 
                uri.startsWith("/js/") || 
                uri.startsWith("/images/") ||
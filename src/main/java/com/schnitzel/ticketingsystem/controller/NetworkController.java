@@ -1,7 +1,9 @@
 package com.schnitzel.ticketingsystem.controller;
 
+import com.schnitzel.ticketingsystem.security.ClientIdentityResolver;
 import com.schnitzel.ticketingsystem.security.NetworkUtils;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,6 +15,9 @@ import java.util.Map;
 
 public class NetworkController {
 
+    @Autowired
+    private ClientIdentityResolver clientIdentityResolver;
+
     /**
      * Test network detection - shows all headers and detected info
      */
@@ -40,7 +45,7 @@ public class NetworkController {
      */
     @GetMapping("/whoami")
     public ResponseEntity<Map<String, String>> whoami(HttpServletRequest request) {
-        Map<String, String> info = NetworkUtils.whoami(request);
+        Map<String, String> info = NetworkUtils.whoami(clientIdentityResolver.resolve(request));
         return ResponseEntity.ok(info);
     }
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.schnitzel.ticketingsystem.controller;
 
+import com.schnitzel.ticketingsystem.security.ClientIdentity;
+import com.schnitzel.ticketingsystem.security.ClientIdentityResolver;
 import com.schnitzel.ticketingsystem.security.NetworkUtils;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -12,17 +15,20 @@ import java.util.Map;
 @RestController
 public class UserInfoController {
 
+    @Autowired
+    private ClientIdentityResolver clientIdentityResolver;
+
     @GetMapping("/whoami")
     public Map<String, String> whoami(HttpServletRequest request) {
         // Debug output (check your server logs)
         NetworkUtils.debugRequestInfo(request);  // CHANGED: was debugCorporateHeaders
         
-        return NetworkUtils.whoami(request);
+        return NetworkUtils.whoami(clientIdentityResolver.resolve(request));
     }
 
     @GetMapping("/userinfo")
     public ResponseEntity<Map<String, Object>> getUserInfo(HttpServletRequest request) {
-        Map<String, String> basicInfo = NetworkUtils.whoami(request);
+        Map<String, String> basicInfo = NetworkUtils.whoami(clientIdentityResolver.resolve(request));
         
         Map<String, Object> detailedInfo = new HashMap<>();
         detailedInfo.put("user", basicInfo);
@@ -34,13 +40,14 @@ public class UserInfoController {
 
     @GetMapping("/network-info")
     public Map<String, Object> getNetworkInfo(HttpServletRequest request) {
+        ClientIdentity identity = clientIdentityResolver.resolve(request);
         Map<String, Object> networkInfo = new HashMap<>();
         
-        networkInfo.put("clientIp", NetworkUtils.getClientIpAddress(request));
-        networkInfo.put("clientHostname", NetworkUtils.getClientHostname(request));
-        networkInfo.put("clientUsername", NetworkUtils.getClientUsername(request));
+        networkInfo.put("clientIp", identity.getIpAddress());
+        networkInfo.put("clientHostname", identity.getHostname());
+        networkInfo.put("clientUsername", identity.getUsername());
         networkInfo.put("serverInfo", NetworkUtils.getComputerName());
-        networkInfo.put("userAgent", request.getHeader("User-Agent"));
+        networkInfo.put("userAgent", identity.getUserAgent());
         
         return networkInfo;
     }
@@ -1,5 +1,6 @@
 package com.schnitzel.ticketingsystem.controller;
 
+import com.schnitzel.ticketingsystem.userauth.CredentialCheckBusyException;
 import com.schnitzel.ticketingsystem.userauth.User;
 import com.schnitzel.ticketingsystem.userauth.UserService;
 import jakarta.servlet.http.HttpSession;
@@ -10,6 +11,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import java.util.Optional;
 
 @Controller
 public class WebController {
@@ -39,10 +41,17 @@ public class WebController {
         
         System.out.println("=== LOGIN ATTEMPT ===");
         System.out.println("Email: " + email);
-        System.out.println("Password: " + password);
         
-        if (userService.validateUser(email, password)) {
-            User user = userService.findByEmail(email).get();
+        Optional<User> authenticated;
+        try {
+            authenticated = userService.authenticate(email, password);
+        } catch (CredentialCheckBusyException e) {
+            System.out.println("LOGIN REJECTED (busy): " + email);
+            return "redirect:/login?error=busy";
+        }
+
+        if (authenticated.isPresent()) {
+            User user = authenticated.get();
             session.setAttribute("user", user);
             session.setAttribute("userId", user.getId());
             session.setAttribute("userEmail", user.getEmail());
@@ -0,0 +1,20 @@
+package com.schnitzel.ticketingsystem.datasource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replicas get no reads until the first check has seen them healthy
+ */
+@Component
+public class ReplicaHealthChecker {
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Scheduled(fixedDelayString = "${datasource.replica-check-ms:5000}")
+    public void check() {
+        routingDataSource.checkHealth();
+    }
+}
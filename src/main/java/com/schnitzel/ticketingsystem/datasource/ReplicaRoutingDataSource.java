@@ -0,0 +1,189 @@
+package com.schnitzel.ticketingsystem.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy read replica and everything else
+ * to the primary. Must sit behind a LazyConnectionDataSourceProxy, so the
+ * connection is fetched after the transaction has set its read-only flag.
+ *
+ * Read-your-writes: once a thread or HTTP session has run a read-write
+ * transaction, its reads stay on the primary for stickyMillis, long enough
+ * for the replicas to replay the write.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final String PRIMARY_UNTIL = ReplicaRoutingDataSource.class.getName() + ".PRIMARY_UNTIL";
+
+    // Caught up with what it received: no lag, even when the primary is idle
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+          + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile boolean healthy; // false until the first check
+        volatile long lagMillis = -1;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private static final ThreadLocal<Long> threadPrimaryUntil = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final long stickyMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagMillis, long stickyMillis) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.maxLagMillis = maxLagMillis;
+        this.stickyMillis = stickyMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = route();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica = route();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection(username, password);
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * Probe every replica; one that fails or lags more than maxLagMillis gets no reads until it recovers
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(2);
+                try (ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                    rs.next();
+                    replica.lagMillis = (long) rs.getDouble(1);
+                }
+                boolean healthy = replica.lagMillis <= maxLagMillis;
+                if (healthy != replica.healthy) {
+                    System.out.println("Replica " + replica.name + (healthy ? " is back in rotation" : " lags "
+                            + replica.lagMillis + " ms, reads go to the primary"));
+                }
+                replica.healthy = healthy;
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+    }
+
+    // null means primary
+    private Replica route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                stickToPrimary();
+            }
+            return null;
+        }
+        if (replicas.isEmpty() || isStuckToPrimary()) {
+            return null;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void stickToPrimary() {
+        long until = System.currentTimeMillis() + stickyMillis;
+        threadPrimaryUntil.set(until);
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(PRIMARY_UNTIL, until, RequestAttributes.SCOPE_REQUEST);
+            // Only an existing session: the public ticket form should not start one
+            if (hasSession(request)) {
+                request.setAttribute(PRIMARY_UNTIL, until, RequestAttributes.SCOPE_SESSION);
+            }
+        }
+    }
+
+    private boolean isStuckToPrimary() {
+        long now = System.currentTimeMillis();
+        Long until = threadPrimaryUntil.get();
+        if (until != null && until > now) {
+            return true;
+        }
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return false;
+        }
+        if (isAfter(request.getAttribute(PRIMARY_UNTIL, RequestAttributes.SCOPE_REQUEST), now)) {
+            return true;
+        }
+        return hasSession(request) && isAfter(request.getAttribute(PRIMARY_UNTIL, RequestAttributes.SCOPE_SESSION), now);
+    }
+
+    private static boolean hasSession(RequestAttributes request) {
+        return request instanceof ServletRequestAttributes servlet
+                && servlet.getRequest().getSession(false) != null;
+    }
+
+    private static boolean isAfter(Object until, long now) {
+        return until instanceof Long && (Long) until > now;
+    }
+
+    private static void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            System.out.println("Replica " + replica.name + " is down, reads go to the primary: " + reason);
+        }
+        replica.healthy = false;
+    }
+}
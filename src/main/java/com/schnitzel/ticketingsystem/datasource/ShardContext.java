@@ -0,0 +1,42 @@
+package com.schnitzel.ticketingsystem.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread's connections come from (see ShardRoutingDataSource).
+ * Shard 0, the home shard, unless set.
+ *
+ * Set it before a transaction starts: a transaction keeps the connection it
+ * opened with, so switching shards inside one has no effect on it.
+ */
+public final class ShardContext {
+
+    public static final int HOME = 0;
+
+    private static final ThreadLocal<Integer> current = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = current.get();
+        return shard != null ? shard : HOME;
+    }
+
+    /**
+     * Run work with connections from shard, then go back to the previous shard
+     */
+    public static <T> T call(int shard, Supplier<T> work) {
+        Integer previous = current.get();
+        current.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+}
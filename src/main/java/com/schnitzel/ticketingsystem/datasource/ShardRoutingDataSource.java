@@ -0,0 +1,51 @@
+package com.schnitzel.ticketingsystem.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * One DataSource per shard, picked by ShardContext when a connection is fetched.
+ * Shard 0 is the home shard (spring.datasource.*, with its read replicas); it
+ * also holds everything that is not sharded.
+ */
+public class ShardRoutingDataSource extends AbstractDataSource {
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least the home shard is needed");
+        }
+        this.shards = List.copyOf(shards);
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    private DataSource target() {
+        int shard = ShardContext.current();
+        if (shard < 0 || shard >= shards.size()) {
+            throw new IllegalStateException("No shard " + shard + " (" + shards.size() + " configured)");
+        }
+        return shards.get(shard);
+    }
+}
@@ -0,0 +1,249 @@
+package com.schnitzel.ticketingsystem.directory;
+
+import com.schnitzel.ticketingsystem.assignment.AssignmentRule;
+import com.schnitzel.ticketingsystem.invalidation.RemoteInvalidationEvent;
+import com.schnitzel.ticketingsystem.userauth.User;
+import com.schnitzel.ticketingsystem.userauth.UserChangedEvent;
+import com.schnitzel.ticketingsystem.userauth.UserRepository;
+import com.schnitzel.ticketingsystem.userauth.UserRole;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory user directory for autocomplete.
+ *
+ * Every word of fullName, email and position (and the whole email) is a token
+ * in one sorted array, so "jo sm" finds John Smith with two binary searches.
+ * Readers use an immutable snapshot; a user change rebuilds the snapshot,
+ * which is cheap at directory sizes and keeps lookups lock-free. Changes made
+ * on other nodes arrive through the InvalidationBus.
+ */
+@Service
+public class UserDirectory {
+
+    private static final int MAX_LIMIT = 50;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private List<AssignmentRule> rules;
+
+    private final Map<Long, UserDirectoryEntry> entries = new HashMap<>(); // guarded by this
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        entries.clear();
+        for (User user : userRepository.findAll()) {
+            entries.put(user.getId(), toEntry(user));
+        }
+        snapshot = Snapshot.build(entries.values());
+    }
+
+    @EventListener
+    public synchronized void onUserChanged(UserChangedEvent event) {
+        Optional<User> user = event.isDeleted() ? Optional.empty() : userRepository.findById(event.getUserId());
+        apply(event.getUserId(), user);
+        snapshot = Snapshot.build(entries.values());
+    }
+
+    // Changed on another node
+    @EventListener
+    public synchronized void onRemoteInvalidation(RemoteInvalidationEvent event) {
+        if (event.isAllUsers()) {
+            reload();
+            return;
+        }
+        if (event.getUserIds().isEmpty()) {
+            return;
+        }
+        for (Long userId : event.getUserIds()) {
+            apply(userId, userRepository.findById(userId));
+        }
+        snapshot = Snapshot.build(entries.values());
+    }
+
+    private void apply(Long userId, Optional<User> user) {
+        if (user.isPresent()) {
+            entries.put(userId, toEntry(user.get()));
+        } else {
+            entries.remove(userId);
+        }
+    }
+
+    /**
+     * Users whose words start with every term of the query, best match first.
+     * A blank query lists everyone who passes the filters, by name.
+     */
+    public List<UserDirectoryEntry> autocomplete(String query, boolean itStaffOnly, UserRole role, int limit) {
+        Snapshot current = snapshot;
+        String[] terms = terms(query);
+
+        BitSet matches;
+        if (terms.length == 0) {
+            matches = new BitSet(current.entries.length);
+            matches.set(0, current.entries.length);
+        } else {
+            matches = current.withPrefix(terms[0]);
+            for (int i = 1; i < terms.length && !matches.isEmpty(); i++) {
+                matches.and(current.withPrefix(terms[i]));
+            }
+        }
+
+        // Name starting with the query first, then other name matches, then email/position matches.
+        // Only the top `limit` are kept, in a max-heap, so broad prefixes stay cheap.
+        String whole = String.join(" ", terms);
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        int[] ranks = new int[current.entries.length];
+        Comparator<Integer> best = Comparator.<Integer>comparingInt(i -> ranks[i]).thenComparing(i -> current.sortNames[i]);
+        PriorityQueue<Integer> top = new PriorityQueue<>(size + 1, best.reversed());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            UserDirectoryEntry entry = current.entries[i];
+            if ((itStaffOnly && !entry.isItStaff()) || (role != null && entry.getRole() != role)) {
+                continue;
+            }
+            ranks[i] = current.rank(i, whole, terms);
+            top.add(i);
+            if (top.size() > size) {
+                top.poll();
+            }
+        }
+
+        List<Integer> order = new ArrayList<>(top);
+        order.sort(best);
+        List<UserDirectoryEntry> results = new ArrayList<>(order.size());
+        for (int i : order) {
+            results.add(current.entries[i]);
+        }
+        return results;
+    }
+
+    private UserDirectoryEntry toEntry(User user) {
+        boolean itStaff = true;
+        for (AssignmentRule rule : rules) {
+            itStaff &= rule.isAgent(user);
+        }
+        return new UserDirectoryEntry(user.getId(), user.getFullName(), user.getEmail(),
+                                      user.getPosition(), user.getRole(), itStaff);
+    }
+
+    static String[] terms(String query) {
+        if (query == null) {
+            return new String[0];
+        }
+        return Arrays.stream(query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}@._-]+"))
+                .filter(term -> !term.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static final class Snapshot {
+        final UserDirectoryEntry[] entries;
+        final String[] sortNames;   // lower-case full name per entry
+        final String[][] nameWords; // words of the full name per entry
+        final String[] tokens;      // sorted
+        final int[] owners;         // entry index per token
+
+        private Snapshot(UserDirectoryEntry[] entries, String[] sortNames, String[][] nameWords,
+                         String[] tokens, int[] owners) {
+            this.entries = entries;
+            this.sortNames = sortNames;
+            this.nameWords = nameWords;
+            this.tokens = tokens;
+            this.owners = owners;
+        }
+
+        static Snapshot build(Iterable<UserDirectoryEntry> source) {
+            List<UserDirectoryEntry> list = new ArrayList<>();
+            source.forEach(list::add);
+            UserDirectoryEntry[] entries = list.toArray(new UserDirectoryEntry[0]);
+            String[] sortNames = new String[entries.length];
+            String[][] nameWords = new String[entries.length][];
+
+            List<Token> all = new ArrayList<>();
+            for (int i = 0; i < entries.length; i++) {
+                UserDirectoryEntry entry = entries[i];
+                sortNames[i] = lower(entry.getFullName());
+                nameWords[i] = words(entry.getFullName());
+                for (String word : nameWords[i]) all.add(new Token(word, i));
+                for (String word : words(entry.getEmail())) all.add(new Token(word, i));
+                for (String word : words(entry.getPosition())) all.add(new Token(word, i));
+                if (entry.getEmail() != null) {
+                    all.add(new Token(lower(entry.getEmail()), i));
+                }
+            }
+            all.sort(Comparator.comparing(token -> token.text));
+
+            String[] tokens = new String[all.size()];
+            int[] owners = new int[all.size()];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = all.get(i).text;
+                owners[i] = all.get(i).owner;
+            }
+            return new Snapshot(entries, sortNames, nameWords, tokens, owners);
+        }
+
+        BitSet withPrefix(String prefix) {
+            BitSet result = new BitSet(entries.length);
+            int low = 0;
+            int high = tokens.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (tokens[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            for (int i = low; i < tokens.length && tokens[i].startsWith(prefix); i++) {
+                result.set(owners[i]);
+            }
+            return result;
+        }
+
+        int rank(int entry, String whole, String[] terms) {
+            if (whole.isEmpty() || sortNames[entry].startsWith(whole)) {
+                return 0;
+            }
+            for (String word : nameWords[entry]) {
+                if (word.startsWith(terms[0])) {
+                    return 1;
+                }
+            }
+            return 2;
+        }
+
+        private static String[] words(String value) {
+            return Arrays.stream(lower(value).split("[^\\p{L}\\p{N}]+"))
+                    .filter(word -> !word.isEmpty())
+                    .toArray(String[]::new);
+        }
+
+        private static String lower(String value) {
+            return value == null ? "" : value.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final class Token {
+        final String text;
+        final int owner;
+
+        Token(String text, int owner) {
+            this.text = text;
+            this.owner = owner;
+        }
+    }
+}
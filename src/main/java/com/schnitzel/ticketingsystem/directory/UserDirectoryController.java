@@ -0,0 +1,37 @@
+package com.schnitzel.ticketingsystem.directory;
+
+import com.schnitzel.ticketingsystem.querystats.QueryBudget;
+import com.schnitzel.ticketingsystem.userauth.UserRole;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/users")
+public class UserDirectoryController {
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    // Assignee pickers, ex. /api/users/autocomplete?q=jo&itStaff=true&limit=10
+    @GetMapping("/autocomplete")
+    @QueryBudget(0)
+    public ResponseEntity<List<UserDirectoryEntry>> autocomplete(@RequestParam(defaultValue = "") String q,
+                                                                 @RequestParam(defaultValue = "false") boolean itStaff,
+                                                                 @RequestParam(required = false) String role,
+                                                                 @RequestParam(defaultValue = "10") int limit) {
+        UserRole userRole;
+        try {
+            userRole = role == null || role.isBlank() ? null : UserRole.valueOf(role.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userDirectory.autocomplete(q, itStaff, userRole, limit));
+    }
+}
@@ -0,0 +1,49 @@
+package com.schnitzel.ticketingsystem.directory;
+
+import com.schnitzel.ticketingsystem.userauth.UserRole;
+
+/**
+ * Public view of a user for pickers and autocomplete (no password)
+ */
+public class UserDirectoryEntry {
+
+    private final Long id;
+    private final String fullName;
+    private final String email;
+    private final String position;
+    private final UserRole role;
+    private final boolean itStaff;
+
+    public UserDirectoryEntry(Long id, String fullName, String email, String position, UserRole role, boolean itStaff) {
+        this.id = id;
+        this.fullName = fullName;
+        this.email = email;
+        this.position = position;
+        this.role = role;
+        this.itStaff = itStaff;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+    public UserRole getRole() {
+        return role;
+    }
+
+    public boolean isItStaff() {
+        return itStaff;
+    }
+}
@@ -0,0 +1,42 @@
+package com.schnitzel.ticketingsystem.dto;
+
+import com.schnitzel.ticketingsystem.TicketStatus;
+import java.util.List;
+
+/**
+ * A parent ticket with the tickets that were linked to it as duplicates
+ */
+public class TicketCluster {
+
+    private final Long parentTicketId;
+    private final String subject;
+    private final TicketStatus ticketStatus;
+    private final List<Long> duplicateTicketIds;
+
+    public TicketCluster(Long parentTicketId, String subject, TicketStatus ticketStatus, List<Long> duplicateTicketIds) {
+        this.parentTicketId = parentTicketId;
+        this.subject = subject;
+        this.ticketStatus = ticketStatus;
+        this.duplicateTicketIds = duplicateTicketIds;
+    }
+
+    public Long getParentTicketId() {
+        return parentTicketId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public TicketStatus getTicketStatus() {
+        return ticketStatus;
+    }
+
+    public List<Long> getDuplicateTicketIds() {
+        return duplicateTicketIds;
+    }
+
+    public int getCount() {
+        return duplicateTicketIds.size();
+    }
+}
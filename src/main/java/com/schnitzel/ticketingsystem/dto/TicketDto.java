@@ -1,6 +1,16 @@
 package com.schnitzel.ticketingsystem.dto;
 
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.TicketPriority;
+import com.schnitzel.ticketingsystem.TicketStatus;
+import com.schnitzel.ticketingsystem.clientdevice.ClientDevice;
+import com.schnitzel.ticketingsystem.clientdevice.ClientDeviceService;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class TicketDto {
     private Long ticketId;
@@ -11,6 +21,16 @@ public class TicketDto {
     private String assignedPerson;
     private String ticketStatus;
     private LocalDateTime requestedTime;
+    private LocalDateTime closedTime;
+    private String itComment;
+    private LocalDateTime slaDueAt;
+    private Long parentTicketId;
+    private LocalDateTime claimExpiresAt;
+    private String routingKey;
+
+    // List rows only (see the list constructor): start of intent / itComment, which stay null there
+    private String intentPreview;
+    private String itCommentPreview;
     
     // Network information fields
     private String clientIpAddress;      // Public IP
@@ -20,9 +40,119 @@ public class TicketDto {
     private String userAgent;            // Browser info
     private String deviceId;             // Device fingerprint
 
+    // client_device reference, resolved into the fields above on first access
+    private Long clientDeviceId;
+    private ClientDeviceService deviceLookup;
+    private boolean deviceResolved;
+
     // Constructors
     public TicketDto() {}
 
+    /**
+     * List row from a JPQL constructor query: the text previews instead of
+     * intent / itComment, so the compressed columns are never read.
+     * GET /api/tickets/{id} has the full text.
+     */
+    public TicketDto(Long ticketId, String fullName, String subject, String intentPreview,
+                     TicketPriority priority, String assignedPerson, TicketStatus ticketStatus,
+                     LocalDateTime requestedTime, LocalDateTime closedTime, String itCommentPreview,
+                     LocalDateTime slaDueAt, Long parentTicketId, LocalDateTime claimExpiresAt,
+                     String routingKey, Long clientDeviceId) {
+        this.ticketId = ticketId;
+        this.fullName = fullName;
+        this.subject = subject;
+        this.intentPreview = intentPreview;
+        this.priority = priority != null ? priority.name() : null;
+        this.assignedPerson = assignedPerson;
+        this.ticketStatus = ticketStatus != null ? ticketStatus.name() : null;
+        this.requestedTime = requestedTime;
+        this.closedTime = closedTime;
+        this.itCommentPreview = itCommentPreview;
+        this.slaDueAt = slaDueAt;
+        this.parentTicketId = parentTicketId;
+        this.claimExpiresAt = claimExpiresAt;
+        this.routingKey = routingKey;
+        this.clientDeviceId = clientDeviceId;
+    }
+
+    public static TicketDto fromTicket(Ticket ticket, ClientDeviceService deviceLookup) {
+        TicketDto dto = new TicketDto();
+        dto.setTicketId(ticket.getTicketId());
+        dto.setFullName(ticket.getFullName());
+        dto.setSubject(ticket.getSubject());
+        dto.setIntent(ticket.getIntent());
+        dto.setPriority(ticket.getPriority() != null ? ticket.getPriority().name() : null);
+        dto.setAssignedPerson(ticket.getAssignedPerson());
+        dto.setTicketStatus(ticket.getTicketStatus() != null ? ticket.getTicketStatus().name() : null);
+        dto.setRequestedTime(ticket.getRequestedTime());
+        dto.setClosedTime(ticket.getClosedTime());
+        dto.setItComment(ticket.getItComment());
+        dto.setSlaDueAt(ticket.getSlaDueAt());
+        dto.setParentTicketId(ticket.getParentTicketId());
+        dto.setClaimExpiresAt(ticket.getClaimExpiresAt());
+        dto.setRoutingKey(ticket.getRoutingKey());
+        dto.clientDeviceId = ticket.getClientDeviceId();
+        dto.deviceLookup = deviceLookup;
+        return dto;
+    }
+
+    /**
+     * Same as fromTicket for a whole list, with the devices looked up in one go
+     */
+    public static List<TicketDto> fromTickets(List<Ticket> tickets, ClientDeviceService deviceLookup) {
+        List<TicketDto> dtos = new ArrayList<>(tickets.size());
+        for (Ticket ticket : tickets) {
+            dtos.add(fromTicket(ticket, null));
+        }
+        return withDevices(dtos, deviceLookup);
+    }
+
+    /**
+     * Resolves the client devices of dtos in one lookup; returns dtos
+     */
+    public static List<TicketDto> withDevices(List<TicketDto> dtos, ClientDeviceService deviceLookup) {
+        return withDevices(dtos, deviceLookup.findAllById(deviceIds(dtos)));
+    }
+
+    /**
+     * Same with the devices already looked up, by id
+     */
+    public static List<TicketDto> withDevices(List<TicketDto> dtos, Map<Long, ClientDevice> devices) {
+        for (TicketDto dto : dtos) {
+            dto.applyDevice(devices.get(dto.clientDeviceId));
+        }
+        return dtos;
+    }
+
+    /**
+     * The client devices dtos refer to, for the lookup withDevices takes
+     */
+    public static Set<Long> deviceIds(List<TicketDto> dtos) {
+        Set<Long> deviceIds = new HashSet<>();
+        dtos.forEach(dto -> deviceIds.add(dto.clientDeviceId));
+        return deviceIds;
+    }
+
+    private void applyDevice(ClientDevice device) {
+        if (device != null) {
+            if (clientIpAddress == null) clientIpAddress = device.getIpAddress();
+            if (computerName == null) computerName = device.getComputerName();
+            if (userAgent == null) userAgent = device.getUserAgent();
+        }
+    }
+
+    private void resolveDevice() {
+        if (deviceResolved) {
+            return;
+        }
+        deviceResolved = true;
+        if (deviceLookup == null || clientDeviceId == null) {
+            return;
+        }
+
+        applyDevice(deviceLookup.findById(clientDeviceId).orElse(null));
+    }
+
     // Getters and Setters
     public Long getTicketId() {
         return ticketId;
@@ -88,7 +218,81 @@ public class TicketDto {
         this.requestedTime = requestedTime;
     }
 
+    public LocalDateTime getClosedTime() {
+        return closedTime;
+    }
+
+    public void setClosedTime(LocalDateTime closedTime) {
+        this.closedTime = closedTime;
+    }
+
+    public String getItComment() {
+        return itComment;
+    }
+
+    public void setItComment(String itComment) {
+        this.itComment = itComment;
+    }
+
+    public String getIntentPreview() {
+        return intentPreview;
+    }
+
+    public void setIntentPreview(String intentPreview) {
+        this.intentPreview = intentPreview;
+    }
+
+    public String getItCommentPreview() {
+        return itCommentPreview;
+    }
+
+    public void setItCommentPreview(String itCommentPreview) {
+        this.itCommentPreview = itCommentPreview;
+    }
+
+    public LocalDateTime getSlaDueAt() {
+        return slaDueAt;
+    }
+
+    public void setSlaDueAt(LocalDateTime slaDueAt) {
+        this.slaDueAt = slaDueAt;
+    }
+
+    public Long getParentTicketId() {
+        return parentTicketId;
+    }
+
+    public void setParentTicketId(Long parentTicketId) {
+        this.parentTicketId = parentTicketId;
+    }
+
+    public LocalDateTime getClaimExpiresAt() {
+        return claimExpiresAt;
+    }
+
+    public void setClaimExpiresAt(LocalDateTime claimExpiresAt) {
+        this.claimExpiresAt = claimExpiresAt;
+    }
+
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    public void setRoutingKey(String routingKey) {
+        this.routingKey = routingKey;
+    }
+
+    public Long getClientDeviceId() {
+        return clientDeviceId;
+    }
+
+    public void setClientDeviceId(Long clientDeviceId) {
+        this.clientDeviceId = clientDeviceId;
+        this.deviceResolved = false;
+    }
+
     public String getClientIpAddress() {
+        resolveDevice();
         return clientIpAddress;
     }
 
@@ -105,6 +309,7 @@ public class TicketDto {
     }
 
     public String getComputerName() {
+        resolveDevice();
         return computerName;
     }
 
@@ -121,6 +326,7 @@ public class TicketDto {
     }
 
     public String getUserAgent() {
+        resolveDevice();
         return userAgent;
     }
 
@@ -0,0 +1,73 @@
+package com.schnitzel.ticketingsystem.dto;
+
+import com.schnitzel.ticketingsystem.TicketPriority;
+import com.schnitzel.ticketingsystem.TicketStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Ticket row without the large text columns (intent, itComment).
+ * Built straight from a JPQL constructor query, so listing never reads
+ * or decompresses those columns.
+ */
+public class TicketSummary {
+
+    private final Long ticketId;
+    private final String fullName;
+    private final String subject;
+    private final TicketStatus ticketStatus;
+    private final TicketPriority priority;
+    private final String assignedPerson;
+    private final LocalDateTime requestedTime;
+    private final LocalDateTime closedTime;
+    private final Long clientDeviceId;
+
+    public TicketSummary(Long ticketId, String fullName, String subject,
+                         TicketStatus ticketStatus, TicketPriority priority, String assignedPerson,
+                         LocalDateTime requestedTime, LocalDateTime closedTime, Long clientDeviceId) {
+        this.ticketId = ticketId;
+        this.fullName = fullName;
+        this.subject = subject;
+        this.ticketStatus = ticketStatus;
+        this.priority = priority;
+        this.assignedPerson = assignedPerson;
+        this.requestedTime = requestedTime;
+        this.closedTime = closedTime;
+        this.clientDeviceId = clientDeviceId;
+    }
+
+    public Long getTicketId() {
+        return ticketId;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public TicketStatus getTicketStatus() {
+        return ticketStatus;
+    }
+
+    public TicketPriority getPriority() {
+        return priority;
+    }
+
+    public String getAssignedPerson() {
+        return assignedPerson;
+    }
+
+    public LocalDateTime getRequestedTime() {
+        return requestedTime;
+    }
+
+    public LocalDateTime getClosedTime() {
+        return closedTime;
+    }
+
+    public Long getClientDeviceId() {
+        return clientDeviceId;
+    }
+}
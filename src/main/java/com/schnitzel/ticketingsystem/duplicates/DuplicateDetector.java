@@ -0,0 +1,143 @@
+package com.schnitzel.ticketingsystem.duplicates;
+
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.TicketRepository;
+import com.schnitzel.ticketingsystem.invalidation.RemoteInvalidationEvent;
+import com.schnitzel.ticketingsystem.sharding.TicketShards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Links new tickets to an earlier, near-identical ticket (same incident).
+ *
+ * Only tickets from the last window-hours are indexed: an outage produces its
+ * duplicates within hours, and a similar ticket from last month is a new problem.
+ * The index lives in memory and is rebuilt from the database on startup;
+ * tickets other nodes create, edit or delete arrive through the InvalidationBus.
+ */
+@Service
+public class DuplicateDetector {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketShards ticketShards;
+
+    @Value("${duplicates.enabled:true}")
+    private boolean enabled;
+
+    @Value("${duplicates.similarity-threshold:0.7}")
+    private double threshold;
+
+    @Value("${duplicates.window-hours:24}")
+    private int windowHours;
+
+    private final MinHasher hasher = new MinHasher();
+    private final LshIndex index = new LshIndex();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        index.clear();
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime cutoff = cutoff();
+        List<Ticket> recent = ticketShards.gatherAll(true, shard -> ticketRepository.findByRequestedTimeAfter(cutoff));
+        for (Ticket ticket : recent) {
+            index(ticket, signature(ticket.getSubject(), ticket.getIntent()));
+        }
+        System.out.println("Duplicate index rebuilt with " + recent.size() + " tickets");
+    }
+
+    public int[] signature(String subject, String intent) {
+        // Subject twice: it is short but says the most about the incident
+        String subjectText = subject != null ? subject : "";
+        String intentText = intent != null ? intent : "";
+        return hasher.signature(subjectText + " " + subjectText + " " + intentText);
+    }
+
+    /**
+     * Id of the incident the ticket belongs to, or null if it looks new.
+     * Blank tickets are never duplicates: all their signatures are equal
+     */
+    public Long findParent(int[] signature) {
+        if (!enabled || MinHasher.isEmpty(signature)) {
+            return null;
+        }
+        LshIndex.Match match = index.findBest(signature, threshold);
+        return match != null ? match.getEntry().getRootTicketId() : null;
+    }
+
+    /**
+     * Make a committed ticket visible to later lookups
+     */
+    public void index(Ticket ticket, int[] signature) {
+        if (!enabled || ticket.getTicketId() == null) {
+            return;
+        }
+        if (MinHasher.isEmpty(signature)) {
+            index.remove(ticket.getTicketId()); // edited down to blank
+        } else {
+            index.add(ticket.getTicketId(), ticket.getParentTicketId(), signature, ticket.getRequestedTime());
+        }
+    }
+
+    /**
+     * Re-sign a committed ticket after its subject or intent changed
+     */
+    public void reindex(Ticket ticket) {
+        if (!enabled || ticket.getTicketId() == null) {
+            return;
+        }
+        if (ticket.getRequestedTime() != null && ticket.getRequestedTime().isAfter(cutoff())) {
+            index(ticket, signature(ticket.getSubject(), ticket.getIntent()));
+        } else {
+            index.remove(ticket.getTicketId());
+        }
+    }
+
+    public void remove(Long ticketId) {
+        index.remove(ticketId);
+        index.detachChildren(ticketId);
+    }
+
+    // Tickets created, edited or deleted on another node, read from their shard's primary
+    @EventListener
+    public void onRemoteInvalidation(RemoteInvalidationEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.isAllTickets()) {
+            rebuild();
+            return;
+        }
+        for (Long ticketId : event.getTicketIds()) {
+            Optional<Ticket> ticket = ticketShards.inTransaction(ticketShards.shardOf(ticketId), false,
+                    () -> ticketRepository.findById(ticketId));
+            if (ticket.isEmpty()) {
+                remove(ticketId);
+            } else {
+                reindex(ticket.get());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${duplicates.eviction-interval-ms:300000}")
+    public void evictExpired() {
+        index.evictOlderThan(cutoff());
+    }
+
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minusHours(windowHours);
+    }
+}
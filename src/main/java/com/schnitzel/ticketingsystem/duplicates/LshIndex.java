@@ -0,0 +1,170 @@
+package com.schnitzel.ticketingsystem.duplicates;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Locality-sensitive hashing index over MinHash signatures.
+ * The signature is cut into BANDS bands of ROWS values; two tickets become
+ * candidates when any band matches exactly. With 32 x 2 a pair at Jaccard
+ * similarity 0.5 is found with >99.9% chance; findBest then checks the
+ * estimated similarity against the threshold.
+ */
+public class LshIndex {
+
+    static final int BANDS = 32;
+    static final int ROWS = MinHasher.SIGNATURE_SIZE / BANDS;
+
+    public static final class Entry {
+        final long ticketId;
+        final Long parentTicketId;
+        final int[] signature;
+        final LocalDateTime createdAt;
+
+        Entry(long ticketId, Long parentTicketId, int[] signature, LocalDateTime createdAt) {
+            this.ticketId = ticketId;
+            this.parentTicketId = parentTicketId;
+            this.signature = signature;
+            this.createdAt = createdAt;
+        }
+
+        public long getTicketId() {
+            return ticketId;
+        }
+
+        // The incident this ticket belongs to: its parent, or itself if it is the first one
+        public long getRootTicketId() {
+            return parentTicketId != null ? parentTicketId : ticketId;
+        }
+    }
+
+    public static final class Match {
+        private final Entry entry;
+        private final double similarity;
+
+        Match(Entry entry, double similarity) {
+            this.entry = entry;
+            this.similarity = similarity;
+        }
+
+        public Entry getEntry() {
+            return entry;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Add a ticket, or replace it: a changed signature moves it out of the bands it no longer matches
+     */
+    public void add(long ticketId, Long parentTicketId, int[] signature, LocalDateTime createdAt) {
+        Entry previous = entries.put(ticketId, new Entry(ticketId, parentTicketId, signature, createdAt));
+        for (int band = 0; band < BANDS; band++) {
+            long key = bandKey(signature, band);
+            if (previous != null) {
+                long previousKey = bandKey(previous.signature, band);
+                if (previousKey == key) {
+                    continue;
+                }
+                unbucket(previousKey, ticketId);
+            }
+            buckets.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(ticketId);
+        }
+    }
+
+    public void remove(long ticketId) {
+        Entry entry = entries.remove(ticketId);
+        if (entry == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            unbucket(bandKey(entry.signature, band), ticketId);
+        }
+    }
+
+    private void unbucket(long key, long ticketId) {
+        buckets.computeIfPresent(key, (k, ids) -> {
+            ids.remove(ticketId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    // Number of non-empty bands, for tests
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Most similar indexed ticket at or above the threshold, or null
+     */
+    public Match findBest(int[] signature, double threshold) {
+        Set<Long> seen = new HashSet<>();
+        Match best = null;
+        for (int band = 0; band < BANDS; band++) {
+            Set<Long> ids = buckets.get(bandKey(signature, band));
+            if (ids == null) continue;
+
+            for (Long id : ids) {
+                if (!seen.add(id)) continue;
+                Entry candidate = entries.get(id);
+                if (candidate == null) continue;
+
+                double similarity = MinHasher.similarity(signature, candidate.signature);
+                if (similarity >= threshold && (best == null || similarity > best.similarity)) {
+                    best = new Match(candidate, similarity);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Unlink the children of a removed root; they become roots of their own
+     */
+    public void detachChildren(long rootTicketId) {
+        entries.replaceAll((id, entry) -> entry.parentTicketId != null && entry.parentTicketId == rootTicketId
+                ? new Entry(entry.ticketId, null, entry.signature, entry.createdAt)
+                : entry);
+    }
+
+    /**
+     * Drop tickets created before the cutoff. Returns how many were removed.
+     */
+    public int evictOlderThan(LocalDateTime cutoff) {
+        List<Long> old = new ArrayList<>();
+        entries.forEach((id, entry) -> {
+            if (entry.createdAt != null && entry.createdAt.isBefore(cutoff)) {
+                old.add(id);
+            }
+        });
+        old.forEach(this::remove);
+        return old.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        buckets.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long h = band;
+        int start = band * ROWS;
+        for (int i = start; i < start + ROWS; i++) {
+            h = h * 0x100000001B3L ^ signature[i];
+        }
+        return h;
+    }
+}
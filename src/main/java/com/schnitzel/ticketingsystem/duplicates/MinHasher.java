@@ -0,0 +1,126 @@
+package com.schnitzel.ticketingsystem.duplicates;
+
+import java.util.Arrays;
+
+/**
+ * MinHash signatures over character 3-gram shingles of the words in normalized text.
+ * Two signatures agree in a fraction of positions that estimates the
+ * Jaccard similarity of the two shingle sets.
+ */
+public class MinHasher {
+
+    public static final int SIGNATURE_SIZE = 64;
+    private static final int SHINGLE = 3;
+
+    private final long[] seedsA = new long[SIGNATURE_SIZE];
+    private final long[] seedsB = new long[SIGNATURE_SIZE];
+
+    public MinHasher() {
+        // Fixed seeds so signatures stay comparable across restarts
+        long state = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            state = mix(state + 0x9E3779B97F4A7C15L);
+            seedsA[i] = state | 1;
+            state = mix(state + 0x9E3779B97F4A7C15L);
+            seedsB[i] = state;
+        }
+    }
+
+    public int[] signature(String text) {
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        // Shingles never cross word boundaries, so reordered sentences still match
+        String normalized = normalize(text);
+        int wordStart = 0;
+        for (int i = 0; i <= normalized.length(); i++) {
+            if (i == normalized.length() || normalized.charAt(i) == ' ') {
+                addWord(signature, normalized, wordStart, i);
+                wordStart = i + 1;
+            }
+        }
+        return signature;
+    }
+
+    // "^word$" -> ^wo, wor, ord, rd$ (short words become a single shingle)
+    private void addWord(int[] signature, String text, int from, int to) {
+        int length = to - from;
+        if (length <= 0) {
+            return;
+        }
+        if (length < SHINGLE) {
+            apply(signature, shingleHash(text, from, to, true, true));
+            return;
+        }
+        for (int i = from - 1; i + SHINGLE <= to + 1; i++) {
+            int start = Math.max(i, from);
+            int end = Math.min(i + SHINGLE, to);
+            apply(signature, shingleHash(text, start, end, i < from, i + SHINGLE > to));
+        }
+    }
+
+    /**
+     * True for text with no letters or digits: no shingles, nothing to compare
+     */
+    public static boolean isEmpty(int[] signature) {
+        for (int h : signature) {
+            if (h != Integer.MAX_VALUE) return false;
+        }
+        return true;
+    }
+
+    public static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (a[i] == b[i]) same++;
+        }
+        return (double) same / SIGNATURE_SIZE;
+    }
+
+    private void apply(int[] signature, long shingle) {
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            int h = (int) ((seedsA[i] * shingle + seedsB[i]) >>> 32);
+            if (h < signature[i]) {
+                signature[i] = h;
+            }
+        }
+    }
+
+    private static long shingleHash(String text, int from, int to, boolean wordStart, boolean wordEnd) {
+        long h = 1125899906842597L;
+        if (wordStart) h = 31 * h + '^';
+        for (int i = from; i < to; i++) {
+            h = 31 * h + text.charAt(i);
+        }
+        if (wordEnd) h = 31 * h + '$';
+        return mix(h);
+    }
+
+    // Lowercase letters/digits, runs of anything else collapse to one space
+    static String normalize(String text) {
+        if (text == null) return "";
+        StringBuilder out = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                out.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                out.append(' ');
+                space = true;
+            }
+        }
+        int length = out.length();
+        if (length > 0 && out.charAt(length - 1) == ' ') {
+            out.setLength(length - 1);
+        }
+        return out.toString();
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,84 @@
+package com.schnitzel.ticketingsystem.hotspots;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-Min Sketch: depth rows of width counters, a key increments one counter
+ * per row and its count is the smallest of them. Never underestimates; the
+ * overestimate is at most about 2/width of all counted events per row, with
+ * each extra row making a worse one less likely. Counters are atomic, so adds
+ * need no lock.
+ */
+final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final AtomicIntegerArray counters;
+
+    CountMinSketch(int depth, int width) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Sketch width must be a power of two: " + width);
+        }
+        this.depth = depth;
+        this.width = width;
+        this.mask = width - 1;
+        this.counters = new AtomicIntegerArray(depth * width);
+    }
+
+    void add(long hash) {
+        for (int row = 0; row < depth; row++) {
+            counters.incrementAndGet(index(row, hash));
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    /**
+     * Count of the key over several sketches of the same shape (the slots of a
+     * window): per row the sum over the sketches, then the smallest row
+     */
+    static long estimate(List<CountMinSketch> sketches, long hash) {
+        if (sketches.isEmpty()) {
+            return 0;
+        }
+        long estimate = Long.MAX_VALUE;
+        CountMinSketch shape = sketches.get(0);
+        for (int row = 0; row < shape.depth; row++) {
+            int index = shape.index(row, hash);
+            long sum = 0;
+            for (CountMinSketch sketch : sketches) {
+                sum += sketch.counters.get(index);
+            }
+            estimate = Math.min(estimate, sum);
+        }
+        return estimate;
+    }
+
+    // Row i hashes with h1 + i * h2 (Kirsch-Mitzenmacher), from the two halves of one 64-bit hash
+    private int index(int row, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + ((h1 + row * h2) & mask);
+    }
+
+    // FNV-1a over the chars, then a murmur finalizer so both halves are well mixed
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,30 @@
+package com.schnitzel.ticketingsystem.hotspots;
+
+/**
+ * A computer, subnet or subject keyword and about how many tickets of the
+ * window had it (an upper bound, see CountMinSketch)
+ */
+public class Hotspot {
+
+    private final String key;
+    private final long tickets;
+    private final double share;
+
+    public Hotspot(String key, long tickets, double share) {
+        this.key = key;
+        this.tickets = tickets;
+        this.share = share;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getTickets() {
+        return tickets;
+    }
+
+    public double getShare() {
+        return share;
+    }
+}
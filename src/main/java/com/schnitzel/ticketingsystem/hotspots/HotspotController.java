@@ -0,0 +1,29 @@
+package com.schnitzel.ticketingsystem.hotspots;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/hotspots")
+public class HotspotController {
+
+    @Autowired
+    private TicketHotspots ticketHotspots;
+
+    // ex. /api/hotspots?window=5m&limit=10 (windows: 5m, 1h, 24h)
+    @GetMapping
+    public ResponseEntity<HotspotReport> getHotspots(@RequestParam(defaultValue = "1h") String window,
+                                                     @RequestParam(defaultValue = "10") int limit) {
+        HotspotWindow parsed;
+        try {
+            parsed = HotspotWindow.fromLabel(window);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(ticketHotspots.report(parsed, Math.max(1, Math.min(50, limit))));
+    }
+}
@@ -0,0 +1,45 @@
+package com.schnitzel.ticketingsystem.hotspots;
+
+import java.util.List;
+
+/**
+ * Response of GET /api/hotspots: the top computers, subnets and subject
+ * keywords of the tickets this node created in the window
+ */
+public class HotspotReport {
+
+    private final String window;
+    private final long tickets;
+    private final List<Hotspot> computers;
+    private final List<Hotspot> subnets;
+    private final List<Hotspot> keywords;
+
+    public HotspotReport(String window, long tickets, List<Hotspot> computers, List<Hotspot> subnets,
+                         List<Hotspot> keywords) {
+        this.window = window;
+        this.tickets = tickets;
+        this.computers = computers;
+        this.subnets = subnets;
+        this.keywords = keywords;
+    }
+
+    public String getWindow() {
+        return window;
+    }
+
+    public long getTickets() {
+        return tickets;
+    }
+
+    public List<Hotspot> getComputers() {
+        return computers;
+    }
+
+    public List<Hotspot> getSubnets() {
+        return subnets;
+    }
+
+    public List<Hotspot> getKeywords() {
+        return keywords;
+    }
+}
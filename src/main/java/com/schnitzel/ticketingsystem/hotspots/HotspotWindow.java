@@ -0,0 +1,44 @@
+package com.schnitzel.ticketingsystem.hotspots;
+
+import java.time.Duration;
+
+/**
+ * Sliding windows of the hotspot counts. Each is a ring of slots that expire
+ * one at a time, so a window covers between (slots - 1) and slots slot lengths.
+ */
+public enum HotspotWindow {
+    FIVE_MINUTES("5m", Duration.ofMinutes(5), 10),
+    ONE_HOUR("1h", Duration.ofHours(1), 12),
+    ONE_DAY("24h", Duration.ofHours(24), 24);
+
+    private final String label;
+    private final Duration length;
+    private final int slots;
+
+    HotspotWindow(String label, Duration length, int slots) {
+        this.label = label;
+        this.length = length;
+        this.slots = slots;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getSlotMillis() {
+        return length.toMillis() / slots;
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    public static HotspotWindow fromLabel(String label) {
+        for (HotspotWindow window : values()) {
+            if (window.label.equalsIgnoreCase(label)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Unknown window: " + label + " (5m, 1h or 24h)");
+    }
+}
@@ -0,0 +1,139 @@
+package com.schnitzel.ticketingsystem.hotspots;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Most frequent keys of one dimension over a sliding window, in constant memory.
+ *
+ * The window is a ring of slots, each with a Count-Min Sketch (counts) and
+ * Space-Saving summaries (candidates). A slot is cleared and reused when the
+ * ring comes round to it again. A query merges the live slots: the candidates
+ * of all of them, counted with the sketches summed.
+ *
+ * Each slot's candidates are split into stripes by key hash, each with its own
+ * lock, so concurrent adds rarely wait on each other; sketch counters are
+ * atomic. A key always falls into the same stripe, so each stripe keeps the
+ * Space-Saving guarantee for its keys.
+ */
+final class SlidingHeavyHitters {
+
+    private static final int STRIPES = 8;
+
+    private final long slotMillis;
+    private final Slot[] ring;
+
+    private static final class Slot {
+        volatile long epoch = -1;
+        final AtomicLong events = new AtomicLong();
+        final CountMinSketch sketch;
+        final SpaceSaving[] stripes = new SpaceSaving[STRIPES];
+
+        Slot(int sketchDepth, int sketchWidth, int candidates) {
+            sketch = new CountMinSketch(sketchDepth, sketchWidth);
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new SpaceSaving(Math.max(1, candidates / STRIPES));
+            }
+        }
+    }
+
+    SlidingHeavyHitters(HotspotWindow window, int sketchDepth, int sketchWidth, int candidates) {
+        this.slotMillis = window.getSlotMillis();
+        this.ring = new Slot[window.getSlots()];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new Slot(sketchDepth, sketchWidth, candidates);
+        }
+    }
+
+    /**
+     * Count one event (ticket) with its keys, each key once
+     */
+    void add(Collection<String> keys, long nowMillis) {
+        Slot slot = current(nowMillis);
+        slot.events.incrementAndGet();
+        for (String key : keys) {
+            long hash = CountMinSketch.hash(key);
+            slot.sketch.add(hash);
+            SpaceSaving stripe = slot.stripes[stripe(hash)];
+            synchronized (stripe) {
+                stripe.offer(key);
+            }
+        }
+    }
+
+    long events(long nowMillis) {
+        long events = 0;
+        for (Slot slot : live(nowMillis)) {
+            events += slot.events.get();
+        }
+        return events;
+    }
+
+    List<Hotspot> top(int limit, long nowMillis) {
+        List<Slot> live = live(nowMillis);
+        Set<String> candidates = new HashSet<>();
+        List<CountMinSketch> sketches = new ArrayList<>(live.size());
+        long events = 0;
+        for (Slot slot : live) {
+            for (SpaceSaving stripe : slot.stripes) {
+                synchronized (stripe) {
+                    stripe.candidates(candidates);
+                }
+            }
+            sketches.add(slot.sketch);
+            events += slot.events.get();
+        }
+
+        List<Hotspot> hotspots = new ArrayList<>(candidates.size());
+        for (String key : candidates) {
+            long tickets = CountMinSketch.estimate(sketches, CountMinSketch.hash(key));
+            if (tickets > 0) {
+                hotspots.add(new Hotspot(key, tickets, events > 0 ? Math.min(1.0, (double) tickets / events) : 0));
+            }
+        }
+        hotspots.sort(Comparator.comparingLong(Hotspot::getTickets).reversed().thenComparing(Hotspot::getKey));
+        return hotspots.size() > limit ? new ArrayList<>(hotspots.subList(0, limit)) : hotspots;
+    }
+
+    // The slot for now, cleared first if it still holds an older round
+    private Slot current(long nowMillis) {
+        long epoch = nowMillis / slotMillis;
+        Slot slot = ring[(int) (epoch % ring.length)];
+        if (slot.epoch != epoch) {
+            synchronized (slot) {
+                if (slot.epoch != epoch) {
+                    slot.sketch.clear();
+                    for (SpaceSaving stripe : slot.stripes) {
+                        synchronized (stripe) {
+                            stripe.clear();
+                        }
+                    }
+                    slot.events.set(0);
+                    slot.epoch = epoch;
+                }
+            }
+        }
+        return slot;
+    }
+
+    private List<Slot> live(long nowMillis) {
+        long epoch = nowMillis / slotMillis;
+        List<Slot> live = new ArrayList<>(ring.length);
+        for (Slot slot : ring) {
+            long age = epoch - slot.epoch;
+            if (slot.epoch >= 0 && age >= 0 && age < ring.length) {
+                live.add(slot);
+            }
+        }
+        return live;
+    }
+
+    private static int stripe(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & (STRIPES - 1);
+    }
+}
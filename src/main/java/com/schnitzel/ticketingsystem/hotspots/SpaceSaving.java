@@ -0,0 +1,55 @@
+package com.schnitzel.ticketingsystem.hotspots;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Space-Saving top-k candidates: at most capacity keys are tracked; a new key
+ * replaces the one with the smallest count and inherits it. Any key seen more
+ * than total/capacity times is guaranteed to be tracked. Only the candidates
+ * are used, their counts come from the Count-Min Sketch.
+ *
+ * Not thread-safe; callers hold the lock of the stripe it belongs to.
+ */
+final class SpaceSaving {
+
+    private final int capacity;
+    private final Map<String, long[]> counts = new HashMap<>();
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void offer(String key) {
+        long[] count = counts.get(key);
+        if (count != null) {
+            count[0]++;
+            return;
+        }
+        if (counts.size() < capacity) {
+            counts.put(key, new long[]{1});
+            return;
+        }
+
+        // Small capacity, so a scan beats keeping a sorted structure up to date
+        Map.Entry<String, long[]> smallest = null;
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            if (smallest == null || entry.getValue()[0] < smallest.getValue()[0]) {
+                smallest = entry;
+            }
+        }
+        long[] inherited = smallest.getValue();
+        counts.remove(smallest.getKey());
+        inherited[0]++;
+        counts.put(key, inherited);
+    }
+
+    void candidates(Collection<String> into) {
+        into.addAll(counts.keySet());
+    }
+
+    void clear() {
+        counts.clear();
+    }
+}
@@ -0,0 +1,103 @@
+package com.schnitzel.ticketingsystem.hotspots;
+
+import com.schnitzel.ticketingsystem.sharding.RoutingKeys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Where new tickets come from right now: the computers, /24 subnets and
+ * subject keywords with the most tickets in the last 5 minutes, hour and day,
+ * without querying the ticket table. Fed by TicketService.createTicket after
+ * commit; counts are approximate (never low) and start empty on each node.
+ *
+ * Memory is fixed by the sketch size: about 3 dimensions x 46 slots x
+ * depth x width x 4 bytes (2 MB with the defaults), plus the candidates.
+ */
+@Service
+public class TicketHotspots {
+
+    private static final int MAX_KEYWORDS = 20;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "with", "not", "can", "cannot", "from", "this", "that", "please", "help",
+            "issue", "problem", "need", "are", "was", "has", "have", "our", "you", "when", "after", "into",
+            "all", "any", "its", "but", "does", "doesn", "don", "won", "isn", "working", "request");
+
+    @Value("${hotspots.enabled:true}")
+    private boolean enabled;
+
+    @Value("${hotspots.sketch-depth:4}")
+    private int sketchDepth;
+
+    // Power of two
+    @Value("${hotspots.sketch-width:1024}")
+    private int sketchWidth;
+
+    // Tracked per slot, across all stripes
+    @Value("${hotspots.candidates:64}")
+    private int candidates;
+
+    private final Map<HotspotWindow, SlidingHeavyHitters> computers = new EnumMap<>(HotspotWindow.class);
+    private final Map<HotspotWindow, SlidingHeavyHitters> subnets = new EnumMap<>(HotspotWindow.class);
+    private final Map<HotspotWindow, SlidingHeavyHitters> keywords = new EnumMap<>(HotspotWindow.class);
+
+    @PostConstruct
+    public void init() {
+        for (HotspotWindow window : HotspotWindow.values()) {
+            computers.put(window, new SlidingHeavyHitters(window, sketchDepth, sketchWidth, candidates));
+            subnets.put(window, new SlidingHeavyHitters(window, sketchDepth, sketchWidth, candidates));
+            keywords.put(window, new SlidingHeavyHitters(window, sketchDepth, sketchWidth, candidates));
+        }
+    }
+
+    public void record(String computerName, String clientIpAddress, String subject) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Set<String> computer = computerName == null || computerName.isBlank()
+                ? Set.of() : Set.of(computerName.trim().toUpperCase(Locale.ROOT));
+        String subnetKey = RoutingKeys.subnetOf(clientIpAddress);
+        Set<String> subnet = subnetKey != null ? Set.of(subnetKey) : Set.of();
+        Set<String> words = keywords(subject);
+
+        // Every ticket counts in every dimension, so shares are per ticket
+        for (HotspotWindow window : HotspotWindow.values()) {
+            computers.get(window).add(computer, now);
+            subnets.get(window).add(subnet, now);
+            keywords.get(window).add(words, now);
+        }
+    }
+
+    public HotspotReport report(HotspotWindow window, int limit) {
+        long now = System.currentTimeMillis();
+        return new HotspotReport(window.getLabel(), computers.get(window).events(now),
+                computers.get(window).top(limit, now),
+                subnets.get(window).top(limit, now),
+                keywords.get(window).top(limit, now));
+    }
+
+    // Distinct lower case words of three or more letters/digits, in order, without stop words
+    static Set<String> keywords(String subject) {
+        Set<String> words = new LinkedHashSet<>();
+        if (subject == null) {
+            return words;
+        }
+        for (String word : subject.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= 3 && word.length() <= 50 && !STOP_WORDS.contains(word)) {
+                words.add(word);
+                if (words.size() == MAX_KEYWORDS) {
+                    break;
+                }
+            }
+        }
+        return words;
+    }
+}
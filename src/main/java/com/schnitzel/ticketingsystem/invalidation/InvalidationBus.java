@@ -0,0 +1,337 @@
+package com.schnitzel.ticketingsystem.invalidation;
+
+import com.schnitzel.ticketingsystem.cache.CacheInvalidatedEvent;
+import com.schnitzel.ticketingsystem.cache.CacheRegion;
+import com.schnitzel.ticketingsystem.journal.TicketChangedEvent;
+import com.schnitzel.ticketingsystem.userauth.UserChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Tells the other nodes what this one changed, over PostgreSQL LISTEN/NOTIFY
+ * on the home database, so their in-memory caches and indexes do not go stale.
+ *
+ * Committed changes (cache regions, ticket ids, user ids) are collected and
+ * sent as one NOTIFY every invalidation.flush-ms, so a write burst costs a few
+ * small messages. Too many ids in one flush are sent as "all tickets" / "all
+ * users" instead, which keeps the payload under PostgreSQL's 8000 byte limit.
+ *
+ * Each node listens on its own connection, outside the pool. NOTIFY is not
+ * queued for a session that is not listening, so after the connection was
+ * lost the node treats everything as stale.
+ *
+ * Payload: node;regions;tickets;users, ids comma separated, * for all.
+ */
+@Component
+public class InvalidationBus {
+
+    private static final int MAX_IDS = 200;
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${invalidation.channel:ticketing_invalidation}")
+    private String channel;
+
+    @Value("${invalidation.poll-ms:500}")
+    private int pollMillis;
+
+    @Value("${invalidation.reconnect-ms:5000}")
+    private long reconnectMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Pending for the next flush, guarded by this
+    private final Set<CacheRegion> pendingRegions = EnumSet.noneOf(CacheRegion.class);
+    private final Set<Long> pendingTickets = new LinkedHashSet<>();
+    private final Set<Long> pendingUsers = new LinkedHashSet<>();
+    private boolean pendingAllTickets;
+    private boolean pendingAllUsers;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread listener;
+
+    /**
+     * Listen before the other ready listeners load their caches, so nothing
+     * committed after their load is missed. Not at construction: the class data
+     * sharing training run stops before this and has no database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (!CHANNEL.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid invalidation.channel (lower case identifier expected): " + channel);
+        }
+        running = true;
+        boolean listening = connect();
+        listener = new Thread(() -> listen(listening), "invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        closeConnection();
+    }
+
+    // --- Outgoing ---
+
+    @EventListener
+    public synchronized void onCacheInvalidated(CacheInvalidatedEvent event) {
+        pendingRegions.add(event.getRegion());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTicketChanged(TicketChangedEvent event) {
+        addTicket(event.getTicketId());
+    }
+
+    @EventListener
+    public synchronized void onUserChanged(UserChangedEvent event) {
+        addUser(event.getUserId());
+    }
+
+    @Scheduled(fixedDelayString = "${invalidation.flush-ms:100}")
+    public void flush() {
+        if (!running) {
+            return;
+        }
+        RemoteInvalidationEvent batch;
+        synchronized (this) {
+            if (pendingRegions.isEmpty() && pendingTickets.isEmpty() && pendingUsers.isEmpty()
+                    && !pendingAllTickets && !pendingAllUsers) {
+                return;
+            }
+            batch = new RemoteInvalidationEvent(EnumSet.copyOf(pendingRegions), new LinkedHashSet<>(pendingTickets),
+                    new LinkedHashSet<>(pendingUsers), pendingAllTickets, pendingAllUsers);
+            pendingRegions.clear();
+            pendingTickets.clear();
+            pendingUsers.clear();
+            pendingAllTickets = false;
+            pendingAllUsers = false;
+        }
+
+        try {
+            // Outside a transaction, so on the home primary and sent right away
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, encode(nodeId, batch));
+        } catch (DataAccessException e) {
+            System.out.println("Invalidation notify failed, retrying: " + e.getMessage());
+            requeue(batch);
+        }
+    }
+
+    private synchronized void requeue(RemoteInvalidationEvent batch) {
+        pendingRegions.addAll(batch.getRegions());
+        batch.getTicketIds().forEach(this::addTicket);
+        batch.getUserIds().forEach(this::addUser);
+        if (batch.isAllTickets()) {
+            pendingAllTickets = true;
+            pendingTickets.clear();
+        }
+        if (batch.isAllUsers()) {
+            pendingAllUsers = true;
+            pendingUsers.clear();
+        }
+    }
+
+    // Hold the monitor
+    private void addTicket(Long ticketId) {
+        if (!pendingAllTickets && pendingTickets.add(ticketId) && pendingTickets.size() > MAX_IDS) {
+            pendingAllTickets = true;
+            pendingTickets.clear();
+        }
+    }
+
+    private void addUser(Long userId) {
+        if (!pendingAllUsers && pendingUsers.add(userId) && pendingUsers.size() > MAX_IDS) {
+            pendingAllUsers = true;
+            pendingUsers.clear();
+        }
+    }
+
+    // --- Incoming ---
+
+    private void listen(boolean listening) {
+        boolean missed = !listening;
+        while (running) {
+            Connection current = connection;
+            if (current == null) {
+                sleep(reconnectMillis);
+                if (running && connect()) {
+                    System.out.println("Invalidation listener connected");
+                }
+                continue;
+            }
+
+            try {
+                if (missed) {
+                    eventPublisher.publishEvent(RemoteInvalidationEvent.everything());
+                    missed = false;
+                }
+                PGNotification[] notifications = current.unwrap(PGConnection.class).getNotifications(pollMillis);
+                if (notifications == null) {
+                    continue;
+                }
+                for (PGNotification notification : notifications) {
+                    receive(notification.getParameter());
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    System.out.println("Invalidation listener lost its connection: " + e.getMessage());
+                    missed = true;
+                }
+                closeConnection();
+            } catch (RuntimeException e) {
+                // Something may now be stale: drop everything once the caches can load again
+                System.out.println("Invalidation could not be applied: " + e.getMessage());
+                missed = true;
+                sleep(reconnectMillis);
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        if (payload == null || payload.startsWith(nodeId + ";")) {
+            return; // our own
+        }
+        eventPublisher.publishEvent(decode(payload));
+    }
+
+    private boolean connect() {
+        try {
+            Connection opened = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+            try (Statement statement = opened.createStatement()) {
+                statement.execute("LISTEN " + channel);
+            } catch (SQLException e) {
+                opened.close();
+                throw e;
+            }
+            connection = opened;
+            return true;
+        } catch (SQLException e) {
+            System.out.println("Invalidation listener cannot connect: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void closeConnection() {
+        Connection current = connection;
+        connection = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Payload ---
+
+    static String encode(String nodeId, RemoteInvalidationEvent event) {
+        return nodeId + ";" + joinRegions(event.getRegions())
+                + ";" + (event.isAllTickets() ? "*" : joinIds(event.getTicketIds()))
+                + ";" + (event.isAllUsers() ? "*" : joinIds(event.getUserIds()));
+    }
+
+    static RemoteInvalidationEvent decode(String payload) {
+        String[] parts = payload.split(";", -1);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed invalidation: " + payload);
+        }
+        Set<CacheRegion> regions = EnumSet.noneOf(CacheRegion.class);
+        for (String region : parts[1].split(",")) {
+            if (!region.isEmpty()) {
+                regions.add(CacheRegion.valueOf(region));
+            }
+        }
+        boolean allTickets = "*".equals(parts[2]);
+        boolean allUsers = "*".equals(parts[3]);
+        return new RemoteInvalidationEvent(regions,
+                allTickets ? Set.of() : parseIds(parts[2]),
+                allUsers ? Set.of() : parseIds(parts[3]),
+                allTickets, allUsers);
+    }
+
+    private static Set<Long> parseIds(String ids) {
+        Set<Long> parsed = new LinkedHashSet<>();
+        for (String id : ids.split(",")) {
+            if (!id.isEmpty()) {
+                parsed.add(Long.parseLong(id));
+            }
+        }
+        return parsed;
+    }
+
+    private static String joinRegions(Set<CacheRegion> regions) {
+        StringBuilder joined = new StringBuilder();
+        for (CacheRegion region : regions) {
+            if (joined.length() > 0) {
+                joined.append(',');
+            }
+            joined.append(region.name());
+        }
+        return joined.toString();
+    }
+
+    private static String joinIds(Set<Long> ids) {
+        StringBuilder joined = new StringBuilder();
+        for (Long id : ids) {
+            if (joined.length() > 0) {
+                joined.append(',');
+            }
+            joined.append(id);
+        }
+        return joined.toString();
+    }
+}
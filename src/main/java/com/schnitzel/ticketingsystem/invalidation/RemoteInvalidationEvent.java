@@ -0,0 +1,54 @@
+package com.schnitzel.ticketingsystem.invalidation;
+
+import com.schnitzel.ticketingsystem.cache.CacheRegion;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Published by InvalidationBus when another node committed changes. Local
+ * caches drop or reload what it names; allTickets / allUsers mean the ids are
+ * unknown (too many, or notifications were missed) and everything is stale.
+ */
+public class RemoteInvalidationEvent {
+
+    private final Set<CacheRegion> regions;
+    private final Set<Long> ticketIds;
+    private final Set<Long> userIds;
+    private final boolean allTickets;
+    private final boolean allUsers;
+
+    public RemoteInvalidationEvent(Set<CacheRegion> regions, Set<Long> ticketIds, Set<Long> userIds,
+                                   boolean allTickets, boolean allUsers) {
+        this.regions = Collections.unmodifiableSet(regions);
+        this.ticketIds = Collections.unmodifiableSet(ticketIds);
+        this.userIds = Collections.unmodifiableSet(userIds);
+        this.allTickets = allTickets;
+        this.allUsers = allUsers;
+    }
+
+    public static RemoteInvalidationEvent everything() {
+        return new RemoteInvalidationEvent(EnumSet.allOf(CacheRegion.class), Set.of(), Set.of(), true, true);
+    }
+
+    public Set<CacheRegion> getRegions() {
+        return regions;
+    }
+
+    public Set<Long> getTicketIds() {
+        return ticketIds;
+    }
+
+    public Set<Long> getUserIds() {
+        return userIds;
+    }
+
+    public boolean isAllTickets() {
+        return allTickets;
+    }
+
+    public boolean isAllUsers() {
+        return allUsers;
+    }
+}
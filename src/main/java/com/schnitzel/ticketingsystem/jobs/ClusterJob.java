@@ -0,0 +1,98 @@
+package com.schnitzel.ticketingsystem.jobs;
+
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Periodic work that runs once per cluster, not once per node. Declare it as a
+ * bean (see JobsConfig) and JobScheduler runs it: fixed rate (every) or on a
+ * Spring cron expression (second minute hour day month weekday), in server time.
+ *
+ * jitter adds a random delay to each run, so jobs due at the same moment do
+ * not all hit the database at once. A run that starts more than the misfire
+ * grace after its time (every node was down or busy) runs once anyway with
+ * RUN_ONCE, or is recorded as MISSED and skipped with SKIP; missed runs are
+ * never run one after the other to catch up.
+ */
+public final class ClusterJob {
+
+    public enum Misfire {
+        RUN_ONCE,
+        SKIP
+    }
+
+    private final String name;
+    private final Duration interval;
+    private final CronExpression cron;
+    private final String cronSpec;
+    private final Duration jitter;
+    private final Misfire misfire;
+    private final Runnable task;
+
+    private ClusterJob(String name, Duration interval, String cronSpec, Duration jitter, Misfire misfire, Runnable task) {
+        if (name == null || name.isBlank() || name.length() > 100) {
+            throw new IllegalArgumentException("Job name must have 1 to 100 characters");
+        }
+        if (interval != null && (interval.isZero() || interval.isNegative())) {
+            throw new IllegalArgumentException("Job " + name + ": interval must be positive");
+        }
+        if (jitter.isNegative()) {
+            throw new IllegalArgumentException("Job " + name + ": jitter must not be negative");
+        }
+        this.name = name;
+        this.interval = interval;
+        this.cron = cronSpec != null ? CronExpression.parse(cronSpec) : null;
+        this.cronSpec = cronSpec;
+        this.jitter = jitter;
+        this.misfire = misfire;
+        this.task = task;
+    }
+
+    public static ClusterJob every(String name, Duration interval, Runnable task) {
+        return new ClusterJob(name, interval, null, Duration.ZERO, Misfire.RUN_ONCE, task);
+    }
+
+    public static ClusterJob cron(String name, String expression, Runnable task) {
+        return new ClusterJob(name, null, expression, Duration.ZERO, Misfire.RUN_ONCE, task);
+    }
+
+    public ClusterJob withJitter(Duration jitter) {
+        return new ClusterJob(name, interval, cronSpec, jitter, misfire, task);
+    }
+
+    public ClusterJob onMisfire(Misfire misfire) {
+        return new ClusterJob(name, interval, cronSpec, jitter, misfire, task);
+    }
+
+    /**
+     * When to run next, for a run starting at now (fixed rate counts from its start)
+     */
+    LocalDateTime nextRunAfter(LocalDateTime now) {
+        LocalDateTime next = interval != null ? now.plus(interval) : cron.next(now);
+        if (next == null) {
+            throw new IllegalStateException("Cron expression of job " + name + " never fires: " + cronSpec);
+        }
+        long jitterMillis = jitter.toMillis();
+        return jitterMillis > 0 ? next.plusNanos(ThreadLocalRandom.current().nextLong(jitterMillis) * 1_000_000L) : next;
+    }
+
+    void run() {
+        task.run();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSchedule() {
+        String schedule = interval != null ? "every " + interval.toMillis() + "ms" : "cron " + cronSpec;
+        return jitter.isZero() ? schedule : schedule + " +" + jitter.toMillis() + "ms jitter";
+    }
+
+    public Misfire getMisfire() {
+        return misfire;
+    }
+}
@@ -0,0 +1,32 @@
+package com.schnitzel.ticketingsystem.jobs;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    @Autowired
+    private JobScheduler jobScheduler;
+
+    @GetMapping
+    public ResponseEntity<List<JobStatus>> getJobs() {
+        return ResponseEntity.ok(jobScheduler.status());
+    }
+
+    // Latest runs first, ex. /api/jobs/journal-compaction/runs?limit=20
+    @GetMapping("/{name}/runs")
+    public ResponseEntity<List<JobRun>> getRuns(@PathVariable String name, @RequestParam(defaultValue = "50") int limit) {
+        return jobScheduler.history(name, Math.max(1, Math.min(500, limit)))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
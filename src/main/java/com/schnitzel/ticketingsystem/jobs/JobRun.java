@@ -0,0 +1,85 @@
+package com.schnitzel.ticketingsystem.jobs;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Run history of the ClusterJobs, pruned by the job-history-cleanup job
+ */
+@Entity
+@Table(name = "job_run", indexes = @Index(name = "idx_job_run_name_started", columnList = "job_name, started_at"))
+public class JobRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "node", nullable = false, length = 200)
+    private String node;
+
+    @Column(name = "scheduled_at", nullable = false)
+    private LocalDateTime scheduledAt;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "duration_ms", nullable = false)
+    private long durationMs;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private JobRunStatus status;
+
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    // Constructors
+    public JobRun() {}
+
+    public JobRun(String jobName, String node, LocalDateTime scheduledAt, LocalDateTime startedAt,
+                  long durationMs, JobRunStatus status, String error) {
+        this.jobName = jobName;
+        this.node = node;
+        this.scheduledAt = scheduledAt;
+        this.startedAt = startedAt;
+        this.durationMs = durationMs;
+        this.status = status;
+        this.error = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public LocalDateTime getScheduledAt() {
+        return scheduledAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public JobRunStatus getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,19 @@
+package com.schnitzel.ticketingsystem.jobs;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface JobRunRepository extends JpaRepository<JobRun, Long> {
+
+    List<JobRun> findByJobNameOrderByStartedAtDesc(String jobName, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM JobRun r WHERE r.startedAt < :cutoff")
+    int deleteStartedBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,7 @@
+package com.schnitzel.ticketingsystem.jobs;
+
+public enum JobRunStatus {
+    SUCCEEDED,
+    FAILED,
+    MISSED // skipped after a misfire (ClusterJob.Misfire.SKIP)
+}
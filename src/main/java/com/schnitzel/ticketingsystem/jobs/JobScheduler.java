@@ -0,0 +1,319 @@
+package com.schnitzel.ticketingsystem.jobs;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the ClusterJob beans once per cluster, however many nodes are up.
+ *
+ * Every node checks each second which jobs are due (next_run_at of the
+ * scheduled_job row, cached locally). A node that finds one due takes the
+ * job's PostgreSQL advisory lock (session level, on a connection it holds for
+ * the run), re-reads the row on that connection and, if the run is still due,
+ * moves next_run_at forward with a conditional UPDATE before running. Nothing
+ * here reads a replica, which could still show a run another node has taken. Other nodes then either fail to get the lock or
+ * find the run already taken; a run that outlasts its interval is never
+ * started twice. If the node dies mid-run the lock goes with its connection
+ * and the job runs again at its next time.
+ *
+ * Each run is recorded in job_run. GET /api/jobs shows the schedule and last
+ * run of each job plus this node's counters.
+ */
+@Service
+public class JobScheduler {
+
+    // First key of the two-key advisory locks, the second is the job name's hash
+    private static final int LOCK_NAMESPACE = 0x4A4F4253;
+
+    @Autowired(required = false)
+    private List<ClusterJob> jobs = List.of();
+
+    @Autowired
+    private ScheduledJobRepository scheduledJobRepository;
+
+    @Autowired
+    private JobRunRepository jobRunRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${jobs.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jobs.threads:2}")
+    private int threads;
+
+    @Value("${jobs.misfire-grace-ms:60000}")
+    private long misfireGraceMs;
+
+    private final String node = ManagementFactory.getRuntimeMXBean().getName();
+    private final Map<String, Tracked> tracked = new LinkedHashMap<>();
+    private ExecutorService executor;
+    private volatile boolean started;
+
+    private static final class Tracked {
+        final ClusterJob job;
+        final AtomicBoolean running = new AtomicBoolean();
+        volatile LocalDateTime nextRunAt;
+
+        // This node's counters
+        final AtomicLong runs = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong missed = new AtomicLong();
+        final AtomicLong lockedElsewhere = new AtomicLong();
+        final AtomicLong totalDurationMs = new AtomicLong();
+        final AtomicLong maxDurationMs = new AtomicLong();
+
+        Tracked(ClusterJob job) {
+            this.job = job;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        for (ClusterJob job : jobs) {
+            if (tracked.put(job.getName(), new Tracked(job)) != null) {
+                throw new IllegalStateException("Two cluster jobs are named " + job.getName());
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), // at most one queued run per job
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cluster-job-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        started = false;
+        executor.shutdown();
+    }
+
+    /**
+     * Register the jobs in scheduled_job; a new job first runs one period from now.
+     * Not before the application is ready: the training run has no database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void register() {
+        if (!enabled || tracked.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Tracked job : tracked.values()) {
+                scheduledJobRepository.insertIfAbsent(job.job.getName(), job.job.nextRunAfter(now));
+            }
+        });
+        for (Tracked job : tracked.values()) {
+            refreshNextRun(job);
+        }
+        started = true;
+        System.out.println("Cluster jobs scheduled: " + tracked.keySet());
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.tick-ms:1000}")
+    public void tick() {
+        if (!started) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Tracked job : tracked.values()) {
+            LocalDateTime next = job.nextRunAt;
+            if (next == null || next.isAfter(now) || !job.running.compareAndSet(false, true)) {
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        attempt(job);
+                    } catch (RuntimeException e) {
+                        // Database trouble before the run started; the next tick tries again
+                        System.out.println("Cluster job " + job.job.getName() + " could not start: " + e.getMessage());
+                    } finally {
+                        job.running.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                job.running.set(false);
+            }
+        }
+    }
+
+    public List<JobStatus> status() {
+        Map<String, ScheduledJob> states = new LinkedHashMap<>();
+        scheduledJobRepository.findAll().forEach(state -> states.put(state.getName(), state));
+
+        List<JobStatus> status = new ArrayList<>();
+        for (Tracked job : tracked.values()) {
+            long runs = job.runs.get();
+            status.add(new JobStatus(job.job.getName(), job.job.getSchedule(), job.job.getMisfire().name(),
+                    job.running.get(), states.get(job.job.getName()), runs, job.failures.get(), job.missed.get(),
+                    job.lockedElsewhere.get(), runs > 0 ? job.totalDurationMs.get() / runs : 0,
+                    job.maxDurationMs.get()));
+        }
+        return status;
+    }
+
+    public Optional<List<JobRun>> history(String name, int limit) {
+        if (!tracked.containsKey(name)) {
+            return Optional.empty();
+        }
+        return Optional.of(jobRunRepository.findByJobNameOrderByStartedAtDesc(name, PageRequest.of(0, limit)));
+    }
+
+    // Holds a pooled connection (outside any transaction, so the home primary) for the lock
+    private void attempt(Tracked job) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!lock(connection, "pg_try_advisory_lock", job)) {
+                job.lockedElsewhere.incrementAndGet();
+                refreshNextRun(job);
+                return null;
+            }
+            try {
+                runIfDue(connection, job);
+            } finally {
+                lock(connection, "pg_advisory_unlock", job);
+            }
+            return null;
+        });
+    }
+
+    // Reads and claims the run on the lock connection: a replica may not have seen the last claim yet
+    private void runIfDue(Connection connection, Tracked job) throws SQLException {
+        String name = job.job.getName();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime scheduledAt = readNextRun(connection, name);
+        if (scheduledAt == null) {
+            throw new IllegalStateException("Job " + name + " is not registered");
+        }
+        if (scheduledAt.isAfter(now)) {
+            job.nextRunAt = scheduledAt; // another node ran it
+            return;
+        }
+
+        LocalDateTime nextRunAt = job.job.nextRunAfter(now);
+        boolean misfired = scheduledAt.plusNanos(misfireGraceMs * 1_000_000L).isBefore(now);
+        boolean skip = misfired && job.job.getMisfire() == ClusterJob.Misfire.SKIP;
+        if (!claim(connection, name, scheduledAt, nextRunAt, skip ? null : now)) {
+            refreshNextRun(job);
+            return;
+        }
+        job.nextRunAt = nextRunAt;
+        if (skip) {
+            job.missed.incrementAndGet();
+            finish(name, scheduledAt, now, 0, JobRunStatus.MISSED, null);
+            System.out.println("Cluster job " + name + " missed its run at " + scheduledAt + ", skipped");
+            return;
+        }
+
+        long start = System.nanoTime();
+        JobRunStatus status = JobRunStatus.SUCCEEDED;
+        String error = null;
+        try {
+            job.job.run();
+        } catch (RuntimeException e) {
+            status = JobRunStatus.FAILED;
+            error = e.toString();
+            job.failures.incrementAndGet();
+            System.out.println("Cluster job " + name + " failed: " + e.getMessage());
+        }
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        job.runs.incrementAndGet();
+        job.totalDurationMs.addAndGet(durationMs);
+        job.maxDurationMs.accumulateAndGet(durationMs, Math::max);
+        finish(name, scheduledAt, now, durationMs, status, error);
+    }
+
+    private static LocalDateTime readNextRun(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT next_run_at FROM scheduled_job WHERE name = ?")) {
+            statement.setString(1, name);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? result.getObject(1, LocalDateTime.class) : null;
+            }
+        }
+    }
+
+    // Moves next_run_at only if it is still the run we read, so a run is never taken twice
+    private boolean claim(Connection connection, String name, LocalDateTime scheduledAt, LocalDateTime nextRunAt,
+                          LocalDateTime startedAt) throws SQLException {
+        String sql = startedAt == null
+                ? "UPDATE scheduled_job SET next_run_at = ? WHERE name = ? AND next_run_at = ?"
+                : "UPDATE scheduled_job SET next_run_at = ?, last_started_at = ?, last_node = ? " +
+                  "WHERE name = ? AND next_run_at = ?";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int i = 1;
+            statement.setObject(i++, nextRunAt);
+            if (startedAt != null) {
+                statement.setObject(i++, startedAt);
+                statement.setString(i++, node);
+            }
+            statement.setString(i++, name);
+            statement.setObject(i, scheduledAt);
+            return statement.executeUpdate() == 1;
+        }
+    }
+
+    private void finish(String name, LocalDateTime scheduledAt, LocalDateTime startedAt, long durationMs,
+                        JobRunStatus status, String error) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            scheduledJobRepository.recordFinish(name, LocalDateTime.now(), status, durationMs);
+            jobRunRepository.save(new JobRun(name, node, scheduledAt, startedAt, durationMs, status, error));
+        });
+    }
+
+    // Plain JdbcTemplate outside a transaction reads the home primary, not a replica
+    private void refreshNextRun(Tracked job) {
+        List<LocalDateTime> next = jdbcTemplate.query("SELECT next_run_at FROM scheduled_job WHERE name = ?",
+                (result, row) -> result.getObject(1, LocalDateTime.class), job.job.getName());
+        if (!next.isEmpty()) {
+            job.nextRunAt = next.get(0);
+        }
+    }
+
+    private static boolean lock(Connection connection, String function, Tracked job) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?, ?)")) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setInt(2, job.job.getName().hashCode());
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+}
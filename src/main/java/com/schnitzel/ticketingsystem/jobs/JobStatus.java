@@ -0,0 +1,112 @@
+package com.schnitzel.ticketingsystem.jobs;
+
+import java.time.LocalDateTime;
+
+/**
+ * One cluster job, as returned by GET /api/jobs: its schedule and last run
+ * (cluster-wide) and what this node has run of it since startup
+ */
+public class JobStatus {
+
+    private final String name;
+    private final String schedule;
+    private final String misfire;
+    private final boolean running;
+    private final LocalDateTime nextRunAt;
+    private final LocalDateTime lastStartedAt;
+    private final LocalDateTime lastFinishedAt;
+    private final JobRunStatus lastStatus;
+    private final Long lastDurationMs;
+    private final String lastNode;
+    private final long localRuns;
+    private final long localFailures;
+    private final long localMissed;
+    private final long localLockedElsewhere;
+    private final long localAverageDurationMs;
+    private final long localMaxDurationMs;
+
+    public JobStatus(String name, String schedule, String misfire, boolean running, ScheduledJob state,
+                     long localRuns, long localFailures, long localMissed, long localLockedElsewhere,
+                     long localAverageDurationMs, long localMaxDurationMs) {
+        this.name = name;
+        this.schedule = schedule;
+        this.misfire = misfire;
+        this.running = running;
+        this.nextRunAt = state != null ? state.getNextRunAt() : null;
+        this.lastStartedAt = state != null ? state.getLastStartedAt() : null;
+        this.lastFinishedAt = state != null ? state.getLastFinishedAt() : null;
+        this.lastStatus = state != null ? state.getLastStatus() : null;
+        this.lastDurationMs = state != null ? state.getLastDurationMs() : null;
+        this.lastNode = state != null ? state.getLastNode() : null;
+        this.localRuns = localRuns;
+        this.localFailures = localFailures;
+        this.localMissed = localMissed;
+        this.localLockedElsewhere = localLockedElsewhere;
+        this.localAverageDurationMs = localAverageDurationMs;
+        this.localMaxDurationMs = localMaxDurationMs;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSchedule() {
+        return schedule;
+    }
+
+    public String getMisfire() {
+        return misfire;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public LocalDateTime getNextRunAt() {
+        return nextRunAt;
+    }
+
+    public LocalDateTime getLastStartedAt() {
+        return lastStartedAt;
+    }
+
+    public LocalDateTime getLastFinishedAt() {
+        return lastFinishedAt;
+    }
+
+    public JobRunStatus getLastStatus() {
+        return lastStatus;
+    }
+
+    public Long getLastDurationMs() {
+        return lastDurationMs;
+    }
+
+    public String getLastNode() {
+        return lastNode;
+    }
+
+    public long getLocalRuns() {
+        return localRuns;
+    }
+
+    public long getLocalFailures() {
+        return localFailures;
+    }
+
+    public long getLocalMissed() {
+        return localMissed;
+    }
+
+    public long getLocalLockedElsewhere() {
+        return localLockedElsewhere;
+    }
+
+    public long getLocalAverageDurationMs() {
+        return localAverageDurationMs;
+    }
+
+    public long getLocalMaxDurationMs() {
+        return localMaxDurationMs;
+    }
+}
@@ -0,0 +1,92 @@
+package com.schnitzel.ticketingsystem.jobs;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Cluster-wide state of one ClusterJob, on the home database. next_run_at is
+ * moved forward by the node that starts a run, under the job's advisory lock,
+ * so every other node sees the run as taken.
+ */
+@Entity
+@Table(name = "scheduled_job")
+public class ScheduledJob {
+    @Id
+    @Column(name = "name", length = 100)
+    private String name;
+
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    @Column(name = "last_started_at")
+    private LocalDateTime lastStartedAt;
+
+    @Column(name = "last_finished_at")
+    private LocalDateTime lastFinishedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "last_status", length = 20)
+    private JobRunStatus lastStatus;
+
+    @Column(name = "last_duration_ms")
+    private Long lastDurationMs;
+
+    @Column(name = "last_node", length = 200)
+    private String lastNode;
+
+    // Constructors
+    public ScheduledJob() {}
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public LocalDateTime getNextRunAt() {
+        return nextRunAt;
+    }
+
+    public void setNextRunAt(LocalDateTime nextRunAt) {
+        this.nextRunAt = nextRunAt;
+    }
+
+    public LocalDateTime getLastStartedAt() {
+        return lastStartedAt;
+    }
+
+    public void setLastStartedAt(LocalDateTime lastStartedAt) {
+        this.lastStartedAt = lastStartedAt;
+    }
+
+    public LocalDateTime getLastFinishedAt() {
+        return lastFinishedAt;
+    }
+
+    public void setLastFinishedAt(LocalDateTime lastFinishedAt) {
+        this.lastFinishedAt = lastFinishedAt;
+    }
+
+    public JobRunStatus getLastStatus() {
+        return lastStatus;
+    }
+
+    public void setLastStatus(JobRunStatus lastStatus) {
+        this.lastStatus = lastStatus;
+    }
+
+    public Long getLastDurationMs() {
+        return lastDurationMs;
+    }
+
+    public void setLastDurationMs(Long lastDurationMs) {
+        this.lastDurationMs = lastDurationMs;
+    }
+
+    public String getLastNode() {
+        return lastNode;
+    }
+
+    public void setLastNode(String lastNode) {
+        this.lastNode = lastNode;
+    }
+}
@@ -0,0 +1,23 @@
+package com.schnitzel.ticketingsystem.jobs;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+@Repository
+public interface ScheduledJobRepository extends JpaRepository<ScheduledJob, String> {
+
+    // First start of a job anywhere in the cluster; later starts keep the stored schedule
+    @Modifying
+    @Query(value = "INSERT INTO scheduled_job (name, next_run_at) VALUES (:name, :nextRunAt) " +
+                   "ON CONFLICT (name) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(String name, LocalDateTime nextRunAt);
+
+    // Only the outcome columns: next_run_at may already belong to a later run
+    @Modifying
+    @Query("UPDATE ScheduledJob j SET j.lastFinishedAt = :finishedAt, j.lastStatus = :status, " +
+           "j.lastDurationMs = :durationMs WHERE j.name = :name")
+    int recordFinish(String name, LocalDateTime finishedAt, JobRunStatus status, long durationMs);
+}
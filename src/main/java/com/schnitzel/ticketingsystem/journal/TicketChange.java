@@ -0,0 +1,66 @@
+package com.schnitzel.ticketingsystem.journal;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the append-only ticket change journal.
+ * txid is the writing transaction's id, filled in by the database; clients
+ * page by it (see TicketChangeJournal.changesSince). seq only orders entries
+ * of the same transaction.
+ */
+@Entity
+@Table(name = "ticket_change", indexes = {
+        @Index(name = "idx_ticket_change_ticket", columnList = "ticket_id"),
+        @Index(name = "idx_ticket_change_txid", columnList = "txid, seq")
+})
+public class TicketChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "seq")
+    private Long seq;
+
+    @Column(name = "txid", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint DEFAULT (pg_current_xact_id()::text::bigint)")
+    private Long txid;
+
+    @Column(name = "ticket_id", nullable = false)
+    private Long ticketId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 10)
+    private TicketChangeType changeType;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    // Constructors
+    public TicketChange() {}
+
+    public TicketChange(Long ticketId, TicketChangeType changeType, LocalDateTime changedAt) {
+        this.ticketId = ticketId;
+        this.changeType = changeType;
+        this.changedAt = changedAt;
+    }
+
+    // Getters
+    public Long getSeq() {
+        return seq;
+    }
+
+    public Long getTxid() {
+        return txid;
+    }
+
+    public Long getTicketId() {
+        return ticketId;
+    }
+
+    public TicketChangeType getChangeType() {
+        return changeType;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.schnitzel.ticketingsystem.journal;
+
+import com.schnitzel.ticketingsystem.Ticket;
+import java.util.List;
+
+/**
+ * Response of GET /api/tickets/changes. Pass cursor back as "since" on the next call.
+ * If resync is true the client's cursor is too old: reload /api/tickets and continue from cursor.
+ */
+public class TicketChangeBatch {
+
+    private final long cursor;
+    private final boolean hasMore;
+    private final boolean resync;
+    private final List<Ticket> upserts;
+    private final List<Long> deletes;
+
+    public TicketChangeBatch(long cursor, boolean hasMore, boolean resync, List<Ticket> upserts, List<Long> deletes) {
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+        this.resync = resync;
+        this.upserts = upserts;
+        this.deletes = deletes;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public boolean isResync() {
+        return resync;
+    }
+
+    public List<Ticket> getUpserts() {
+        return upserts;
+    }
+
+    public List<Long> getDeletes() {
+        return deletes;
+    }
+}
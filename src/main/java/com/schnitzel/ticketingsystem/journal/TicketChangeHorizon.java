@@ -0,0 +1,38 @@
+package com.schnitzel.ticketingsystem.journal;
+
+import jakarta.persistence.*;
+
+/**
+ * Single row remembering the highest transaction id removed by retention.
+ * Clients with an older cursor may have missed tombstones and must resync.
+ */
+@Entity
+@Table(name = "ticket_change_horizon")
+public class TicketChangeHorizon {
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    private Integer id = SINGLETON_ID;
+
+    @Column(name = "pruned_through", nullable = false)
+    private long prunedThrough;
+
+    // Constructors
+    public TicketChangeHorizon() {}
+
+    public TicketChangeHorizon(long prunedThrough) {
+        this.prunedThrough = prunedThrough;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public long getPrunedThrough() {
+        return prunedThrough;
+    }
+
+    public void setPrunedThrough(long prunedThrough) {
+        this.prunedThrough = prunedThrough;
+    }
+}
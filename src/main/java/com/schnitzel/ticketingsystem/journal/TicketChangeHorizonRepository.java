@@ -0,0 +1,8 @@
+package com.schnitzel.ticketingsystem.journal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TicketChangeHorizonRepository extends JpaRepository<TicketChangeHorizon, Integer> {
+}
@@ -0,0 +1,151 @@
+package com.schnitzel.ticketingsystem.journal;
+
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.TicketRepository;
+import com.schnitzel.ticketingsystem.sharding.TicketShards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only change journal for tickets, used for delta sync. Every shard
+ * has its own, written in the same transactions as its tickets.
+ *
+ * Writers do not coordinate: each entry carries its transaction id (txid)
+ * and readers only hand out entries below the commit horizon, the oldest
+ * transaction still running. Everything below it has finished and anything
+ * committed later gets a txid at or above it, so a cursor never skips an
+ * entry that commits late.
+ */
+@Service
+public class TicketChangeJournal {
+
+    private static final int MAX_BATCH = 1000;
+
+    @Autowired
+    private TicketChangeRepository changeRepository;
+
+    @Autowired
+    private TicketChangeHorizonRepository horizonRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TicketShards ticketShards;
+
+    @Value("${ticket.changes.tombstone-retention-days:7}")
+    private int tombstoneRetentionDays;
+
+    /**
+     * Append a change in the caller's transaction. It becomes visible to
+     * changesSince once the transaction has committed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long ticketId, TicketChangeType type) {
+        changeRepository.save(new TicketChange(ticketId, type, LocalDateTime.now()));
+        eventPublisher.publishEvent(new TicketChangedEvent(ticketId, type));
+    }
+
+    /**
+     * Tickets changed after the cursor (a transaction id), each once with its
+     * current state: upserted if it still exists, deleted otherwise. A
+     * transaction's entries are never split across batches.
+     */
+    @Transactional(readOnly = true)
+    public TicketChangeBatch changesSince(long since, int limit) {
+        int batchSize = Math.max(1, Math.min(limit, MAX_BATCH));
+        long horizon = changeRepository.findCommitHorizon();
+
+        long pruned = horizonRepository.findById(TicketChangeHorizon.SINGLETON_ID)
+                .map(TicketChangeHorizon::getPrunedThrough)
+                .orElse(0L);
+        if (since < pruned) {
+            return new TicketChangeBatch(horizon - 1, false, true, List.of(), List.of());
+        }
+
+        List<TicketChange> changes = changeRepository.findCommittedAfter(since, horizon, PageRequest.of(0, batchSize));
+        boolean hasMore = changes.size() == batchSize;
+        long cursor = Math.max(since, horizon - 1);
+        if (hasMore) {
+            long lastTxid = changes.get(changes.size() - 1).getTxid();
+            if (changes.get(0).getTxid() == lastTxid) {
+                changes = changeRepository.findByTxidOrderBySeqAsc(lastTxid); // one large transaction
+            } else {
+                changes = changes.stream().filter(change -> change.getTxid() != lastTxid).collect(Collectors.toList());
+            }
+            cursor = changes.get(changes.size() - 1).getTxid();
+        }
+        if (changes.isEmpty()) {
+            return new TicketChangeBatch(cursor, false, false, List.of(), List.of());
+        }
+
+        // Entries of concurrent transactions are not in commit order, so the current state decides
+        Set<Long> ticketIds = new LinkedHashSet<>();
+        for (TicketChange change : changes) {
+            ticketIds.add(change.getTicketId());
+        }
+        List<Ticket> upserts = ticketRepository.findAllById(ticketIds);
+        Set<Long> found = new HashSet<>();
+        upserts.forEach(ticket -> found.add(ticket.getTicketId()));
+        List<Long> deletes = new ArrayList<>();
+        for (Long ticketId : ticketIds) {
+            if (!found.contains(ticketId)) {
+                deletes.add(ticketId);
+            }
+        }
+        return new TicketChangeBatch(cursor, hasMore, false, upserts, deletes);
+    }
+
+    /**
+     * Keep the journal bounded: at most one entry per ticket, and tombstones
+     * only for the retention window. Safe for clients because a newer entry
+     * always supersedes an older one for the same ticket. Once per cluster,
+     * as the journal-compaction job (JobsConfig).
+     */
+    public void compact() {
+        for (int shard = 0; shard < ticketShards.count(); shard++) {
+            ticketShards.inTransaction(shard, false, () -> {
+                compactShard();
+            });
+        }
+    }
+
+    private void compactShard() {
+        int superseded = changeRepository.deleteSuperseded();
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(tombstoneRetentionDays);
+        long pruneThrough = changeRepository.findLatestTxidBefore(TicketChangeType.DELETE, cutoff);
+        int tombstones = 0;
+        if (pruneThrough > 0) {
+            tombstones = changeRepository.deleteThrough(TicketChangeType.DELETE, pruneThrough);
+
+            TicketChangeHorizon horizon = horizonRepository.findById(TicketChangeHorizon.SINGLETON_ID)
+                    .orElseGet(() -> new TicketChangeHorizon(0));
+            if (pruneThrough > horizon.getPrunedThrough()) {
+                horizon.setPrunedThrough(pruneThrough);
+                horizonRepository.save(horizon);
+            }
+        }
+
+        if (superseded > 0 || tombstones > 0) {
+            System.out.println("Ticket change journal compacted: " + superseded + " superseded, " +
+                               tombstones + " expired tombstones removed");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.schnitzel.ticketingsystem.journal;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TicketChangeRepository extends JpaRepository<TicketChange, Long> {
+
+    // Entries of the transactions after the cursor that are certainly finished (txid below the horizon)
+    @Query("SELECT c FROM TicketChange c WHERE c.txid > :since AND c.txid < :horizon ORDER BY c.txid, c.seq")
+    List<TicketChange> findCommittedAfter(long since, long horizon, Pageable pageable);
+
+    List<TicketChange> findByTxidOrderBySeqAsc(Long txid);
+
+    // Every transaction below this id has committed or rolled back; any later entry gets a higher txid
+    // (CAST, not ::, which Hibernate reads as a named parameter)
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)", nativeQuery = true)
+    long findCommitHorizon();
+
+    // Only the newest entry per ticket matters to a client, older ones can go
+    @Modifying
+    @Query(value = "DELETE FROM ticket_change c USING ticket_change n " +
+                   "WHERE n.ticket_id = c.ticket_id AND (n.txid > c.txid OR (n.txid = c.txid AND n.seq > c.seq))",
+           nativeQuery = true)
+    int deleteSuperseded();
+
+    @Query("SELECT COALESCE(MAX(c.txid), 0) FROM TicketChange c WHERE c.changeType = :type AND c.changedAt < :cutoff")
+    long findLatestTxidBefore(TicketChangeType type, LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM TicketChange c WHERE c.changeType = :type AND c.txid <= :txid")
+    int deleteThrough(TicketChangeType type, long txid);
+}
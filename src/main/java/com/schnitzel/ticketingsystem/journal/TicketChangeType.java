@@ -0,0 +1,7 @@
+package com.schnitzel.ticketingsystem.journal;
+
+public enum TicketChangeType {
+    CREATE,
+    UPDATE,
+    DELETE // tombstone
+}
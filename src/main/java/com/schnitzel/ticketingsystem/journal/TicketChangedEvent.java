@@ -0,0 +1,24 @@
+package com.schnitzel.ticketingsystem.journal;
+
+/**
+ * Published for every journal entry. Listen with @TransactionalEventListener
+ * to act only once the change is committed.
+ */
+public class TicketChangedEvent {
+
+    private final Long ticketId;
+    private final TicketChangeType changeType;
+
+    public TicketChangedEvent(Long ticketId, TicketChangeType changeType) {
+        this.ticketId = ticketId;
+        this.changeType = changeType;
+    }
+
+    public Long getTicketId() {
+        return ticketId;
+    }
+
+    public TicketChangeType getChangeType() {
+        return changeType;
+    }
+}
@@ -0,0 +1,457 @@
+package com.schnitzel.ticketingsystem.openindex;
+
+import com.schnitzel.ticketingsystem.TicketPriority;
+import com.schnitzel.ticketingsystem.TicketRepository;
+import com.schnitzel.ticketingsystem.TicketStatus;
+import com.schnitzel.ticketingsystem.dto.TicketSummary;
+import com.schnitzel.ticketingsystem.invalidation.RemoteInvalidationEvent;
+import com.schnitzel.ticketingsystem.journal.TicketChangeType;
+import com.schnitzel.ticketingsystem.journal.TicketChangedEvent;
+import com.schnitzel.ticketingsystem.sharding.TicketShards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory working set of all tickets that are not CLOSED, for filter + sort + page
+ * without a database round trip.
+ *
+ * Data is kept column-wise in primitive arrays, one slot per ticket, with a
+ * bitmap per status, priority and assignee. A query ANDs the bitmaps and picks
+ * the requested page from packed sort keys (sort key | slot in one long), so
+ * there is no boxing or object comparison except for the subject sort.
+ *
+ * Kept in sync from the change journal after commit (and from other nodes'
+ * changes through the InvalidationBus) and rebuilt on startup.
+ */
+@Service
+public class OpenTicketIndex {
+
+    private static final int SLOT_BITS = 22; // up to ~4M open tickets
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+    private static final int SECONDS_BITS = 34; // epoch seconds, good until year 2514
+    private static final long SECONDS_MASK = (1L << SECONDS_BITS) - 1;
+
+    private static final int UNASSIGNED = 0;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketShards ticketShards;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes load + apply of refreshes, so an older read can never overwrite a newer one
+    private final Object refreshLock = new Object();
+    private volatile boolean ready;
+
+    // Columns
+    private long[] ids = new long[0];
+    private byte[] statuses = new byte[0];
+    private byte[] priorities = new byte[0];
+    private long[] requestedSeconds = new long[0];
+    private int[] assignees = new int[0];
+    private TicketSummary[] rows = new TicketSummary[0];
+
+    private int slotCount; // high-water mark, freed slots are reused
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+
+    // Bitmaps over slots
+    private final BitSet live = new BitSet();
+    private final BitSet[] byStatus = newBitSets(TicketStatus.values().length);
+    private final BitSet[] byPriority = newBitSets(TicketPriority.values().length + 1); // last one: no priority
+    private final List<BitSet> byAssignee = new ArrayList<>();
+    private final Map<String, Integer> assigneeCodes = new HashMap<>();
+
+    public OpenTicketIndex() {
+        clear();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (refreshLock) {
+            List<TicketSummary> open = ticketShards.gatherAll(true,
+                    shard -> ticketRepository.findSummariesByTicketStatusNot(TicketStatus.CLOSED));
+            load(open);
+            System.out.println("Open ticket index rebuilt with " + open.size() + " tickets");
+        }
+    }
+
+    // Replace the whole contents (rebuild, and tests without a database)
+    void load(List<TicketSummary> open) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (TicketSummary summary : open) {
+                put(summary);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onTicketChanged(TicketChangedEvent event) {
+        synchronized (refreshLock) {
+            if (!ready) {
+                return; // the startup rebuild reads the committed state anyway
+            }
+            apply(event.getTicketId(), event.getChangeType() == TicketChangeType.DELETE
+                    ? Optional.empty()
+                    : ticketRepository.findSummaryById(event.getTicketId()));
+        }
+    }
+
+    // Changed on another node. Read from the shard's primary: a replica may not have the change yet
+    @EventListener
+    public void onRemoteInvalidation(RemoteInvalidationEvent event) {
+        if (!ready) {
+            return;
+        }
+        if (event.isAllTickets()) {
+            rebuild();
+            return;
+        }
+        synchronized (refreshLock) {
+            for (Long ticketId : event.getTicketIds()) {
+                apply(ticketId, ticketShards.inTransaction(ticketShards.shardOf(ticketId), false,
+                        () -> ticketRepository.findSummaryById(ticketId)));
+            }
+        }
+    }
+
+    void apply(Long ticketId, Optional<TicketSummary> current) {
+        lock.writeLock().lock();
+        try {
+            if (current.isPresent() && current.get().getTicketStatus() != TicketStatus.CLOSED) {
+                put(current.get());
+            } else {
+                remove(ticketId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * One page of open tickets. Empty or null filters match everything; an assignee of ""
+     * matches unassigned tickets. Sorts on requestedTime, priority (ties: oldest first)
+     * or subject; only the first sort order is used.
+     */
+    public Page<TicketSummary> query(Collection<TicketStatus> statusFilter, Collection<TicketPriority> priorityFilter,
+                                     String assignee, Pageable pageable) {
+        if (!ready) {
+            throw new IllegalStateException("Open ticket index is not loaded yet");
+        }
+        Sort.Order order = pageable.getSort().stream().findFirst()
+                .orElse(Sort.Order.desc("requestedTime"));
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) live.clone();
+            if (statusFilter != null && !statusFilter.isEmpty()) {
+                BitSet any = new BitSet();
+                statusFilter.forEach(status -> any.or(byStatus[status.ordinal()]));
+                matches.and(any);
+            }
+            if (priorityFilter != null && !priorityFilter.isEmpty()) {
+                BitSet any = new BitSet();
+                priorityFilter.forEach(priority -> any.or(byPriority[priorityIndex(priority)]));
+                matches.and(any);
+            }
+            if (assignee != null) {
+                Integer code = assigneeCodes.get(normalizeAssignee(assignee));
+                if (code == null) {
+                    matches.clear();
+                } else {
+                    matches.and(byAssignee.get(code));
+                }
+            }
+
+            int total = matches.cardinality();
+            if (pageable.getOffset() >= total) {
+                return new PageImpl<>(List.of(), pageable, total);
+            }
+            int from = (int) pageable.getOffset();
+            int to = (int) Math.min(total, pageable.getOffset() + pageable.getPageSize());
+
+            int[] slots = "subject".equals(order.getProperty())
+                    ? sortBySubject(matches, total, order.isAscending())
+                    : smallestByKey(matches, total, to, order);
+
+            List<TicketSummary> content = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                content.add(rows[slots[i]]);
+            }
+            return new PageImpl<>(content, pageable, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Sorting ---
+
+    /**
+     * The first k matching slots in key order. Selects with a bounded max-heap,
+     * so a first page costs O(n log k) instead of a full sort.
+     */
+    private int[] smallestByKey(BitSet matches, int total, int k, Sort.Order order) {
+        boolean byPriorityFirst;
+        if ("priority".equals(order.getProperty())) {
+            byPriorityFirst = true;
+        } else if ("requestedTime".equals(order.getProperty())) {
+            byPriorityFirst = false;
+        } else {
+            throw new IllegalArgumentException("Cannot sort open tickets by " + order.getProperty());
+        }
+        boolean ascending = order.isAscending();
+
+        long[] keys;
+        int count;
+        if (k * 4L >= total) {
+            keys = new long[total];
+            count = 0;
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                keys[count++] = sortKey(slot, byPriorityFirst, ascending);
+            }
+            Arrays.sort(keys);
+        } else {
+            keys = new long[k];
+            count = 0;
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                long key = sortKey(slot, byPriorityFirst, ascending);
+                if (count < k) {
+                    keys[count] = key;
+                    siftUp(keys, count++);
+                } else if (key < keys[0]) {
+                    keys[0] = key;
+                    siftDown(keys, k);
+                }
+            }
+            Arrays.sort(keys, 0, count);
+        }
+
+        int[] slots = new int[Math.min(count, k)];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = (int) (keys[i] & SLOT_MASK);
+        }
+        return slots;
+    }
+
+    // [priority: 3 bits][epoch seconds: 34 bits][slot: 22 bits], smallest first
+    private long sortKey(int slot, boolean byPriorityFirst, boolean ascending) {
+        long seconds = requestedSeconds[slot];
+        long key;
+        if (byPriorityFirst) {
+            // No priority ranks below LOW, as in the ticket table
+            long rank = priorities[slot] == TicketPriority.values().length ? 0 : priorities[slot] + 1;
+            long priority = ascending ? rank : 7 - rank;
+            // Within a priority the oldest ticket comes first, like the work queue
+            key = (priority << SECONDS_BITS) | seconds;
+        } else {
+            key = ascending ? seconds : SECONDS_MASK - seconds;
+        }
+        return (key << SLOT_BITS) | slot;
+    }
+
+    private int[] sortBySubject(BitSet matches, int total, boolean ascending) {
+        Integer[] slots = new Integer[total];
+        int count = 0;
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            slots[count++] = slot;
+        }
+        Comparator<Integer> bySubject = Comparator.comparing(
+                slot -> rows[slot].getSubject() == null ? "" : rows[slot].getSubject(), String.CASE_INSENSITIVE_ORDER);
+        Arrays.sort(slots, ascending ? bySubject : bySubject.reversed());
+
+        int[] result = new int[total];
+        for (int i = 0; i < total; i++) {
+            result[i] = slots[i];
+        }
+        return result;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        long value = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] >= value) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long value = heap[0];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && heap[child + 1] > heap[child]) child++;
+            if (heap[child] <= value) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+
+    // --- Writes (hold the write lock) ---
+
+    private void put(TicketSummary summary) {
+        Integer existing = slotsById.get(summary.getTicketId());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            clearBits(slot);
+        } else {
+            slot = allocateSlot();
+            slotsById.put(summary.getTicketId(), slot);
+        }
+
+        TicketStatus status = summary.getTicketStatus() != null ? summary.getTicketStatus() : TicketStatus.OPEN;
+        ids[slot] = summary.getTicketId();
+        statuses[slot] = (byte) status.ordinal();
+        priorities[slot] = (byte) priorityIndex(summary.getPriority());
+        requestedSeconds[slot] = epochSeconds(summary.getRequestedTime());
+        assignees[slot] = assigneeCode(summary.getAssignedPerson());
+        rows[slot] = summary;
+
+        live.set(slot);
+        byStatus[statuses[slot]].set(slot);
+        byPriority[priorities[slot]].set(slot);
+        byAssignee.get(assignees[slot]).set(slot);
+    }
+
+    private void remove(Long ticketId) {
+        Integer slot = slotsById.remove(ticketId);
+        if (slot == null) {
+            return;
+        }
+        clearBits(slot);
+        rows[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void clearBits(int slot) {
+        live.clear(slot);
+        byStatus[statuses[slot]].clear(slot);
+        byPriority[priorities[slot]].clear(slot);
+        byAssignee.get(assignees[slot]).clear(slot);
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount > SLOT_MASK) {
+            throw new IllegalStateException("Open ticket index is full");
+        }
+        if (slotCount == ids.length) {
+            int capacity = Math.max(1024, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            requestedSeconds = Arrays.copyOf(requestedSeconds, capacity);
+            assignees = Arrays.copyOf(assignees, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+        }
+        return slotCount++;
+    }
+
+    private int assigneeCode(String assignedPerson) {
+        String name = normalizeAssignee(assignedPerson);
+        Integer code = assigneeCodes.get(name);
+        if (code == null) {
+            code = byAssignee.size();
+            assigneeCodes.put(name, code);
+            byAssignee.add(new BitSet());
+        }
+        return code;
+    }
+
+    private void clear() {
+        ids = new long[0];
+        statuses = new byte[0];
+        priorities = new byte[0];
+        requestedSeconds = new long[0];
+        assignees = new int[0];
+        rows = new TicketSummary[0];
+        slotCount = 0;
+        freeCount = 0;
+        slotsById.clear();
+        live.clear();
+        Arrays.stream(byStatus).forEach(BitSet::clear);
+        Arrays.stream(byPriority).forEach(BitSet::clear);
+        byAssignee.clear();
+        assigneeCodes.clear();
+        assigneeCodes.put("", UNASSIGNED);
+        byAssignee.add(new BitSet());
+    }
+
+    // Ordinal, with the slot after the last priority for tickets without one
+    private static int priorityIndex(TicketPriority priority) {
+        return priority != null ? priority.ordinal() : TicketPriority.values().length;
+    }
+
+    private static String normalizeAssignee(String assignedPerson) {
+        return assignedPerson == null ? "" : assignedPerson.trim();
+    }
+
+    private static long epochSeconds(LocalDateTime time) {
+        if (time == null) {
+            return 0;
+        }
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        return Math.max(0, Math.min(SECONDS_MASK, seconds));
+    }
+
+    private static BitSet[] newBitSets(int count) {
+        BitSet[] sets = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            sets[i] = new BitSet();
+        }
+        return sets;
+    }
+}
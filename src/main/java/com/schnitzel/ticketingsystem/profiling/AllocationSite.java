@@ -0,0 +1,36 @@
+package com.schnitzel.ticketingsystem.profiling;
+
+/**
+ * A line that allocates, with the sampled bytes (JFR weighs each sample by
+ * what was allocated since the last one) and their share of all allocations
+ */
+public class AllocationSite {
+
+    private final String site;
+    private final String objectClass;
+    private final long bytes;
+    private final double share;
+
+    public AllocationSite(String site, String objectClass, long bytes, double share) {
+        this.site = site;
+        this.objectClass = objectClass;
+        this.bytes = bytes;
+        this.share = share;
+    }
+
+    public String getSite() {
+        return site;
+    }
+
+    public String getObjectClass() {
+        return objectClass;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public double getShare() {
+        return share;
+    }
+}
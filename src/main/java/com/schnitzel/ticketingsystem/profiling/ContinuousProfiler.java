@@ -0,0 +1,151 @@
+package com.schnitzel.ticketingsystem.profiling;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a Java Flight Recorder recording running all the time, so there is
+ * data after a latency spike instead of only stdout.
+ *
+ * The recording uses a JDK settings file ("default" costs about 1% CPU:
+ * execution samples every 20 ms, throttled allocation samples, GC and lock
+ * events) plus the ticketing events (TicketOperationEvent, EmailSendEvent,
+ * DnsLookupEvent). JFR keeps it in a disk repository and drops what is older
+ * than profiling.max-age-minutes or beyond profiling.max-size-mb.
+ *
+ * dump() writes the last minutes to a .jfr file under profiling.dir (open it
+ * in JDK Mission Control for the full picture) and sums up the hot methods,
+ * allocation sites and ticketing event durations. JFR drops data in whole
+ * chunks, so the file can start a little earlier; the summary does not.
+ */
+@Component
+public class ContinuousProfiler {
+
+    static final String EVENT_PREFIX = "com.schnitzel.ticketingsystem.";
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSS");
+
+    @Value("${profiling.enabled:true}")
+    private boolean enabled;
+
+    @Value("${profiling.settings:default}")
+    private String settings;
+
+    @Value("${profiling.max-age-minutes:30}")
+    private int maxAgeMinutes;
+
+    @Value("${profiling.max-size-mb:64}")
+    private long maxSizeMb;
+
+    @Value("${profiling.dir:data/profiles}")
+    private String dir;
+
+    @Value("${profiling.keep-dumps:10}")
+    private int keepDumps;
+
+    private volatile Recording recording;
+
+    /**
+     * Not before the application is ready: the class data sharing training run
+     * stops before this and should not leave a recording behind
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || recording != null) {
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            System.out.println("Profiling disabled: Java Flight Recorder is not available in this JVM");
+            return;
+        }
+        try {
+            Recording started = new Recording(Configuration.getConfiguration(settings));
+            started.setName("ticketing-continuous");
+            started.setToDisk(true);
+            started.setMaxAge(Duration.ofMinutes(maxAgeMinutes));
+            started.setMaxSize(maxSizeMb * 1024 * 1024);
+            started.enable(TicketOperationEvent.class);
+            started.enable(EmailSendEvent.class);
+            started.enable(DnsLookupEvent.class);
+            started.start();
+            recording = started;
+            System.out.println("Continuous profiling started (" + settings + ", last " + maxAgeMinutes + " min)");
+        } catch (IOException | ParseException | IllegalStateException e) {
+            System.out.println("Continuous profiling could not start: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return recording != null;
+    }
+
+    public int getMaxAgeMinutes() {
+        return maxAgeMinutes;
+    }
+
+    /**
+     * Write the last minutes of the recording to a new file and summarize it.
+     * One at a time: reading a dump back takes a while and a fair bit of memory.
+     */
+    public synchronized ProfileReport dump(int minutes, int limit) throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("Continuous profiling is not running");
+        }
+        Instant to = Instant.now();
+        Instant from = to.minus(Duration.ofMinutes(minutes));
+
+        Path directory = Paths.get(dir);
+        Files.createDirectories(directory);
+        Path file = directory.resolve("profile-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+
+        // A snapshot holds the recorded chunks so far, the running one included
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            snapshot.setMaxAge(Duration.ofMinutes(minutes));
+            snapshot.dump(file);
+        }
+        deleteOldDumps(directory);
+        System.out.println("Profile of the last " + minutes + " min written to " + file);
+        return RecordingSummary.summarize(file, from, to, limit);
+    }
+
+    private void deleteOldDumps(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> dumps = files
+                    .filter(path -> path.getFileName().toString().matches("profile-\\d{8}-\\d{9}\\.jfr"))
+                    .sorted()
+                    .collect(Collectors.toList());
+            for (int i = 0; i < dumps.size() - Math.max(1, keepDumps); i++) {
+                Files.deleteIfExists(dumps.get(i));
+            }
+        } catch (IOException e) {
+            System.out.println("Could not delete old profiles: " + e.getMessage());
+        }
+    }
+}
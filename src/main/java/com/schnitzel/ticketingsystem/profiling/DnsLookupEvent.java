@@ -0,0 +1,40 @@
+package com.schnitzel.ticketingsystem.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event around a reverse DNS lookup of a client address (blocking, and
+ * slow when the resolver times out)
+ */
+@Name(ContinuousProfiler.EVENT_PREFIX + "DnsLookup")
+@Label("DNS Lookup")
+@Category("Ticketing")
+@Description("Reverse DNS lookup of a client address")
+@StackTrace(false)
+public class DnsLookupEvent extends jdk.jfr.Event {
+
+    @Label("Address")
+    String address;
+
+    @Label("Host Name")
+    String hostName;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    public static DnsLookupEvent start(String address) {
+        DnsLookupEvent event = new DnsLookupEvent();
+        event.address = address;
+        event.begin();
+        return event;
+    }
+
+    public void setHostName(String hostName) {
+        this.hostName = hostName;
+        this.succeeded = hostName != null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.schnitzel.ticketingsystem.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event around one notification email handed to the mail server
+ */
+@Name(ContinuousProfiler.EVENT_PREFIX + "EmailSend")
+@Label("Email Send")
+@Category("Ticketing")
+@Description("Notification email sent over SMTP")
+@StackTrace(false)
+public class EmailSendEvent extends jdk.jfr.Event {
+
+    @Label("Notification")
+    String notification;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    public static EmailSendEvent start(String notification) {
+        EmailSendEvent event = new EmailSendEvent();
+        event.notification = notification;
+        event.begin();
+        return event;
+    }
+
+    public void setSucceeded(boolean succeeded) {
+        this.succeeded = succeeded;
+    }
+}
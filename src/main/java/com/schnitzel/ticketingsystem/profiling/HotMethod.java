@@ -0,0 +1,29 @@
+package com.schnitzel.ticketingsystem.profiling;
+
+/**
+ * A method found on top of the stack by the execution sampler, with its share of all samples
+ */
+public class HotMethod {
+
+    private final String method;
+    private final long samples;
+    private final double share;
+
+    public HotMethod(String method, long samples, double share) {
+        this.method = method;
+        this.samples = samples;
+        this.share = share;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public double getShare() {
+        return share;
+    }
+}
@@ -0,0 +1,47 @@
+package com.schnitzel.ticketingsystem.profiling;
+
+/**
+ * Durations of one kind of ticketing event (ex. "Ticket Operation" / "search") in the dump
+ */
+public class OperationTiming {
+
+    private final String event;
+    private final String operation;
+    private final long count;
+    private final long failures;
+    private final double averageMs;
+    private final double maxMs;
+
+    public OperationTiming(String event, String operation, long count, long failures, double averageMs, double maxMs) {
+        this.event = event;
+        this.operation = operation;
+        this.count = count;
+        this.failures = failures;
+        this.averageMs = averageMs;
+        this.maxMs = maxMs;
+    }
+
+    public String getEvent() {
+        return event;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public double getAverageMs() {
+        return averageMs;
+    }
+
+    public double getMaxMs() {
+        return maxMs;
+    }
+}
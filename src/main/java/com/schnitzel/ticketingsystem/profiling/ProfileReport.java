@@ -0,0 +1,65 @@
+package com.schnitzel.ticketingsystem.profiling;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response of POST /api/profiling/dump: where the recording was written and
+ * what was hot in it
+ */
+public class ProfileReport {
+
+    private final String file;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final long executionSamples;
+    private final long allocatedBytes;
+    private final List<HotMethod> hotMethods;
+    private final List<AllocationSite> allocationSites;
+    private final List<OperationTiming> operations;
+
+    public ProfileReport(String file, LocalDateTime from, LocalDateTime to, long executionSamples, long allocatedBytes,
+                         List<HotMethod> hotMethods, List<AllocationSite> allocationSites,
+                         List<OperationTiming> operations) {
+        this.file = file;
+        this.from = from;
+        this.to = to;
+        this.executionSamples = executionSamples;
+        this.allocatedBytes = allocatedBytes;
+        this.hotMethods = hotMethods;
+        this.allocationSites = allocationSites;
+        this.operations = operations;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public long getExecutionSamples() {
+        return executionSamples;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public List<HotMethod> getHotMethods() {
+        return hotMethods;
+    }
+
+    public List<AllocationSite> getAllocationSites() {
+        return allocationSites;
+    }
+
+    public List<OperationTiming> getOperations() {
+        return operations;
+    }
+}
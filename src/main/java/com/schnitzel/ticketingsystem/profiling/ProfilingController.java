@@ -0,0 +1,45 @@
+package com.schnitzel.ticketingsystem.profiling;
+
+import com.schnitzel.ticketingsystem.userauth.User;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+// Admin only, checked by AuthInterceptor and again here: a dump shows code paths and request data
+@RestController
+@RequestMapping("/api/profiling")
+public class ProfilingController {
+
+    @Autowired
+    private ContinuousProfiler profiler;
+
+    // ex. POST /api/profiling/dump?minutes=5&limit=20
+    @PostMapping("/dump")
+    public ResponseEntity<ProfileReport> dump(@RequestParam(defaultValue = "5") int minutes,
+                                              @RequestParam(defaultValue = "20") int limit,
+                                              HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null || !user.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!profiler.isRunning()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        try {
+            int clamped = Math.max(1, Math.min(profiler.getMaxAgeMinutes(), minutes));
+            return ResponseEntity.ok(profiler.dump(clamped, Math.max(1, Math.min(100, limit))));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IOException e) {
+            System.out.println("Profile dump failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
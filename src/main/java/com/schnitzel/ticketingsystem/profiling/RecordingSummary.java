@@ -0,0 +1,174 @@
+package com.schnitzel.ticketingsystem.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a dumped recording back (event by event, not all at once) and counts
+ * what happened between from and to:
+ * - hot methods: top frame of each jdk.ExecutionSample (time spent in the method itself)
+ * - allocation sites: first frame outside the JDK (the caller of new String, ArrayList...)
+ *   and class of each jdk.ObjectAllocationSample, by weight
+ * - the ticketing events by operation: count, failures, average and max duration
+ */
+final class RecordingSummary {
+
+    private final Instant from;
+    private final Instant to;
+
+    private final Map<String, Long> samplesByMethod = new HashMap<>();
+    private final Map<String, Long> bytesBySite = new HashMap<>();
+    private final Map<String, String> classBySite = new HashMap<>();
+    private final Map<String, Timing> timings = new HashMap<>();
+    private long executionSamples;
+    private long allocatedBytes;
+
+    private static final class Timing {
+        final String event;
+        final String operation;
+        long count;
+        long failures;
+        long totalNanos;
+        long maxNanos;
+
+        Timing(String event, String operation) {
+            this.event = event;
+            this.operation = operation;
+        }
+    }
+
+    private RecordingSummary(Instant from, Instant to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    static ProfileReport summarize(Path file, Instant from, Instant to, int limit) throws IOException {
+        RecordingSummary summary = new RecordingSummary(from, to);
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                summary.add(recording.readEvent());
+            }
+        }
+        return summary.report(file, limit);
+    }
+
+    private void add(RecordedEvent event) {
+        if (event.getStartTime().isBefore(from) || event.getStartTime().isAfter(to)) {
+            return;
+        }
+        String type = event.getEventType().getName();
+        if (type.equals("jdk.ExecutionSample")) {
+            RecordedFrame frame = topFrame(event.getStackTrace());
+            executionSamples++;
+            if (frame != null) {
+                samplesByMethod.merge(method(frame), 1L, Long::sum);
+            }
+        } else if (type.equals("jdk.ObjectAllocationSample")) {
+            RecordedFrame frame = callerOfJdk(event.getStackTrace());
+            long weight = event.getLong("weight");
+            allocatedBytes += weight;
+            if (frame != null) {
+                String site = method(frame) + ":" + frame.getLineNumber();
+                bytesBySite.merge(site, weight, Long::sum);
+                classBySite.putIfAbsent(site, event.getClass("objectClass").getName());
+            }
+        } else if (type.startsWith(ContinuousProfiler.EVENT_PREFIX)) {
+            String label = event.getEventType().getLabel();
+            String operation = event.hasField("operation") ? event.getString("operation")
+                    : event.hasField("notification") ? event.getString("notification") : null;
+            Timing timing = timings.computeIfAbsent(label + "/" + operation, key -> new Timing(label, operation));
+            long nanos = event.getDuration().toNanos();
+            timing.count++;
+            timing.totalNanos += nanos;
+            timing.maxNanos = Math.max(timing.maxNanos, nanos);
+            if (!event.getBoolean("succeeded")) {
+                timing.failures++;
+            }
+        }
+    }
+
+    private ProfileReport report(Path file, int limit) {
+        List<HotMethod> hotMethods = new ArrayList<>();
+        samplesByMethod.forEach((method, samples) ->
+                hotMethods.add(new HotMethod(method, samples, share(samples, executionSamples))));
+        hotMethods.sort(Comparator.comparingLong(HotMethod::getSamples).reversed().thenComparing(HotMethod::getMethod));
+
+        List<AllocationSite> allocationSites = new ArrayList<>();
+        bytesBySite.forEach((site, bytes) ->
+                allocationSites.add(new AllocationSite(site, classBySite.get(site), bytes, share(bytes, allocatedBytes))));
+        allocationSites.sort(Comparator.comparingLong(AllocationSite::getBytes).reversed()
+                .thenComparing(AllocationSite::getSite));
+
+        List<OperationTiming> operations = new ArrayList<>();
+        for (Timing timing : timings.values()) {
+            operations.add(new OperationTiming(timing.event, timing.operation, timing.count, timing.failures,
+                    timing.totalNanos / 1e6 / timing.count, timing.maxNanos / 1e6));
+        }
+        operations.sort(Comparator.comparingDouble(OperationTiming::getMaxMs).reversed());
+
+        return new ProfileReport(file.toAbsolutePath().toString(), local(from), local(to),
+                executionSamples, allocatedBytes, top(hotMethods, limit), top(allocationSites, limit), operations);
+    }
+
+    // Innermost Java frame; samples of threads in native code have none
+    private static RecordedFrame topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return null;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame()) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    private static RecordedFrame callerOfJdk(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return null;
+        }
+        RecordedFrame top = null;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            if (top == null) {
+                top = frame;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return frame;
+            }
+        }
+        return top; // JDK threads
+    }
+
+    private static String method(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    private static double share(long part, long total) {
+        return total > 0 ? (double) part / total : 0;
+    }
+
+    private static <T> List<T> top(List<T> sorted, int limit) {
+        return sorted.size() > limit ? new ArrayList<>(sorted.subList(0, limit)) : sorted;
+    }
+
+    private static LocalDateTime local(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
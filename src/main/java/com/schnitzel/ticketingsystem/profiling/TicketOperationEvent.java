@@ -0,0 +1,50 @@
+package com.schnitzel.ticketingsystem.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event around a ticket create, update or search, so a slow one shows up
+ * in a dump next to the samples taken while it ran
+ */
+@Name(ContinuousProfiler.EVENT_PREFIX + "TicketOperation")
+@Label("Ticket Operation")
+@Category("Ticketing")
+@Description("Create, update or search of tickets")
+@StackTrace(false)
+public class TicketOperationEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Ticket Id")
+    long ticketId;
+
+    @Label("Results")
+    int results;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    public static TicketOperationEvent start(String operation) {
+        TicketOperationEvent event = new TicketOperationEvent();
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    public void setTicketId(long ticketId) {
+        this.ticketId = ticketId;
+    }
+
+    public void setResults(int results) {
+        this.results = results;
+    }
+
+    public void setSucceeded(boolean succeeded) {
+        this.succeeded = succeeded;
+    }
+}
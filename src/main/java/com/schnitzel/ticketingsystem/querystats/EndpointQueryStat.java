@@ -0,0 +1,53 @@
+package com.schnitzel.ticketingsystem.querystats;
+
+/**
+ * Statements run by requests to one endpoint; budget is -1 when it has none
+ */
+public class EndpointQueryStat {
+
+    private final String endpoint;
+    private final long requests;
+    private final long queries;
+    private final long maxQueries;
+    private final int budget;
+    private final long overBudget;
+    private final double totalMillis;
+
+    public EndpointQueryStat(String endpoint, long requests, long queries, long maxQueries, int budget, long overBudget, double totalMillis) {
+        this.endpoint = endpoint;
+        this.requests = requests;
+        this.queries = queries;
+        this.maxQueries = maxQueries;
+        this.budget = budget;
+        this.overBudget = overBudget;
+        this.totalMillis = totalMillis;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getQueries() {
+        return queries;
+    }
+
+    public long getMaxQueries() {
+        return maxQueries;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public long getOverBudget() {
+        return overBudget;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+}
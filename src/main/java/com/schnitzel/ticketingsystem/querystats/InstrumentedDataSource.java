@@ -0,0 +1,183 @@
+package com.schnitzel.ticketingsystem.querystats;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * Wraps connections, statements and result sets in JDK proxies that time every
+ * execution and count its rows (update count, or rows read from the result
+ * set), and report it to QueryStats once the result set is closed.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private final Supplier<QueryStats> statsSupplier;
+    private volatile QueryStats stats;
+
+    public InstrumentedDataSource(DataSource target, Supplier<QueryStats> statsSupplier) {
+        super(target);
+        this.statsSupplier = statsSupplier;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, obtainTargetDataSource().getConnection(), new ConnectionHandler());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, obtainTargetDataSource().getConnection(username, password), new ConnectionHandler());
+    }
+
+    // Resolved late: the data source is created before the stats bean
+    private QueryStats stats() {
+        QueryStats current = stats;
+        if (current == null) {
+            current = statsSupplier.get();
+            stats = current;
+        }
+        return current;
+    }
+
+    private abstract static class Handler<T> implements InvocationHandler {
+        T target;
+
+        Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private final class ConnectionHandler extends Handler<Connection> {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return wrap(method.getReturnType(), statement, new StatementHandler(sql));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler extends Handler<Statement> {
+        private final String preparedSql;
+        private String batchSql;
+        private QueryStats.Execution pending; // its rows are still being read
+
+        StatementHandler(String preparedSql) {
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args, name);
+            }
+            if (name.equals("addBatch") && args != null && args.length == 1 && batchSql == null) {
+                batchSql = (String) args[0];
+            } else if (name.equals("getResultSet")) {
+                Object result = call(method, args);
+                return result instanceof ResultSet resultSet && pending != null
+                        ? wrap(ResultSet.class, resultSet, new ResultSetHandler(pending))
+                        : result;
+            } else if (name.equals("close")) {
+                finishPending();
+            }
+            return call(method, args);
+        }
+
+        private Object execute(Method method, Object[] args, String name) throws Throwable {
+            finishPending();
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0]
+                    : name.endsWith("Batch") && batchSql != null ? batchSql : preparedSql;
+            QueryStats.Execution execution = stats().start(sql);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = call(method, args);
+            } catch (Throwable e) {
+                execution.nanos = System.nanoTime() - start;
+                stats().finish(execution);
+                throw e;
+            }
+            execution.nanos = System.nanoTime() - start;
+            if (name.endsWith("Batch")) {
+                batchSql = null;
+            }
+
+            if (result instanceof ResultSet resultSet) {
+                pending = execution;
+                return wrap(ResultSet.class, resultSet, new ResultSetHandler(execution));
+            }
+            if (result instanceof Boolean isQuery && isQuery) {
+                pending = execution; // rows come through getResultSet
+                return result;
+            }
+            execution.rows = rows(result);
+            stats().finish(execution);
+            return result;
+        }
+
+        private void finishPending() {
+            if (pending != null) {
+                stats().finish(pending);
+                pending = null;
+            }
+        }
+    }
+
+    private final class ResultSetHandler extends Handler<ResultSet> {
+        private final QueryStats.Execution execution;
+
+        ResultSetHandler(QueryStats.Execution execution) {
+            this.execution = execution;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            String name = method.getName();
+            if (name.equals("next")) {
+                if (Boolean.TRUE.equals(result)) {
+                    execution.rows++;
+                }
+            } else if (name.equals("close")) {
+                stats().finish(execution);
+            }
+            return result;
+        }
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Number count) {
+            return Math.max(0, count.longValue());
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) rows += Math.max(0, count);
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) rows += Math.max(0, count);
+        }
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(Class<?> type, T target, Handler<T> handler) {
+        handler.target = target;
+        return (T) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+}
@@ -0,0 +1,17 @@
+package com.schnitzel.ticketingsystem.querystats;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most SQL statements one request to this endpoint may run. Going over is
+ * logged, or fails the request when query.budget.strict is set (for
+ * integration test runs).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int value();
+}
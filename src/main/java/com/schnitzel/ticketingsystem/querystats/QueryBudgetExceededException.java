@@ -0,0 +1,10 @@
+package com.schnitzel.ticketingsystem.querystats;
+
+public class QueryBudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public QueryBudgetExceededException(String label, int budget) {
+        super(label + " ran more than its budget of " + budget + " queries");
+    }
+}
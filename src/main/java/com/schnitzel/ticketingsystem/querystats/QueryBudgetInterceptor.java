@@ -0,0 +1,59 @@
+package com.schnitzel.ticketingsystem.querystats;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * One QueryScope per request, labelled with the endpoint pattern
+ * ("GET /api/tickets/{id}"), with the handler's @QueryBudget or
+ * query.budget.default (-1 = none).
+ */
+@Component
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    private static final String SCOPE = QueryBudgetInterceptor.class.getName() + ".SCOPE";
+
+    @Autowired
+    private QueryStats queryStats;
+
+    @Value("${query.budget.default:-1}")
+    private int defaultBudget;
+
+    @Value("${query.budget.strict:false}")
+    private boolean strict;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String label = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+
+        int budget = defaultBudget;
+        if (handler instanceof HandlerMethod method) {
+            QueryBudget annotation = method.getMethodAnnotation(QueryBudget.class);
+            if (annotation != null) {
+                budget = annotation.value();
+            }
+        }
+        request.setAttribute(SCOPE, QueryScope.open(label, budget, strict));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(SCOPE) instanceof QueryScope scope)) {
+            return;
+        }
+        scope.close();
+        queryStats.recordRequest(scope);
+        if (scope.isOverBudget() && !strict) {
+            System.out.println("Query budget exceeded: " + scope.getLabel() + " ran " + scope.getQueries()
+                    + " queries, budget " + scope.getBudget());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.schnitzel.ticketingsystem.querystats;
+
+/**
+ * Counts the statements run on this thread between open and close. Scopes
+ * nest; a statement counts for every open scope.
+ *
+ * The request interceptor opens one per HTTP request. Tests can open their own:
+ *
+ *   try (QueryScope scope = QueryScope.open("delete ticket", 5, true)) {
+ *       ticketService.deleteTicket(id);
+ *   }   // threw QueryBudgetExceededException on the 6th statement
+ */
+public final class QueryScope implements AutoCloseable {
+
+    private static final ThreadLocal<QueryScope> current = new ThreadLocal<>();
+
+    private final String label;
+    private final int budget; // negative = none
+    private final boolean strict;
+    private final QueryScope parent;
+    private int queries;
+    private long nanos;
+    private long rows;
+    private boolean overBudget;
+
+    private QueryScope(String label, int budget, boolean strict, QueryScope parent) {
+        this.label = label;
+        this.budget = budget;
+        this.strict = strict;
+        this.parent = parent;
+    }
+
+    public static QueryScope open(String label) {
+        return open(label, -1, false);
+    }
+
+    public static QueryScope open(String label, int budget, boolean strict) {
+        QueryScope scope = new QueryScope(label, budget, strict, current.get());
+        current.set(scope);
+        return scope;
+    }
+
+    public static QueryScope current() {
+        return current.get();
+    }
+
+    @Override
+    public void close() {
+        if (current.get() == this) {
+            if (parent == null) {
+                current.remove();
+            } else {
+                current.set(parent);
+            }
+        }
+    }
+
+    // Before a statement runs; a strict scope over budget stops it
+    void beforeStatement() {
+        for (QueryScope scope = this; scope != null; scope = scope.parent) {
+            scope.queries++;
+            if (scope.budget >= 0 && scope.queries > scope.budget) {
+                scope.overBudget = true;
+                if (scope.strict) {
+                    throw new QueryBudgetExceededException(scope.label, scope.budget);
+                }
+            }
+        }
+    }
+
+    void afterStatement(long nanos, long rows) {
+        for (QueryScope scope = this; scope != null; scope = scope.parent) {
+            scope.nanos += nanos;
+            scope.rows += rows;
+        }
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public int getQueries() {
+        return queries;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public boolean isOverBudget() {
+        return overBudget;
+    }
+}
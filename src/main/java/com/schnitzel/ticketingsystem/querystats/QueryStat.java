@@ -0,0 +1,41 @@
+package com.schnitzel.ticketingsystem.querystats;
+
+/**
+ * Totals for one SQL statement or one calling method
+ */
+public class QueryStat {
+
+    private final String key;
+    private final long executions;
+    private final double totalMillis;
+    private final double maxMillis;
+    private final long rows;
+
+    public QueryStat(String key, long executions, double totalMillis, double maxMillis, long rows) {
+        this.key = key;
+        this.executions = executions;
+        this.totalMillis = totalMillis;
+        this.maxMillis = maxMillis;
+        this.rows = rows;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+}
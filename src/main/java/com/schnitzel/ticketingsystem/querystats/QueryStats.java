@@ -0,0 +1,200 @@
+package com.schnitzel.ticketingsystem.querystats;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Count, time and rows of every SQL statement, per statement, per calling
+ * application method and per HTTP endpoint, plus the slow-query log.
+ *
+ * Statements are kept as SQL with literals replaced by ?, so neither the
+ * stats nor the log ever show bind values.
+ */
+@Component
+public class QueryStats {
+
+    private static final String APP_PACKAGE = "com.schnitzel.ticketingsystem.";
+    private static final String OWN_PACKAGE = QueryStats.class.getPackageName() + ".";
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_KEYS = 1000;
+    private static final String OTHER = "(other)";
+
+    @Value("${query.slow-ms:200}")
+    private long slowMs;
+
+    public static final class Execution {
+        final String sql;
+        final String caller;
+        final QueryScope scope;
+        long nanos;
+        long rows;
+        private boolean finished;
+
+        Execution(String sql, String caller, QueryScope scope) {
+            this.sql = sql;
+            this.caller = caller;
+            this.scope = scope;
+        }
+    }
+
+    private static final class Totals {
+        final LongAdder executions = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void add(long nanos, long rows) {
+            executions.increment();
+            this.nanos.add(nanos);
+            this.rows.add(rows);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        QueryStat toStat(String key) {
+            return new QueryStat(key, executions.sum(), millis(nanos.sum()), millis(maxNanos.get()), rows.sum());
+        }
+    }
+
+    private static final class EndpointTotals {
+        final LongAdder requests = new LongAdder();
+        final LongAdder queries = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder overBudget = new LongAdder();
+        final AtomicLong maxQueries = new AtomicLong();
+        volatile int budget = -1;
+    }
+
+    private final ConcurrentHashMap<String, String> redacted = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Totals> statements = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Totals> callers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, EndpointTotals> endpoints = new ConcurrentHashMap<>();
+
+    // Counts the statement for the open scopes; throws if a strict budget runs out
+    Execution start(String sql) {
+        QueryScope scope = QueryScope.current();
+        if (scope != null) {
+            scope.beforeStatement();
+        }
+        return new Execution(redact(sql), caller(), scope);
+    }
+
+    void finish(Execution execution) {
+        if (execution.finished) {
+            return;
+        }
+        execution.finished = true;
+        if (execution.scope != null) {
+            execution.scope.afterStatement(execution.nanos, execution.rows);
+        }
+        totals(statements, execution.sql).add(execution.nanos, execution.rows);
+        totals(callers, execution.caller).add(execution.nanos, execution.rows);
+
+        if (execution.nanos >= slowMs * 1_000_000L) {
+            String endpoint = execution.scope != null ? execution.scope.getLabel() + " <- " : "";
+            System.out.println("Slow query: " + millis(execution.nanos) + " ms, " + execution.rows + " rows, "
+                    + endpoint + execution.caller + ": " + execution.sql);
+        }
+    }
+
+    public void recordRequest(QueryScope scope) {
+        String key = endpoints.size() < MAX_KEYS || endpoints.containsKey(scope.getLabel()) ? scope.getLabel() : OTHER;
+        EndpointTotals totals = endpoints.computeIfAbsent(key, k -> new EndpointTotals());
+        totals.requests.increment();
+        totals.queries.add(scope.getQueries());
+        totals.nanos.add(scope.getNanos());
+        totals.maxQueries.accumulateAndGet(scope.getQueries(), Math::max);
+        totals.budget = scope.getBudget();
+        if (scope.isOverBudget()) {
+            totals.overBudget.increment();
+        }
+    }
+
+    /**
+     * Endpoints by queries run, callers and statements by total time, at most limit each
+     */
+    public QueryStatsReport report(int limit) {
+        List<EndpointQueryStat> endpointStats = new ArrayList<>();
+        endpoints.forEach((key, totals) -> endpointStats.add(new EndpointQueryStat(
+                key, totals.requests.sum(), totals.queries.sum(), totals.maxQueries.get(),
+                totals.budget, totals.overBudget.sum(), millis(totals.nanos.sum()))));
+        endpointStats.sort(Comparator.comparingLong(EndpointQueryStat::getQueries).reversed());
+
+        return new QueryStatsReport(top(endpointStats, limit), top(callers, limit), top(statements, limit));
+    }
+
+    public void reset() {
+        statements.clear();
+        callers.clear();
+        endpoints.clear();
+    }
+
+    String redact(String sql) {
+        if (sql == null) {
+            return "(unknown)";
+        }
+        String cached = redacted.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String result = STRING_LITERAL.matcher(sql).replaceAll("?");
+        result = NUMBER_LITERAL.matcher(result).replaceAll("?");
+        result = PARAMETER_LIST.matcher(result).replaceAll("(?, ...)");
+        result = WHITESPACE.matcher(result).replaceAll(" ").trim();
+        if (redacted.size() >= MAX_KEYS) {
+            redacted.clear();
+        }
+        redacted.put(sql, result);
+        return result;
+    }
+
+    // The innermost application method below the instrumentation, e.g. TicketService.deleteTicket
+    private static String caller() {
+        return WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE)
+                        && !frame.getClassName().startsWith(OWN_PACKAGE)
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> {
+                    String className = frame.getClassName();
+                    return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+                })
+                .orElse("(framework)"));
+    }
+
+    private static Totals totals(Map<String, Totals> map, String key) {
+        Totals totals = map.get(key);
+        if (totals != null) {
+            return totals;
+        }
+        return map.computeIfAbsent(map.size() < MAX_KEYS ? key : OTHER, k -> new Totals());
+    }
+
+    private static List<QueryStat> top(Map<String, Totals> map, int limit) {
+        List<QueryStat> stats = new ArrayList<>();
+        map.forEach((key, totals) -> stats.add(totals.toStat(key)));
+        stats.sort(Comparator.comparingDouble(QueryStat::getTotalMillis).reversed());
+        return top(stats, limit);
+    }
+
+    private static <T> List<T> top(List<T> list, int limit) {
+        return list.size() > limit ? new ArrayList<>(list.subList(0, limit)) : list;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
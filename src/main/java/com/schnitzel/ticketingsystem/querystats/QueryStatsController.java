@@ -0,0 +1,30 @@
+package com.schnitzel.ticketingsystem.querystats;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/query-stats")
+public class QueryStatsController {
+
+    @Autowired
+    private QueryStats queryStats;
+
+    @GetMapping
+    @QueryBudget(0)
+    public ResponseEntity<QueryStatsReport> getReport(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(queryStats.report(Math.max(1, limit)));
+    }
+
+    @DeleteMapping
+    @QueryBudget(0)
+    public ResponseEntity<Void> reset() {
+        queryStats.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
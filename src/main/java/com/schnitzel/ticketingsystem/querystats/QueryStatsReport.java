@@ -0,0 +1,31 @@
+package com.schnitzel.ticketingsystem.querystats;
+
+import java.util.List;
+
+/**
+ * As returned by GET /api/query-stats
+ */
+public class QueryStatsReport {
+
+    private final List<EndpointQueryStat> endpoints;
+    private final List<QueryStat> callers;
+    private final List<QueryStat> statements;
+
+    public QueryStatsReport(List<EndpointQueryStat> endpoints, List<QueryStat> callers, List<QueryStat> statements) {
+        this.endpoints = endpoints;
+        this.callers = callers;
+        this.statements = statements;
+    }
+
+    public List<EndpointQueryStat> getEndpoints() {
+        return endpoints;
+    }
+
+    public List<QueryStat> getCallers() {
+        return callers;
+    }
+
+    public List<QueryStat> getStatements() {
+        return statements;
+    }
+}
@@ -0,0 +1,64 @@
+package com.schnitzel.ticketingsystem.reactive;
+
+import org.springframework.boot.autoconfigure.web.reactive.WebFluxRegistrations;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * The reactive profile (application-reactive.properties): the ticket API and the
+ * static pages on Netty, for nodes that mostly stream ticket lists. Login, users,
+ * admin and the other MVC controllers stay on the servlet nodes; this profile
+ * serves none of them.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveTicketConfig {
+
+    // Boot would pick Tomcat, which is on the classpath for the servlet profile
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // WebFlux would map the @RestControllers too, without AuthInterceptor: map none of them
+    @Bean
+    public WebFluxRegistrations noAnnotatedControllers() {
+        return new WebFluxRegistrations() {
+            @Override
+            public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+                return new RequestMappingHandlerMapping() {
+                    @Override
+                    protected boolean isHandler(Class<?> beanType) {
+                        return false;
+                    }
+                };
+            }
+        };
+    }
+
+    // The fixed paths before /{id}, as MVC prefers them
+    @Bean
+    public RouterFunction<ServerResponse> ticketRoutes(ReactiveTicketHandler handler) {
+        return RouterFunctions.route()
+                .GET("/api/tickets", handler::getAllTickets)
+                .POST("/api/tickets", handler::createTicket)
+                .GET("/api/tickets/changes", handler::getChanges)
+                .GET("/api/tickets/summary", handler::getTicketSummaries)
+                .GET("/api/tickets/export", handler::exportTickets)
+                .GET("/api/tickets/clusters", handler::getDuplicateClusters)
+                .GET("/api/tickets/filter", handler::filterTickets)
+                .GET("/api/tickets/open", handler::filterOpenTickets)
+                .GET("/api/tickets/search", handler::searchTickets)
+                .GET("/api/tickets/stream", handler::streamTickets)
+                .GET("/api/tickets/{id}", handler::getTicketById)
+                .PUT("/api/tickets/{id}", handler::updateTicket)
+                .DELETE("/api/tickets/{id}", handler::deleteTicket)
+                .build();
+    }
+}
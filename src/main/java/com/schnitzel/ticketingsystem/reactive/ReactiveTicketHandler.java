@@ -0,0 +1,303 @@
+package com.schnitzel.ticketingsystem.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.schnitzel.ticketingsystem.TicketController;
+import com.schnitzel.ticketingsystem.TicketService;
+import com.schnitzel.ticketingsystem.clientdevice.ClientDevice;
+import com.schnitzel.ticketingsystem.clientdevice.ClientDeviceService;
+import com.schnitzel.ticketingsystem.dto.TicketDto;
+import com.schnitzel.ticketingsystem.dto.TicketRegistrationRequest;
+import com.schnitzel.ticketingsystem.openindex.OpenTicketIndex;
+import com.schnitzel.ticketingsystem.wireformat.WireFormat;
+import com.schnitzel.ticketingsystem.wireformat.WireFormatMappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * /api/tickets on WebFlux, same paths, parameters and bodies as TicketController.
+ * The reads (list, summary, search, export, stream, by id) go through
+ * ReactiveTicketRepository and are written as rows arrive; writes and the
+ * journal/cluster/filter queries reuse TicketService on boundedElastic, so
+ * events, journal and cache invalidation behave exactly as on the MVC nodes.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveTicketHandler {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    // Rows whose client devices are looked up together, and that are encoded into one buffer
+    private static final int BATCH = 500;
+
+    // Spring Data's default spring.data.web.pageable.max-page-size
+    private static final int MAX_PAGE_SIZE = 2000;
+
+    @Autowired
+    private ReactiveTicketRepository reactiveTicketRepository;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private ClientDeviceService clientDeviceService;
+
+    @Autowired
+    private OpenTicketIndex openTicketIndex;
+
+    @Autowired
+    private WireFormatMappers wireFormatMappers;
+
+    // intent/itComment are null, with intentPreview/itCommentPreview instead, as on MVC
+    public Mono<ServerResponse> getAllTickets(ServerRequest request) {
+        return respond(request, withDevices(reactiveTicketRepository.findAllListRows()));
+    }
+
+    public Mono<ServerResponse> getTicketSummaries(ServerRequest request) {
+        return respond(request, reactiveTicketRepository.findAllSummaries().buffer(BATCH));
+    }
+
+    public Mono<ServerResponse> exportTickets(ServerRequest request) {
+        return respond(request, tickets(null));
+    }
+
+    public Mono<ServerResponse> searchTickets(ServerRequest request) {
+        return request.queryParam("query")
+                .map(query -> respond(request, tickets(query)))
+                .orElseGet(() -> ServerResponse.badRequest().build());
+    }
+
+    // One JSON ticket per line, written as the shards are read: a slow client slows the reads
+    // down (fetch size backpressure) instead of having the rows buffered
+    public Mono<ServerResponse> streamTickets(ServerRequest request) {
+        return ServerResponse.ok().contentType(NDJSON)
+                .body(BodyInserters.fromDataBuffers(json(tickets(request.queryParam("query").orElse(null)), false)));
+    }
+
+    public Mono<ServerResponse> getTicketById(ServerRequest request) {
+        long id;
+        try {
+            id = Long.parseLong(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().build();
+        }
+        return withDevices(reactiveTicketRepository.findById(id).map(ticket -> TicketDto.fromTicket(ticket, null)).flux())
+                .flatMapIterable(batch -> batch)
+                .next()
+                .flatMap(ticket -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(ticket))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> getChanges(ServerRequest request) {
+        return blocking(() -> ticketService.getChangesSince(intParam(request, "shard", 0),
+                        request.queryParam("since").map(Long::parseLong).orElse(0L), intParam(request, "limit", 500)))
+                .flatMap(changes -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(changes))
+                .onErrorResume(IllegalArgumentException.class, e -> ServerResponse.badRequest().build());
+    }
+
+    public Mono<ServerResponse> getDuplicateClusters(ServerRequest request) {
+        return blocking(ticketService::getDuplicateClusters)
+                .flatMap(clusters -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(clusters));
+    }
+
+    public Mono<ServerResponse> filterTickets(ServerRequest request) {
+        return blocking(() -> ticketService.filterTickets(TicketController.parseStatuses(listParam(request, "status")),
+                        TicketController.parsePriorities(listParam(request, "priority")), pageable(request, 50)))
+                .flatMap(page -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(page))
+                .onErrorResume(IllegalArgumentException.class, e -> ServerResponse.badRequest().build());
+    }
+
+    // From memory, so no need to leave the event loop
+    public Mono<ServerResponse> filterOpenTickets(ServerRequest request) {
+        if (!openTicketIndex.isReady()) {
+            return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        try {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(openTicketIndex.query(
+                    TicketController.parseStatuses(listParam(request, "status")),
+                    TicketController.parsePriorities(listParam(request, "priority")),
+                    request.queryParam("assignee").orElse(null), pageable(request, 25)));
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().build();
+        }
+    }
+
+    public Mono<ServerResponse> createTicket(ServerRequest request) {
+        return request.bodyToMono(TicketRegistrationRequest.class)
+                .flatMap(body -> blocking(() -> ticketService.createTicket(body.getFullName(), body.getSubject(),
+                        body.getIntent(), body.getAssignedPerson(), body.getPriority(), body.getClientIpAddress(),
+                        body.getComputerName(), body.getUserAgent(), body.getItComment())))
+                .flatMap(created -> ServerResponse.status(HttpStatus.CREATED).contentType(MediaType.TEXT_PLAIN)
+                        .bodyValue("Ticket created successfully"))
+                .onErrorResume(e -> ServerResponse.badRequest().contentType(MediaType.TEXT_PLAIN)
+                        .bodyValue("Failed to create ticket: " + e.getMessage()));
+    }
+
+    public Mono<ServerResponse> updateTicket(ServerRequest request) {
+        long id;
+        try {
+            id = Long.parseLong(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().build();
+        }
+        return request.bodyToMono(TicketRegistrationRequest.class)
+                .flatMap(body -> blocking(() -> ticketService.updateTicket(id, body.getFullName(), body.getTicketStatus(),
+                        body.getSubject(), body.getRequestedTime(), body.getIntent(), body.getAssignedPerson(),
+                        body.getPriority(), body.getClientIpAddress(), body.getComputerName(), body.getUserAgent(),
+                        body.getItComment(), body.getClosedTime())))
+                .flatMap(updated -> updated
+                        ? ServerResponse.ok().contentType(MediaType.TEXT_PLAIN).bodyValue("Ticket updated successfully")
+                        : ServerResponse.notFound().build())
+                .onErrorResume(e -> e instanceof IllegalArgumentException || e instanceof IllegalStateException,
+                        e -> ServerResponse.badRequest().contentType(MediaType.TEXT_PLAIN)
+                                .bodyValue("Failed to update ticket: " + e.getMessage()));
+    }
+
+    public Mono<ServerResponse> deleteTicket(ServerRequest request) {
+        long id;
+        try {
+            id = Long.parseLong(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().build();
+        }
+        return blocking(() -> ticketService.deleteTicket(id))
+                .flatMap(deleted -> deleted
+                        ? ServerResponse.ok().contentType(MediaType.TEXT_PLAIN).bodyValue("Ticket deleted successfully")
+                        : ServerResponse.notFound().build());
+    }
+
+    private Flux<List<TicketDto>> tickets(String query) {
+        return withDevices(reactiveTicketRepository.findTickets(query).map(ticket -> TicketDto.fromTicket(ticket, null)));
+    }
+
+    // Client devices a batch at a time: ClientDeviceService's cache first, one query for the rest
+    private Flux<List<TicketDto>> withDevices(Flux<TicketDto> rows) {
+        return rows.buffer(BATCH).concatMap(batch -> {
+            Set<Long> ids = TicketDto.deviceIds(batch);
+            Map<Long, ClientDevice> devices = new HashMap<>(clientDeviceService.findCached(ids));
+            ids.removeAll(devices.keySet());
+            return reactiveTicketRepository.findDevices(ids).map(found -> {
+                clientDeviceService.remember(found.values());
+                devices.putAll(found);
+                return TicketDto.withDevices(batch, devices);
+            });
+        });
+    }
+
+    // JSON is streamed as an array; Smile and CBOR are written whole with WireFormatMappers, as on MVC
+    private Mono<ServerResponse> respond(ServerRequest request, Flux<? extends List<?>> batches) {
+        WireFormat format = WireFormat.negotiate(request.headers().firstHeader(HttpHeaders.ACCEPT));
+        if (format == WireFormat.JSON) {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                    .body(BodyInserters.fromDataBuffers(json(batches, true)));
+        }
+        return batches.flatMapIterable(batch -> batch).collectList().flatMap(list -> {
+            try {
+                return ServerResponse.ok().contentType(format.getMediaType())
+                        .bodyValue(wireFormatMappers.get(format).writeValueAsBytes(list));
+            } catch (JsonProcessingException e) {
+                return Mono.error(e);
+            }
+        });
+    }
+
+    // One buffer per batch of rows, as a JSON array or one row per line. Spring's JSON encoder
+    // writes every row to its own buffer, and flushes after each one for NDJSON
+    private Flux<DataBuffer> json(Flux<? extends List<?>> batches, boolean array) {
+        ObjectWriter writer = wireFormatMappers.get(WireFormat.JSON).writer();
+        return Flux.defer(() -> {
+            boolean[] first = {true};
+            Flux<DataBuffer> rows = batches.map(batch -> {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(batch.size() * 512);
+                try {
+                    for (Object row : batch) {
+                        if (array && !first[0]) {
+                            out.write(',');
+                        }
+                        first[0] = false;
+                        out.write(writer.writeValueAsBytes(row));
+                        if (!array) {
+                            out.write('\n');
+                        }
+                    }
+                } catch (IOException e) {
+                    throw Exceptions.propagate(e);
+                }
+                return DefaultDataBufferFactory.sharedInstance.wrap(out.toByteArray());
+            });
+            return array ? Flux.concat(Flux.just(bytes("[")), rows, Flux.defer(() -> Flux.just(bytes("]")))) : rows;
+        });
+    }
+
+    private static DataBuffer bytes(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        return request.queryParam(name).map(Integer::parseInt).orElse(defaultValue);
+    }
+
+    // status=OPEN,IN_PROGRESS or status=OPEN&status=IN_PROGRESS, like MVC's List<String> binding
+    private static List<String> listParam(ServerRequest request, String name) {
+        List<String> values = request.queryParams().get(name);
+        if (values == null) {
+            return null;
+        }
+        List<String> split = new ArrayList<>();
+        values.forEach(value -> split.addAll(Arrays.asList(value.split(","))));
+        return split;
+    }
+
+    // page, size and sort=property[,asc|desc] as @PageableDefault reads them, newest first by default
+    private static Pageable pageable(ServerRequest request, int defaultSize) {
+        int page = Math.max(0, intParam(request, "page", 0));
+        int size = Math.min(MAX_PAGE_SIZE, Math.max(1, intParam(request, "size", defaultSize)));
+        List<String> sorts = request.queryParams().get("sort");
+        if (sorts == null || sorts.isEmpty()) {
+            return PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "requestedTime"));
+        }
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String sort : sorts) {
+            String[] parts = sort.split(",");
+            Sort.Direction direction = Sort.Direction.fromOptionalString(parts[parts.length - 1]).orElse(null);
+            int properties = direction == null ? parts.length : parts.length - 1;
+            for (int i = 0; i < properties; i++) {
+                if (!parts[i].isBlank()) {
+                    orders.add(new Sort.Order(direction == null ? Sort.Direction.ASC : direction, parts[i].trim()));
+                }
+            }
+        }
+        return PageRequest.of(page, size, Sort.by(orders));
+    }
+}
@@ -0,0 +1,254 @@
+package com.schnitzel.ticketingsystem.reactive;
+
+import com.schnitzel.ticketingsystem.CompressedTextConverter;
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.TicketPriorityConverter;
+import com.schnitzel.ticketingsystem.TicketStatus;
+import com.schnitzel.ticketingsystem.TicketStatusConverter;
+import com.schnitzel.ticketingsystem.clientdevice.ClientDevice;
+import com.schnitzel.ticketingsystem.dto.TicketDto;
+import com.schnitzel.ticketingsystem.dto.TicketSummary;
+import com.schnitzel.ticketingsystem.sharding.TicketShards;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Ticket reads over R2DBC for the reactive profile, one pool per shard (the
+ * spring.datasource / sharding.shards databases, always the primaries).
+ * Lists are read with a fetch size, so rows come from the database as the
+ * client takes them, and shards are merged by ticket id as they arrive.
+ * Columns are decoded with the same converters as the Ticket entity.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveTicketRepository {
+
+    private static final int FETCH_SIZE = 500;
+
+    // Rows are read by position, in the order of these lists: the driver matches a name
+    // against every column of the row, ignoring case, on each get
+
+    private static final String LIST_COLUMNS = "ticket_id, full_name, subject, intent_preview, priority, assigned_person, " +
+            "ticket_status, requested_time, closed_time, it_comment_preview, sla_due_at, parent_ticket_id, " +
+            "claim_expires_at, routing_key, client_device_id";
+
+    private static final String TICKET_COLUMNS = "ticket_id, full_name, subject, intent, priority, assigned_person, " +
+            "ticket_status, requested_time, closed_time, it_comment, sla_due_at, parent_ticket_id, " +
+            "claim_expires_at, routing_key, client_device_id";
+
+    private static final String SUMMARY_COLUMNS = "ticket_id, full_name, subject, ticket_status, priority, assigned_person, " +
+            "requested_time, closed_time, client_device_id";
+
+    private static final CompressedTextConverter TEXT = new CompressedTextConverter();
+    private static final TicketStatusConverter STATUS = new TicketStatusConverter();
+    private static final TicketPriorityConverter PRIORITY = new TicketPriorityConverter();
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private TicketShards ticketShards;
+
+    @Value("${sharding.shards:}")
+    private List<String> shardUrls;
+
+    @Value("${sharding.username:}")
+    private String shardUsername;
+
+    @Value("${sharding.password:}")
+    private String shardPassword;
+
+    // Per shard, like Hikari's default pool
+    @Value("${reactive.pool-size:10}")
+    private int poolSize;
+
+    private final List<ConnectionPool> pools = new ArrayList<>();
+    private final List<DatabaseClient> shards = new ArrayList<>();
+
+    @PostConstruct
+    public void start() {
+        add(dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        for (String url : shardUrls) {
+            if (!url.isBlank()) {
+                add(url.trim(), shardUsername.isEmpty() ? dataSourceProperties.determineUsername() : shardUsername,
+                    shardPassword.isEmpty() ? dataSourceProperties.determinePassword() : shardPassword);
+            }
+        }
+        System.out.println("Reactive ticket reads over R2DBC, " + shards.size() + " shard(s), pool size " + poolSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        pools.forEach(ConnectionPool::dispose);
+    }
+
+    // jdbc:postgresql://host:port/db?currentSchema=x -> r2dbc:postgresql://host:port/db?schema=x
+    private void add(String jdbcUrl, String username, String password) {
+        String url = "r2dbc:" + jdbcUrl.substring(jdbcUrl.indexOf(':') + 1).replace("currentSchema=", "schema=");
+        // Binary results: in text format every bytea arrives hex-encoded and every timestamp as a string to parse
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(PostgresqlConnectionFactoryProvider.FORCE_BINARY, true);
+        if (username != null) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (password != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name("r2dbc-shard-" + shards.size())
+                .maxSize(poolSize)
+                .build());
+        pools.add(pool);
+        shards.add(DatabaseClient.create(pool));
+    }
+
+    /**
+     * Rows of GET /api/tickets: text previews, intent/itComment not read (client devices not resolved yet)
+     */
+    public Flux<TicketDto> findAllListRows() {
+        return acrossShards(shard -> select(shard, "SELECT " + LIST_COLUMNS + " FROM ticket ORDER BY ticket_id", Map.of(),
+                ReactiveTicketRepository::listRow), TicketDto::getTicketId);
+    }
+
+    /**
+     * Every ticket (query null) or the ones TicketService.searchTickets finds, full text, by id
+     */
+    public Flux<Ticket> findTickets(String query) {
+        if (query == null) {
+            return acrossShards(shard -> select(shard, "SELECT " + TICKET_COLUMNS + " FROM ticket ORDER BY ticket_id",
+                    Map.of(), ReactiveTicketRepository::ticket), Ticket::getTicketId);
+        }
+        // As Spring Data's Containing: the query is matched literally
+        String pattern = "%" + query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        TicketStatus status = statusNamedBy(query);
+        String where = status == null ? "full_name LIKE :pattern" : "(ticket_status = :status OR full_name LIKE :pattern)";
+        Map<String, Object> params = status == null ? Map.of("pattern", pattern)
+                                                    : Map.of("pattern", pattern, "status", STATUS.convertToDatabaseColumn(status));
+        return acrossShards(shard -> select(shard, "SELECT " + TICKET_COLUMNS + " FROM ticket WHERE " + where +
+                " ORDER BY ticket_id", params, ReactiveTicketRepository::ticket), Ticket::getTicketId);
+    }
+
+    public Mono<Ticket> findById(long ticketId) {
+        return select(ticketShards.shardOf(ticketId), "SELECT " + TICKET_COLUMNS + " FROM ticket WHERE ticket_id = :id",
+                Map.of("id", ticketId), ReactiveTicketRepository::ticket).next();
+    }
+
+    public Flux<TicketSummary> findAllSummaries() {
+        return acrossShards(shard -> select(shard, "SELECT " + SUMMARY_COLUMNS + " FROM ticket ORDER BY ticket_id", Map.of(),
+                ReactiveTicketRepository::summary), TicketSummary::getTicketId);
+    }
+
+    /**
+     * Client devices by id, from the home shard
+     */
+    public Mono<Map<Long, ClientDevice>> findDevices(Collection<Long> ids) {
+        Long[] wanted = ids.stream().filter(Objects::nonNull).distinct().toArray(Long[]::new);
+        if (wanted.length == 0) {
+            return Mono.just(Map.of());
+        }
+        return shards.get(0).sql("SELECT id, ip_address, computer_name, user_agent FROM client_device WHERE id = ANY(:ids)")
+                .bind("ids", wanted)
+                .map(row -> {
+                    ClientDevice device = new ClientDevice(row.get(1, String.class),
+                            row.get(2, String.class), row.get(3, String.class));
+                    device.setId(row.get(0, Long.class));
+                    return device;
+                })
+                .all()
+                .collectMap(ClientDevice::getId);
+    }
+
+    // Shards read concurrently, merged in id order as rows arrive
+    private <T> Flux<T> acrossShards(Function<Integer, Flux<T>> query, Function<T, Long> id) {
+        if (shards.size() == 1) {
+            return query.apply(0);
+        }
+        List<Flux<T>> perShard = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            perShard.add(query.apply(shard));
+        }
+        return Flux.mergeComparing(Comparator.comparing(id), perShard.toArray(Flux[]::new));
+    }
+
+    private <T> Flux<T> select(int shard, String sql, Map<String, Object> params, Function<Readable, T> mapper) {
+        DatabaseClient.GenericExecuteSpec spec = shards.get(shard).sql(sql)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE));
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec.map(mapper).all();
+    }
+
+    private static TicketDto listRow(Readable row) {
+        return new TicketDto(row.get(0, Long.class), row.get(1, String.class),
+                row.get(2, String.class), row.get(3, String.class),
+                PRIORITY.convertToEntityAttribute(row.get(4, Short.class)),
+                row.get(5, String.class),
+                STATUS.convertToEntityAttribute(row.get(6, Short.class)),
+                row.get(7, LocalDateTime.class), row.get(8, LocalDateTime.class),
+                row.get(9, String.class), row.get(10, LocalDateTime.class),
+                row.get(11, Long.class), row.get(12, LocalDateTime.class),
+                row.get(13, String.class), row.get(14, Long.class));
+    }
+
+    private static Ticket ticket(Readable row) {
+        Ticket ticket = new Ticket();
+        ticket.setTicketId(row.get(0, Long.class));
+        ticket.setFullName(row.get(1, String.class));
+        ticket.setSubject(row.get(2, String.class));
+        ticket.setIntent(TEXT.convertToEntityAttribute(row.get(3, byte[].class)));
+        ticket.setPriority(PRIORITY.convertToEntityAttribute(row.get(4, Short.class)));
+        ticket.setAssignedPerson(row.get(5, String.class));
+        // Field order matters: setTicketStatus fills a missing closedTime for CLOSED
+        ticket.setClosedTime(row.get(8, LocalDateTime.class));
+        ticket.setTicketStatus(STATUS.convertToEntityAttribute(row.get(6, Short.class)));
+        ticket.setRequestedTime(row.get(7, LocalDateTime.class));
+        ticket.setItComment(TEXT.convertToEntityAttribute(row.get(9, byte[].class)));
+        ticket.setSlaDueAt(row.get(10, LocalDateTime.class));
+        ticket.setParentTicketId(row.get(11, Long.class));
+        ticket.setClaimExpiresAt(row.get(12, LocalDateTime.class));
+        ticket.setRoutingKey(row.get(13, String.class));
+        ticket.setClientDeviceId(row.get(14, Long.class));
+        return ticket;
+    }
+
+    private static TicketSummary summary(Readable row) {
+        return new TicketSummary(row.get(0, Long.class), row.get(1, String.class),
+                row.get(2, String.class), STATUS.convertToEntityAttribute(row.get(3, Short.class)),
+                PRIORITY.convertToEntityAttribute(row.get(4, Short.class)),
+                row.get(5, String.class), row.get(6, LocalDateTime.class),
+                row.get(7, LocalDateTime.class), row.get(8, Long.class));
+    }
+
+    private static TicketStatus statusNamedBy(String query) {
+        try {
+            return TicketStatus.fromString(query);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
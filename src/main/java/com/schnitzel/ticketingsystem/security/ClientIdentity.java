@@ -0,0 +1,79 @@
+package com.schnitzel.ticketingsystem.security;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Who sent the current request. Built once per request by ClientIdentityResolver.
+ * The hostname is only looked up (reverse DNS) the first time it is asked for.
+ */
+public class ClientIdentity {
+
+    private final String ipAddress;
+    private final String username;
+    private final String authMethod;
+    private final String userAgent;
+    private final String proxyChain;
+    private String hostname;
+
+    public ClientIdentity(String ipAddress, String username, String authMethod,
+                          String userAgent, String proxyChain) {
+        this.ipAddress = ipAddress;
+        this.username = username;
+        this.authMethod = authMethod;
+        this.userAgent = userAgent;
+        this.proxyChain = proxyChain;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public String getHostname() {
+        if (hostname == null) {
+            hostname = NetworkUtils.getHostNameFromIp(ipAddress);
+        }
+        return hostname;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getAuthMethod() {
+        return authMethod;
+    }
+
+    public String getUserAgent() {
+        return userAgent;
+    }
+
+    public String getProxyChain() {
+        return proxyChain;
+    }
+
+    /**
+     * Same keys as the old NetworkUtils.whoami output
+     */
+    public Map<String, String> toWhoamiMap() {
+        Map<String, String> userInfo = new HashMap<>();
+        userInfo.put("username", username);
+        userInfo.put("authenticationMethod", authMethod);
+        userInfo.put("ipAddress", ipAddress);
+        userInfo.put("hostname", getHostname());
+        userInfo.put("userAgent", userAgent);
+        userInfo.put("proxyChain", proxyChain);
+        userInfo.put("serverHostname", NetworkUtils.getComputerName());
+        return userInfo;
+    }
+
+    @Override
+    public String toString() {
+        return "ClientIdentity{" +
+                "ipAddress='" + ipAddress + '\'' +
+                ", username='" + username + '\'' +
+                ", authMethod='" + authMethod + '\'' +
+                ", proxyChain='" + proxyChain + '\'' +
+                '}';
+    }
+}
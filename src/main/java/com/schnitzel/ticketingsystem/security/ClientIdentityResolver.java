@@ -0,0 +1,113 @@
+package com.schnitzel.ticketingsystem.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the client identity once per request and caches it as a request attribute.
+ *
+ * Forwarding headers are only honored when the direct peer is a trusted proxy.
+ * X-Forwarded-For is walked right to left, skipping hops that are themselves
+ * trusted proxies; the first untrusted hop is the client.
+ */
+@Component
+public class ClientIdentityResolver {
+
+    public static final String REQUEST_ATTRIBUTE = ClientIdentityResolver.class.getName() + ".IDENTITY";
+
+    // Single-value headers some proxies/CDNs set instead of X-Forwarded-For
+    private static final String[] SINGLE_IP_HEADERS = {
+        "X-Real-IP",
+        "CF-Connecting-IP",
+        "True-Client-IP"
+    };
+
+    private final TrustedProxyMatcher trustedProxies;
+
+    public ClientIdentityResolver(
+            @Value("${network.trusted-proxies:127.0.0.0/8,::1/128}") String trustedProxies) {
+        this.trustedProxies = TrustedProxyMatcher.parse(trustedProxies);
+    }
+
+    public ClientIdentity resolve(HttpServletRequest request) {
+        Object cached = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (cached instanceof ClientIdentity) {
+            return (ClientIdentity) cached;
+        }
+
+        String xff = request.getHeader("X-Forwarded-For");
+        ClientIdentity identity = new ClientIdentity(
+                resolveIp(request, xff),
+                NetworkUtils.getClientUsername(request),
+                NetworkUtils.getAuthMethod(request),
+                request.getHeader("User-Agent"),
+                xff != null ? xff : "Direct");
+
+        request.setAttribute(REQUEST_ATTRIBUTE, identity);
+        return identity;
+    }
+
+    String resolveIp(HttpServletRequest request, String xff) {
+        String remoteAddr = request.getRemoteAddr();
+        if (remoteAddr == null) {
+            return "Unknown";
+        }
+
+        if (trustedProxies.matches(remoteAddr)) {
+            if (xff != null) {
+                String forwarded = lastUntrustedHop(xff);
+                if (forwarded != null) {
+                    return forwarded;
+                }
+            }
+            for (String header : SINGLE_IP_HEADERS) {
+                String value = request.getHeader(header);
+                if (value != null && trustedProxies.classify(value, 0, value.length()) != TrustedProxyMatcher.NOT_AN_ADDRESS) {
+                    return value.trim();
+                }
+            }
+        }
+
+        // Convert IPv6 localhost to IPv4
+        if ("0:0:0:0:0:0:0:1".equals(remoteAddr) || "::1".equals(remoteAddr)) {
+            return "127.0.0.1";
+        }
+        return remoteAddr;
+    }
+
+    /**
+     * Walk "client, proxy1, proxy2" from the right without splitting.
+     * Returns the rightmost hop that is not a trusted proxy, the leftmost
+     * hop if every hop is trusted, or null if a hop is not an address.
+     */
+    String lastUntrustedHop(String xff) {
+        int end = xff.length();
+        int leftmostStart = -1;
+        int leftmostEnd = -1;
+
+        while (end > 0) {
+            int comma = xff.lastIndexOf(',', end - 1);
+            int start = comma + 1;
+
+            int from = start;
+            int to = end;
+            while (from < to && xff.charAt(from) == ' ') from++;
+            while (to > from && xff.charAt(to - 1) == ' ') to--;
+
+            int hop = trustedProxies.classify(xff, from, to);
+            if (hop == TrustedProxyMatcher.NOT_AN_ADDRESS) {
+                // Garbage or "unknown" in the chain - stop trusting it here
+                return leftmostStart < 0 ? null : xff.substring(leftmostStart, leftmostEnd);
+            }
+            if (hop == TrustedProxyMatcher.UNTRUSTED) {
+                return xff.substring(from, to);
+            }
+
+            leftmostStart = from;
+            leftmostEnd = to;
+            end = comma < 0 ? 0 : comma;
+        }
+        return leftmostStart < 0 ? null : xff.substring(leftmostStart, leftmostEnd);
+    }
+}
@@ -1,5 +1,6 @@
 package com.schnitzel.ticketingsystem.security;
 
+import com.schnitzel.ticketingsystem.profiling.DnsLookupEvent;
 import jakarta.servlet.http.HttpServletRequest;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
@@ -77,6 +78,7 @@ public class NetworkUtils {
             return "Unknown-Host";
         }
         
+        DnsLookupEvent event = DnsLookupEvent.start(ipAddress);
         try {
             System.out.println("Attempting reverse DNS lookup for: " + ipAddress);
             InetAddress inetAddress = InetAddress.getByName(ipAddress);
@@ -89,11 +91,14 @@ public class NetworkUtils {
             }
             
             System.out.println("Resolved hostname: " + hostname + " for IP: " + ipAddress);
+            event.setHostName(hostname);
             return hostname;
             
         } catch (UnknownHostException e) {
             System.out.println("Failed to resolve hostname for " + ipAddress + ": " + e.getMessage());
             return "Unknown-Host";
+        } finally {
+            event.commit();
         }
     }
 
@@ -178,7 +183,7 @@ public class NetworkUtils {
     /**
      * Get authentication method used
      */
-    private static String getAuthMethod(HttpServletRequest request) {
+    static String getAuthMethod(HttpServletRequest request) {
         if (request.getHeader("X-Forwarded-User") != null) return "Proxy-Forwarded";
         if (request.getHeader("SSL_CLIENT_S_DN_CN") != null) return "SSL-Certificate";
         if (request.getHeader("Authorization") != null) {
@@ -201,34 +206,32 @@ public class NetworkUtils {
 
     /**
      * Comprehensive whoami for requester information (like Unix whoami command)
+     * Prefer ClientIdentityResolver, which also applies the trusted proxy list
      */
     public static Map<String, String> whoami(HttpServletRequest request) {
-        Map<String, String> userInfo = new HashMap<>();
-        
-        System.out.println("\n=== WHOAMI - REQUEST INFORMATION ===");
-        
-        // User identity
-        String username = getClientUsername(request);
-        userInfo.put("username", username);
-        userInfo.put("authenticationMethod", getAuthMethod(request));
-        
-        // Network information
         String ipAddress = getClientIpAddress(request);
-        String hostname = getClientHostname(request);
-        
-        userInfo.put("ipAddress", ipAddress);
-        userInfo.put("hostname", hostname);
-        userInfo.put("userAgent", request.getHeader("User-Agent"));
-        
-        // Corporate proxy information
-        userInfo.put("proxyChain", getProxyChain(request));
-        userInfo.put("serverHostname", getComputerName());
+        ClientIdentity identity = new ClientIdentity(
+                ipAddress,
+                getClientUsername(request),
+                getAuthMethod(request),
+                request.getHeader("User-Agent"),
+                getProxyChain(request));
+        
+        return whoami(identity);
+    }
+
+    /**
+     * whoami from an already resolved identity
+     */
+    public static Map<String, String> whoami(ClientIdentity identity) {
+        Map<String, String> userInfo = identity.toWhoamiMap();
         
-        System.out.println("Username: " + username);
-        System.out.println("IP Address: " + ipAddress);
-        System.out.println("Hostname: " + hostname);
-        System.out.println("User-Agent: " + request.getHeader("User-Agent"));
-        System.out.println("Auth Method: " + getAuthMethod(request));
+        System.out.println("\n=== WHOAMI - REQUEST INFORMATION ===");
+        System.out.println("Username: " + identity.getUsername());
+        System.out.println("IP Address: " + identity.getIpAddress());
+        System.out.println("Hostname: " + identity.getHostname());
+        System.out.println("User-Agent: " + identity.getUserAgent());
+        System.out.println("Auth Method: " + identity.getAuthMethod());
         System.out.println("=== END WHOAMI ===\n");
         
         return userInfo;
@@ -252,7 +255,7 @@ public class NetworkUtils {
         
         return ip.startsWith("10.") || 
                ip.startsWith("192.168.") || 
-               ip.matches("172\\.(1[6-9]|2[0-9]|3[0-1])\\..*") ||
+               isIn172PrivateRange(ip) ||
                ip.startsWith("127.") ||
                ip.startsWith("169.254.") ||
                ip.startsWith("fc") ||
@@ -260,6 +263,18 @@ public class NetworkUtils {
                ip.startsWith("fe80:");
     }
 
+    /**
+     * 172.16.0.0 - 172.31.255.255 without a regex
+     */
+    private static boolean isIn172PrivateRange(String ip) {
+        if (ip.length() < 8 || !ip.startsWith("172.") || ip.charAt(6) != '.') return false;
+        char tens = ip.charAt(4);
+        char ones = ip.charAt(5);
+        return (tens == '1' && ones >= '6' && ones <= '9') ||
+               (tens == '2' && ones >= '0' && ones <= '9') ||
+               (tens == '3' && (ones == '0' || ones == '1'));
+    }
+
     /**
      * Check if IP is localhost
      */
@@ -0,0 +1,279 @@
+package com.schnitzel.ticketingsystem.security;
+
+/**
+ * Compiled set of trusted proxy networks (CIDR blocks).
+ * Stored as a binary prefix trie over the address bits, one trie per
+ * address family, so a lookup is at most 32/128 bit steps with no allocation.
+ */
+public class TrustedProxyMatcher {
+
+    private static final class Node {
+        Node zero;
+        Node one;
+        boolean terminal; // a CIDR block ends here -> everything below matches
+    }
+
+    private final Node v4Root = new Node();
+    private final Node v6Root = new Node();
+    private boolean empty = true;
+
+    public TrustedProxyMatcher() {
+    }
+
+    /**
+     * Build a matcher from a comma separated list, ex. "10.0.0.0/8, ::1/128, 192.168.1.5"
+     */
+    public static TrustedProxyMatcher parse(String cidrList) {
+        TrustedProxyMatcher matcher = new TrustedProxyMatcher();
+        if (cidrList == null) {
+            return matcher;
+        }
+
+        int start = 0;
+        int length = cidrList.length();
+        while (start < length) {
+            int end = cidrList.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            String entry = cidrList.substring(start, end).trim();
+            if (!entry.isEmpty()) {
+                matcher.add(entry);
+            }
+            start = end + 1;
+        }
+        return matcher;
+    }
+
+    /**
+     * Add a single CIDR block (or a bare address, treated as a full-length prefix)
+     */
+    public void add(String cidr) {
+        int slash = cidr.indexOf('/');
+        String address = slash < 0 ? cidr : cidr.substring(0, slash);
+
+        byte[] bytes = new byte[16];
+        int family = parseAddress(address, 0, address.length(), bytes);
+        if (family == 0) {
+            throw new IllegalArgumentException("Invalid trusted proxy address: " + cidr);
+        }
+
+        int maxBits = family == 4 ? 32 : 128;
+        int prefix = maxBits;
+        if (slash >= 0) {
+            try {
+                prefix = Integer.parseInt(cidr.substring(slash + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid trusted proxy prefix: " + cidr);
+            }
+            if (prefix < 0 || prefix > maxBits) {
+                throw new IllegalArgumentException("Invalid trusted proxy prefix: " + cidr);
+            }
+        }
+
+        Node node = family == 4 ? v4Root : v6Root;
+        for (int bit = 0; bit < prefix; bit++) {
+            if (node.terminal) {
+                return; // already covered by a shorter block
+            }
+            if (bitAt(bytes, bit)) {
+                if (node.one == null) node.one = new Node();
+                node = node.one;
+            } else {
+                if (node.zero == null) node.zero = new Node();
+                node = node.zero;
+            }
+        }
+        node.terminal = true;
+        node.zero = null;
+        node.one = null;
+        empty = false;
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Check whether the address text is inside one of the trusted networks
+     */
+    public boolean matches(String address) {
+        if (address == null) return false;
+        return matches(address, 0, address.length());
+    }
+
+    /**
+     * Same as {@link #matches(String)} but on a slice, so callers can test
+     * hops of a forwarded header without substring-ing them first.
+     * Uses a thread-local scratch buffer to stay allocation free.
+     */
+    public boolean matches(CharSequence text, int from, int to) {
+        if (empty) return false;
+        return classify(text, from, to) == TRUSTED;
+    }
+
+    static final int NOT_AN_ADDRESS = 0;
+    static final int UNTRUSTED = 1;
+    static final int TRUSTED = 2;
+
+    /**
+     * Parses the slice once and says whether it is an address at all and, if so,
+     * whether it is trusted. Forwarded hops need both answers.
+     */
+    int classify(CharSequence text, int from, int to) {
+        byte[] bytes = SCRATCH.get();
+        int family = parseAddress(text, from, to, bytes);
+        if (family == 0) return NOT_AN_ADDRESS;
+        return matchesBytes(family == 4 ? v4Root : v6Root, bytes, family == 4 ? 32 : 128) ? TRUSTED : UNTRUSTED;
+    }
+
+    private static boolean matchesBytes(Node root, byte[] bytes, int maxBits) {
+        Node node = root;
+        for (int bit = 0; bit < maxBits; bit++) {
+            if (node.terminal) return true;
+            node = bitAt(bytes, bit) ? node.one : node.zero;
+            if (node == null) return false;
+        }
+        return node.terminal;
+    }
+
+    private static boolean bitAt(byte[] bytes, int bit) {
+        return (bytes[bit >>> 3] & (0x80 >>> (bit & 7))) != 0;
+    }
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[16]);
+
+    /**
+     * Parse an IPv4 or IPv6 literal into {@code out}.
+     * IPv4-mapped IPv6 (::ffff:a.b.c.d) is folded to IPv4.
+     * Returns 4 or 6 for the family, or 0 if the text is not an address.
+     */
+    static int parseAddress(CharSequence text, int from, int to, byte[] out) {
+        // Trim whitespace and optional [brackets] around IPv6
+        while (from < to && text.charAt(from) == ' ') from++;
+        while (to > from && text.charAt(to - 1) == ' ') to--;
+        if (to - from >= 2 && text.charAt(from) == '[' && text.charAt(to - 1) == ']') {
+            from++;
+            to--;
+        }
+        if (from >= to) return 0;
+
+        boolean hasColon = false;
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == ':') {
+                hasColon = true;
+                break;
+            }
+        }
+
+        if (!hasColon) {
+            return parseIpv4(text, from, to, out, 0) ? 4 : 0;
+        }
+        if (!parseIpv6(text, from, to, out)) {
+            return 0;
+        }
+
+        // ::ffff:a.b.c.d -> a.b.c.d
+        for (int i = 0; i < 10; i++) {
+            if (out[i] != 0) return 6;
+        }
+        if (out[10] == (byte) 0xff && out[11] == (byte) 0xff) {
+            System.arraycopy(out, 12, out, 0, 4);
+            return 4;
+        }
+        return 6;
+    }
+
+    private static boolean parseIpv4(CharSequence text, int from, int to, byte[] out, int offset) {
+        int octet = 0;
+        int value = 0;
+        int digits = 0;
+        for (int i = from; i <= to; i++) {
+            char c = i < to ? text.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (++digits > 3 || value > 255) return false;
+            } else if (c == '.') {
+                if (digits == 0 || octet > 3) return false;
+                out[offset + octet++] = (byte) value;
+                value = 0;
+                digits = 0;
+            } else {
+                return false;
+            }
+        }
+        return octet == 4;
+    }
+
+    private static boolean parseIpv6(CharSequence text, int from, int to, byte[] out) {
+        // Drop zone id (fe80::1%eth0)
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == '%') {
+                to = i;
+                break;
+            }
+        }
+
+        for (int i = 0; i < 16; i++) out[i] = 0;
+
+        int index = 0;      // next byte to write
+        int gap = -1;       // byte index where "::" was seen
+        int i = from;
+
+        if (to - from >= 2 && text.charAt(from) == ':' && text.charAt(from + 1) == ':') {
+            gap = 0;
+            i += 2;
+            if (i == to) return true; // "::"
+        }
+
+        while (i < to) {
+            if (index >= 16) return false;
+
+            int groupStart = i;
+            int value = 0;
+            int digits = 0;
+            while (i < to) {
+                int hex = Character.digit(text.charAt(i), 16);
+                if (hex < 0) break;
+                value = (value << 4) | hex;
+                if (++digits > 4) return false;
+                i++;
+            }
+
+            if (i < to && text.charAt(i) == '.') {
+                // Embedded IPv4 tail
+                if (index > 12) return false;
+                if (!parseIpv4(text, groupStart, to, out, index)) return false;
+                index += 4;
+                i = to;
+                break;
+            }
+
+            if (digits == 0) return false;
+            out[index++] = (byte) (value >>> 8);
+            out[index++] = (byte) value;
+
+            if (i == to) break;
+            if (text.charAt(i) != ':') return false;
+            i++;
+            if (i < to && text.charAt(i) == ':') {
+                if (gap >= 0) return false; // only one "::" allowed
+                gap = index;
+                i++;
+                if (i == to) break;
+            } else if (i == to) {
+                return false; // trailing single colon
+            }
+        }
+
+        if (gap >= 0) {
+            int tail = index - gap;
+            if (index == 16) return false;
+            System.arraycopy(out, gap, out, 16 - tail, tail);
+            for (int k = gap; k < 16 - tail; k++) out[k] = 0;
+        } else if (index != 16) {
+            return false;
+        }
+        return true;
+    }
+}
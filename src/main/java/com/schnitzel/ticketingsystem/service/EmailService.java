@@ -1,5 +1,6 @@
 package com.schnitzel.ticketingsystem.service;
 
+import com.schnitzel.ticketingsystem.profiling.EmailSendEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
@@ -16,6 +17,7 @@ public class EmailService {
     private String itCompanyEmail;
     
     public void sendNewTicketNotification(String requesterName, String subject, String description) {
+        EmailSendEvent event = EmailSendEvent.start("new-ticket");
         try {
             SimpleMailMessage message = new SimpleMailMessage();
             message.setTo(itCompanyEmail);
@@ -30,11 +32,44 @@ public class EmailService {
             );
             
             mailSender.send(message);
+            event.setSucceeded(true);
             System.out.println("Email sent successfully to: " + itCompanyEmail);
             
         } catch (Exception e) {
             System.out.println(" Failed to send email: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            event.commit();
+        }
+    }
+
+    public void sendSlaEscalationNotification(Long ticketId, String requesterName, String subject,
+                                              String priority, String assignedPerson) {
+        EmailSendEvent event = EmailSendEvent.start("sla-escalation");
+        try {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(itCompanyEmail);
+            message.setSubject(" SLA Breached: Ticket #" + ticketId + " - " + subject);
+            message.setText(
+                "A ticket has passed its SLA deadline and was escalated:\n\n" +
+                " Ticket: #" + ticketId + "\n" +
+                " Requester: " + requesterName + "\n" +
+                " Subject: " + subject + "\n" +
+                " Priority: " + priority + "\n" +
+                " Assigned to: " + (assignedPerson == null || assignedPerson.isEmpty() ? "nobody" : assignedPerson) + "\n\n" +
+                " Escalated: " + java.time.LocalDateTime.now() + "\n\n" +
+                "Please pick up this ticket as soon as possible."
+            );
+
+            mailSender.send(message);
+            event.setSucceeded(true);
+            System.out.println("SLA escalation email sent for ticket #" + ticketId);
+
+        } catch (Exception e) {
+            System.out.println(" Failed to send email: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            event.commit();
         }
     }
 }
\ No newline at end of file
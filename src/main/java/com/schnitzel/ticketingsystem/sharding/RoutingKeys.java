@@ -0,0 +1,105 @@
+package com.schnitzel.ticketingsystem.sharding;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routing key of a new ticket: the site its requester is at, from the client
+ * IP. sharding.sites maps IPv4 subnets to sites, ex.
+ * "10.1.0.0/16=manila,10.2.0.0/16=cebu" (first match wins). Other IPv4
+ * clients are keyed by their /24, and clients without one share "default".
+ */
+@Component
+public class RoutingKeys {
+
+    public static final String DEFAULT_KEY = "default";
+
+    @Value("${sharding.sites:}")
+    private List<String> siteSpecs;
+
+    private static final class Site {
+        final int network;
+        final int mask;
+        final String name;
+
+        Site(int network, int mask, String name) {
+            this.network = network;
+            this.mask = mask;
+            this.name = name;
+        }
+    }
+
+    private final List<Site> sites = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        for (String spec : siteSpecs) {
+            if (spec.isBlank()) {
+                continue;
+            }
+            int equals = spec.indexOf('=');
+            int slash = spec.indexOf('/');
+            if (equals < 0 || slash < 0 || slash > equals) {
+                throw new IllegalArgumentException("Invalid sharding.sites entry (expected a.b.c.d/bits=site): " + spec);
+            }
+            Integer address = parseIpv4(spec.substring(0, slash).trim());
+            int bits = Integer.parseInt(spec.substring(slash + 1, equals).trim());
+            String name = spec.substring(equals + 1).trim();
+            if (address == null || bits < 0 || bits > 32 || name.isEmpty()) {
+                throw new IllegalArgumentException("Invalid sharding.sites entry (expected a.b.c.d/bits=site): " + spec);
+            }
+            int mask = bits == 0 ? 0 : -1 << (32 - bits);
+            sites.add(new Site(address & mask, mask, name));
+        }
+    }
+
+    public String forClient(String clientIpAddress) {
+        Integer address = clientIpAddress != null ? parseIpv4(clientIpAddress.trim()) : null;
+        if (address == null) {
+            return DEFAULT_KEY;
+        }
+        for (Site site : sites) {
+            if ((address & site.mask) == site.network) {
+                return site.name;
+            }
+        }
+        return subnet(address);
+    }
+
+    /**
+     * The /24 network of an IPv4 address, ex. 10.1.2.0/24; null for anything else
+     */
+    public static String subnetOf(String clientIpAddress) {
+        Integer address = clientIpAddress != null ? parseIpv4(clientIpAddress.trim()) : null;
+        return address != null ? subnet(address) : null;
+    }
+
+    private static String subnet(int address) {
+        int subnet = address & 0xFFFFFF00;
+        return (subnet >>> 24) + "." + ((subnet >>> 16) & 0xFF) + "." + ((subnet >>> 8) & 0xFF) + ".0/24";
+    }
+
+    // Dotted quad only, never a host name lookup
+    static Integer parseIpv4(String value) {
+        String[] parts = value.split("\\.", -1);
+        if (parts.length != 4) {
+            return null;
+        }
+        int address = 0;
+        for (String part : parts) {
+            if (part.isEmpty() || part.length() > 3 || !part.chars().allMatch(Character::isDigit)) {
+                return null;
+            }
+            int octet = Integer.parseInt(part);
+            if (octet > 255) {
+                return null;
+            }
+            address = (address << 8) | octet;
+        }
+        return address;
+    }
+}
@@ -0,0 +1,30 @@
+package com.schnitzel.ticketingsystem.sharding;
+
+import jakarta.persistence.*;
+
+/**
+ * Which shard new tickets with a routing key go to. Lives on the home shard;
+ * written with native upserts (ShardAssignmentRepository), mapped for the schema.
+ */
+@Entity
+@Table(name = "shard_assignment")
+public class ShardAssignment {
+    @Id
+    @Column(name = "routing_key", length = 100)
+    private String routingKey;
+
+    @Column(name = "shard", nullable = false)
+    private int shard;
+
+    // Constructors
+    public ShardAssignment() {}
+
+    // Getters
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+}
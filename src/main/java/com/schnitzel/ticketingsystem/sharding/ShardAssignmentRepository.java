@@ -0,0 +1,21 @@
+package com.schnitzel.ticketingsystem.sharding;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ShardAssignmentRepository extends JpaRepository<ShardAssignment, String> {
+
+    // First assignment of a key; another instance may have assigned it already, re-read after
+    @Modifying
+    @Query(value = "INSERT INTO shard_assignment (routing_key, shard) VALUES (:routingKey, :shard) " +
+                   "ON CONFLICT (routing_key) DO NOTHING", nativeQuery = true)
+    int assignIfAbsent(String routingKey, int shard);
+
+    @Modifying
+    @Query(value = "INSERT INTO shard_assignment (routing_key, shard) VALUES (:routingKey, :shard) " +
+                   "ON CONFLICT (routing_key) DO UPDATE SET shard = :shard", nativeQuery = true)
+    int reassign(String routingKey, int shard);
+}
@@ -0,0 +1,38 @@
+package com.schnitzel.ticketingsystem.sharding;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+// Admin only (AuthInterceptor): moving a routing key moves its tickets between databases
+@RestController
+@RequestMapping("/api/shards")
+public class ShardController {
+
+    @Autowired
+    private ShardRebalancer rebalancer;
+
+    @GetMapping
+    public ResponseEntity<List<ShardStatus>> getShards() {
+        return ResponseEntity.ok(rebalancer.status());
+    }
+
+    // Rebalancing, ex. POST /api/shards/move?routingKey=cebu&to=2
+    @PostMapping("/move")
+    public ResponseEntity<Map<String, Object>> move(@RequestParam String routingKey, @RequestParam int to) {
+        try {
+            int moved = rebalancer.move(routingKey, to);
+            return ResponseEntity.ok(Map.of("routingKey", routingKey, "shard", to, "moved", moved,
+                                            "relocatedTickets", rebalancer.relocatedTickets()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
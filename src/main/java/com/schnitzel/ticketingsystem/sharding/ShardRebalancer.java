@@ -0,0 +1,144 @@
+package com.schnitzel.ticketingsystem.sharding;
+
+import com.schnitzel.ticketingsystem.cache.CacheRegion;
+import com.schnitzel.ticketingsystem.cache.ResponseCache;
+import com.schnitzel.ticketingsystem.journal.TicketChangeJournal;
+import com.schnitzel.ticketingsystem.journal.TicketChangeType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves a routing key, and its tickets, to another shard.
+ *
+ * The key is reassigned first, so new tickets already go to the target. Then
+ * tickets are copied over in batches with their ids unchanged: the batch is
+ * locked on the source, inserted on the target, recorded as relocated and
+ * only then deleted from the source. A writer that waited on the lock finds
+ * the ticket gone and the next lookup goes to the target. An interrupted move
+ * can simply be run again (the insert skips rows already copied).
+ */
+@Service
+public class ShardRebalancer {
+
+    @Autowired
+    private TicketShards ticketShards;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TicketChangeJournal changeJournal;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Value("${sharding.move-batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Move the key's tickets to target; returns how many moved
+     */
+    public synchronized int move(String routingKey, int target) {
+        if (routingKey == null || routingKey.isBlank()) {
+            throw new IllegalArgumentException("Routing key is required");
+        }
+        if (target < 0 || target >= ticketShards.count()) {
+            throw new IllegalArgumentException("No shard " + target + " (" + ticketShards.count() + " configured)");
+        }
+
+        ticketShards.assign(routingKey, target);
+        int moved = 0;
+        for (int source = 0; source < ticketShards.count(); source++) {
+            if (source == target) {
+                continue;
+            }
+            int batch;
+            do {
+                batch = moveBatch(routingKey, source, target);
+                moved += batch;
+            } while (batch == batchSize);
+        }
+        if (moved > 0) {
+            responseCache.invalidate(CacheRegion.TICKETS);
+            System.out.println("Moved " + moved + " tickets of " + routingKey + " to shard " + target);
+        }
+        return moved;
+    }
+
+    public List<ShardStatus> status() {
+        Map<String, Integer> assignments = ticketShards.assignments();
+        List<List<Long>> counts = ticketShards.gather(true, shard -> List.of(
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ticket", Long.class)));
+
+        List<ShardStatus> status = new ArrayList<>();
+        for (int shard = 0; shard < ticketShards.count(); shard++) {
+            List<String> keys = new ArrayList<>();
+            for (Map.Entry<String, Integer> assignment : assignments.entrySet()) {
+                if (assignment.getValue() == shard) {
+                    keys.add(assignment.getKey());
+                }
+            }
+            Collections.sort(keys);
+            status.add(new ShardStatus(shard, counts.get(shard).get(0), keys));
+        }
+        return status;
+    }
+
+    public int relocatedTickets() {
+        return ticketShards.relocatedTickets();
+    }
+
+    private int moveBatch(String routingKey, int source, int target) {
+        List<Long> ticketIds = new ArrayList<>();
+        ticketShards.inTransaction(source, false, () -> {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT * FROM ticket WHERE routing_key = ? ORDER BY ticket_id LIMIT ? FOR UPDATE",
+                    routingKey, batchSize);
+            if (rows.isEmpty()) {
+                return;
+            }
+            rows.forEach(row -> ticketIds.add(((Number) row.get("ticket_id")).longValue()));
+
+            ticketShards.inTransaction(target, false, () -> {
+                insert(rows);
+            });
+            ticketShards.relocate(ticketIds, target);
+
+            String placeholders = String.join(",", Collections.nCopies(ticketIds.size(), "?"));
+            jdbcTemplate.update("DELETE FROM ticket WHERE ticket_id IN (" + placeholders + ")", ticketIds.toArray());
+            // Delta sync clients of the source drop the tickets, those of the target pick them up
+            ticketIds.forEach(ticketId -> changeJournal.record(ticketId, TicketChangeType.DELETE));
+        });
+
+        if (!ticketIds.isEmpty()) {
+            ticketShards.inTransaction(target, false, () -> {
+                ticketIds.forEach(ticketId -> changeJournal.record(ticketId, TicketChangeType.CREATE));
+            });
+        }
+        return ticketIds.size();
+    }
+
+    // Same columns on every shard, so the rows are copied as they are (compressed text included)
+    private void insert(List<Map<String, Object>> rows) {
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        String sql = "INSERT INTO ticket (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ") "
+                + "ON CONFLICT (ticket_id) DO NOTHING";
+        List<Object[]> values = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Object[] value = new Object[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                value[i] = row.get(columns.get(i));
+            }
+            values.add(value);
+        }
+        jdbcTemplate.batchUpdate(sql, values);
+    }
+}
@@ -0,0 +1,31 @@
+package com.schnitzel.ticketingsystem.sharding;
+
+import java.util.List;
+
+/**
+ * One shard: how many tickets it holds and the routing keys assigned to it
+ */
+public class ShardStatus {
+
+    private final int shard;
+    private final long tickets;
+    private final List<String> routingKeys;
+
+    public ShardStatus(int shard, long tickets, List<String> routingKeys) {
+        this.shard = shard;
+        this.tickets = tickets;
+        this.routingKeys = routingKeys;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public long getTickets() {
+        return tickets;
+    }
+
+    public List<String> getRoutingKeys() {
+        return routingKeys;
+    }
+}
@@ -0,0 +1,30 @@
+package com.schnitzel.ticketingsystem.sharding;
+
+import jakarta.persistence.*;
+
+/**
+ * A ticket the rebalancer moved away from the shard its id was issued on.
+ * Lives on the home shard; written with native upserts, mapped for the schema.
+ */
+@Entity
+@Table(name = "ticket_relocation")
+public class TicketRelocation {
+    @Id
+    @Column(name = "ticket_id")
+    private Long ticketId;
+
+    @Column(name = "shard", nullable = false)
+    private int shard;
+
+    // Constructors
+    public TicketRelocation() {}
+
+    // Getters
+    public Long getTicketId() {
+        return ticketId;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+}
@@ -0,0 +1,22 @@
+package com.schnitzel.ticketingsystem.sharding;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface TicketRelocationRepository extends JpaRepository<TicketRelocation, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO ticket_relocation (ticket_id, shard) VALUES (:ticketId, :shard) " +
+                   "ON CONFLICT (ticket_id) DO UPDATE SET shard = :shard", nativeQuery = true)
+    int relocate(Long ticketId, int shard);
+
+    // Back on the shard of its id, no entry needed
+    @Modifying
+    @Query("DELETE FROM TicketRelocation r WHERE r.ticketId IN :ticketIds")
+    int deleteByTicketIdIn(Collection<Long> ticketIds);
+}
@@ -0,0 +1,401 @@
+package com.schnitzel.ticketingsystem.sharding;
+
+import com.schnitzel.ticketingsystem.datasource.ShardContext;
+import com.schnitzel.ticketingsystem.datasource.ShardRoutingDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Tickets spread over the shard databases (see ShardingConfig) by routing key.
+ *
+ * Ids stay globally unique: shard n issues ticket ids from n << 48 up, so the
+ * home shard keeps its existing ids and every id stays below 2^53 for
+ * JavaScript clients. A ticket is on the shard its id names unless the
+ * rebalancer moved it (ticket_relocation), so an id lookup is one shard.
+ * Lists ask every shard in parallel and merge the sorted results.
+ *
+ * With a single database everything here is a plain transaction on it.
+ */
+@Service
+public class TicketShards {
+
+    public static final int ID_BITS = 48;
+    public static final int MAX_SHARDS = 32;
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private TicketRelocationRepository relocationRepository;
+
+    @Value("${sharding.gather-threads:8}")
+    private int gatherThreads;
+
+    @Value("${sharding.gather-timeout-ms:30000}")
+    private long gatherTimeoutMs;
+
+    // Caches of the home shard tables, refreshed for changes made by other instances
+    private final Map<String, Integer> assignments = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> relocations = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        int count = count();
+        if (count > MAX_SHARDS) {
+            throw new IllegalStateException(count + " shards configured, ticket ids have room for " + MAX_SHARDS);
+        }
+        if (count == 1) {
+            return;
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(gatherThreads, gatherThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(gatherThreads * 32),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "shard-gather-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        for (int shard = 0; shard < count; shard++) {
+            reserveIdRange(shard);
+        }
+        refresh();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${sharding.refresh-ms:30000}", initialDelayString = "${sharding.refresh-ms:30000}")
+    public void refresh() {
+        if (!isSharded()) {
+            return;
+        }
+        Map<String, Integer> freshAssignments = new HashMap<>();
+        Map<Long, Integer> freshRelocations = new HashMap<>();
+        inTransaction(ShardContext.HOME, true, () -> {
+            assignmentRepository.findAll().forEach(a -> freshAssignments.put(a.getRoutingKey(), a.getShard()));
+            relocationRepository.findAll().forEach(r -> freshRelocations.put(r.getTicketId(), r.getShard()));
+        });
+        assignments.putAll(freshAssignments);
+        assignments.keySet().retainAll(freshAssignments.keySet());
+        relocations.putAll(freshRelocations);
+        relocations.keySet().retainAll(freshRelocations.keySet());
+    }
+
+    public int count() {
+        return shardRoutingDataSource.size();
+    }
+
+    public boolean isSharded() {
+        return count() > 1;
+    }
+
+    /**
+     * Shard for new tickets with this routing key. A key seen for the first
+     * time is assigned by hash and recorded, so adding shards later only
+     * spreads new keys; existing ones move with the rebalancer.
+     */
+    public int shardFor(String routingKey) {
+        if (!isSharded()) {
+            return ShardContext.HOME;
+        }
+        Integer known = assignments.get(routingKey);
+        if (known != null) {
+            return known;
+        }
+
+        int hashed = Math.floorMod(routingKey.hashCode(), count());
+        int shard = inTransaction(ShardContext.HOME, false, () -> {
+            assignmentRepository.assignIfAbsent(routingKey, hashed);
+            return assignmentRepository.findById(routingKey).map(ShardAssignment::getShard).orElse(hashed);
+        });
+        checkShard(shard);
+        assignments.put(routingKey, shard);
+        return shard;
+    }
+
+    /**
+     * Shard holding the ticket (home for null, as for new tickets without a key)
+     */
+    public int shardOf(Long ticketId) {
+        if (!isSharded() || ticketId == null) {
+            return ShardContext.HOME;
+        }
+        Integer moved = relocations.get(ticketId);
+        if (moved != null) {
+            return moved;
+        }
+        int issued = issuingShard(ticketId);
+        return issued < count() ? issued : ShardContext.HOME;
+    }
+
+    public static int issuingShard(long ticketId) {
+        return (int) (ticketId >>> ID_BITS);
+    }
+
+    /**
+     * Run work in a transaction on shard: joins the current transaction when it
+     * is on that shard already (and can write, if work writes), otherwise
+     * suspends it for a new one.
+     */
+    public <T> T inTransaction(int shard, boolean readOnly, Supplier<T> work) {
+        boolean active = TransactionSynchronizationManager.isActualTransactionActive();
+        if (active && ShardContext.current() == shard
+                && (readOnly || !TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+            return work.get();
+        }
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        template.setPropagationBehavior(active ? TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                                               : TransactionDefinition.PROPAGATION_REQUIRED);
+        return ShardContext.call(shard, () -> template.execute(status -> work.get()));
+    }
+
+    public void inTransaction(int shard, boolean readOnly, Runnable work) {
+        inTransaction(shard, readOnly, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Call work with shard set, for services that start their own transaction (not inside another one)
+     */
+    public <T> T on(int shard, Supplier<T> work) {
+        return ShardContext.call(shard, work);
+    }
+
+    /**
+     * Run query on every shard, each in its own transaction, and return the
+     * results in shard order. The home shard runs on the calling thread, the
+     * others in parallel on the gather pool.
+     */
+    public <T> List<List<T>> gather(boolean readOnly, IntFunction<List<T>> query) {
+        int count = count();
+        if (count == 1) {
+            return List.of(inTransaction(ShardContext.HOME, readOnly, () -> query.apply(ShardContext.HOME)));
+        }
+
+        List<Future<List<T>>> futures = new ArrayList<>();
+        for (int shard = 1; shard < count; shard++) {
+            int target = shard;
+            futures.add(executor.submit(() -> inTransaction(target, readOnly, () -> query.apply(target))));
+        }
+        List<List<T>> results = new ArrayList<>(count);
+        try {
+            results.add(inTransaction(ShardContext.HOME, readOnly, () -> query.apply(ShardContext.HOME)));
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(gatherTimeoutMs);
+            for (Future<List<T>> future : futures) {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            return results;
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Shard query timed out after " + gatherTimeoutMs + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    // gather, for callers that do not care about order
+    public <T> List<T> gatherAll(boolean readOnly, IntFunction<List<T>> query) {
+        List<T> all = new ArrayList<>();
+        gather(readOnly, query).forEach(all::addAll);
+        return all;
+    }
+
+    /**
+     * Merge lists that are each sorted by order: skip the first skip elements,
+     * then take up to limit
+     */
+    public static <T> List<T> merge(List<List<T>> sorted, Comparator<? super T> order, long skip, int limit) {
+        if (sorted.size() == 1 && skip == 0 && sorted.get(0).size() <= limit) {
+            return sorted.get(0);
+        }
+
+        // Heads of the lists as {list, position}, smallest element first
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+                (a, b) -> order.compare(sorted.get(a[0]).get(a[1]), sorted.get(b[0]).get(b[1])));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (!sorted.get(i).isEmpty()) {
+                heads.add(new int[] {i, 0});
+            }
+        }
+
+        List<T> merged = new ArrayList<>();
+        long seen = 0;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<T> list = sorted.get(head[0]);
+            if (seen++ >= skip) {
+                merged.add(list.get(head[1]));
+            }
+            if (head[1] + 1 < list.size()) {
+                heads.add(new int[] {head[0], head[1] + 1});
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Order of a Sort on bean properties, as PostgreSQL sorts: nulls count as
+     * larger than any value unless the Sort says otherwise
+     */
+    public static <T> Comparator<T> comparator(Sort sort) {
+        Comparator<T> order = (a, b) -> 0;
+        for (Sort.Order sortOrder : sort) {
+            Comparator<Object> values = (a, b) -> sortOrder.isIgnoreCase() && a instanceof String && b instanceof String
+                    ? String.CASE_INSENSITIVE_ORDER.compare((String) a, (String) b)
+                    : compareValues(a, b);
+            if (sortOrder.isDescending()) {
+                values = values.reversed();
+            }
+            boolean nullsFirst = sortOrder.getNullHandling() == Sort.NullHandling.NATIVE
+                    ? sortOrder.isDescending()
+                    : sortOrder.getNullHandling() == Sort.NullHandling.NULLS_FIRST;
+            values = nullsFirst ? Comparator.nullsFirst(values) : Comparator.nullsLast(values);
+
+            Comparator<Object> byProperty = values;
+            String property = sortOrder.getProperty();
+            order = order.thenComparing((a, b) -> byProperty.compare(
+                    new BeanWrapperImpl(a).getPropertyValue(property),
+                    new BeanWrapperImpl(b).getPropertyValue(property)));
+        }
+        return order;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValues(Object a, Object b) {
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    // Directory changes, for the rebalancer
+
+    Map<String, Integer> assignments() {
+        return new HashMap<>(assignments);
+    }
+
+    int relocatedTickets() {
+        return relocations.size();
+    }
+
+    void assign(String routingKey, int shard) {
+        checkShard(shard);
+        inTransaction(ShardContext.HOME, false, () -> {
+            assignmentRepository.reassign(routingKey, shard);
+        });
+        assignments.put(routingKey, shard);
+    }
+
+    void relocate(Collection<Long> ticketIds, int shard) {
+        List<Long> back = new ArrayList<>();
+        inTransaction(ShardContext.HOME, false, () -> {
+            for (Long ticketId : ticketIds) {
+                if (issuingShard(ticketId) == shard) {
+                    back.add(ticketId);
+                } else {
+                    relocationRepository.relocate(ticketId, shard);
+                }
+            }
+            if (!back.isEmpty()) {
+                relocationRepository.deleteByTicketIdIn(back);
+            }
+        });
+        for (Long ticketId : ticketIds) {
+            if (back.contains(ticketId)) {
+                relocations.remove(ticketId);
+            } else {
+                relocations.put(ticketId, shard);
+            }
+        }
+    }
+
+    /*
+     * Point the shard's ticket id sequence at its own range. Idempotent: a
+     * sequence already in range keeps its position, so running instances are
+     * not disturbed; one outside (a new shard) restarts after the highest id
+     * in range.
+     */
+    private void reserveIdRange(int shard) {
+        long first = shard == ShardContext.HOME ? 1 : (long) shard << ID_BITS;
+        long last = ((long) (shard + 1) << ID_BITS) - 1;
+        try {
+            inTransaction(shard, false, () -> {
+                String sequence = jdbcTemplate.queryForObject(
+                        "SELECT pg_get_serial_sequence('ticket', 'ticket_id')", String.class);
+                Long position = jdbcTemplate.queryForObject("SELECT last_value FROM " + sequence, Long.class);
+                String range = "ALTER SEQUENCE " + sequence + " MINVALUE " + first + " MAXVALUE " + last + " START WITH " + first;
+                if (position != null && position >= first && position <= last) {
+                    jdbcTemplate.execute(range);
+                    return;
+                }
+                Long highest = jdbcTemplate.queryForObject(
+                        "SELECT MAX(ticket_id) FROM ticket WHERE ticket_id BETWEEN ? AND ?", Long.class, first, last);
+                jdbcTemplate.execute(range + " RESTART WITH " + (highest != null ? highest + 1 : first));
+                System.out.println("Shard " + shard + " issues ticket ids from " + first);
+            });
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Shard " + shard + " has no usable ticket table; "
+                    + "create its schema with scripts/shard-schema.sh", e);
+        }
+    }
+
+    private void checkShard(int shard) {
+        if (shard < 0 || shard >= count()) {
+            throw new IllegalStateException("Shard " + shard + " is not configured (" + count() + " shards)");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.schnitzel.ticketingsystem.sla;
+
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.TicketPriority;
+import com.schnitzel.ticketingsystem.TicketRepository;
+import com.schnitzel.ticketingsystem.cache.CacheRegion;
+import com.schnitzel.ticketingsystem.cache.ResponseCache;
+import com.schnitzel.ticketingsystem.journal.TicketChangeJournal;
+import com.schnitzel.ticketingsystem.journal.TicketChangeType;
+import com.schnitzel.ticketingsystem.service.EmailService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * What happens when a ticket misses its SLA: priority goes up one level, the
+ * ticket optionally moves to the escalation assignee, IT gets an email and a
+ * new deadline starts for the new priority.
+ */
+@Service
+public class SlaEscalationService {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private SlaPolicy slaPolicy;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private TicketChangeJournal changeJournal;
+
+    // Who takes over overdue tickets (ex. the team lead); empty keeps the current assignee
+    @Value("${sla.escalation-assignee:}")
+    private String escalationAssignee;
+
+    /**
+     * Escalate the ticket if it is still open and overdue. Returns the ticket
+     * when it needs a new timer, empty when it no longer has a deadline.
+     * The row is locked, so when several nodes' timers fire for the same
+     * ticket the later ones wait, then find the new deadline and back off.
+     */
+    @Transactional
+    public Optional<Ticket> escalate(Long ticketId) {
+        Optional<Ticket> found = ticketRepository.findByIdForUpdate(ticketId);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        Ticket ticket = found.get();
+        if (ticket.getTicketStatus() != null && !ticket.getTicketStatus().isOpen()) {
+            return Optional.empty();
+        }
+
+        // No stored deadline: a ticket from before SLA tracking whose startup timer ran out
+        LocalDateTime now = LocalDateTime.now();
+        if (ticket.getSlaDueAt() != null && ticket.getSlaDueAt().isAfter(now)) {
+            return Optional.of(ticket); // deadline moved since the timer was set
+        }
+
+        TicketPriority current = ticket.getPriority() != null ? ticket.getPriority() : TicketPriority.MEDIUM;
+        TicketPriority next = current.escalate();
+        ticket.setPriority(next);
+        ticket.setSlaDueAt(slaPolicy.dueAt(next, now));
+        if (!escalationAssignee.isBlank()) {
+            ticket.setAssignedPerson(escalationAssignee.trim());
+            ticket.setClaimExpiresAt(null);
+        }
+
+        ticketRepository.save(ticket);
+        responseCache.invalidate(CacheRegion.TICKETS);
+        changeJournal.record(ticketId, TicketChangeType.UPDATE);
+
+        System.out.println("SLA breached for ticket #" + ticketId + ": " + current + " -> " + next);
+        Long id = ticket.getTicketId();
+        String fullName = ticket.getFullName();
+        String subject = ticket.getSubject();
+        String assignedPerson = ticket.getAssignedPerson();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                emailService.sendSlaEscalationNotification(id, fullName, subject, next.name(), assignedPerson);
+            }
+        });
+        return Optional.of(ticket);
+    }
+}
@@ -0,0 +1,62 @@
+package com.schnitzel.ticketingsystem.sla;
+
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.TicketPriority;
+import com.schnitzel.ticketingsystem.TicketStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * How long a ticket may wait at each priority before it is escalated
+ */
+@Component
+public class SlaPolicy {
+
+    @Value("${sla.hours.low:72}")
+    private long lowHours;
+
+    @Value("${sla.hours.medium:24}")
+    private long mediumHours;
+
+    @Value("${sla.hours.high:8}")
+    private long highHours;
+
+    @Value("${sla.hours.urgent:2}")
+    private long urgentHours;
+
+    public LocalDateTime dueAt(TicketPriority priority, LocalDateTime from) {
+        switch (priority != null ? priority : TicketPriority.MEDIUM) {
+            case LOW:
+                return from.plusHours(lowHours);
+            case HIGH:
+                return from.plusHours(highHours);
+            case URGENT:
+                return from.plusHours(urgentHours);
+            default:
+                return from.plusHours(mediumHours);
+        }
+    }
+
+    /**
+     * Set the ticket's deadline after a change. The clock starts at creation, restarts on
+     * a priority change or when the ticket is reopened, and stops once it is resolved or closed.
+     * Pass null for both "before" values on a new ticket.
+     */
+    public void updateDeadline(Ticket ticket, TicketStatus statusBefore, TicketPriority priorityBefore) {
+        boolean open = ticket.getTicketStatus() == null || ticket.getTicketStatus().isOpen();
+        if (!open) {
+            ticket.setSlaDueAt(null);
+            return;
+        }
+
+        boolean isNew = statusBefore == null;
+        if (isNew) {
+            LocalDateTime from = ticket.getRequestedTime() != null ? ticket.getRequestedTime() : LocalDateTime.now();
+            ticket.setSlaDueAt(dueAt(ticket.getPriority(), from));
+        } else if (!statusBefore.isOpen() || ticket.getPriority() != priorityBefore || ticket.getSlaDueAt() == null) {
+            ticket.setSlaDueAt(dueAt(ticket.getPriority(), LocalDateTime.now()));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.schnitzel.ticketingsystem.sla;
+
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.TicketPriority;
+import com.schnitzel.ticketingsystem.TicketRepository;
+import com.schnitzel.ticketingsystem.TicketStatus;
+import com.schnitzel.ticketingsystem.cache.CacheRegion;
+import com.schnitzel.ticketingsystem.cache.ResponseCache;
+import com.schnitzel.ticketingsystem.journal.TicketChangeJournal;
+import com.schnitzel.ticketingsystem.journal.TicketChangeType;
+import com.schnitzel.ticketingsystem.sharding.TicketShards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One in-memory SLA timer per open ticket, kept in a timing wheel instead of
+ * polling the ticket table for overdue rows. Timers are re-armed from the
+ * sla_due_at column on startup.
+ */
+@Service
+public class SlaScheduler {
+
+    private static final Set<TicketStatus> OPEN_STATUSES = EnumSet.of(TicketStatus.OPEN, TicketStatus.IN_PROGRESS);
+    private static final long RETRY_MILLIS = 60_000;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private SlaPolicy slaPolicy;
+
+    @Autowired
+    private SlaEscalationService escalationService;
+
+    @Autowired
+    private TicketShards ticketShards;
+
+    @Autowired
+    private TicketChangeJournal changeJournal;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Value("${sla.enabled:true}")
+    private boolean enabled;
+
+    private final TimingWheel<Long> wheel = new TimingWheel<>(1000, System.currentTimeMillis());
+
+    /**
+     * Re-arm all timers. Open tickets from before SLA tracking get a deadline
+     * counted from now, so the first startup does not escalate the whole backlog.
+     * That deadline is stored, so later restarts do not push it back again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rehydrate() {
+        if (!enabled) {
+            return;
+        }
+
+        wheel.clear();
+        LocalDateTime now = LocalDateTime.now();
+        int armed = 0;
+        int initialized = 0;
+        for (int shard = 0; shard < ticketShards.count(); shard++) {
+            List<Object[]> rows = ticketShards.inTransaction(shard, true,
+                    () -> ticketRepository.findSlaTimers(OPEN_STATUSES));
+            Map<Long, LocalDateTime> legacy = new LinkedHashMap<>();
+            for (Object[] row : rows) {
+                Long ticketId = (Long) row[0];
+                LocalDateTime dueAt = (LocalDateTime) row[1];
+                if (dueAt == null) {
+                    LocalDateTime requestedTime = (LocalDateTime) row[2];
+                    LocalDateTime from = requestedTime != null && requestedTime.isAfter(now) ? requestedTime : now;
+                    dueAt = slaPolicy.dueAt((TicketPriority) row[3], from);
+                    legacy.put(ticketId, dueAt);
+                }
+                wheel.schedule(ticketId, toMillis(dueAt));
+            }
+            if (!legacy.isEmpty()) {
+                ticketShards.inTransaction(shard, false, () -> legacy.forEach((ticketId, dueAt) -> {
+                    if (ticketRepository.initSlaDueAt(ticketId, dueAt) > 0) {
+                        changeJournal.record(ticketId, TicketChangeType.UPDATE);
+                    }
+                }));
+                initialized += legacy.size();
+            }
+            armed += rows.size();
+        }
+        if (initialized > 0) {
+            responseCache.invalidate(CacheRegion.TICKETS);
+        }
+        System.out.println("SLA timers armed for " + armed + " open tickets, " + initialized + " first deadlines stored");
+    }
+
+    /**
+     * Arm, move or cancel the ticket's timer to match its sla_due_at.
+     * Inside a transaction this happens after commit.
+     */
+    public void track(Ticket ticket) {
+        Long ticketId = ticket.getTicketId();
+        LocalDateTime dueAt = ticket.getSlaDueAt();
+        boolean open = ticket.getTicketStatus() == null || ticket.getTicketStatus().isOpen();
+        afterCommit(() -> {
+            if (open && dueAt != null) {
+                wheel.schedule(ticketId, toMillis(dueAt));
+            } else {
+                wheel.cancel(ticketId);
+            }
+        });
+    }
+
+    public void cancel(Long ticketId) {
+        afterCommit(() -> wheel.cancel(ticketId));
+    }
+
+    public int activeTimers() {
+        return wheel.size();
+    }
+
+    @Scheduled(fixedDelayString = "${sla.tick-ms:1000}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+
+        for (Long ticketId : wheel.advance(System.currentTimeMillis())) {
+            try {
+                // escalate runs its own transaction, on the ticket's shard
+                ticketShards.on(ticketShards.shardOf(ticketId), () -> escalationService.escalate(ticketId))
+                        .ifPresent(this::track);
+            } catch (RuntimeException e) {
+                // Database hiccup: try again later instead of losing the timer
+                System.out.println("SLA escalation failed for ticket #" + ticketId + ": " + e.getMessage());
+                wheel.schedule(ticketId, System.currentTimeMillis() + RETRY_MILLIS);
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+            return;
+        }
+        action.run();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,161 @@
+package com.schnitzel.ticketingsystem.sla;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel (Varghese & Lauck, as in the classic Linux timer wheel).
+ *
+ * LEVELS wheels of 64 slots; level n holds timers due within 64^(n+1) ticks, so
+ * 5 levels cover 2^30 ticks (34 years at one second per tick). Schedule and
+ * cancel are O(1): a timer is a node in a doubly linked slot list, found by key.
+ * Timers on the higher levels cascade down one level each time the level below
+ * wraps around, and fire from level 0.
+ *
+ * All public methods are synchronized; advance is called from one scheduler thread.
+ */
+public class TimingWheel<K> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+    private static final long MAX_DELAY_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private static final class Timer<K> {
+        final K key;
+        long expiresTick;
+        Timer<K> prev;
+        Timer<K> next;
+
+        Timer(K key) {
+            this.key = key;
+        }
+    }
+
+    private final long tickMillis;
+    private final Timer<K>[][] wheels;
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private long currentTick; // next tick to process
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new Timer[LEVELS][SLOTS];
+        for (Timer<K>[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Timer<K> sentinel = new Timer<>(null);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                wheel[slot] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Set (or move) the timer for key. A time in the past fires on the next advance.
+     */
+    public synchronized void schedule(K key, long expiresAtMillis) {
+        Timer<K> timer = timers.get(key);
+        if (timer == null) {
+            timer = new Timer<>(key);
+            timers.put(key, timer);
+        } else {
+            unlink(timer);
+        }
+        timer.expiresTick = Math.max(expiresAtMillis / tickMillis, currentTick);
+        insert(timer);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        unlink(timer);
+        return true;
+    }
+
+    /**
+     * Move the wheel up to now and return the keys of all timers that expired, in order
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        long nowTick = nowMillis / tickMillis;
+        while (currentTick <= nowTick) {
+            int slot = (int) (currentTick & SLOT_MASK);
+            // Level 0 wrapped: pull the next slot of each level down, as far as they wrap too
+            if (slot == 0) {
+                for (int level = 1; level < LEVELS && cascade(level) == 0; level++) {
+                    // keep cascading
+                }
+            }
+            currentTick++;
+
+            Timer<K> sentinel = wheels[0][slot];
+            while (sentinel.next != sentinel) {
+                Timer<K> timer = sentinel.next;
+                unlink(timer);
+                timers.remove(timer.key);
+                expired.add(timer.key);
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    public synchronized void clear() {
+        for (K key : new ArrayList<>(timers.keySet())) {
+            cancel(key);
+        }
+    }
+
+    // Re-file every timer of the level's current slot; returns that slot index
+    private int cascade(int level) {
+        int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        Timer<K> sentinel = wheels[level][slot];
+        while (sentinel.next != sentinel) {
+            Timer<K> timer = sentinel.next;
+            unlink(timer);
+            insert(timer);
+        }
+        return slot;
+    }
+
+    private void insert(Timer<K> timer) {
+        long filedTick = timer.expiresTick;
+        long delay = filedTick - currentTick;
+        if (delay > MAX_DELAY_TICKS) {
+            // Out of range: park it in the farthest slot, it is re-filed when that slot cascades
+            filedTick = currentTick + MAX_DELAY_TICKS;
+            delay = MAX_DELAY_TICKS;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) ((filedTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        Timer<K> sentinel = wheels[level][slot];
+        timer.prev = sentinel.prev;
+        timer.next = sentinel;
+        sentinel.prev.next = timer;
+        sentinel.prev = timer;
+    }
+
+    private static <K> void unlink(Timer<K> timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+            timer.next.prev = timer.prev;
+            timer.prev = null;
+            timer.next = null;
+        }
+    }
+}
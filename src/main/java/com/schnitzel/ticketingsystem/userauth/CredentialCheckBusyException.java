@@ -0,0 +1,13 @@
+package com.schnitzel.ticketingsystem.userauth;
+
+/**
+ * Too many password checks in flight; the caller should ask the user to retry
+ */
+public class CredentialCheckBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CredentialCheckBusyException() {
+        super("Too many sign-in attempts at once, please try again");
+    }
+}
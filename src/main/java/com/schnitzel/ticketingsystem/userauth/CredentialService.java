@@ -0,0 +1,164 @@
+package com.schnitzel.ticketingsystem.userauth;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Password hashing and verification (BCrypt).
+ *
+ * BCrypt is deliberately slow, so it runs on a small fixed pool with a bounded
+ * queue instead of request threads: a login storm queues up to the limit and
+ * is then rejected right away, while ticket endpoints keep their CPU.
+ * Plain text passwords from before hashing are replaced on the next good login.
+ */
+@Service
+public class CredentialService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    // 0 = half the cores
+    @Value("${auth.hash-threads:0}")
+    private int threads;
+
+    @Value("${auth.hash-queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${auth.hash-timeout-ms:3000}")
+    private long timeoutMs;
+
+    private ThreadPoolExecutor executor;
+    private String dummyHash;
+
+    private static final class Check {
+        final boolean matches;
+        final String newHash; // set when the stored value should be replaced
+
+        Check(boolean matches, String newHash) {
+            this.matches = matches;
+            this.newHash = newHash;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "credential-hash-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // Unknown emails still cost one hash, so response time does not reveal which emails exist
+        dummyHash = passwordEncoder.encode("not-a-real-password");
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The user if the password is right. Throws CredentialCheckBusyException when
+     * the hashing pool is saturated.
+     */
+    public Optional<User> authenticate(String email, String rawPassword) {
+        if (email == null || rawPassword == null) {
+            return Optional.empty();
+        }
+
+        Optional<User> found = userRepository.findByEmail(email);
+        String stored = found.map(User::getPassword).orElse(null);
+        Check check = run(() -> check(stored, rawPassword));
+        if (!check.matches || found.isEmpty()) {
+            return Optional.empty();
+        }
+
+        User user = found.get();
+        if (check.newHash != null) {
+            user.setPassword(check.newHash);
+            userRepository.save(user);
+            System.out.println("Password hash upgraded for user " + user.getId());
+        }
+        return found;
+    }
+
+    /**
+     * Hash a new password (on the hashing pool, same limits as sign-in)
+     */
+    public String hash(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public int queuedChecks() {
+        return executor.getQueue().size();
+    }
+
+    private Check check(String stored, String rawPassword) {
+        if (stored == null) {
+            passwordEncoder.matches(rawPassword, dummyHash);
+            return new Check(false, null);
+        }
+        if (isHashed(stored)) {
+            boolean matches = passwordEncoder.matches(rawPassword, stored);
+            // Rehash when the configured cost went up since this hash was made
+            boolean upgrade = matches && passwordEncoder.upgradeEncoding(stored);
+            return new Check(matches, upgrade ? passwordEncoder.encode(rawPassword) : null);
+        }
+
+        // Legacy plain text row
+        boolean matches = MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8),
+                                                rawPassword.getBytes(StandardCharsets.UTF_8));
+        return new Check(matches, matches ? passwordEncoder.encode(rawPassword) : null);
+    }
+
+    static boolean isHashed(String stored) {
+        return stored.length() == 60 &&
+               (stored.startsWith("$2a$") || stored.startsWith("$2b$") || stored.startsWith("$2y$"));
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new CredentialCheckBusyException();
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new CredentialCheckBusyException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CredentialCheckBusyException();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password check failed", e.getCause());
+        }
+    }
+}
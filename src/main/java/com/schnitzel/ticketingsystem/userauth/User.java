@@ -1,5 +1,6 @@
 package com.schnitzel.ticketingsystem.userauth;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 
 @Entity
@@ -12,6 +13,8 @@ public class User {
     @Column(name = "email", nullable = false, length = 255)
     private String email;
     
+    // BCrypt hash; accepted in request bodies but never written to JSON
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(name = "password", nullable = false, length = 255)
     private String password;
     
@@ -0,0 +1,23 @@
+package com.schnitzel.ticketingsystem.userauth;
+
+/**
+ * Published by UserService after a user is created, updated or deleted
+ */
+public class UserChangedEvent {
+
+    private final Long userId;
+    private final boolean deleted;
+
+    public UserChangedEvent(Long userId, boolean deleted) {
+        this.userId = userId;
+        this.deleted = deleted;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
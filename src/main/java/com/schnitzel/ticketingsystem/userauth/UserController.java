@@ -1,7 +1,14 @@
 package com.schnitzel.ticketingsystem.userauth;
 
+import com.schnitzel.ticketingsystem.cache.CacheRegion;
+import com.schnitzel.ticketingsystem.cache.ResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.HashMap;
@@ -14,10 +21,13 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ResponseCache responseCache;
+
     // GET all users
     @GetMapping
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    public void getAllUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        responseCache.serve("users:all", CacheRegion.USERS, userService::getAllUsers, request, response);
     }
 
     // GET user by ID
@@ -58,17 +68,24 @@ public class UserController {
 
     // VALIDATE user credentials
     @PostMapping("/validate")
-    public Map<String, Object> validateUser(@RequestBody Map<String, String> credentials) {
+    public ResponseEntity<Map<String, Object>> validateUser(@RequestBody Map<String, String> credentials) {
         String email = credentials.get("email");
         String password = credentials.get("password");
         
         Map<String, Object> response = new HashMap<>();
-        boolean isValid = userService.validateUser(email, password);
+        boolean isValid;
+        try {
+            isValid = userService.validateUser(email, password);
+        } catch (CredentialCheckBusyException e) {
+            response.put("valid", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "2").body(response);
+        }
         
         response.put("valid", isValid);
         response.put("message", isValid ? "User validated successfully" : "Invalid credentials");
         
-        return response;
+        return ResponseEntity.ok(response);
     }
 
     // DELETE user
@@ -1,7 +1,11 @@
 package com.schnitzel.ticketingsystem.userauth;
 
+import com.schnitzel.ticketingsystem.cache.CacheRegion;
+import com.schnitzel.ticketingsystem.cache.ResponseCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,70 +15,79 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
-    // Simple login validation - plain text comparison
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CredentialService credentialService;
+
+    // Login validation against the BCrypt hash (see CredentialService)
     public boolean validateUser(String email, String rawPassword) {
-        System.out.println("=== VALIDATING USER ===");
-        System.out.println("Email: " + email);
-        System.out.println("Password: " + rawPassword);
-        
-        Optional<User> userOpt = userRepository.findByEmail(email);
-        
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            System.out.println("User found: " + user.getEmail());
-            System.out.println("Stored password: " + user.getPassword());
-            
-            boolean matches = rawPassword.equals(user.getPassword());
-            System.out.println("Password matches: " + matches);
-            return matches;
-        } else {
-            System.out.println("User not found");
-            return false;
-        }
+        return authenticate(email, rawPassword).isPresent();
+    }
+
+    // The user if the credentials are right; throws CredentialCheckBusyException under overload
+    public Optional<User> authenticate(String email, String rawPassword) {
+        return credentialService.authenticate(email, rawPassword);
     }
 
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
 
-    // Create user - store plain text password
+    // Create user - password is stored hashed
     public User createUser(String email, String rawPassword, String fullName, String position, UserRole role) {
-        User user = new User(email, rawPassword, fullName, position, role);
-        return userRepository.save(user);
+        User user = new User(email, credentialService.hash(rawPassword), fullName, position, role);
+        User saved = userRepository.save(user);
+        responseCache.invalidate(CacheRegion.USERS);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), false));
+        return saved;
     }
 
-    // Get all users
+    // Get all users - feeds the response cache, so read-write (primary), never a lagging replica
+    @Transactional
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
     // Search users
+    @Transactional(readOnly = true)
     public List<User> searchUsers(String query) {
         return userRepository.searchUsers(query);
     }
 
     // Get user by ID
+    @Transactional(readOnly = true)
     public Optional<User> getUserById(Long id) {
         return userRepository.findById(id);
     }
 
-    // Update user - plain text password
+    // Update user - a new password is stored hashed
     public User updateUser(Long id, User updatedUser) {
         return userRepository.findById(id)
                 .map(user -> {
                     user.setEmail(updatedUser.getEmail());
                     if (updatedUser.getPassword() != null && !updatedUser.getPassword().isEmpty()) {
-                        user.setPassword(updatedUser.getPassword()); // Store plain text
+                        user.setPassword(credentialService.hash(updatedUser.getPassword()));
                     }
                     user.setFullName(updatedUser.getFullName());
                     user.setPosition(updatedUser.getPosition());
                     user.setRole(updatedUser.getRole());
-                    return userRepository.save(user);
+                    User saved = userRepository.save(user);
+                    responseCache.invalidate(CacheRegion.USERS);
+                    eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), false));
+                    return saved;
                 }).orElseThrow(() -> new RuntimeException("User not found"));
     }
 
     // Delete user
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        responseCache.invalidate(CacheRegion.USERS);
+        eventPublisher.publishEvent(new UserChangedEvent(id, true));
     }
 }
\ No newline at end of file
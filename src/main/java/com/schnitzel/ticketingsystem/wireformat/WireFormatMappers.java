@@ -0,0 +1,45 @@
+package com.schnitzel.ticketingsystem.wireformat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One ObjectMapper per WireFormat, all configured like the application's JSON
+ * mapper (Spring Boot's builder). Not beans themselves: a second ObjectMapper
+ * bean would switch off Boot's own.
+ */
+@Component
+public class WireFormatMappers {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+    private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+
+    @PostConstruct
+    public void init() {
+        mappers.put(WireFormat.JSON, objectMapper);
+        // Binary clients decode numbers faster than they parse date strings
+        mappers.put(WireFormat.SMILE, builders.getObject().factory(new SmileFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+        mappers.put(WireFormat.CBOR, builders.getObject().factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+    }
+
+    public ObjectMapper get(WireFormat format) {
+        return mappers.get(format);
+    }
+}
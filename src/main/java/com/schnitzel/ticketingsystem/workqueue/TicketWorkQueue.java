@@ -0,0 +1,177 @@
+package com.schnitzel.ticketingsystem.workqueue;
+
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.TicketPriority;
+import com.schnitzel.ticketingsystem.TicketRepository;
+import com.schnitzel.ticketingsystem.TicketStatus;
+import com.schnitzel.ticketingsystem.cache.CacheRegion;
+import com.schnitzel.ticketingsystem.cache.ResponseCache;
+import com.schnitzel.ticketingsystem.datasource.ShardContext;
+import com.schnitzel.ticketingsystem.dto.TicketSummary;
+import com.schnitzel.ticketingsystem.journal.TicketChangeJournal;
+import com.schnitzel.ticketingsystem.journal.TicketChangeType;
+import com.schnitzel.ticketingsystem.sharding.TicketShards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * "Claim next" work queue for IT agents.
+ *
+ * A claim assigns the ticket to the agent with a lease. The agent confirms
+ * (ticket goes IN_PROGRESS, lease cleared), renews, or releases it. A lease
+ * that runs out puts the ticket back in the queue.
+ *
+ * Each step is one transaction on the ticket's shard (see TicketShards).
+ */
+@Service
+public class TicketWorkQueue {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketChangeJournal changeJournal;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TicketShards ticketShards;
+
+    @Value("${ticket.queue.lease-minutes:10}")
+    private int leaseMinutes;
+
+    // Best claimable first: highest priority, then oldest
+    private static final Comparator<TicketSummary> CLAIM_ORDER =
+            Comparator.comparing(TicketSummary::getPriority, Comparator.nullsLast(Comparator.<TicketPriority>reverseOrder()))
+                      .thenComparing(TicketSummary::getRequestedTime, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    /**
+     * Atomically take the highest-priority, oldest unassigned OPEN ticket
+     */
+    public Optional<Ticket> claimNext(String agent) {
+        for (int shard : claimOrder()) {
+            Optional<Ticket> claimed = ticketShards.inTransaction(shard, false, () -> claimOnShard(agent));
+            if (claimed.isPresent()) {
+                return claimed;
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Shards by their best candidate, so a shard with an URGENT ticket goes before one with LOW
+    private List<Integer> claimOrder() {
+        if (!ticketShards.isSharded()) {
+            return List.of(ShardContext.HOME);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<List<TicketSummary>> best = ticketShards.gather(true,
+                shard -> ticketRepository.findClaimable(TicketStatus.OPEN, now, PageRequest.of(0, 1)));
+        List<Integer> order = new ArrayList<>();
+        for (int shard = 0; shard < best.size(); shard++) {
+            if (!best.get(shard).isEmpty()) {
+                order.add(shard);
+            }
+        }
+        order.sort(Comparator.comparing(shard -> best.get(shard).get(0), CLAIM_ORDER));
+        return order;
+    }
+
+    private Optional<Ticket> claimOnShard(String agent) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<Ticket> next = ticketRepository.lockNextClaimable(now);
+        next.ifPresent(ticket -> {
+            ticket.setAssignedPerson(agent);
+            ticket.setClaimExpiresAt(now.plusMinutes(leaseMinutes));
+            ticketRepository.save(ticket);
+            changed(ticket.getTicketId());
+        });
+        return next;
+    }
+
+    /**
+     * Keep the ticket: starts work on it and ends the lease
+     */
+    public Ticket confirm(Long ticketId, String agent) {
+        return ticketShards.inTransaction(ticketShards.shardOf(ticketId), false, () -> {
+            Ticket ticket = leasedTicket(ticketId, agent);
+            ticket.setClaimExpiresAt(null);
+            ticket.setTicketStatus(TicketStatus.IN_PROGRESS);
+            ticketRepository.save(ticket);
+            changed(ticketId);
+            return ticket;
+        });
+    }
+
+    public Ticket renew(Long ticketId, String agent) {
+        return ticketShards.inTransaction(ticketShards.shardOf(ticketId), false, () -> {
+            Ticket ticket = leasedTicket(ticketId, agent);
+            ticket.setClaimExpiresAt(LocalDateTime.now().plusMinutes(leaseMinutes));
+            ticketRepository.save(ticket);
+            changed(ticketId);
+            return ticket;
+        });
+    }
+
+    public void release(Long ticketId, String agent) {
+        ticketShards.inTransaction(ticketShards.shardOf(ticketId), false, () -> {
+            Ticket ticket = leasedTicket(ticketId, agent);
+            ticket.setAssignedPerson(null);
+            ticket.setClaimExpiresAt(null);
+            ticketRepository.save(ticket);
+            changed(ticketId);
+        });
+    }
+
+    /**
+     * Clean up expired leases so the table and UIs stop showing stale assignees.
+     * (claimNext already ignores expired leases, this is only for display.)
+     * Once per cluster, as the expired-claims job (JobsConfig).
+     */
+    public void releaseExpired() {
+        for (int shard = 0; shard < ticketShards.count(); shard++) {
+            ticketShards.inTransaction(shard, false, () -> {
+                List<Long> released = jdbcTemplate.queryForList(
+                    "UPDATE ticket SET assigned_person = NULL, claim_expires_at = NULL " +
+                    "WHERE claim_expires_at < ? AND ticket_status = ? RETURNING ticket_id",
+                    Long.class,
+                    Timestamp.valueOf(LocalDateTime.now()), TicketStatus.OPEN.getCode());
+
+                for (Long ticketId : released) {
+                    changed(ticketId);
+                }
+                if (!released.isEmpty()) {
+                    System.out.println("Work queue: released " + released.size() + " expired claims");
+                }
+            });
+        }
+    }
+
+    private Ticket leasedTicket(Long ticketId, String agent) {
+        Ticket ticket = ticketRepository.findById(ticketId)
+                .orElseThrow(() -> new IllegalArgumentException("Ticket not found: " + ticketId));
+        LocalDateTime expires = ticket.getClaimExpiresAt();
+        if (expires == null || expires.isBefore(LocalDateTime.now()) || !agent.equals(ticket.getAssignedPerson())) {
+            throw new IllegalStateException("Ticket " + ticketId + " is not claimed by " + agent);
+        }
+        return ticket;
+    }
+
+    private void changed(Long ticketId) {
+        responseCache.invalidate(CacheRegion.TICKETS);
+        changeJournal.record(ticketId, TicketChangeType.UPDATE);
+    }
+}
@@ -0,0 +1,84 @@
+package com.schnitzel.ticketingsystem.workqueue;
+
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.userauth.User;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/queue")
+public class WorkQueueController {
+
+    @Autowired
+    private TicketWorkQueue workQueue;
+
+    // Claim the next ticket for the logged in agent (204 when the queue is empty)
+    @PostMapping("/claim")
+    public ResponseEntity<Ticket> claimNext(HttpSession session) {
+        String agent = agentId(session);
+        if (agent == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return workQueue.claimNext(agent)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.noContent().build());
+    }
+
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<?> confirm(@PathVariable Long id, HttpSession session) {
+        String agent = agentId(session);
+        if (agent == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(workQueue.confirm(id, agent));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/renew")
+    public ResponseEntity<?> renew(@PathVariable Long id, HttpSession session) {
+        String agent = agentId(session);
+        if (agent == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(workQueue.renew(id, agent));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/release")
+    public ResponseEntity<String> release(@PathVariable Long id, HttpSession session) {
+        String agent = agentId(session);
+        if (agent == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            workQueue.release(id, agent);
+            return ResponseEntity.ok("Ticket released");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    // assignedPerson holds the user id, same as the table UI and auto-assignment store
+    private String agentId(HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null || user.getId() == null) {
+            return null;
+        }
+        return String.valueOf(user.getId());
+    }
+}
@@ -447,7 +447,7 @@ function displayTickets(tickets) {
             <div>#${ticket.ticketId}</div>
             <div>
                 <div class="ticket-title">${escapeHtml(ticket.subject)}</div>
-                <div class="ticket-description">${escapeHtml(ticket.intent || 'No description')}</div>
+                <div class="ticket-description">${escapeHtml(ticket.intent || ticket.intentPreview || 'No description')}</div>
                 ${networkInfoText}
             </div>
             <div>${escapeHtml(ticket.fullName)}</div>
@@ -456,7 +456,7 @@ function displayTickets(tickets) {
             <div>${formatDate(ticket.requestedTime)}</div>
         `;
         
-        ticketElement.addEventListener('click', () => viewTicketDetails(ticket));
+        ticketElement.addEventListener('click', () => openTicketDetails(ticket));
         ticketList.appendChild(ticketElement);
     });
 }
@@ -538,13 +538,27 @@ async function searchTickets() {
         const filteredTickets = allTickets.filter(ticket => 
             (ticket.subject && ticket.subject.toLowerCase().includes(query.toLowerCase())) ||
             (ticket.userEmail && ticket.userEmail.toLowerCase().includes(query.toLowerCase())) ||
-            (ticket.intent && ticket.intent.toLowerCase().includes(query.toLowerCase())) ||
+            (ticket.intentPreview && ticket.intentPreview.toLowerCase().includes(query.toLowerCase())) ||
             (ticket.priority && ticket.priority.toLowerCase().includes(query.toLowerCase()))
         );
         displayTickets(filteredTickets);
     }
 }
 
+// Rows from the list only have intentPreview/itCommentPreview; /search rows have the full text
+async function openTicketDetails(ticket) {
+    if (ticket.intent == null) {
+        try {
+            const response = await safeFetch(`${API_BASE}/${ticket.ticketId}`);
+            ticket = await response.json();
+        } catch (error) {
+            showNotification('Error loading ticket: ' + error.message);
+            return;
+        }
+    }
+    viewTicketDetails(ticket);
+}
+
 function viewTicketDetails(ticket) {
     console.log('Viewing ticket details:', ticket);
     
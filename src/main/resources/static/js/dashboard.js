@@ -14,7 +14,7 @@ document.addEventListener('DOMContentLoaded', function() {
 // ===== DATA LOADING =====
 async function loadDashboardData() {
     try {
-        const response = await fetch('/api/tickets');
+        const response = await fetch('/api/tickets/summary');
         if (!response.ok) {
             throw new Error('Failed to fetch tickets');
         }
@@ -33,7 +33,7 @@ async function loadDashboardData() {
 
 async function loadRecentTickets() {
     try {
-        const response = await fetch('/api/tickets');
+        const response = await fetch('/api/tickets/summary');
         if (!response.ok) {
             throw new Error('Failed to fetch tickets');
         }
@@ -379,15 +379,12 @@ async function exportData() {
     try {
         console.log('Starting export...');
         
-        // Use existing ticketsData or fetch fresh
-        let tickets = ticketsData;
-        if (!tickets || tickets.length === 0) {
-            const response = await fetch('/api/tickets');
-            if (!response.ok) {
-                throw new Error('Failed to fetch tickets');
-            }
-            tickets = await response.json();
+        // Export endpoint resolves the client device info that list rows only reference by id
+        const response = await fetch('/api/tickets/export');
+        if (!response.ok) {
+            throw new Error('Failed to fetch tickets');
         }
+        const tickets = await response.json();
         
         if (tickets.length === 0) {
             alert('No tickets to export');
@@ -486,11 +483,54 @@ function formatDateTimeForCSV(dateString) {
     }
 }
 
+// ===== HOTSPOTS =====
+// Computers, subnets and subject words with the most new tickets (approximate counts)
+async function loadHotspots() {
+    const container = document.getElementById('hotspotList');
+    const selectedWindow = document.getElementById('hotspotWindow').value;
+    try {
+        const response = await fetch(`/api/hotspots?window=${encodeURIComponent(selectedWindow)}&limit=5`);
+        if (!response.ok) {
+            throw new Error('Failed to fetch hotspots');
+        }
+        const report = await response.json();
+        if (report.tickets === 0) {
+            container.innerHTML = '<div class="empty-state">No new tickets</div>';
+            return;
+        }
+        container.innerHTML =
+            renderHotspotGroup('Computers', report.computers) +
+            renderHotspotGroup('Subnets', report.subnets) +
+            renderHotspotGroup('Subject words', report.keywords);
+    } catch (error) {
+        console.error('Error loading hotspots:', error);
+        container.innerHTML = '<div class="empty-state">Hotspots unavailable</div>';
+    }
+}
+
+function renderHotspotGroup(title, hotspots) {
+    if (!hotspots || hotspots.length === 0) {
+        return '';
+    }
+    return `
+        <div class="hotspot-group">
+            <h5>${title}</h5>
+            ${hotspots.map(hotspot => `
+                <div class="hotspot-item" title="${Math.round(hotspot.share * 100)}% of new tickets">
+                    <span class="hotspot-key">${escapeHtml(hotspot.key)}</span>
+                    <span class="count-badge">${hotspot.tickets}</span>
+                </div>
+            `).join('')}
+        </div>
+    `;
+}
+
 // ===== REFRESH =====
 function refreshDashboard() {
     console.log('Refreshing dashboard...');
     loadDashboardData();
     loadRecentTickets();
+    loadHotspots();
 }
 
 // ===== UTILITY FUNCTIONS =====
@@ -525,6 +565,7 @@ function showError(message) {
 setInterval(() => {
     loadDashboardData();
     loadRecentTickets();
+    loadHotspots();
 }, 30000);
 
 // ===== COMPACT CALENDAR WITH STATS =====
@@ -752,7 +793,7 @@ function nextMonth() {
 // Update calendar stats when dashboard data loads
 async function loadDashboardData() {
     try {
-        const response = await fetch('/api/tickets');
+        const response = await fetch('/api/tickets/summary');
         if (!response.ok) {
             throw new Error('Failed to fetch tickets');
         }
@@ -951,6 +992,7 @@ document.addEventListener('DOMContentLoaded', function() {
     initializeLogoutButton(); // Add this line
     loadDashboardData();
     loadRecentTickets();
+    loadHotspots();
     initializeCalendar();
 });
 
@@ -968,5 +1010,6 @@ window.exportData = exportData;
 window.previousMonth = previousMonth;
 window.nextMonth = nextMonth;
 window.filterTickets = filterTickets;
+window.loadHotspots = loadHotspots;
 
 console.log('Dashboard JS loaded successfully');
\ No newline at end of file
@@ -323,12 +323,18 @@ function getITStaffUsers() {
         'Chief Technology Officer (CTO)'
     ];
     
-    return allUsers.filter(user => 
-        user.position && itPositions.some(itPosition => 
-            user.position.toLowerCase().includes(itPosition.toLowerCase()) ||
-            itPosition.toLowerCase().includes(user.position.toLowerCase())
-        )
+    // Whole words in order, same as ItStaffRule: "Senior IT Manager" matches, plain "Manager" does not
+    const words = text => text.toLowerCase().split(/[^a-z0-9]+/).filter(word => word);
+    const containsRun = (userWords, run) => userWords.some((_, start) =>
+        start + run.length <= userWords.length && run.every((word, i) => userWords[start + i] === word)
     );
+    const itPositionWords = itPositions.map(words);
+
+    return allUsers.filter(user => {
+        if (!user.position) return false;
+        const userWords = words(user.position);
+        return itPositionWords.some(run => containsRun(userWords, run));
+    });
 }
 
 // Update assignment dropdowns with IT staff
@@ -692,7 +698,7 @@ function detectTicketChanges(newTickets) {
             );
         }
         
-        if (oldTicket.itComment !== newTicket.itComment && newTicket.itComment) {
+        if (oldTicket.itCommentPreview !== newTicket.itCommentPreview && newTicket.itCommentPreview) {
             showTicketUpdateNotification(
                 'Ticket #' + newTicket.ticketId + ' updated',
                 'New IT comments added',
@@ -842,7 +848,7 @@ function applyFiltersAndSort() {
             (ticket.subject && ticket.subject.toLowerCase().includes(query)) ||
             (ticket.fullName && ticket.fullName.toLowerCase().includes(query)) ||
             (ticket.userEmail && ticket.userEmail.toLowerCase().includes(query)) ||
-            (ticket.intent && ticket.intent.toLowerCase().includes(query)) ||
+            (ticket.intentPreview && ticket.intentPreview.toLowerCase().includes(query)) ||
             (ticket.assignedPerson && ticket.assignedPerson.toLowerCase().includes(query))
         );
     }
@@ -940,7 +946,7 @@ function displayTickets(tickets) {
             <td class="id-column">#${ticket.ticketId}</td>
             <td class="title-column">
                 <div class="ticket-title">${escapeHtml(ticket.subject || 'No subject')}</div>
-                <div class="ticket-description">${escapeHtml(ticket.intent || 'No description')}</div>
+                <div class="ticket-description">${escapeHtml(ticket.intentPreview || 'No description')}</div>
                 <div class="ticket-network-info">${networkInfo}</div>
             </td>
             <td class="status-column">
@@ -964,14 +970,29 @@ function displayTickets(tickets) {
     });
 }
 
-function editTicket(ticketId) {
+// List rows only carry intentPreview/itCommentPreview; the full text is fetched per ticket
+async function loadFullTicket(ticketId) {
+    const response = await fetch(API_BASE + '/' + ticketId);
+    if (!response.ok) throw new Error('HTTP ' + response.status);
+    return response.json();
+}
+
+async function editTicket(ticketId) {
     console.log('Edit ticket clicked: ' + ticketId);
-    const ticket = allTickets.find(t => t.ticketId === ticketId);
-    if (!ticket) {
+    if (!allTickets.some(t => t.ticketId === ticketId)) {
         console.error('Ticket not found: ' + ticketId);
         showNotification('Error', 'Ticket not found', 'error');
         return;
     }
+
+    // The IT comment box must start from the full comment, or saving would cut it to the preview
+    let ticket;
+    try {
+        ticket = await loadFullTicket(ticketId);
+    } catch (error) {
+        showNotification('Error', 'Could not load ticket: ' + error.message, 'error');
+        return;
+    }
     
     currentTicketId = ticketId;
     
@@ -1086,7 +1107,7 @@ async function saveTicketEdit() {
     }
 }
 
-function viewTicket(ticketId){
+async function viewTicket(ticketId){
     console.log('View Ticket clicked ' + ticketId);
     
     if (!ticketId) {
@@ -1094,16 +1115,22 @@ function viewTicket(ticketId){
         return;
     }
     
-    const ticket = allTickets.find(t => t.ticketId === ticketId);
-    console.log('Found Ticket:', ticket);
-    
-    if (!ticket) {
+    if (!allTickets.some(t => t.ticketId === ticketId)) {
         console.error('Ticket not found: ' + ticketId);
         console.log('Available Ticket IDs:', allTickets.map(t => t.ticketId));
         showNotification('Error', 'Ticket not found', 'error');
         return;
     }
 
+    let ticket;
+    try {
+        ticket = await loadFullTicket(ticketId);
+    } catch (error) {
+        showNotification('Error', 'Could not load ticket: ' + error.message, 'error');
+        return;
+    }
+    console.log('Found Ticket:', ticket);
+
     const viewId = document.getElementById('view-id');
     const viewSubject = document.getElementById('view-subject');
     const viewRequester = document.getElementById('view-requester');
@@ -1759,13 +1786,18 @@ function refreshTable() {
     loadTickets();
 }
 
-function exportToCSV() {
+async function exportToCSV() {
     try {
+        // Full descriptions come from the export endpoint, the list only has previews
+        const response = await fetch(API_BASE + '/export');
+        if (!response.ok) throw new Error('HTTP ' + response.status);
+        const intents = new Map((await response.json()).map(ticket => [ticket.ticketId, ticket.intent]));
+
         const headers = ['ID', 'Subject', 'Description', 'Status', 'Priority', 'Assigned To', 'Requester', 'Requester Email', 'Requester Position', 'Created Date'];
         const csvData = allTickets.map(ticket => [
             ticket.ticketId,
             escapeHtml(ticket.subject || ''),
-            escapeHtml(ticket.intent || ''),
+            escapeHtml(intents.get(ticket.ticketId) || ''),
             ticket.ticketStatus || '',
             ticket.priority || '',
             escapeHtml(ticket.assignedPersonName || ticket.assignedPerson || ''),
@@ -0,0 +1,125 @@
+package com.schnitzel.ticketingsystem;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Small timing harness for the *Benchmark tests. Surefire's default includes
+ * skip them, so they only run when asked for:
+ *
+ *   mvn test -Dtest='*Benchmark'
+ *
+ * The ones that need PostgreSQL also need -Dbench.jdbc-url (and -user/-password).
+ * Each prints one line per case; the numbers are for tuning, not pass/fail.
+ */
+public final class Bench {
+
+    // Results land here so the JIT cannot drop the measured work
+    public static volatile long sink;
+
+    private Bench() {
+    }
+
+    public interface Op {
+        long run(int i);
+    }
+
+    public interface Worker {
+        // One unit of work; returns false once there is nothing left to do
+        boolean run(int worker) throws Exception;
+    }
+
+    /**
+     * Mean nanoseconds per call of op, best of the measured rounds
+     */
+    public static double nanosPerOp(String name, int opsPerRound, Op op) {
+        for (int round = 0; round < 5; round++) {
+            round(opsPerRound, op);
+        }
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < 10; round++) {
+            best = Math.min(best, (double) round(opsPerRound, op) / opsPerRound);
+        }
+        System.out.println(String.format("%-56s %12.1f ns/op", name, best));
+        return best;
+    }
+
+    /**
+     * Heap bytes allocated per call of op on this thread, after warm-up
+     */
+    public static double bytesPerOp(String name, int ops, Op op) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int round = 0; round < 5; round++) {
+            round(ops, op);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        round(ops, op);
+        double perOp = (double) (threads.getCurrentThreadAllocatedBytes() - before) / ops;
+        System.out.println(String.format("%-56s %12.1f B/op", name, perOp));
+        return perOp;
+    }
+
+    private static long round(int ops, Op op) {
+        long acc = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            acc += op.run(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += acc;
+        return elapsed;
+    }
+
+    /**
+     * Operations per second with the given number of threads all running worker for durationMs
+     */
+    public static double throughput(String name, int threads, long durationMs, Worker worker) throws InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        long[] done = new long[threads];
+        Throwable[] failure = new Throwable[1];
+        List<Thread> running = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread thread = new Thread(() -> {
+                ready.countDown();
+                try {
+                    go.await();
+                    while (!stop.get() && worker.run(id)) {
+                        done[id]++;
+                    }
+                } catch (Throwable e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                    stop.set(true);
+                }
+            }, "bench-" + t);
+            thread.start();
+            running.add(thread);
+        }
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        Thread.sleep(durationMs);
+        stop.set(true);
+        for (Thread thread : running) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (failure[0] != null) {
+            throw new IllegalStateException(name + " failed", failure[0]);
+        }
+        long total = 0;
+        for (long count : done) {
+            total += count;
+        }
+        double perSecond = total / seconds;
+        System.out.println(String.format("%-56s %12.0f ops/s", name, perSecond));
+        return perSecond;
+    }
+}
@@ -0,0 +1,180 @@
+package com.schnitzel.ticketingsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Size and speed of CompressedTextConverter on ticket-like text, against plain
+ * UTF-8 (what ticket.text-compression.enabled=false writes):
+ *
+ *   mvn test -Dtest=CompressedTextConverterBenchmark
+ *
+ * With -Dbench.jdbc-url (and -user/-password) it also loads 100k tickets into a
+ * varchar table and a compressed bytea table and compares their size on disk and
+ * a full read. Works in its own schema, dropped afterwards.
+ */
+class CompressedTextConverterBenchmark {
+
+    private static final String SCHEMA = "bench_text_compression";
+    private static final int ROWS = 100_000;
+
+    private static final String[] WORDS = {
+        "printer", "offline", "cannot", "login", "password", "reset", "the", "a", "my", "is", "not", "working",
+        "since", "this", "morning", "after", "update", "windows", "outlook", "email", "sync", "error", "vpn",
+        "connection", "drops", "every", "few", "minutes", "please", "help", "laptop", "screen", "flickers",
+        "shared", "drive", "access", "denied", "folder", "finance", "payroll", "report", "excel", "crashes",
+        "when", "opening", "large", "file", "teams", "meeting", "audio", "microphone", "headset", "new",
+        "employee", "account", "setup", "needs", "install", "software", "license", "expired", "monitor",
+        "second", "docking", "station", "keyboard", "mouse", "wireless", "network", "slow", "floor", "3",
+        "room", "projector", "HDMI", "cable", "phone", "voicemail", "badge", "door", "scanner", "toner",
+        "jammed", "paper", "tray", "restart", "did", "fix", "it", "and", "or", "with", "from", "on", "in",
+        "to", "I", "we", "our", "team", "urgent", "deadline", "today", "ticket", "still", "again", "same"
+    };
+
+    @Test
+    void encodeDecodeBySize() {
+        for (int length : new int[] {100, 500, 2000}) {
+            String[] texts = texts(1000, length);
+            long plainBytes = 0;
+            long storedBytes = 0;
+            byte[][] plain = new byte[texts.length][];
+            byte[][] stored = new byte[texts.length][];
+            for (int i = 0; i < texts.length; i++) {
+                plain[i] = CompressedTextConverter.encode(texts[i], false);
+                stored[i] = CompressedTextConverter.encode(texts[i], true);
+                plainBytes += plain[i].length;
+                storedBytes += stored[i].length;
+                assertEquals(texts[i], CompressedTextConverter.decode(stored[i]));
+            }
+            System.out.println(String.format("%d-char text: %.0f bytes plain, %.0f stored (%.0f%%)", length,
+                    (double) plainBytes / texts.length, (double) storedBytes / texts.length, 100.0 * storedBytes / plainBytes));
+
+            Bench.nanosPerOp(length + "-char text, write plain", 10_000, i -> CompressedTextConverter.encode(texts[i % texts.length], false).length);
+            Bench.nanosPerOp(length + "-char text, write compressed", 10_000, i -> CompressedTextConverter.encode(texts[i % texts.length], true).length);
+            Bench.nanosPerOp(length + "-char text, read plain", 10_000, i -> CompressedTextConverter.decode(plain[i % texts.length]).length());
+            Bench.nanosPerOp(length + "-char text, read compressed", 10_000, i -> CompressedTextConverter.decode(stored[i % texts.length]).length());
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "bench.jdbc-url", matches = ".+")
+    void tableSizeAndFullRead() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("SET search_path TO " + SCHEMA);
+            // The columns before and after TicketTextCompressionMigration
+            statement.execute("CREATE TABLE ticket_plain (ticket_id BIGINT PRIMARY KEY, subject VARCHAR(255), " +
+                              "intent VARCHAR(2000), it_comment VARCHAR(255))");
+            statement.execute("CREATE TABLE ticket_compressed (ticket_id BIGINT PRIMARY KEY, subject VARCHAR(255), " +
+                              "intent BYTEA, it_comment BYTEA)");
+            try {
+                load(connection);
+                for (String table : new String[] {"ticket_plain", "ticket_compressed"}) {
+                    try (ResultSet size = statement.executeQuery("SELECT pg_total_relation_size('" + table + "')")) {
+                        size.next();
+                        System.out.println(String.format("%-56s %9.1f MB", table + ", " + ROWS + " tickets", size.getLong(1) / 1e6));
+                    }
+                }
+                fullRead(connection, "ticket_plain", false);
+                fullRead(connection, "ticket_compressed", true);
+            } finally {
+                statement.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+            }
+        }
+    }
+
+    private static void load(Connection connection) throws SQLException {
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement plain = connection.prepareStatement("INSERT INTO ticket_plain VALUES (?, ?, ?, ?)");
+             PreparedStatement compressed = connection.prepareStatement("INSERT INTO ticket_compressed VALUES (?, ?, ?, ?)")) {
+            for (int id = 1; id <= ROWS; id++) {
+                String subject = text(random, 40);
+                // Most descriptions are a few sentences, some are pasted logs near the limit
+                String intent = text(random, random.nextInt(10) == 0 ? 1900 : 150 + random.nextInt(450));
+                String comment = random.nextBoolean() ? text(random, 60 + random.nextInt(150)) : null;
+
+                plain.setLong(1, id);
+                plain.setString(2, subject);
+                plain.setString(3, intent);
+                plain.setString(4, comment);
+                plain.addBatch();
+
+                compressed.setLong(1, id);
+                compressed.setString(2, subject);
+                compressed.setBytes(3, CompressedTextConverter.encode(intent, true));
+                compressed.setBytes(4, comment != null ? CompressedTextConverter.encode(comment, true) : null);
+                compressed.addBatch();
+
+                if (id % 1000 == 0) {
+                    plain.executeBatch();
+                    compressed.executeBatch();
+                }
+            }
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM ANALYZE ticket_plain");
+            statement.execute("VACUUM ANALYZE ticket_compressed");
+        }
+    }
+
+    private static void fullRead(Connection connection, String table, boolean compressed) throws SQLException {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 6; round++) {
+            long start = System.nanoTime();
+            long chars = 0;
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT intent, it_comment FROM " + table)) {
+                while (rows.next()) {
+                    String intent = compressed ? CompressedTextConverter.decode(rows.getBytes(1)) : rows.getString(1);
+                    String comment = compressed ? CompressedTextConverter.decode(rows.getBytes(2)) : rows.getString(2);
+                    chars += intent.length() + (comment != null ? comment.length() : 0);
+                }
+            }
+            Bench.sink += chars;
+            if (round > 0) { // first round warms up
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+        System.out.println(String.format("%-56s %9.1f ms", table + ", read intent + it_comment", best / 1e6));
+    }
+
+    private static String[] texts(int count, int length) {
+        Random random = new Random(length);
+        String[] texts = new String[count];
+        for (int i = 0; i < count; i++) {
+            texts[i] = text(random, length);
+        }
+        return texts;
+    }
+
+    private static String text(Random random, int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+            text.append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        text.setLength(length);
+        assertEquals(length, text.toString().getBytes(StandardCharsets.UTF_8).length);
+        return text.toString();
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(System.getProperty("bench.jdbc-url"),
+                System.getProperty("bench.jdbc-user"), System.getProperty("bench.jdbc-password"));
+    }
+}
@@ -0,0 +1,203 @@
+package com.schnitzel.ticketingsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The ticket API on Spring MVC (default) and on the reactive profile (WebFlux +
+ * R2DBC), side by side: the whole application is started once per stack in this
+ * JVM, against the same seeded schema and with the same number of connections
+ * (Hikari's default 10, reactive.pool-size 10):
+ *
+ *   mvn test -Dtest=TicketStreamBenchmark \
+ *       -Dbench.jdbc-url=jdbc:postgresql://localhost:5432/bench -Dbench.jdbc-user=... -Dbench.jdbc-password=...
+ *
+ * Per stack: GET /api/tickets/stream of every ticket and GET /api/tickets (time to
+ * first byte and total, one client; MVC answers the list from its response cache
+ * after the first call, reactive reads it every time), then report-sized searches
+ * streamed by more and more clients at once. Works in its own schema, dropped afterwards.
+ */
+@EnabledIfSystemProperty(named = "bench.jdbc-url", matches = ".+")
+class TicketStreamBenchmark {
+
+    private static final String SCHEMA = "bench_ticket_stream";
+    private static final int TICKETS = 100_000;
+    private static final int DEVICES = 200;
+    private static final int POOL_SIZE = 10;
+    // 'Employee 42' and 'Employee 420' to '429': 2,200 of the 100k tickets
+    private static final String REPORT_QUERY = "Employee 42";
+    private static final int REPORT_ROWS = 2_200;
+    private static final long DURATION_MS = 5_000;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void servletVersusReactive() throws Exception {
+        try (Connection admin = connect(); Statement statement = admin.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+        }
+        try {
+            // Hibernate creates the tables; both stacks then start on the same rows, compressed by the migration
+            try (ConfigurableApplicationContext app = start(false)) {
+                seed();
+            }
+            for (boolean reactive : new boolean[] {false, true}) {
+                String stack = reactive ? "reactive" : "mvc";
+                try (ConfigurableApplicationContext app = start(reactive)) {
+                    String api = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort() + "/api/tickets";
+                    print(stack + ", stream " + TICKETS + " tickets", best(api + "/stream", TICKETS));
+                    print(stack + ", list " + TICKETS + " tickets", best(api, 0));
+                    reports(stack, "warm-up", api, 4);
+                    for (int clients : new int[] {4, 10, 50, 200}) {
+                        reports(stack, REPORT_ROWS + "-row search stream, " + clients + " clients", api, clients);
+                    }
+                }
+            }
+        } finally {
+            try (Connection admin = connect(); Statement statement = admin.createStatement()) {
+                statement.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+            }
+        }
+    }
+
+    private void reports(String stack, String name, String api, int clients) throws InterruptedException {
+        String url = api + "/stream?query=" + URLEncoder.encode(REPORT_QUERY, StandardCharsets.UTF_8);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong failed = new AtomicLong();
+        long start = System.nanoTime();
+        Bench.throughput(stack + ", " + name, clients, DURATION_MS, worker -> {
+            long requested = System.nanoTime();
+            long[] result = get(url);
+            if (result == null) {
+                failed.incrementAndGet();
+            } else {
+                assertEquals(REPORT_ROWS, result[2]);
+                latencies.add(System.nanoTime() - requested);
+            }
+            return true;
+        });
+        // Rejected requests come back fast, so count the completed ones apart (requests still
+        // running at the end of the period are waited for, hence the elapsed time)
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (sorted.length > 0) {
+            System.out.println(String.format("  %.1f completed/s, p50 %.1f ms, p99 %.1f ms, %d failed",
+                    sorted.length / seconds, sorted[sorted.length / 2] / 1e6,
+                    sorted[(int) (sorted.length * 0.99)] / 1e6, failed.get()));
+        }
+    }
+
+    // [nanos to first byte, total nanos, lines] of the fastest of five calls after a warm-up
+    private long[] best(String url, int lines) throws IOException, InterruptedException {
+        get(url);
+        long[] best = null;
+        for (int round = 0; round < 5; round++) {
+            long[] result = get(url);
+            if (lines > 0) {
+                assertEquals(lines, result[2]);
+            }
+            if (best == null || result[1] < best[1]) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    // [nanos to first byte, total nanos, lines], null for anything but a 200
+    private long[] get(String url) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            byte[] buffer = new byte[64 * 1024];
+            long firstByte = 0;
+            long lines = 0;
+            for (int read; (read = body.read(buffer)) != -1; ) {
+                if (firstByte == 0 && read > 0) {
+                    firstByte = System.nanoTime();
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        lines++;
+                    }
+                }
+            }
+            return response.statusCode() == 200 ? new long[] {firstByte - start, System.nanoTime() - start, lines} : null;
+        }
+    }
+
+    private static void print(String name, long[] result) {
+        System.out.println(String.format("%-56s first byte %8.1f ms, total %8.1f ms", name, result[0] / 1e6, result[1] / 1e6));
+    }
+
+    private static ConfigurableApplicationContext start(boolean reactive) throws IOException {
+        String url = System.getProperty("bench.jdbc-url");
+        return new SpringApplicationBuilder(TicketingSystemApplication.class)
+                .profiles(reactive ? new String[] {"reactive"} : new String[0])
+                .properties("server.port=0",
+                        "spring.datasource.url=" + url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA,
+                        "spring.datasource.username=" + System.getProperty("bench.jdbc-user", ""),
+                        "spring.datasource.password=" + System.getProperty("bench.jdbc-password", ""),
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "reactive.pool-size=" + POOL_SIZE,
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "spring.jpa.properties.hibernate.default_schema=" + SCHEMA,
+                        "spring.mail.host=localhost",
+                        "attachments.dir=" + Files.createTempDirectory("bench-attachments"))
+                .run();
+    }
+
+    private static void seed() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO client_device (ip_address, computer_name, user_agent) " +
+                              "SELECT '10.12.0.' || i, 'PC-' || i, 'Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/141.0' " +
+                              "FROM generate_series(1, " + DEVICES + ") i");
+            // Plain-codec text (codec byte 0), about the length of a real ticket description.
+            // SLA deadlines far ahead: escalations would send mail and rebuild caches during the runs
+            statement.execute("INSERT INTO ticket (full_name, ticket_status, subject, requested_time, sla_due_at, " +
+                              "intent, intent_preview, assigned_person, priority, it_comment, it_comment_preview, " +
+                              "client_device_id, routing_key) " +
+                              "SELECT 'Employee ' || (i % 500), (i % 4)::smallint, 'Printer on floor ' || (i % 30) || ' offline', " +
+                              "now() - make_interval(secs => i), now() + interval '30 days', " +
+                              "'\\x00'::bytea || convert_to(repeat('Cannot print from the shared queue since this morning. ', 6), 'UTF8'), " +
+                              "left(repeat('Cannot print from the shared queue since this morning. ', 6), 160), " +
+                              "CASE WHEN i % 3 = 0 THEN 'agent' || (i % 20) END, (i % 4 + 1)::smallint, " +
+                              "'\\x00'::bytea || convert_to('Restarted the spooler', 'UTF8'), 'Restarted the spooler', " +
+                              "(SELECT min(id) FROM client_device) + i % " + DEVICES + ", 'default' " +
+                              "FROM generate_series(1, " + TICKETS + ") i");
+            statement.execute("ANALYZE ticket");
+            statement.execute("ANALYZE client_device");
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(System.getProperty("bench.jdbc-url"),
+                System.getProperty("bench.jdbc-user"), System.getProperty("bench.jdbc-password"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + SCHEMA + ", public");
+        }
+        return connection;
+    }
+}
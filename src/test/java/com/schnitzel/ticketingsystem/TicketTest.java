@@ -0,0 +1,34 @@
+package com.schnitzel.ticketingsystem;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TicketTest {
+
+    @Test
+    void settersKeepThePreviewsInStep() {
+        Ticket ticket = new Ticket("Ana Cruz", TicketStatus.OPEN, "Printer", null, "x".repeat(500), null,
+                TicketPriority.HIGH, null, "Replaced the toner");
+
+        assertEquals("x".repeat(Ticket.PREVIEW_LENGTH), ReflectionTestUtils.getField(ticket, "intentPreview"));
+        assertEquals("Replaced the toner", ReflectionTestUtils.getField(ticket, "itCommentPreview"));
+
+        ticket.setIntent("Short now");
+        ticket.setItComment(null);
+        assertEquals("Short now", ReflectionTestUtils.getField(ticket, "intentPreview"));
+        assertNull(ReflectionTestUtils.getField(ticket, "itCommentPreview"));
+    }
+
+    @Test
+    void previewNeverSplitsASurrogatePair() {
+        // An emoji straddling the cut is dropped whole rather than halved
+        String text = "x".repeat(Ticket.PREVIEW_LENGTH - 1) + "🖨" + " printer";
+
+        assertEquals("x".repeat(Ticket.PREVIEW_LENGTH - 1), Ticket.preview(text));
+        assertEquals("x".repeat(Ticket.PREVIEW_LENGTH), Ticket.preview("x".repeat(Ticket.PREVIEW_LENGTH)));
+        assertNull(Ticket.preview(null));
+    }
+}
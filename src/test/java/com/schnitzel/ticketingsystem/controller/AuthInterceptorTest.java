@@ -0,0 +1,66 @@
+package com.schnitzel.ticketingsystem.controller;
+
+import com.schnitzel.ticketingsystem.userauth.User;
+import com.schnitzel.ticketingsystem.userauth.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthInterceptorTest {
+
+    private final AuthInterceptor interceptor = new AuthInterceptor();
+
+    @Test
+    void pathParametersDoNotMakeAnEndpointStatic() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request("/api/profiling/dump;x.js", null), response, null));
+        assertEquals("/login", response.getRedirectedUrl());
+    }
+
+    @Test
+    void pathParametersDoNotSkipTheAdminCheck() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request("/api;x/profiling/dump", UserRole.USER), response, null));
+        assertEquals(403, response.getStatus());
+    }
+
+    @Test
+    void onlyAdminsMoveShards() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request("/api/shards/move", UserRole.USER), response, null));
+        assertEquals(403, response.getStatus());
+        assertTrue(interceptor.preHandle(request("/api/shards/move", UserRole.ADMIN), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void attachmentsNeedASession() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request("/api/attachments/1", null), response, null));
+        assertEquals("/login", response.getRedirectedUrl());
+        assertTrue(interceptor.preHandle(request("/api/attachments/1", UserRole.USER), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void adminsReachAdminEndpoints() throws Exception {
+        assertTrue(interceptor.preHandle(request("/api/profiling/dump", UserRole.ADMIN), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void staticResourcesArePublic() throws Exception {
+        assertTrue(interceptor.preHandle(request("/js/table-manager.js", null), new MockHttpServletResponse(), null));
+    }
+
+    private static MockHttpServletRequest request(String uri, UserRole role) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        if (role != null) {
+            User user = new User();
+            user.setRole(role);
+            request.getSession().setAttribute("user", user);
+        }
+        return request;
+    }
+}
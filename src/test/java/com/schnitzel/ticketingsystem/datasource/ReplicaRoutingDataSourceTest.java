@@ -0,0 +1,246 @@
+package com.schnitzel.ticketingsystem.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Routing decisions over stub data sources; the replicas answer the lag query
+ * with whatever lag the test sets.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final long MAX_LAG_MS = 1000;
+    private static final long STICKY_MS = 60_000;
+
+    private final StubDatabase primary = new StubDatabase("primary");
+    private final StubDatabase replica1 = new StubDatabase("replica-1");
+    private final StubDatabase replica2 = new StubDatabase("replica-2");
+
+    @AfterEach
+    void clearThreadState() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+        RequestContextHolder.resetRequestAttributes();
+        forgetThreadWrites();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(replica1);
+        routing.checkHealth();
+
+        assertSame(replica1.connection, connectionIn(routing, true));
+        assertSame(primary.connection, connectionIn(routing, false));
+    }
+
+    @Test
+    void replicaGetsNoReadsBeforeItsFirstCheck() throws SQLException {
+        assertSame(primary.connection, connectionIn(routing(replica1), true));
+    }
+
+    @Test
+    void noTransactionUsesThePrimary() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(replica1);
+        routing.checkHealth();
+
+        assertSame(primary.connection, routing.getConnection());
+    }
+
+    @Test
+    void readsSpreadOverHealthyReplicas() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(replica1, replica2);
+        routing.checkHealth();
+
+        Set<Connection> used = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            used.add(connectionIn(routing, true));
+        }
+        assertEquals(Set.of(replica1.connection, replica2.connection), used);
+    }
+
+    @Test
+    void writeKeepsTheThreadOnThePrimary() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(replica1);
+        routing.checkHealth();
+
+        connectionIn(routing, false);
+        assertSame(primary.connection, connectionIn(routing, true));
+
+        forgetThreadWrites();
+        assertSame(replica1.connection, connectionIn(routing, true));
+    }
+
+    @Test
+    void writeKeepsTheSessionOnThePrimary() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(replica1);
+        routing.checkHealth();
+        MockHttpSession session = new MockHttpSession();
+
+        inRequest(session);
+        connectionIn(routing, false);
+        forgetThreadWrites();
+
+        inRequest(session);
+        assertSame(primary.connection, connectionIn(routing, true));
+        inRequest(new MockHttpSession());
+        assertSame(replica1.connection, connectionIn(routing, true));
+    }
+
+    @Test
+    void stickinessEnds() throws SQLException {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary.dataSource, replicas(replica1), MAX_LAG_MS, 0);
+        routing.checkHealth();
+
+        connectionIn(routing, false);
+        assertSame(replica1.connection, connectionIn(routing, true));
+    }
+
+    @Test
+    void laggingReplicaIsSkippedUntilItCatchesUp() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(replica1);
+        replica1.lagMillis = 5000;
+        routing.checkHealth();
+        assertSame(primary.connection, connectionIn(routing, true));
+
+        replica1.lagMillis = 200;
+        routing.checkHealth();
+        assertSame(replica1.connection, connectionIn(routing, true));
+    }
+
+    @Test
+    void unreachableReplicaIsMarkedDown() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(replica1);
+        routing.checkHealth();
+
+        replica1.down = true;
+        assertSame(primary.connection, connectionIn(routing, true));
+        int attempts = replica1.attempts;
+        assertSame(primary.connection, connectionIn(routing, true));
+        assertEquals(attempts, replica1.attempts, "a replica marked down is not tried again");
+
+        replica1.down = false;
+        routing.checkHealth();
+        assertSame(replica1.connection, connectionIn(routing, true));
+    }
+
+    @Test
+    void failedHealthCheckMarksDown() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(replica1);
+        routing.checkHealth();
+
+        replica1.down = true;
+        routing.checkHealth();
+        replica1.down = false;
+        assertSame(primary.connection, connectionIn(routing, true));
+    }
+
+    @Test
+    void withoutReplicasEverythingGoesToThePrimary() throws SQLException {
+        ReplicaRoutingDataSource routing = routing();
+        routing.checkHealth();
+
+        assertFalse(routing.hasReplicas());
+        assertSame(primary.connection, connectionIn(routing, true));
+        assertSame(primary.connection, connectionIn(routing, false));
+    }
+
+    private ReplicaRoutingDataSource routing(StubDatabase... replicas) {
+        return new ReplicaRoutingDataSource(primary.dataSource, replicas(replicas), MAX_LAG_MS, STICKY_MS);
+    }
+
+    private static Map<String, DataSource> replicas(StubDatabase... replicas) {
+        Map<String, DataSource> byName = new LinkedHashMap<>();
+        for (StubDatabase replica : replicas) {
+            byName.put(replica.name, replica.dataSource);
+        }
+        return byName;
+    }
+
+    // The connection a transaction gets, fetched the way LazyConnectionDataSourceProxy does: after begin
+    private static Connection connectionIn(ReplicaRoutingDataSource routing, boolean readOnly) throws SQLException {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        try {
+            return routing.getConnection();
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    private static void inRequest(MockHttpSession session) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tickets");
+        request.setSession(session);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void forgetThreadWrites() {
+        ((ThreadLocal<Long>) ReflectionTestUtils.getField(ReplicaRoutingDataSource.class, "threadPrimaryUntil")).remove();
+    }
+
+    private static final class StubDatabase {
+        final String name;
+        final Connection connection;
+        final DataSource dataSource;
+        volatile long lagMillis;
+        volatile boolean down;
+        volatile int attempts;
+
+        StubDatabase(String name) {
+            this.name = name;
+            ResultSet lag = fake(ResultSet.class, (proxy, method, args) -> switch (method.getName()) {
+                case "next" -> true;
+                case "getDouble" -> (double) lagMillis;
+                default -> null;
+            });
+            Statement statement = fake(Statement.class, (proxy, method, args) ->
+                    method.getName().equals("executeQuery") ? lag : null);
+            this.connection = fake(Connection.class, (proxy, method, args) -> switch (method.getName()) {
+                case "createStatement" -> statement;
+                case "toString" -> name;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+            this.dataSource = fake(DataSource.class, (proxy, method, args) -> {
+                if (!method.getName().equals("getConnection")) {
+                    return null;
+                }
+                attempts++;
+                if (down) {
+                    throw new SQLException(name + " is down");
+                }
+                return connection;
+            });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ReplicaRoutingDataSourceTest.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+}
@@ -0,0 +1,53 @@
+package com.schnitzel.ticketingsystem.duplicates;
+
+import com.schnitzel.ticketingsystem.Ticket;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicateDetectorTest {
+
+    private final DuplicateDetector detector = new DuplicateDetector();
+
+    @Test
+    void missingSubjectOrIntentCountsAsEmpty() {
+        assertArrayEquals(detector.signature("", "printer offline"), detector.signature(null, "printer offline"));
+        assertArrayEquals(detector.signature("printer offline", ""), detector.signature("printer offline", null));
+    }
+
+    @Test
+    void missingTextDoesNotLookLikeTheWordNull() {
+        double similarity = MinHasher.similarity(detector.signature(null, null), detector.signature("null", "null"));
+        assertTrue(similarity < 0.5, "similarity " + similarity);
+    }
+
+    @Test
+    void blankTicketsAreNeverDuplicates() {
+        ReflectionTestUtils.setField(detector, "enabled", true);
+        ReflectionTestUtils.setField(detector, "threshold", 0.7);
+        detector.index(ticket(1L, "Printer offline", "Floor 3 printer shows offline"),
+                detector.signature("Printer offline", "Floor 3 printer shows offline"));
+        detector.index(ticket(2L, " ", ""), detector.signature(" ", ""));
+
+        int[] blank = detector.signature("", "?!");
+        assertTrue(MinHasher.isEmpty(blank));
+        assertNull(detector.findParent(blank));
+        assertNull(detector.findParent(detector.signature(null, null)));
+        assertEquals(1L, detector.findParent(detector.signature("Printer offline", "Floor 3 printer shows offline")));
+    }
+
+    private static Ticket ticket(Long id, String subject, String intent) {
+        Ticket ticket = new Ticket();
+        ticket.setTicketId(id);
+        ticket.setSubject(subject);
+        ticket.setIntent(intent);
+        ticket.setRequestedTime(LocalDateTime.now());
+        return ticket;
+    }
+}
@@ -0,0 +1,102 @@
+package com.schnitzel.ticketingsystem.duplicates;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LshIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    private final LshIndex index = new LshIndex();
+
+    @Test
+    void findsMatchAtOrAboveThresholdOnly() {
+        int[] base = randomSignature(1);
+        // 16 of 64 values differ, in the first row of bands 0-15: similarity 0.75, bands 16-31 still equal
+        int[] similar = differInBands(base, 16);
+        index.add(1, null, base, NOW);
+
+        LshIndex.Match match = index.findBest(similar, 0.7);
+        assertNotNull(match);
+        assertEquals(1, match.getEntry().getTicketId());
+        assertEquals(0.75, match.getSimilarity(), 1e-9);
+        assertNull(index.findBest(similar, 0.8));
+    }
+
+    @Test
+    void noSharedBandMeansNoCandidate() {
+        int[] base = randomSignature(2);
+        // Half the values still equal, but every band has one changed value
+        index.add(1, null, base, NOW);
+        assertNull(index.findBest(differInBands(base, LshIndex.BANDS), 0.0));
+    }
+
+    @Test
+    void picksTheMostSimilarAndReportsItsIncident() {
+        int[] base = randomSignature(3);
+        index.add(1, null, differInBands(base, 12), NOW);
+        index.add(2, 1L, differInBands(base, 4), NOW);
+
+        LshIndex.Match match = index.findBest(base, 0.5);
+        assertEquals(2, match.getEntry().getTicketId());
+        assertEquals(1, match.getEntry().getRootTicketId());
+    }
+
+    @Test
+    void reAddingWithANewSignatureLeavesNoStaleBands() {
+        int[] before = randomSignature(4);
+        int[] after = randomSignature(5);
+        index.add(1, null, before, NOW);
+        index.add(1, null, after, NOW);
+
+        assertNull(index.findBest(before, 0.0));
+        assertNotNull(index.findBest(after, 1.0));
+        assertEquals(1, index.size());
+        assertEquals(LshIndex.BANDS, index.bucketCount());
+
+        index.remove(1);
+        assertEquals(0, index.bucketCount());
+    }
+
+    @Test
+    void detachedChildrenBecomeTheirOwnIncident() {
+        int[] signature = randomSignature(6);
+        index.add(2, 1L, signature, NOW);
+        index.detachChildren(1);
+        assertEquals(2, index.findBest(signature, 1.0).getEntry().getRootTicketId());
+    }
+
+    @Test
+    void evictsOnlyTicketsBeforeTheCutoff() {
+        index.add(1, null, randomSignature(7), NOW.minusHours(30));
+        index.add(2, null, randomSignature(8), NOW.minusHours(1));
+
+        assertEquals(1, index.evictOlderThan(NOW.minusHours(24)));
+        assertEquals(1, index.size());
+        assertEquals(LshIndex.BANDS, index.bucketCount());
+    }
+
+    private static int[] randomSignature(long seed) {
+        Random random = new Random(seed);
+        int[] signature = new int[MinHasher.SIGNATURE_SIZE];
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = random.nextInt();
+        }
+        return signature;
+    }
+
+    // Copy with the first value of each of the first `bands` bands changed
+    private static int[] differInBands(int[] signature, int bands) {
+        int[] copy = signature.clone();
+        for (int band = 0; band < bands; band++) {
+            copy[band * LshIndex.ROWS] = ~copy[band * LshIndex.ROWS];
+        }
+        return copy;
+    }
+}
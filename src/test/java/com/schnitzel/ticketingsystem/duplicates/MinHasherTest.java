@@ -0,0 +1,44 @@
+package com.schnitzel.ticketingsystem.duplicates;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHasherTest {
+
+    private final MinHasher hasher = new MinHasher();
+
+    @Test
+    void caseAndPunctuationDoNotMatter() {
+        assertArrayEquals(hasher.signature("Email server is DOWN!"), hasher.signature("email server, is down"));
+    }
+
+    @Test
+    void reorderedWordsGiveTheSameSignature() {
+        assertEquals(1.0, MinHasher.similarity(hasher.signature("printer jam on floor 3"),
+                                               hasher.signature("floor 3 printer jam on")), 0.0);
+    }
+
+    @Test
+    void nearDuplicatesScoreAboveTheDefaultThreshold() {
+        double similarity = MinHasher.similarity(
+                hasher.signature("Outlook cannot connect to the exchange server since this morning"),
+                hasher.signature("Outlook can not connect to exchange server since this morning"));
+        assertTrue(similarity >= 0.7, "similarity " + similarity);
+    }
+
+    @Test
+    void unrelatedTicketsScoreLow() {
+        double similarity = MinHasher.similarity(
+                hasher.signature("Outlook cannot connect to the exchange server"),
+                hasher.signature("Need a new keyboard for the reception desk"));
+        assertTrue(similarity < 0.2, "similarity " + similarity);
+    }
+
+    @Test
+    void signaturesAreStableAcrossInstances() {
+        assertArrayEquals(hasher.signature("vpn drops every hour"), new MinHasher().signature("vpn drops every hour"));
+    }
+}
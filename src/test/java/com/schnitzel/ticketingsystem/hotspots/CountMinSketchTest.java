@@ -0,0 +1,82 @@
+package com.schnitzel.ticketingsystem.hotspots;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 1024;
+
+    @Test
+    void neverUnderestimatesAndStaysWithinTheErrorBound() {
+        CountMinSketch sketch = new CountMinSketch(DEPTH, WIDTH);
+        Map<String, Integer> actual = skewedStream(sketch, 50_000, 5_000, 7);
+
+        // Standard bound: overestimate <= e/width * N except with probability e^-depth
+        double bound = Math.E / WIDTH * 50_000;
+        int over = 0;
+        for (Map.Entry<String, Integer> entry : actual.entrySet()) {
+            long estimate = CountMinSketch.estimate(List.of(sketch), CountMinSketch.hash(entry.getKey()));
+            assertTrue(estimate >= entry.getValue(), entry.getKey() + " underestimated");
+            if (estimate - entry.getValue() > bound) {
+                over++;
+            }
+        }
+        double allowed = Math.exp(-DEPTH) * actual.size();
+        assertTrue(over <= allowed, over + " keys over the bound, allowed " + allowed);
+    }
+
+    @Test
+    void heavyKeysAreCountedAlmostExactly() {
+        CountMinSketch sketch = new CountMinSketch(DEPTH, WIDTH);
+        for (int i = 0; i < 2_000; i++) {
+            sketch.add(CountMinSketch.hash("PC-" + (i % 500)));
+        }
+        for (int i = 0; i < 300; i++) {
+            sketch.add(CountMinSketch.hash("HR-LAPTOP-07"));
+        }
+        long estimate = CountMinSketch.estimate(List.of(sketch), CountMinSketch.hash("HR-LAPTOP-07"));
+        assertTrue(estimate >= 300 && estimate <= 300 + 2 * 2_300 / WIDTH, "estimate " + estimate);
+    }
+
+    @Test
+    void estimateSumsSketchesOfAWindow() {
+        CountMinSketch first = new CountMinSketch(DEPTH, WIDTH);
+        CountMinSketch second = new CountMinSketch(DEPTH, WIDTH);
+        long hash = CountMinSketch.hash("10.0.3.0/24");
+        for (int i = 0; i < 3; i++) first.add(hash);
+        for (int i = 0; i < 4; i++) second.add(hash);
+
+        assertEquals(7, CountMinSketch.estimate(List.of(first, second), hash));
+        assertEquals(0, CountMinSketch.estimate(List.of(), hash));
+
+        second.clear();
+        assertEquals(3, CountMinSketch.estimate(List.of(first, second), hash));
+    }
+
+    @Test
+    void widthMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(DEPTH, 1000));
+    }
+
+    // Zipf-like: a few keys take most events, a long tail of rare ones
+    static Map<String, Integer> skewedStream(CountMinSketch sketch, int events, int keys, long seed) {
+        Random random = new Random(seed);
+        Map<String, Integer> actual = new HashMap<>();
+        for (int i = 0; i < events; i++) {
+            String key = "key-" + (int) Math.floor(Math.pow(keys, random.nextDouble()));
+            actual.merge(key, 1, Integer::sum);
+            sketch.add(CountMinSketch.hash(key));
+        }
+        return actual;
+    }
+}
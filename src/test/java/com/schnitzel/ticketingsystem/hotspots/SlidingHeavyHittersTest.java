@@ -0,0 +1,84 @@
+package com.schnitzel.ticketingsystem.hotspots;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingHeavyHittersTest {
+
+    // Five minutes in 10 slots of 30 s
+    private static final HotspotWindow WINDOW = HotspotWindow.FIVE_MINUTES;
+    private static final long SLOT = WINDOW.getSlotMillis();
+    private static final long T0 = 1_700_000_000_000L / SLOT * SLOT;
+
+    private final SlidingHeavyHitters hitters = new SlidingHeavyHitters(WINDOW, 4, 1024, 64);
+
+    @Test
+    void topKIsOrderedByCountWithTiesByKey() {
+        add("PC-C", 5, T0);
+        add("PC-B", 3, T0);
+        add("PC-A", 3, T0);
+        add("PC-D", 1, T0);
+
+        List<Hotspot> top = hitters.top(3, T0);
+        assertEquals(List.of("PC-C", "PC-A", "PC-B"), keys(top));
+        assertEquals(5, top.get(0).getTickets());
+        assertEquals(5.0 / 12, top.get(0).getShare(), 1e-9);
+        assertEquals(12, hitters.events(T0));
+    }
+
+    @Test
+    void countsAddUpAcrossSlotsOfTheWindow() {
+        add("10.1.2.0/24", 2, T0);
+        add("10.1.2.0/24", 3, T0 + 4 * SLOT);
+        assertEquals(5, hitters.top(1, T0 + 4 * SLOT).get(0).getTickets());
+    }
+
+    @Test
+    void oldSlotsDropOutOfTheWindow() {
+        add("printer", 4, T0);
+        add("vpn", 1, T0 + 9 * SLOT);
+        assertEquals(List.of("printer", "vpn"), keys(hitters.top(5, T0 + 9 * SLOT)));
+
+        // Ten slots later the first one is no longer live, even before it is reused
+        assertEquals(List.of("vpn"), keys(hitters.top(5, T0 + 10 * SLOT)));
+        assertEquals(1, hitters.events(T0 + 10 * SLOT));
+    }
+
+    @Test
+    void reusedSlotStartsFromZero() {
+        add("printer", 4, T0);
+        add("email", 1, T0 + 10 * SLOT); // same ring position as T0
+        List<Hotspot> top = hitters.top(5, T0 + 10 * SLOT);
+        assertEquals(List.of("email"), keys(top));
+        assertEquals(1, top.get(0).getTickets());
+    }
+
+    @Test
+    void findsTheHotspotAmongManyRareKeys() {
+        for (int i = 0; i < 5_000; i++) {
+            hitters.add(List.of("PC-" + i), T0 + i % SLOT);
+            if (i % 20 == 0) {
+                hitters.add(List.of("HR-LAPTOP-07"), T0 + i % SLOT);
+            }
+        }
+        Hotspot top = hitters.top(1, T0 + SLOT - 1).get(0);
+        assertEquals("HR-LAPTOP-07", top.getKey());
+        // Count-Min only overestimates, by about 2/width of all events at most
+        assertTrue(top.getTickets() >= 250 && top.getTickets() <= 250 + 2 * 5_250 / 1024, "count " + top.getTickets());
+    }
+
+    private void add(String key, int times, long now) {
+        for (int i = 0; i < times; i++) {
+            hitters.add(List.of(key), now);
+        }
+    }
+
+    private static List<String> keys(List<Hotspot> hotspots) {
+        return hotspots.stream().map(Hotspot::getKey).collect(Collectors.toList());
+    }
+}
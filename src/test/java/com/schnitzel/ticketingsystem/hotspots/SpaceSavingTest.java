@@ -0,0 +1,62 @@
+package com.schnitzel.ticketingsystem.hotspots;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTest {
+
+    @Test
+    void keysAboveTotalOverCapacityAreAlwaysTracked() {
+        SpaceSaving summary = new SpaceSaving(10);
+        // 1000 one-off keys with 3 keys seen 200 times each mixed in: total 1600, so anything above 160 must stay
+        for (int i = 0; i < 1_000; i++) {
+            summary.offer("once-" + i);
+            if (i % 5 == 4) {
+                summary.offer("a");
+                summary.offer("b");
+                summary.offer("c");
+            }
+        }
+        Set<String> candidates = candidates(summary);
+        assertEquals(10, candidates.size());
+        assertTrue(candidates.containsAll(List.of("a", "b", "c")), "tracked: " + candidates);
+    }
+
+    @Test
+    void newKeyEvictsTheSmallestAndInheritsItsCount() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.offer("a");
+        summary.offer("a");
+        summary.offer("b");
+        summary.offer("c"); // replaces b (count 1), now counted 2
+
+        assertEquals(Set.of("a", "c"), candidates(summary));
+
+        summary.offer("d"); // a and c tie at 2: one of them goes
+        Set<String> after = candidates(summary);
+        assertEquals(2, after.size());
+        assertTrue(after.contains("d"));
+    }
+
+    @Test
+    void clearForgetsEverything() {
+        SpaceSaving summary = new SpaceSaving(4);
+        summary.offer("a");
+        summary.clear();
+        assertFalse(candidates(summary).contains("a"));
+    }
+
+    private static Set<String> candidates(SpaceSaving summary) {
+        List<String> into = new ArrayList<>();
+        summary.candidates(into);
+        return new HashSet<>(into);
+    }
+}
@@ -0,0 +1,62 @@
+package com.schnitzel.ticketingsystem.openindex;
+
+import com.schnitzel.ticketingsystem.Bench;
+import com.schnitzel.ticketingsystem.TicketPriority;
+import com.schnitzel.ticketingsystem.TicketStatus;
+import com.schnitzel.ticketingsystem.dto.TicketSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Query latency of the open-ticket index at 100k open tickets, the size the UI
+ * filters are meant to stay fast at. Run with mvn test -Dtest=OpenTicketIndexBenchmark
+ */
+class OpenTicketIndexBenchmark {
+
+    private static final int TICKETS = 100_000;
+
+    @Test
+    void queriesAt100kOpenTickets() {
+        Random random = new Random(1);
+        TicketStatus[] statuses = {TicketStatus.OPEN, TicketStatus.IN_PROGRESS, TicketStatus.RESOLVED};
+        List<TicketSummary> tickets = new ArrayList<>(TICKETS);
+        for (int i = 1; i <= TICKETS; i++) {
+            String assignee = random.nextInt(4) == 0 ? null : String.valueOf(random.nextInt(50));
+            tickets.add(OpenTicketIndexTest.ticket(i, statuses[random.nextInt(3)],
+                    TicketPriority.values()[random.nextInt(4)], assignee, random.nextInt(500_000)));
+        }
+        OpenTicketIndex index = new OpenTicketIndex();
+        index.load(tickets);
+
+        PageRequest newest = PageRequest.of(0, 25, Sort.by(Sort.Direction.DESC, "requestedTime"));
+        PageRequest byPriority = PageRequest.of(0, 25, Sort.by(Sort.Direction.DESC, "priority"));
+        List<TicketStatus> open = List.of(TicketStatus.OPEN, TicketStatus.IN_PROGRESS);
+        List<TicketPriority> high = List.of(TicketPriority.HIGH, TicketPriority.URGENT);
+
+        Bench.nanosPerOp("first page, no filter, newest first", 200,
+                i -> index.query(null, null, null, newest).getTotalElements());
+        Bench.nanosPerOp("first page, open statuses, by priority", 200,
+                i -> index.query(open, null, null, byPriority).getTotalElements());
+        Bench.nanosPerOp("first page, open + HIGH/URGENT, by priority", 200,
+                i -> index.query(open, high, null, byPriority).getTotalElements());
+        Bench.nanosPerOp("first page, one assignee, newest first", 1000,
+                i -> index.query(null, null, "7", newest).getTotalElements());
+        Bench.nanosPerOp("page 200, open statuses, newest first", 100,
+                i -> index.query(open, null, null, PageRequest.of(200, 25, newest.getSort())).getTotalElements());
+        Bench.nanosPerOp("first page, open statuses, by subject", 20,
+                i -> index.query(open, null, null,
+                        PageRequest.of(0, 25, Sort.by(Sort.Direction.ASC, "subject"))).getTotalElements());
+        Bench.nanosPerOp("update one ticket", 100_000, i -> {
+            int id = 1 + (i % TICKETS);
+            index.apply((long) id, Optional.of(OpenTicketIndexTest.ticket(id, TicketStatus.IN_PROGRESS,
+                    TicketPriority.HIGH, "7", i % 500_000)));
+            return id;
+        });
+    }
+}
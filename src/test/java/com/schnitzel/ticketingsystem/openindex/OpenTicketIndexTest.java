@@ -0,0 +1,148 @@
+package com.schnitzel.ticketingsystem.openindex;
+
+import com.schnitzel.ticketingsystem.TicketPriority;
+import com.schnitzel.ticketingsystem.TicketStatus;
+import com.schnitzel.ticketingsystem.dto.TicketSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OpenTicketIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 8, 0);
+
+    private final OpenTicketIndex index = new OpenTicketIndex();
+
+    @Test
+    void filtersCombineStatusPriorityAndAssignee() {
+        index.load(List.of(
+                ticket(1, TicketStatus.OPEN, TicketPriority.HIGH, null, 0),
+                ticket(2, TicketStatus.OPEN, TicketPriority.LOW, "7", 1),
+                ticket(3, TicketStatus.IN_PROGRESS, TicketPriority.HIGH, "7", 2),
+                ticket(4, TicketStatus.RESOLVED, null, " 7 ", 3)));
+
+        assertEquals(List.of(3L, 1L), ids(index.query(null, List.of(TicketPriority.HIGH), null, newestFirst(10))));
+        assertEquals(List.of(4L, 3L, 2L), ids(index.query(null, null, "7", newestFirst(10))));
+        assertEquals(List.of(1L), ids(index.query(List.of(TicketStatus.OPEN), null, "", newestFirst(10))));
+        assertEquals(List.of(3L), ids(index.query(List.of(TicketStatus.IN_PROGRESS, TicketStatus.RESOLVED),
+                List.of(TicketPriority.HIGH), "7", newestFirst(10))));
+        assertEquals(0, index.query(null, null, "nobody", newestFirst(10)).getTotalElements());
+    }
+
+    @Test
+    void prioritySortPutsOldestFirstWithinAPriorityAndNoPriorityLast() {
+        index.load(List.of(
+                ticket(1, TicketStatus.OPEN, TicketPriority.LOW, null, 0),
+                ticket(2, TicketStatus.OPEN, null, null, 1),
+                ticket(3, TicketStatus.OPEN, TicketPriority.URGENT, null, 2),
+                ticket(4, TicketStatus.OPEN, TicketPriority.URGENT, null, 1),
+                ticket(5, TicketStatus.OPEN, TicketPriority.MEDIUM, null, 3)));
+
+        assertEquals(List.of(4L, 3L, 5L, 1L, 2L),
+                ids(index.query(null, null, null, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "priority")))));
+        assertEquals(List.of(2L, 1L, 5L, 4L, 3L),
+                ids(index.query(null, null, null, PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "priority")))));
+    }
+
+    @Test
+    void subjectSortIgnoresCase() {
+        index.load(List.of(
+                ticket(1, "printer", 0), ticket(2, "Email", 1), ticket(3, "VPN", 2), ticket(4, null, 3)));
+        assertEquals(List.of(4L, 2L, 1L, 3L),
+                ids(index.query(null, null, null, PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "subject")))));
+    }
+
+    @Test
+    void everyPageMatchesAFullSort() {
+        Random random = new Random(42);
+        List<TicketSummary> tickets = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            TicketPriority priority = TicketPriority.values()[random.nextInt(4)];
+            tickets.add(ticket(i, TicketStatus.OPEN, priority, null, random.nextInt(500)));
+        }
+        index.load(tickets);
+
+        // Ties on time are broken by slot, i.e. load order here
+        Comparator<TicketSummary> expectedOrder = Comparator.comparing(TicketSummary::getPriority).reversed()
+                .thenComparing(TicketSummary::getRequestedTime)
+                .thenComparing(TicketSummary::getTicketId);
+        List<Long> expected = tickets.stream().sorted(expectedOrder)
+                .map(TicketSummary::getTicketId).collect(Collectors.toList());
+
+        // Small pages use the bounded heap, large ones the full sort; both must agree
+        for (int size : new int[] {7, 25, 600}) {
+            for (int page = 0; page * size < 2000; page += 3) {
+                Page<TicketSummary> result = index.query(null, null, null,
+                        PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "priority")));
+                int from = page * size;
+                assertEquals(expected.subList(from, Math.min(2000, from + size)), ids(result), "page " + page + " of " + size);
+                assertEquals(2000, result.getTotalElements());
+            }
+        }
+    }
+
+    @Test
+    void updatesMoveBetweenBitmapsAndClosingRemoves() {
+        index.load(List.of(ticket(1, TicketStatus.OPEN, TicketPriority.LOW, null, 0),
+                           ticket(2, TicketStatus.OPEN, TicketPriority.LOW, null, 1)));
+
+        index.apply(1L, Optional.of(ticket(1, TicketStatus.IN_PROGRESS, TicketPriority.HIGH, "7", 0)));
+        assertEquals(List.of(2L), ids(index.query(List.of(TicketStatus.OPEN), null, null, newestFirst(10))));
+        assertEquals(List.of(1L), ids(index.query(null, List.of(TicketPriority.HIGH), "7", newestFirst(10))));
+        assertEquals(List.of(2L), ids(index.query(null, null, "", newestFirst(10))));
+
+        index.apply(2L, Optional.of(ticket(2, TicketStatus.CLOSED, TicketPriority.LOW, null, 1)));
+        index.apply(1L, Optional.empty());
+        assertEquals(0, index.size());
+
+        // Freed slots are reused
+        index.apply(3L, Optional.of(ticket(3, TicketStatus.OPEN, TicketPriority.LOW, null, 2)));
+        assertEquals(List.of(3L), ids(index.query(null, List.of(TicketPriority.LOW), null, newestFirst(10))));
+    }
+
+    @Test
+    void pageBeyondTheEndIsEmptyWithTotal() {
+        index.load(List.of(ticket(1, TicketStatus.OPEN, TicketPriority.LOW, null, 0)));
+        Page<TicketSummary> page = index.query(null, null, null, PageRequest.of(5, 10));
+        assertEquals(0, page.getContent().size());
+        assertEquals(1, page.getTotalElements());
+    }
+
+    @Test
+    void rejectsUnknownSortAndQueriesBeforeLoad() {
+        assertThrows(IllegalStateException.class, () -> index.query(null, null, null, newestFirst(10)));
+        index.load(List.of(ticket(1, TicketStatus.OPEN, TicketPriority.LOW, null, 0)));
+        assertThrows(IllegalArgumentException.class, () -> index.query(null, null, null,
+                PageRequest.of(0, 10, Sort.by("fullName"))));
+    }
+
+    static TicketSummary ticket(long id, TicketStatus status, TicketPriority priority, String assignee, int minutes) {
+        return new TicketSummary(id, "Employee " + id, "Subject " + id, status, priority, assignee,
+                START.plusMinutes(minutes), null, null);
+    }
+
+    private static TicketSummary ticket(long id, String subject, int minutes) {
+        return new TicketSummary(id, "Employee " + id, subject, TicketStatus.OPEN, TicketPriority.LOW, null,
+                START.plusMinutes(minutes), null, null);
+    }
+
+    private static PageRequest newestFirst(int size) {
+        return PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "requestedTime"));
+    }
+
+    private static List<Long> ids(Page<TicketSummary> page) {
+        return page.getContent().stream().map(TicketSummary::getTicketId).collect(Collectors.toList());
+    }
+}
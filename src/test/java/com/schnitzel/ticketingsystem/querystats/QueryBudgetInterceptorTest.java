@@ -0,0 +1,146 @@
+package com.schnitzel.ticketingsystem.querystats;
+
+import com.schnitzel.ticketingsystem.TicketController;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * GET /api/tickets/{id} has @QueryBudget(2). Statements go through the real
+ * InstrumentedDataSource over a fake driver, so they are counted the way they
+ * are in the running app.
+ */
+class QueryBudgetInterceptorTest {
+
+    private static final String ENDPOINT = "GET /api/tickets/{id}";
+
+    private final QueryStats queryStats = new QueryStats();
+    private final DataSource dataSource = new InstrumentedDataSource(fakeDataSource(), () -> queryStats);
+
+    QueryBudgetInterceptorTest() {
+        ReflectionTestUtils.setField(queryStats, "slowMs", 200L);
+    }
+
+    @Test
+    void strictBudgetFailsTheStatementOverIt() throws Exception {
+        QueryBudgetInterceptor interceptor = interceptor(true);
+        MockHttpServletRequest request = getTicketRequest();
+        Object handler = getTicketHandler();
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler);
+        QueryBudgetExceededException exceeded;
+        try (Connection connection = dataSource.getConnection()) {
+            runStatement(connection);
+            runStatement(connection);
+            exceeded = assertThrows(QueryBudgetExceededException.class, () -> runStatement(connection));
+        } finally {
+            interceptor.afterCompletion(request, new MockHttpServletResponse(), handler, null);
+        }
+
+        assertTrue(exceeded.getMessage().startsWith(ENDPOINT), exceeded.getMessage());
+        EndpointQueryStat stat = endpointStat();
+        assertEquals(2, stat.getBudget());
+        assertEquals(1, stat.getOverBudget());
+        assertNull(QueryScope.current());
+    }
+
+    @Test
+    void lenientBudgetLetsTheRequestFinishAndCountsIt() throws Exception {
+        QueryBudgetInterceptor interceptor = interceptor(false);
+        MockHttpServletRequest request = getTicketRequest();
+        Object handler = getTicketHandler();
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler);
+        try (Connection connection = dataSource.getConnection()) {
+            for (int i = 0; i < 3; i++) {
+                runStatement(connection);
+            }
+        } finally {
+            interceptor.afterCompletion(request, new MockHttpServletResponse(), handler, null);
+        }
+
+        EndpointQueryStat stat = endpointStat();
+        assertEquals(3, stat.getMaxQueries());
+        assertEquals(1, stat.getOverBudget());
+    }
+
+    @Test
+    void withinBudgetIsNotCounted() throws Exception {
+        QueryBudgetInterceptor interceptor = interceptor(true);
+        MockHttpServletRequest request = getTicketRequest();
+        Object handler = getTicketHandler();
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler);
+        try (Connection connection = dataSource.getConnection()) {
+            runStatement(connection);
+            runStatement(connection);
+        } finally {
+            interceptor.afterCompletion(request, new MockHttpServletResponse(), handler, null);
+        }
+
+        EndpointQueryStat stat = endpointStat();
+        assertEquals(2, stat.getQueries());
+        assertEquals(0, stat.getOverBudget());
+    }
+
+    private QueryBudgetInterceptor interceptor(boolean strict) {
+        QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor();
+        ReflectionTestUtils.setField(interceptor, "queryStats", queryStats);
+        ReflectionTestUtils.setField(interceptor, "defaultBudget", -1);
+        ReflectionTestUtils.setField(interceptor, "strict", strict);
+        return interceptor;
+    }
+
+    private static MockHttpServletRequest getTicketRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tickets/7");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/tickets/{id}");
+        return request;
+    }
+
+    private static HandlerMethod getTicketHandler() throws NoSuchMethodException {
+        return new HandlerMethod(new TicketController(), TicketController.class.getMethod("getTicketById", Long.class));
+    }
+
+    private static void runStatement(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("UPDATE ticket SET priority = ? WHERE ticket_id = ?")) {
+            statement.executeUpdate();
+        }
+    }
+
+    private EndpointQueryStat endpointStat() {
+        return queryStats.report(10).getEndpoints().stream()
+                .filter(stat -> stat.getEndpoint().equals(ENDPOINT))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    // A driver that accepts every statement and updates one row
+    private static DataSource fakeDataSource() {
+        PreparedStatement statement = fake(PreparedStatement.class, (proxy, method, args) ->
+                method.getName().equals("executeUpdate") ? 1 : null);
+        Connection connection = fake(Connection.class, (proxy, method, args) ->
+                method.getName().equals("prepareStatement") ? statement : null);
+        return fake(DataSource.class, (proxy, method, args) ->
+                method.getName().equals("getConnection") ? connection : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(QueryBudgetInterceptorTest.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+}
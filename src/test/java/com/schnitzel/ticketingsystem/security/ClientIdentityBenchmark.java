@@ -0,0 +1,121 @@
+package com.schnitzel.ticketingsystem.security;
+
+import com.schnitzel.ticketingsystem.Bench;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Client IP lookup by ClientIdentityResolver next to the header walk it replaced
+ * (copied below from NetworkUtils.getClientIpAddress, minus its logging, so only
+ * the parsing is compared), and the trusted-proxy trie next to the old regex
+ * private-range check:
+ *
+ *   mvn test -Dtest=ClientIdentityBenchmark
+ */
+class ClientIdentityBenchmark {
+
+    private static final int OPS = 200_000;
+
+    private final ClientIdentityResolver resolver = new ClientIdentityResolver("127.0.0.0/8,::1/128,10.0.0.0/8");
+
+    @Test
+    void forwardedClientIp() {
+        MockHttpServletRequest request = request("127.0.0.1");
+        request.addHeader("X-Forwarded-For", "198.51.100.23, 10.0.0.5, 10.0.0.6");
+        assertEquals("198.51.100.23", resolver.resolveIp(request, request.getHeader("X-Forwarded-For")));
+
+        compare("3-hop X-Forwarded-For", request);
+    }
+
+    @Test
+    void directClientIp() {
+        MockHttpServletRequest request = request("10.1.2.3");
+        assertEquals("10.1.2.3", resolver.resolveIp(request, null));
+
+        compare("direct, no forwarding headers", request);
+    }
+
+    @Test
+    void spoofedHeaderFromUntrustedPeer() {
+        MockHttpServletRequest request = request("203.0.113.9");
+        request.addHeader("X-Forwarded-For", "10.0.0.1");
+
+        // The old walk believed the header; the resolver only believes trusted proxies
+        assertEquals("10.0.0.1", legacyClientIp(request));
+        assertEquals("203.0.113.9", resolver.resolveIp(request, request.getHeader("X-Forwarded-For")));
+    }
+
+    @Test
+    void privateRangeCheck() {
+        TrustedProxyMatcher privateRanges = TrustedProxyMatcher.parse(
+                "10.0.0.0/8,172.16.0.0/12,192.168.0.0/16,127.0.0.0/8,169.254.0.0/16,fc00::/7,fe80::/10");
+        String[] addresses = {"10.20.30.40", "172.20.1.1", "172.40.1.1", "192.168.1.10", "8.8.8.8", "fd00::1", "2001:db8::1"};
+        for (String address : addresses) {
+            assertEquals(legacyIsInternal(address), privateRanges.matches(address), address);
+        }
+
+        Bench.nanosPerOp("private range, regex (old)", OPS, i -> legacyIsInternal(addresses[i % addresses.length]) ? 1 : 0);
+        Bench.nanosPerOp("private range, prefix trie", OPS, i -> privateRanges.matches(addresses[i % addresses.length]) ? 1 : 0);
+        Bench.bytesPerOp("private range, regex (old)", OPS, i -> legacyIsInternal(addresses[i % addresses.length]) ? 1 : 0);
+        Bench.bytesPerOp("private range, prefix trie", OPS, i -> privateRanges.matches(addresses[i % addresses.length]) ? 1 : 0);
+    }
+
+    private void compare(String name, MockHttpServletRequest request) {
+        // whoami used to look the IP up twice per request; the resolver once
+        Bench.nanosPerOp(name + ", header walk x2 (old)", OPS, i ->
+                legacyClientIp(request).length() + legacyClientIp(request).length());
+        Bench.nanosPerOp(name + ", resolver", OPS, i ->
+                resolver.resolveIp(request, request.getHeader("X-Forwarded-For")).length());
+        Bench.bytesPerOp(name + ", header walk x2 (old)", OPS, i ->
+                legacyClientIp(request).length() + legacyClientIp(request).length());
+        Bench.bytesPerOp(name + ", resolver", OPS, i ->
+                resolver.resolveIp(request, request.getHeader("X-Forwarded-For")).length());
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/whoami");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
+        return request;
+    }
+
+    private static final String[] LEGACY_IP_HEADERS = {
+        "X-Forwarded-For", "X-Real-IP", "Proxy-Client-IP", "WL-Proxy-Client-IP", "HTTP_X_FORWARDED_FOR",
+        "HTTP_X_FORWARDED", "HTTP_X_CLUSTER_CLIENT_IP", "HTTP_CLIENT_IP", "HTTP_FORWARDED_FOR",
+        "HTTP_FORWARDED", "HTTP_VIA", "CF-Connecting-IP", "True-Client-IP"
+    };
+
+    private static String legacyClientIp(MockHttpServletRequest request) {
+        for (String header : LEGACY_IP_HEADERS) {
+            String ipList = request.getHeader(header);
+            if (ipList != null && ipList.length() != 0 && !"unknown".equalsIgnoreCase(ipList)) {
+                for (String ip : ipList.split(",")) {
+                    String cleanedIp = ip.trim();
+                    if (!cleanedIp.isEmpty() && !"unknown".equalsIgnoreCase(cleanedIp)
+                            && !"127.0.0.1".equals(cleanedIp) && !"::1".equals(cleanedIp)
+                            && !"0:0:0:0:0:0:0:1".equals(cleanedIp) && !"localhost".equalsIgnoreCase(cleanedIp)) {
+                        return cleanedIp;
+                    }
+                }
+            }
+        }
+        String remoteAddr = request.getRemoteAddr();
+        if ("0:0:0:0:0:0:0:1".equals(remoteAddr) || "::1".equals(remoteAddr)) {
+            remoteAddr = "127.0.0.1";
+        }
+        return remoteAddr != null ? remoteAddr : "Unknown";
+    }
+
+    private static boolean legacyIsInternal(String ip) {
+        return ip.startsWith("10.") ||
+               ip.startsWith("192.168.") ||
+               ip.matches("172\\.(1[6-9]|2[0-9]|3[0-1])\\..*") ||
+               ip.startsWith("127.") ||
+               ip.startsWith("169.254.") ||
+               ip.startsWith("fc") ||
+               ip.startsWith("fd") ||
+               ip.startsWith("fe80:");
+    }
+}
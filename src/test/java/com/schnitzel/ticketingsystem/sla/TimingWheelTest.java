@@ -0,0 +1,100 @@
+package com.schnitzel.ticketingsystem.sla;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    @Test
+    void firesOnItsTickAndNotBefore() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 10_000);
+        wheel.schedule("a", 15_000);
+
+        assertEquals(List.of(), wheel.advance(14_999));
+        assertEquals(List.of("a"), wheel.advance(15_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlineFiresOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 10_000);
+        wheel.schedule("late", 1_000);
+        assertEquals(List.of("late"), wheel.advance(10_000));
+    }
+
+    @Test
+    void expiredKeysComeOutInDeadlineOrder() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule(3, 300);
+        wheel.schedule(1, 5);
+        wheel.schedule(2, 70);
+        assertEquals(List.of(1, 2, 3), wheel.advance(1_000));
+    }
+
+    @Test
+    void rescheduleMovesAndCancelRemoves() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule("moved", 10);
+        wheel.schedule("moved", 5_000);
+        wheel.schedule("cancelled", 20);
+        assertTrue(wheel.cancel("cancelled"));
+        assertFalse(wheel.cancel("cancelled"));
+        assertEquals(1, wheel.size());
+
+        assertEquals(List.of(), wheel.advance(4_999));
+        assertEquals(List.of("moved"), wheel.advance(5_000));
+    }
+
+    @Test
+    void cascadesThroughEveryLevel() {
+        // Deadlines up to 64^3 * 2 ticks away reach level 3, and each must fire on its exact tick
+        assertFiresExactly(0, 64L * 64 * 64 * 2, 2_000, 1);
+    }
+
+    @Test
+    void rollsOverWhenAllLevelsWrapAtOnce() {
+        // Start just below 2^30: levels 0-4 all wrap on the same tick
+        assertFiresExactly((1L << 30) - 3_000, 6_000, 2_000, 2);
+        assertFiresExactly((1L << 24) - 100, 64L * 64 * 3, 2_000, 3);
+    }
+
+    @Test
+    void clearDropsEverything() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, 0);
+        for (int i = 0; i < 100; i++) {
+            wheel.schedule(i, i * 1_000L);
+        }
+        wheel.clear();
+        assertEquals(0, wheel.size());
+        assertEquals(List.of(), wheel.advance(200_000));
+    }
+
+    private static void assertFiresExactly(long startTick, long maxDelay, int timers, long seed) {
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, startTick);
+        Random random = new Random(seed);
+        TreeMap<Long, List<Integer>> due = new TreeMap<>();
+        for (int key = 0; key < timers; key++) {
+            long tick = startTick + 1 + (long) (random.nextDouble() * maxDelay);
+            wheel.schedule(key, tick);
+            due.computeIfAbsent(tick, t -> new ArrayList<>()).add(key);
+        }
+
+        for (Map.Entry<Long, List<Integer>> entry : due.entrySet()) {
+            long tick = entry.getKey();
+            assertEquals(List.of(), wheel.advance(tick - 1), "fired early before tick " + tick);
+            List<Integer> fired = wheel.advance(tick);
+            fired.sort(null);
+            assertEquals(entry.getValue(), fired, "tick " + tick);
+        }
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,164 @@
+package com.schnitzel.ticketingsystem.userauth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.schnitzel.ticketingsystem.Bench;
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.TicketPriority;
+import com.schnitzel.ticketingsystem.TicketStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A shift-start login storm (200 agents signing in over and over) next to
+ * ticket requests, with BCrypt run on the request threads versus on
+ * CredentialService's bounded pool:
+ *
+ *   mvn test -Dtest=CredentialServiceBenchmark
+ *
+ * Ticket requests are stood in for by JSON-encoding a page of 25 tickets on
+ * TICKET_THREADS threads; the users come from an in-memory repository.
+ */
+class CredentialServiceBenchmark {
+
+    private static final int STRENGTH = 10;
+    private static final int AGENTS = 200;
+    private static final int TICKET_THREADS = 4;
+    private static final long DURATION_MS = 5_000;
+    private static final String PASSWORD = "correct horse battery staple";
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(STRENGTH);
+    private final User user = user(passwordEncoder.encode(PASSWORD));
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final List<Ticket> page = page();
+
+    @Test
+    void ticketThroughputDuringLoginStorm() throws Exception {
+        System.out.println("cores: " + Runtime.getRuntime().availableProcessors() + ", bcrypt strength " + STRENGTH);
+        double alone = ticketRequests("ticket pages/s, no logins");
+
+        AtomicLong logins = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        double onRequestThreads = duringStorm("ticket pages/s, bcrypt on request threads", () -> {
+            if (passwordEncoder.matches(PASSWORD, user.getPassword())) {
+                logins.incrementAndGet();
+            }
+        });
+        printLogins(logins, rejected, alone, onRequestThreads);
+
+        CredentialService credentialService = credentialService();
+        logins.set(0);
+        double onPool = duringStorm("ticket pages/s, bcrypt on hashing pool", () -> {
+            try {
+                if (credentialService.authenticate(user.getEmail(), PASSWORD).isPresent()) {
+                    logins.incrementAndGet();
+                }
+            } catch (CredentialCheckBusyException e) {
+                rejected.incrementAndGet();
+                Thread.sleep(100); // the login page asks the user to retry
+            }
+        });
+        credentialService.stop();
+        printLogins(logins, rejected, alone, onPool);
+    }
+
+    private interface Login {
+        void run() throws Exception;
+    }
+
+    private double duringStorm(String name, Login login) throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Thread> agents = new ArrayList<>();
+        for (int i = 0; i < AGENTS; i++) {
+            Thread agent = new Thread(() -> {
+                try {
+                    while (!stop.get()) {
+                        login.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }, "agent-" + i);
+            agent.setDaemon(true);
+            agent.start();
+            agents.add(agent);
+        }
+        try {
+            return ticketRequests(name);
+        } finally {
+            stop.set(true);
+            for (Thread agent : agents) {
+                agent.join();
+            }
+        }
+    }
+
+    private double ticketRequests(String name) throws InterruptedException {
+        return Bench.throughput(name, TICKET_THREADS, DURATION_MS, worker -> {
+            Bench.sink += objectMapper.writeValueAsBytes(page).length;
+            return true;
+        });
+    }
+
+    private static void printLogins(AtomicLong logins, AtomicLong rejected, double alone, double during) {
+        System.out.println(String.format("  %.1f%% of ticket throughput kept, %.0f logins/s, %d busy rejections",
+                100 * during / alone, logins.get() * 1000.0 / DURATION_MS, rejected.get()));
+    }
+
+    private CredentialService credentialService() {
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {UserRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByEmail" -> Optional.of(user);
+                    case "save" -> args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        CredentialService credentialService = new CredentialService();
+        ReflectionTestUtils.setField(credentialService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(credentialService, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(credentialService, "threads", 0);
+        ReflectionTestUtils.setField(credentialService, "queueCapacity", 64);
+        ReflectionTestUtils.setField(credentialService, "timeoutMs", 3000L);
+        credentialService.start();
+        return credentialService;
+    }
+
+    private static User user(String hash) {
+        User user = new User();
+        user.setEmail("agent@example.com");
+        user.setPassword(hash);
+        return user;
+    }
+
+    private static List<Ticket> page() {
+        List<Ticket> tickets = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            Ticket ticket = new Ticket();
+            ticket.setTicketId(id);
+            ticket.setFullName("Employee " + id);
+            ticket.setSubject("Printer on floor 3 offline");
+            ticket.setIntent("Cannot print from the shared queue since this morning. Restarting did not help.");
+            ticket.setTicketStatus(TicketStatus.OPEN);
+            ticket.setPriority(TicketPriority.MEDIUM);
+            ticket.setRequestedTime(LocalDateTime.now().minusHours(id));
+            tickets.add(ticket);
+        }
+        return tickets;
+    }
+}
@@ -0,0 +1,117 @@
+package com.schnitzel.ticketingsystem.wireformat;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schnitzel.ticketingsystem.Bench;
+import com.schnitzel.ticketingsystem.Ticket;
+import com.schnitzel.ticketingsystem.TicketPriority;
+import com.schnitzel.ticketingsystem.TicketStatus;
+import com.schnitzel.ticketingsystem.dto.TicketDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Size, encode and decode time of ticket lists (the GET /api/tickets and export
+ * payload) in each WireFormat, with mappers built the way WireFormatMappers
+ * builds them:
+ *
+ *   mvn test -Dtest=WireFormatBenchmark
+ */
+class WireFormatBenchmark {
+
+    private static final TypeReference<List<TicketDto>> TICKET_LIST = new TypeReference<>() {};
+
+    private final WireFormatMappers mappers = mappers();
+
+    @Test
+    void ticketListsByFormat() {
+        for (int size : new int[] {1_000, 10_000, 100_000}) {
+            List<TicketDto> tickets = tickets(size);
+            int rounds = Math.max(1, 100_000 / size);
+            int jsonBytes = encode(WireFormat.JSON, tickets).length;
+            for (WireFormat format : WireFormat.values()) {
+                ObjectMapper mapper = mappers.get(format);
+                byte[] encoded = encode(format, tickets);
+                assertEquals(size, decode(mapper, encoded).size());
+
+                String name = size + " tickets, " + format;
+                System.out.println(String.format("%-56s %9.0f KB (%.0f%% of JSON)",
+                        name, encoded.length / 1024.0, 100.0 * encoded.length / jsonBytes));
+                Bench.nanosPerOp(name + ", encode", rounds, i -> encode(format, tickets).length);
+                Bench.nanosPerOp(name + ", decode", rounds, i -> decode(mapper, encoded).size());
+            }
+        }
+    }
+
+    private byte[] encode(WireFormat format, List<TicketDto> tickets) {
+        try {
+            return mappers.get(format).writeValueAsBytes(tickets);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<TicketDto> decode(ObjectMapper mapper, byte[] encoded) {
+        try {
+            return mapper.readValue(encoded, TICKET_LIST);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static WireFormatMappers mappers() {
+        // Boot's builder bean is a prototype: a fresh builder per getObject()
+        ObjectProvider<?> builders = (ObjectProvider<?>) Proxy.newProxyInstance(WireFormatBenchmark.class.getClassLoader(),
+                new Class<?>[] {ObjectProvider.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getObject")) {
+                        return Jackson2ObjectMapperBuilder.json();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        WireFormatMappers mappers = new WireFormatMappers();
+        ReflectionTestUtils.setField(mappers, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(mappers, "builders", builders);
+        mappers.init();
+        return mappers;
+    }
+
+    private static List<TicketDto> tickets(int count) {
+        Random random = new Random(count);
+        LocalDateTime now = LocalDateTime.of(2026, 10, 1, 9, 0);
+        List<TicketDto> tickets = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            Ticket ticket = new Ticket();
+            ticket.setTicketId(id);
+            ticket.setFullName("Employee " + random.nextInt(500));
+            ticket.setSubject("Printer on floor " + random.nextInt(12) + " offline");
+            ticket.setIntent("Cannot print from the shared queue since this morning. Restarting the laptop did not help.");
+            ticket.setTicketStatus(TicketStatus.values()[random.nextInt(TicketStatus.values().length)]);
+            ticket.setPriority(TicketPriority.values()[random.nextInt(TicketPriority.values().length)]);
+            ticket.setRequestedTime(now.minusMinutes(id * 7));
+            ticket.setSlaDueAt(now.minusMinutes(id * 7).plusHours(8));
+            if (random.nextBoolean()) {
+                ticket.setAssignedPerson(String.valueOf(random.nextInt(40)));
+                ticket.setItComment("Replaced the toner, printing again.");
+                ticket.setClosedTime(now.minusMinutes(id * 7).plusHours(2));
+            }
+            TicketDto dto = TicketDto.fromTicket(ticket, null);
+            dto.setClientIpAddress("10.12." + random.nextInt(256) + "." + random.nextInt(256));
+            dto.setComputerName("PC-" + random.nextInt(5000));
+            dto.setUserAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 Chrome/141.0 Safari/537.36");
+            tickets.add(dto);
+        }
+        return tickets;
+    }
+}
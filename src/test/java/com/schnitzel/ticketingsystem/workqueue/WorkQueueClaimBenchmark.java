@@ -0,0 +1,145 @@
+package com.schnitzel.ticketingsystem.workqueue;
+
+import com.schnitzel.ticketingsystem.Bench;
+import com.schnitzel.ticketingsystem.TicketRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.jpa.repository.Query;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Claim-next throughput against a real PostgreSQL, 1 to 100 agents each on its
+ * own connection, using the query of TicketRepository.lockNextClaimable:
+ *
+ *   mvn test -Dtest=WorkQueueClaimBenchmark \
+ *       -Dbench.jdbc-url=jdbc:postgresql://localhost:5432/bench -Dbench.jdbc-user=... -Dbench.jdbc-password=...
+ *
+ * Works in its own schema, dropped afterwards. 100 agents need max_connections above 100.
+ */
+@EnabledIfSystemProperty(named = "bench.jdbc-url", matches = ".+")
+class WorkQueueClaimBenchmark {
+
+    private static final String SCHEMA = "bench_work_queue";
+    private static final int TICKETS = 500_000;
+    private static final long DURATION_MS = 5_000;
+
+    @Test
+    void claimThroughputByAgentCount() throws Exception {
+        String claimSql = TicketRepository.class.getMethod("lockNextClaimable", LocalDateTime.class)
+                .getAnnotation(Query.class).value().replace(":now", "?");
+
+        try (Connection admin = connect(); Statement statement = admin.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("CREATE TABLE " + SCHEMA + ".ticket (ticket_id BIGSERIAL PRIMARY KEY, ticket_status SMALLINT, " +
+                              "priority SMALLINT, assigned_person VARCHAR(255), claim_expires_at TIMESTAMP, " +
+                              "requested_time TIMESTAMP)");
+            // The indexes the app creates: Ticket's @Table and TicketStatusMigration
+            statement.execute("CREATE INDEX idx_ticket_status_priority ON " + SCHEMA + ".ticket (ticket_status, priority)");
+            statement.execute("CREATE INDEX idx_ticket_open_priority ON " + SCHEMA + ".ticket (priority DESC, requested_time) " +
+                              "WHERE ticket_status IN (0, 1)");
+        }
+
+        double single = 0;
+        try {
+            for (int agents : new int[] {1, 10, 25, 50, 100}) {
+                seed();
+                List<Connection> connections = new ArrayList<>();
+                for (int i = 0; i < agents; i++) {
+                    Connection connection = connect();
+                    connection.setAutoCommit(false);
+                    connections.add(connection);
+                }
+                AtomicLong claims = new AtomicLong();
+                double rate;
+                try {
+                    rate = Bench.throughput("claim next, " + agents + " agents", agents, DURATION_MS,
+                            agent -> claim(connections.get(agent), claimSql, agent, claims));
+                } finally {
+                    for (Connection connection : connections) {
+                        connection.close();
+                    }
+                }
+                if (agents == 1) {
+                    single = rate;
+                }
+                System.out.println(String.format("  %.1fx one agent, %d claims", rate / single, claims.get()));
+
+                // No ticket went to two agents: every claim left its own assigned row
+                assertEquals(claims.get(), countAssigned());
+            }
+        } finally {
+            try (Connection admin = connect(); Statement statement = admin.createStatement()) {
+                statement.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+            }
+        }
+    }
+
+    private static boolean claim(Connection connection, String claimSql, int agent, AtomicLong claims) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        Long ticketId = null;
+        try (PreparedStatement select = connection.prepareStatement(claimSql)) {
+            select.setTimestamp(1, Timestamp.valueOf(now));
+            try (ResultSet result = select.executeQuery()) {
+                if (result.next()) {
+                    ticketId = result.getLong("ticket_id");
+                }
+            }
+        }
+        if (ticketId == null) {
+            connection.commit();
+            return false;
+        }
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE ticket SET assigned_person = ?, claim_expires_at = ? WHERE ticket_id = ?")) {
+            update.setString(1, String.valueOf(agent + 1));
+            update.setTimestamp(2, Timestamp.valueOf(now.plusMinutes(10)));
+            update.setLong(3, ticketId);
+            update.executeUpdate();
+        }
+        connection.commit();
+        claims.incrementAndGet();
+        return true;
+    }
+
+    private static void seed() throws SQLException {
+        try (Connection admin = connect(); Statement statement = admin.createStatement()) {
+            statement.execute("TRUNCATE ticket");
+            statement.execute("INSERT INTO ticket (ticket_status, priority, requested_time) " +
+                              "SELECT 0, (i % 4)::smallint, now() - make_interval(secs => i) " +
+                              "FROM generate_series(1, " + TICKETS + ") i");
+            statement.execute("ANALYZE ticket");
+        }
+    }
+
+    private static long countAssigned() throws SQLException {
+        try (Connection admin = connect(); Statement statement = admin.createStatement()) {
+            try (ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM ticket WHERE assigned_person IS NOT NULL")) {
+                result.next();
+                return result.getLong(1);
+            }
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(System.getProperty("bench.jdbc-url"),
+                System.getProperty("bench.jdbc-user"), System.getProperty("bench.jdbc-password"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + SCHEMA + ", public");
+        }
+        return connection;
+    }
+}